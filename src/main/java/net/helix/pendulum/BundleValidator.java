@@ -9,12 +9,15 @@ import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.service.snapshot.Snapshot;
 import net.helix.pendulum.storage.Tangle;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.IntStream;
 
 /**
  * Validates bundles.
@@ -23,9 +26,35 @@ import java.util.Map;
  * transactions inside the bundle will be accepted by the network, or none. All transactions in a bundle have
  * the same bundle hash and are chained together via their trunks.
  *</p>
+ * <p>
+ * The signature fragments of a bundle are verified in parallel on the common fork join pool, every thread reuses its
+ * own sponges and buffers. Valid bundles are remembered by the hash of their tail, which commits to all transactions
+ * of the bundle through the trunks, so validating them again does not load or check anything.
+ *</p>
  */
 public class BundleValidator {
 
+    /**
+     * Maximum number of valid bundles that are remembered.
+     */
+    private static final int VALID_BUNDLES_CACHE_SIZE = 1024;
+
+    /**
+     * Minimum number of signature fragments of a bundle that are verified in parallel.
+     */
+    private static final int MIN_PARALLEL_FRAGMENTS = 2;
+
+    private static final Map<Hash, List<TransactionViewModel>> validBundles = Collections.synchronizedMap(
+            new LinkedHashMap<Hash, List<TransactionViewModel>>(VALID_BUNDLES_CACHE_SIZE * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Hash, List<TransactionViewModel>> eldest) {
+                    return size() > VALID_BUNDLES_CACHE_SIZE;
+                }
+            });
+
+    private static final ThreadLocal<SignatureVerifier> signatureVerifier =
+            ThreadLocal.withInitial(SignatureVerifier::new);
+
     /**
      * Fetches a bundle of transactions identified by the {@code tailHash} and validates the transactions.
      * Bundle is a group of transactions with the same bundle hash chained by their trunks.
@@ -51,7 +80,7 @@ public class BundleValidator {
      *
      * @implNote if {@code tailHash} was already invalidated/validated by a previous call to this method
      * then we don't validate it
-     * again.
+     * again. The transactions of remembered valid bundles are shared between the callers and must not be modified.
      *</p>
      * @param tangle used to fetch the bundle's transactions from the persistence layer
      * @param initialSnapshot the initial snapshot that defines the genesis for our ledger state
@@ -64,6 +93,13 @@ public class BundleValidator {
      */
     public static List<List<TransactionViewModel>> validate(Tangle tangle, Snapshot initialSnapshot, Hash tailHash) throws Exception {
 
+        List<TransactionViewModel> validBundle = validBundles.get(tailHash);
+        if (validBundle != null) {
+            List<List<TransactionViewModel>> transactions = new LinkedList<>();
+            transactions.add(validBundle);
+            return transactions;
+        }
+
         TransactionViewModel tail = TransactionViewModel.fromHash(tangle, tailHash);
         if (tail.getCurrentIndex() != 0 || tail.getValidity() == -1) {
             return Collections.EMPTY_LIST;
@@ -82,13 +118,10 @@ public class BundleValidator {
                 final long lastIndex = transactionViewModel.lastIndex();
                 long bundleValue = 0;
                 int i = 0;
-                final Sponge sha3Instance = SpongeFactory.create(SpongeFactory.Mode.S256);
-                final Sponge addressInstance = SpongeFactory.create(SpongeFactory.Mode.S256);
+                final Sponge sha3Instance = SpongeFactory.get(SpongeFactory.Mode.S256);
 
-                final byte[] addressBytes = new byte[TransactionViewModel.ADDRESS_SIZE];
                 final byte[] bundleHashBytes = new byte[TransactionViewModel.BUNDLE_SIZE];
-                byte[] normalizedBundle = new byte[TransactionViewModel.BUNDLE_SIZE];
-                byte[] digestBytes = new byte[Sha3.HASH_LENGTH];
+                byte[] normalizedBundle;
 
                 //here we iterate over the txs by checking the trunk of the current transaction
                 MAIN_LOOP:
@@ -124,37 +157,14 @@ public class BundleValidator {
                                     //normalizing the bundle in preparation for signature verification
                                     normalizedBundle = Winternitz.normalizedBundle(bundleHashBytes);
 
-                                    int offset = 0;
-                                    for (int j = 0; j < instanceTransactionViewModels.size(); ) {
-
-                                        transactionViewModel = instanceTransactionViewModels.get(j);
-                                        //if it is a spent transaction that should be signed
-                                        if (transactionViewModel.value() < 0) {
-                                            // let's verify the signature by recalculating the public address
-                                            addressInstance.reset();
-                                            do {
-                                                digestBytes = Winternitz.digest(SpongeFactory.Mode.S256, Arrays.copyOfRange(normalizedBundle, offset*Winternitz.NORMALIZED_FRAGMENT_LENGTH, (offset+1)*Winternitz.NORMALIZED_FRAGMENT_LENGTH),
-                                                        Arrays.copyOfRange(instanceTransactionViewModels.get(j).getBytes(), 0, TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE));
-                                                addressInstance.absorb(digestBytes,0, Sha3.HASH_LENGTH);
-                                                offset++;
-                                            } //loop to traverse signature fragments divided between transactions
-                                            while (++j < instanceTransactionViewModels.size()
-                                                    && instanceTransactionViewModels.get(j).getAddressHash().equals(transactionViewModel.getAddressHash())
-                                                    && instanceTransactionViewModels.get(j).value() == 0);
-
-                                            addressInstance.squeeze(addressBytes, 0, addressBytes.length);
-                                            //signature verification
-                                            if (! Arrays.equals(transactionViewModel.getAddressHash().bytes(), addressBytes)) {
-                                                instanceTransactionViewModels.get(0).setValidity(tangle, initialSnapshot, -1);
-                                                break MAIN_LOOP;
-                                            }
-                                        } else {
-                                            j++;
-                                        }
+                                    //signature verification
+                                    if (hasValidSignatures(instanceTransactionViewModels, normalizedBundle)) {
+                                        instanceTransactionViewModels.get(0).setValidity(tangle, initialSnapshot, 1);
+                                        rememberValidBundle(instanceTransactionViewModels);
+                                        transactions.add(instanceTransactionViewModels);
+                                    } else {
+                                        instanceTransactionViewModels.get(0).setValidity(tangle, initialSnapshot, -1);
                                     }
-                                    //should only be reached after the above for loop is done
-                                    instanceTransactionViewModels.get(0).setValidity(tangle, initialSnapshot, 1);
-                                    transactions.add(instanceTransactionViewModels);
                                 }
                                 //bundle hash verification failed
                                 else {
@@ -163,6 +173,7 @@ public class BundleValidator {
                             }
                             //bundle validity status is known
                             else {
+                                rememberValidBundle(instanceTransactionViewModels);
                                 transactions.add(instanceTransactionViewModels);
                             }
                         }
@@ -188,6 +199,116 @@ public class BundleValidator {
         return transactions;
     }
 
+    /**
+     * Verifies the signatures of all inputs of a bundle by recalculating their addresses.
+     * <p>
+     * An input is signed by its own transaction and the following transactions with the same address and a value of 0,
+     * each of them carries one signature fragment. The digests of all fragments are independent of each other, so they
+     * are calculated in parallel and absorbed into the addresses of their inputs afterwards.
+     * </p>
+     *
+     * @param transactionViewModels transactions of the bundle ordered by their index
+     * @param normalizedBundle normalized bundle hash
+     * @return {@code true} if every input is signed correctly
+     */
+    private static boolean hasValidSignatures(List<TransactionViewModel> transactionViewModels,
+                                              byte[] normalizedBundle) {
+        // every input as the indexes of its first and behind its last signing transaction
+        List<int[]> inputs = new ArrayList<>();
+        int fragments = 0;
+        for (int j = 0; j < transactionViewModels.size(); ) {
+            TransactionViewModel input = transactionViewModels.get(j);
+            if (input.value() < 0) {
+                int first = j;
+                while (++j < transactionViewModels.size()
+                        && transactionViewModels.get(j).getAddressHash().equals(input.getAddressHash())
+                        && transactionViewModels.get(j).value() == 0) {
+                    // the signature continues in this transaction
+                }
+                inputs.add(new int[]{first, j});
+                fragments += j - first;
+            } else {
+                j++;
+            }
+        }
+        if (inputs.isEmpty()) {
+            return true;
+        }
+
+        // the fragments are numbered across all inputs, like the fragments of the normalized bundle
+        final byte[][] signatureFragments = new byte[fragments][];
+        int fragment = 0;
+        for (int[] input : inputs) {
+            for (int j = input[0]; j < input[1]; j++) {
+                signatureFragments[fragment++] = transactionViewModels.get(j).getBytes();
+            }
+        }
+        final byte[] digests = new byte[fragments * Sha3.HASH_LENGTH];
+        IntStream fragmentIndexes = IntStream.range(0, fragments);
+        if (fragments >= MIN_PARALLEL_FRAGMENTS) {
+            fragmentIndexes = fragmentIndexes.parallel();
+        }
+        fragmentIndexes.forEach(i -> signatureVerifier.get().digest(normalizedBundle, i, signatureFragments[i], digests));
+
+        SignatureVerifier verifier = signatureVerifier.get();
+        fragment = 0;
+        for (int[] input : inputs) {
+            int inputFragments = input[1] - input[0];
+            if (!verifier.isAddress(transactionViewModels.get(input[0]).getAddressHash(), digests, fragment,
+                    inputFragments)) {
+                return false;
+            }
+            fragment += inputFragments;
+        }
+        return true;
+    }
+
+    private static void rememberValidBundle(List<TransactionViewModel> transactionViewModels) {
+        validBundles.put(transactionViewModels.get(0).getHash(), Collections.unmodifiableList(transactionViewModels));
+    }
+
+    /**
+     * The sponges and buffers of one thread that verifies signatures.
+     */
+    private static class SignatureVerifier {
+        private final Sponge fragmentSponge = SpongeFactory.create(SpongeFactory.Mode.S256);
+        private final Sponge addressSponge = SpongeFactory.create(SpongeFactory.Mode.S256);
+        private final byte[] buffer = new byte[Winternitz.FRAGMENT_LENGTH];
+        private final byte[] addressBytes = new byte[TransactionViewModel.ADDRESS_SIZE];
+
+        /**
+         * Calculates the digest of a signature fragment.
+         *
+         * @param normalizedBundle normalized bundle hash
+         * @param fragment number of the fragment across all inputs
+         * @param transactionBytes bytes of the transaction that carries the fragment
+         * @param digests receives the digest of the fragment at its number
+         */
+        private void digest(byte[] normalizedBundle, int fragment, byte[] transactionBytes, byte[] digests) {
+            Winternitz.digest(fragmentSponge, normalizedBundle, fragment * Winternitz.NORMALIZED_FRAGMENT_LENGTH,
+                    transactionBytes, TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_OFFSET, buffer, digests,
+                    fragment * Sha3.HASH_LENGTH);
+        }
+
+        /**
+         * Recalculates the address of an input from the digests of its fragments.
+         *
+         * @param address the address of the input
+         * @param digests the digests of all fragments
+         * @param firstFragment number of the first fragment of the input
+         * @param fragments number of fragments of the input
+         * @return {@code true} if the digests hash to the address
+         */
+        private boolean isAddress(Hash address, byte[] digests, int firstFragment, int fragments) {
+            addressSponge.reset();
+            for (int i = firstFragment; i < firstFragment + fragments; i++) {
+                addressSponge.absorb(digests, i * Sha3.HASH_LENGTH, Sha3.HASH_LENGTH);
+            }
+            addressSponge.squeeze(addressBytes, 0, addressBytes.length);
+            return Arrays.equals(address.bytes(), addressBytes);
+        }
+    }
+
     /**
      * Checks that the bundle's inputs and outputs are balanced.
      *
@@ -25,11 +25,10 @@ import net.helix.pendulum.service.spentaddresses.impl.SpentAddressesProviderImpl
 import net.helix.pendulum.service.spentaddresses.impl.SpentAddressesServiceImpl;
 import net.helix.pendulum.service.stats.TransactionStatsPublisher;
 import net.helix.pendulum.service.tipselection.EntryPointSelector;
-import net.helix.pendulum.service.tipselection.RatingCalculator;
 import net.helix.pendulum.service.tipselection.TailFinder;
 import net.helix.pendulum.service.tipselection.TipSelector;
 import net.helix.pendulum.service.tipselection.Walker;
-import net.helix.pendulum.service.tipselection.impl.CumulativeWeightCalculator;
+import net.helix.pendulum.service.tipselection.impl.CumulativeWeightIndex;
 import net.helix.pendulum.service.tipselection.impl.EntryPointSelectorImpl;
 import net.helix.pendulum.service.tipselection.impl.TailFinderImpl;
 import net.helix.pendulum.service.tipselection.impl.TipSelectorImpl;
@@ -43,6 +42,7 @@ import net.helix.pendulum.storage.Indexable;
 import net.helix.pendulum.storage.Persistable;
 import net.helix.pendulum.storage.PersistenceProvider;
 import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.storage.TransactionCache;
 import net.helix.pendulum.storage.rocksdb.RocksDBPersistenceProvider;
 import net.helix.pendulum.utils.Pair;
 import net.helix.pendulum.zmq.MessageQProviderImpl;
@@ -116,6 +116,7 @@ public class Pendulum {
     public final Replicator replicator;
     public final PendulumConfig configuration;
     public final TipsViewModel tipsViewModel;
+    public final CumulativeWeightIndex cumulativeWeightIndex;
     public final TipSelector tipsSelector;
     public final TransactionStatsPublisher transactionStatsPublisher;
     public final BundleValidator bundleValidator;
@@ -159,7 +160,9 @@ public class Pendulum {
         tangle = new Tangle();
         tipsViewModel = new TipsViewModel();
         transactionRequester = new TransactionRequester(tangle, snapshotProvider);
-        transactionValidator = new TransactionValidator(tangle, snapshotProvider, tipsViewModel, transactionRequester, configuration);
+        cumulativeWeightIndex = new CumulativeWeightIndex(tangle, snapshotProvider, configuration);
+        transactionValidator = new TransactionValidator(tangle, snapshotProvider, tipsViewModel, transactionRequester,
+                cumulativeWeightIndex, configuration);
         node = new Node(tangle, snapshotProvider, transactionValidator, transactionRequester, tipsViewModel,
                 latestMilestoneTracker, configuration);
         replicator = new Replicator(node, configuration);
@@ -189,11 +192,14 @@ public class Pendulum {
 
         if (configuration.isRevalidate()) {
             tangle.clearColumn(net.helix.pendulum.model.persistables.Round.class);
+            tangle.clearColumn(net.helix.pendulum.model.persistables.RoundConfirmations.class);
             tangle.clearColumn(net.helix.pendulum.model.StateDiff.class);
+            tangle.clearColumn(net.helix.pendulum.model.StateDiffCheckpoint.class);
             tangle.clearMetadata(net.helix.pendulum.model.persistables.Transaction.class);
         }
 
         transactionValidator.init(configuration.isTestnet(), configuration.getMwm());
+        cumulativeWeightIndex.start();
         tipsSolidifier.init();
         transactionRequester.init(configuration.getpRemoveRequest());
         udpReceiver.init();
@@ -260,7 +266,9 @@ public class Pendulum {
         tangle.clearColumn(net.helix.pendulum.model.persistables.BundleNonce.class);
         tangle.clearColumn(net.helix.pendulum.model.persistables.Tag.class);
         tangle.clearColumn(net.helix.pendulum.model.persistables.Round.class);
+        tangle.clearColumn(net.helix.pendulum.model.persistables.RoundConfirmations.class);
         tangle.clearColumn(net.helix.pendulum.model.StateDiff.class);
+        tangle.clearColumn(net.helix.pendulum.model.StateDiffCheckpoint.class);
         tangle.clearMetadata(net.helix.pendulum.model.persistables.Transaction.class);
 
         //rescan all tx & refill the columns
@@ -300,6 +308,7 @@ public class Pendulum {
         node.shutdown();
         udpReceiver.shutdown();
         replicator.shutdown();
+        cumulativeWeightIndex.shutdown();
         transactionValidator.shutdown();
         tangle.shutdown();
 
@@ -314,6 +323,9 @@ public class Pendulum {
                         configuration.getDbPath(),
                         configuration.getDbLogPath(),
                         configuration.getDbCacheSize(),
+                        configuration.getDbColumnFamilyProfiles(),
+                        configuration.isDbSyncWrites(),
+                        configuration.isDbStatistics(),
                         Tangle.COLUMN_FAMILIES,
                         Tangle.METADATA_COLUMN_FAMILY)
                 );
@@ -323,15 +335,17 @@ public class Pendulum {
                 throw new NotImplementedException("No such database type.");
             }
         }
+        if (configuration.getDbTransactionCacheSize() > 0) {
+            tangle.setTransactionCache(new TransactionCache(configuration.getDbTransactionCacheSize()));
+        }
     }
 
     private TipSelector createTipSelector(TipSelConfig config) {
         EntryPointSelector entryPointSelector = new EntryPointSelectorImpl(tangle, snapshotProvider,
                 latestMilestoneTracker);
-        RatingCalculator ratingCalculator = new CumulativeWeightCalculator(tangle, snapshotProvider);
         TailFinder tailFinder = new TailFinderImpl(tangle);
         Walker walker = new WalkerAlpha(tailFinder, tangle, new SecureRandom(), config);
-        return new TipSelectorImpl(tangle, snapshotProvider, ledgerService, entryPointSelector, ratingCalculator,
+        return new TipSelectorImpl(tangle, snapshotProvider, ledgerService, entryPointSelector, cumulativeWeightIndex,
                 walker, config);
     }
 }
\ No newline at end of file
@@ -9,19 +9,23 @@ import net.helix.pendulum.crypto.SpongeFactory;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.TransactionHash;
 import net.helix.pendulum.network.TransactionRequester;
+import net.helix.pendulum.service.snapshot.Snapshot;
 import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.service.tipselection.impl.CumulativeWeightIndex;
 import net.helix.pendulum.storage.Tangle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import static net.helix.pendulum.controllers.TransactionViewModel.PREFILLED_SLOT;
 import static net.helix.pendulum.controllers.TransactionViewModel.SIZE;
@@ -40,6 +44,7 @@ public class TransactionValidator {
     private final SnapshotProvider snapshotProvider;
     private final TipsViewModel tipsViewModel;
     private final TransactionRequester transactionRequester;
+    private final CumulativeWeightIndex cumulativeWeightIndex;
     private int minWeightMagnitude = 1;
     private PendulumConfig config;
     private static final long MAX_TIMESTAMP_FUTURE = 2L * 60L * 60L;
@@ -64,6 +69,28 @@ public class TransactionValidator {
     private final Set<Hash> newSolidTransactionsOne = new LinkedHashSet<>();
     private final Set<Hash> newSolidTransactionsTwo = new LinkedHashSet<>();
 
+    /////////////////////////////////fields for solidity checks//////////////////////////////////////
+
+    /**
+     * Number of slots of {@link #knownSolidHashes}, must be a power of two.
+     */
+    private static final int KNOWN_SOLID_CACHE_SIZE = 1 << 16;
+    /**
+     * Walks that analyzed more transactions than this don't keep their visited set for the next walk.
+     */
+    private static final int MAX_REUSED_WALK_SIZE = 1 << 14;
+    /**
+     * Direct mapped memo of transactions that {@link #checkSolidity(Hash, boolean, int)} found to be solid. It is
+     * shared by all threads, so that concurrent checks over overlapping cones stop where another check already proved
+     * the cone to be solid.
+     */
+    private final AtomicReferenceArray<Hash> knownSolidHashes = new AtomicReferenceArray<>(KNOWN_SOLID_CACHE_SIZE);
+    /**
+     * Visited set and queue of {@link #checkSolidity(Hash, boolean, int)}, reused by the walks of the same thread.
+     */
+    private final ThreadLocal<Set<Hash>> analyzedHashesOfWalk = ThreadLocal.withInitial(HashSet::new);
+    private final ThreadLocal<Deque<Hash>> nonAnalyzedTransactionsOfWalk = ThreadLocal.withInitial(ArrayDeque::new);
+
     /**
      * Constructor for Tangle Validator
      *
@@ -73,10 +100,24 @@ public class TransactionValidator {
      * @param transactionRequester used to request missing transactions from neighbors
      */
     TransactionValidator(Tangle tangle, SnapshotProvider snapshotProvider, TipsViewModel tipsViewModel, TransactionRequester transactionRequester, PendulumConfig config) {
+        this(tangle, snapshotProvider, tipsViewModel, transactionRequester, null, config);
+    }
+
+    /**
+     * Constructor for Tangle Validator
+     *
+     * @param tangle relays tangle data to and from the persistence layer
+     * @param snapshotProvider data provider for the snapshots that are relevant for the node
+     * @param tipsViewModel container that gets updated with the latest tips (transactions with no children)
+     * @param transactionRequester used to request missing transactions from neighbors
+     * @param cumulativeWeightIndex rating index that gets updated with every stored transaction (can be null)
+     */
+    TransactionValidator(Tangle tangle, SnapshotProvider snapshotProvider, TipsViewModel tipsViewModel, TransactionRequester transactionRequester, CumulativeWeightIndex cumulativeWeightIndex, PendulumConfig config) {
         this.tangle = tangle;
         this.snapshotProvider = snapshotProvider;
         this.tipsViewModel = tipsViewModel;
         this.transactionRequester = transactionRequester;
+        this.cumulativeWeightIndex = cumulativeWeightIndex;
         this.config = config;
     }
 
@@ -211,7 +252,7 @@ public class TransactionValidator {
      * @throws RuntimeException if validation fails
      */
     public TransactionViewModel validateBytes(final byte[] bytes, int minWeightMagnitude) {
-        TransactionViewModel transactionViewModel = new TransactionViewModel(bytes, TransactionHash.calculate(bytes, 0, bytes.length, SpongeFactory.create(SpongeFactory.Mode.S256)));
+        TransactionViewModel transactionViewModel = new TransactionViewModel(bytes, TransactionHash.calculate(bytes, 0, bytes.length, SpongeFactory.get(SpongeFactory.Mode.S256)));
         runValidation(transactionViewModel, minWeightMagnitude);
         return transactionViewModel;
     }
@@ -230,6 +271,28 @@ public class TransactionValidator {
         return transactionViewModel;
     }
 
+    /**
+     * Creates new transactions from many arrays of raw bytes and validates them with {@link #runValidation}. The
+     * hashes are calculated in one batch across all cores, see
+     * {@link TransactionHash#calculate(SpongeFactory.Mode, List)}, the transactions are validated in their order.
+     *
+     * @param transactions raw bytes of the transactions
+     * @param minWeightMagnitude minimal number of leading 0s in transaction for POW validation
+     * @return the transactions resulting from the raw bytes in their order if all of them are valid
+     * @throws RuntimeException if the validation of any transaction fails
+     */
+    public List<TransactionViewModel> validateBytes(final List<byte[]> transactions, int minWeightMagnitude) {
+        List<TransactionHash> hashes = TransactionHash.calculate(SpongeFactory.Mode.S256, transactions);
+        List<TransactionViewModel> transactionViewModels = new ArrayList<>(hashes.size());
+        int i = 0;
+        for (byte[] bytes : transactions) {
+            TransactionViewModel transactionViewModel = new TransactionViewModel(bytes, hashes.get(i++));
+            runValidation(transactionViewModel, minWeightMagnitude);
+            transactionViewModels.add(transactionViewModel);
+        }
+        return transactionViewModels;
+    }
+
     /**
      * This method does the same as {@link #checkSolidity(Hash, boolean, int)} but defaults to an unlimited amount
      * of transactions that are allowed to be traversed.
@@ -255,7 +318,8 @@ public class TransactionValidator {
      * tangle, it is possible to limit the amount of transactions that are allowed to be processed, while looking for
      * unsolid / missing approvees. This can be useful when trying to "interrupt" the solidification of one transaction
      * (if it takes too many steps) to give another one the chance to be solidified instead (i.e. prevent blocks in the
-     * solidification threads).
+     * solidification threads). Solid entry points and transactions that earlier checks found to be solid end the
+     * traversal without counting towards this limit.
      *
      * @param hash hash of the transactions that shall get checked
      * @param milestone true if the solidity check was issued while trying to solidify a milestone and false otherwise
@@ -264,55 +328,98 @@ public class TransactionValidator {
      * @throws Exception if anything goes wrong while trying to solidify the transaction
      */
     public boolean checkSolidity(Hash hash, boolean milestone, int maxProcessedTransactions) throws Exception {
-        if(fromHash(tangle, hash).isSolid()) {
+        if (isKnownSolid(hash)) {
             return true;
         }
-        Set<Hash> analyzedHashes = new HashSet<>(snapshotProvider.getInitialSnapshot().getSolidEntryPoints().keySet());
-        if(maxProcessedTransactions != Integer.MAX_VALUE) {
-            maxProcessedTransactions += analyzedHashes.size();
+        if(fromHash(tangle, hash).isSolid()) {
+            rememberSolid(hash);
+            return true;
         }
-        boolean solid = true;
-        final Queue<Hash> nonAnalyzedTransactions = new LinkedList<>(Collections.singleton(hash));
-        Hash hashPointer;
-        while ((hashPointer = nonAnalyzedTransactions.poll()) != null) {
-            if (analyzedHashes.add(hashPointer)) {
-                if(analyzedHashes.size() >= maxProcessedTransactions) {
+        // the solid entry points are consulted in place and don't count towards the limit
+        Snapshot initialSnapshot = snapshotProvider.getInitialSnapshot();
+        Set<Hash> analyzedHashes = analyzedHashesOfWalk.get();
+        Deque<Hash> nonAnalyzedTransactions = nonAnalyzedTransactionsOfWalk.get();
+        try {
+            boolean solid = true;
+            nonAnalyzedTransactions.offer(hash);
+            Hash hashPointer;
+            while ((hashPointer = nonAnalyzedTransactions.poll()) != null) {
+                if (isKnownSolid(hashPointer) || initialSnapshot.hasSolidEntryPoint(hashPointer)
+                        || !analyzedHashes.add(hashPointer)) {
+                    continue;
+                }
+                if (analyzedHashes.size() >= maxProcessedTransactions) {
                     return false;
                 }
 
                 final TransactionViewModel transaction = fromHash(tangle, hashPointer);
-                if(!transaction.isSolid() && !snapshotProvider.getInitialSnapshot().hasSolidEntryPoint(hashPointer)) {
-                    if (transaction.getType() == PREFILLED_SLOT) {
-                        solid = false;
+                if (transaction.isSolid()) {
+                    rememberSolid(hashPointer);
+                } else if (transaction.getType() == PREFILLED_SLOT) {
+                    solid = false;
 
-                        if (!transactionRequester.isTransactionRequested(hashPointer, milestone)) {
-                            transactionRequester.requestTransaction(hashPointer, milestone);
-                            break;
-                        }
-                    } else {
-                        // transaction of milestone bundle
-                        TransactionViewModel milestoneTx;
-                        if ((milestoneTx = transaction.isMilestoneBundle(tangle)) != null){
-                            Set<Hash> parents = RoundViewModel.getMilestoneTrunk(tangle, transaction, milestoneTx);
-                            parents.addAll(RoundViewModel.getMilestoneBranch(tangle, transaction, milestoneTx, config.getValidatorSecurity()));
-                            for (Hash parent : parents){
-                                nonAnalyzedTransactions.offer(parent);
-                            }
-                        }
-                        // normal transaction
-                        else {
-                            nonAnalyzedTransactions.offer(transaction.getTrunkTransactionHash());
-                            nonAnalyzedTransactions.offer(transaction.getBranchTransactionHash());
+                    if (!transactionRequester.isTransactionRequested(hashPointer, milestone)) {
+                        transactionRequester.requestTransaction(hashPointer, milestone);
+                        break;
+                    }
+                } else {
+                    // transaction of milestone bundle
+                    TransactionViewModel milestoneTx;
+                    if ((milestoneTx = transaction.isMilestoneBundle(tangle)) != null){
+                        Set<Hash> parents = RoundViewModel.getMilestoneTrunk(tangle, transaction, milestoneTx);
+                        parents.addAll(RoundViewModel.getMilestoneBranch(tangle, transaction, milestoneTx, config.getValidatorSecurity()));
+                        for (Hash parent : parents){
+                            nonAnalyzedTransactions.offer(parent);
                         }
                     }
+                    // normal transaction
+                    else {
+                        nonAnalyzedTransactions.offer(transaction.getTrunkTransactionHash());
+                        nonAnalyzedTransactions.offer(transaction.getBranchTransactionHash());
+                    }
                 }
             }
+            if (solid) {
+                updateSolidTransactions(tangle, initialSnapshot, analyzedHashes);
+                for (Hash analyzedHash : analyzedHashes) {
+                    rememberSolid(analyzedHash);
+                }
+            }
+            return solid;
+        } finally {
+            nonAnalyzedTransactions.clear();
+            if (analyzedHashes.size() > MAX_REUSED_WALK_SIZE) {
+                // don't keep the table of an exceptionally large walk alive, clearing it would be as expensive
+                analyzedHashesOfWalk.remove();
+            } else {
+                analyzedHashes.clear();
+            }
         }
-        if (solid) {
-            updateSolidTransactions(tangle, snapshotProvider.getInitialSnapshot(), analyzedHashes);
-        }
-        analyzedHashes.clear();
-        return solid;
+    }
+
+    /**
+     * Checks the memo of transactions that were already proven to be solid. A hit means that the transaction and its
+     * whole past cone are solid, a miss means nothing because the memo is lossy.
+     *
+     * @param hash hash of the transaction
+     * @return true if the transaction is known to be solid
+     */
+    private boolean isKnownSolid(Hash hash) {
+        return hash.equals(knownSolidHashes.get(knownSolidSlot(hash)));
+    }
+
+    /**
+     * Stores a solid transaction in the memo, replacing whatever hash occupied its slot before.
+     *
+     * @param hash hash of the solid transaction
+     */
+    private void rememberSolid(Hash hash) {
+        knownSolidHashes.lazySet(knownSolidSlot(hash), hash);
+    }
+
+    private int knownSolidSlot(Hash hash) {
+        int h = hash.hashCode();
+        return (h ^ (h >>> 16)) & (KNOWN_SOLID_CACHE_SIZE - 1);
     }
 
     public void addSolidTransaction(Hash hash) {
@@ -369,14 +476,19 @@ public class TransactionValidator {
                 Hash hash = cascadeIterator.next();
                 TransactionViewModel transaction = fromHash(tangle, hash);
                 Set<Hash> approvers = transaction.getApprovers(tangle).getHashes();
+                List<TransactionViewModel> newSolidApprovers = new ArrayList<>();
                 for(Hash h: approvers) {
                     TransactionViewModel tx = fromHash(tangle, h);
                     if(quietQuickSetSolid(tx)) {
-                        tx.update(tangle, snapshotProvider.getInitialSnapshot(), "solid|height");
-                        tipsViewModel.setSolid(h);
-                        addSolidTransaction(h);
+                        newSolidApprovers.add(tx);
                     }
                 }
+                TransactionViewModel.updateBatch(tangle, snapshotProvider.getInitialSnapshot(), newSolidApprovers,
+                        "solid|height");
+                for (TransactionViewModel tx : newSolidApprovers) {
+                    tipsViewModel.setSolid(tx.getHash());
+                    addSolidTransaction(tx.getHash());
+                }
             } catch (Exception e) {
                 log.error("Error while propagating solidity upwards", e);
             }
@@ -396,6 +508,8 @@ public class TransactionValidator {
      *     <li>If {@code transactionViewModel} has no children (approvers), we add it to the node's active tip list.</li>
      *     <li>Removes {@code transactionViewModel}'s parents (branch & trunk) from the node's tip list
      *     (if they're present there).</li>
+     *     <li>Adds {@code transactionViewModel} to the cumulative weight index (if one is used), which credits all
+     *     the transactions it approves.</li>
      *     <li>Attempts to quickly solidify {@code transactionViewModel} by checking whether its direct parents
      *     are solid. If solid we add it to the queue transaction solidification thread to help it propagate the
      *     solidification to the approving child transactions.</li>
@@ -410,7 +524,7 @@ public class TransactionValidator {
     //what transaction we gossip.
     public void updateStatus(TransactionViewModel transactionViewModel) throws Exception {
         transactionRequester.clearTransactionRequest(transactionViewModel.getHash());
-        if(transactionViewModel.getApprovers(tangle).size() == 0) {
+        if(transactionViewModel.getApprovers(tangle).isEmpty()) {
             tipsViewModel.addTipHash(transactionViewModel.getHash());
         } else {
             TransactionViewModel milestoneTx;
@@ -426,6 +540,10 @@ public class TransactionValidator {
             }
         }
 
+        if (cumulativeWeightIndex != null) {
+            cumulativeWeightIndex.addTransaction(transactionViewModel);
+        }
+
         if(quickSetSolid(transactionViewModel)) {
             transactionViewModel.update(tangle, snapshotProvider.getInitialSnapshot(), "solid|height");
             tipsViewModel.setSolid(transactionViewModel.getHash());
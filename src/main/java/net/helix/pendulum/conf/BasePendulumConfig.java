@@ -64,6 +64,10 @@ public abstract class BasePendulumConfig implements PendulumConfig {
     protected String mainDb = Defaults.ROCKS_DB;
     protected boolean revalidate = Defaults.REVALIDATE;
     protected boolean rescanDb = Defaults.RESCAN_DB;
+    protected Map<String, ColumnFamilyProfile> dbColumnFamilyProfiles = Defaults.DB_COLUMN_FAMILY_PROFILES;
+    protected boolean dbSyncWrites = Defaults.DB_SYNC_WRITES;
+    protected boolean dbStatistics = Defaults.DB_STATISTICS;
+    protected int dbTransactionCacheSize = Defaults.DB_TRANSACTION_CACHE_SIZE;
 
     //Protocol
     protected double pReplyRandomTip = Defaults.P_REPLY_RANDOM_TIP;
@@ -80,6 +84,11 @@ public abstract class BasePendulumConfig implements PendulumConfig {
     protected String zmqIpc = Defaults.ZMQ_IPC;
     protected int qSizeNode = Defaults.QUEUE_SIZE;
     protected int cacheSizeBytes = Defaults.CACHE_SIZE_BYTES;
+    protected int gossipHashThreads = Defaults.GOSSIP_HASH_THREADS;
+    protected int gossipValidateThreads = Defaults.GOSSIP_VALIDATE_THREADS;
+    protected int gossipStoreThreads = Defaults.GOSSIP_STORE_THREADS;
+    protected int gossipReplyThreads = Defaults.GOSSIP_REPLY_THREADS;
+    protected boolean gossipBackpressure = Defaults.GOSSIP_BACKPRESSURE;
     /**
      * @deprecated This field was replaced by {@link #zmqEnableTcp} and {@link #zmqEnableIpc}. It is only needed
      * for backward compatibility to --zmq-enabled parameter with JCommander.
@@ -106,6 +115,8 @@ public abstract class BasePendulumConfig implements PendulumConfig {
     protected int localSnapshotsIntervalUnsynced = Defaults.LOCAL_SNAPSHOTS_INTERVAL_UNSYNCED;
     protected int localSnapshotsDepth = Defaults.LOCAL_SNAPSHOTS_DEPTH;
     protected String localSnapshotsBasePath = Defaults.LOCAL_SNAPSHOTS_BASE_PATH;
+    protected boolean snapshotBalancesOffHeap = Defaults.SNAPSHOT_BALANCES_OFF_HEAP;
+    protected boolean localSnapshotsTextFormat = Defaults.LOCAL_SNAPSHOTS_TEXT_FORMAT;
 
     //Logging
     protected boolean saveLogEnabled = Defaults.SAVELOG_ENABLED;
@@ -445,6 +456,51 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         this.rescanDb = rescanDb;
     }
 
+    @Override
+    public Map<String, ColumnFamilyProfile> getDbColumnFamilyProfiles() {
+        return dbColumnFamilyProfiles;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-column-family-options"}, description = DbConfig.Descriptions.DB_COLUMN_FAMILY_OPTIONS)
+    protected void setDbColumnFamilyOptions(String dbColumnFamilyOptions) {
+        this.dbColumnFamilyProfiles = ColumnFamilyProfile.applyOverrides(Defaults.DB_COLUMN_FAMILY_PROFILES,
+                PendulumUtils.splitStringToImmutableList(dbColumnFamilyOptions, SPLIT_STRING_TO_LIST_REGEX));
+    }
+
+    @Override
+    public boolean isDbSyncWrites() {
+        return dbSyncWrites;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-sync-writes"}, description = DbConfig.Descriptions.DB_SYNC_WRITES, arity = 1)
+    protected void setDbSyncWrites(boolean dbSyncWrites) {
+        this.dbSyncWrites = dbSyncWrites;
+    }
+
+    @Override
+    public boolean isDbStatistics() {
+        return dbStatistics;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-statistics"}, description = DbConfig.Descriptions.DB_STATISTICS, arity = 1)
+    protected void setDbStatistics(boolean dbStatistics) {
+        this.dbStatistics = dbStatistics;
+    }
+
+    @Override
+    public int getDbTransactionCacheSize() {
+        return dbTransactionCacheSize;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--db-transaction-cache-size"}, description = DbConfig.Descriptions.DB_TRANSACTION_CACHE_SIZE)
+    protected void setDbTransactionCacheSize(int dbTransactionCacheSize) {
+        this.dbTransactionCacheSize = dbTransactionCacheSize;
+    }
+
     @Override
     public int getMwm() {
         return Defaults.MWM;
@@ -592,6 +648,28 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         this.localSnapshotsBasePath = localSnapshotsBasePath;
     }
 
+    @Override
+    public boolean getSnapshotBalancesOffHeap() {
+        return this.snapshotBalancesOffHeap;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--snapshot-balances-off-heap"}, description = SnapshotConfig.Descriptions.SNAPSHOT_BALANCES_OFF_HEAP, arity = 1)
+    protected void setSnapshotBalancesOffHeap(boolean snapshotBalancesOffHeap) {
+        this.snapshotBalancesOffHeap = snapshotBalancesOffHeap;
+    }
+
+    @Override
+    public boolean getLocalSnapshotsTextFormat() {
+        return this.localSnapshotsTextFormat;
+    }
+
+    @JsonProperty
+    @Parameter(names = {"--local-snapshots-text-format"}, description = SnapshotConfig.Descriptions.LOCAL_SNAPSHOTS_TEXT_FORMAT, arity = 1)
+    protected void setLocalSnapshotsTextFormat(boolean localSnapshotsTextFormat) {
+        this.localSnapshotsTextFormat = localSnapshotsTextFormat;
+    }
+
     @Override
     public long getSnapshotTime() {
         return Defaults.GLOBAL_SNAPSHOT_TIME;
@@ -741,6 +819,61 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         this.cacheSizeBytes = cacheSizeBytes;
     }
 
+    @Override
+    public int getGossipHashThreads() {
+        return gossipHashThreads;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--gossip-hash-threads", description = NetworkConfig.Descriptions.GOSSIP_HASH_THREADS)
+    protected void setGossipHashThreads(int gossipHashThreads) {
+        this.gossipHashThreads = gossipHashThreads;
+    }
+
+    @Override
+    public int getGossipValidateThreads() {
+        return gossipValidateThreads;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--gossip-validate-threads", description = NetworkConfig.Descriptions.GOSSIP_VALIDATE_THREADS)
+    protected void setGossipValidateThreads(int gossipValidateThreads) {
+        this.gossipValidateThreads = gossipValidateThreads;
+    }
+
+    @Override
+    public int getGossipStoreThreads() {
+        return gossipStoreThreads;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--gossip-store-threads", description = NetworkConfig.Descriptions.GOSSIP_STORE_THREADS)
+    protected void setGossipStoreThreads(int gossipStoreThreads) {
+        this.gossipStoreThreads = gossipStoreThreads;
+    }
+
+    @Override
+    public int getGossipReplyThreads() {
+        return gossipReplyThreads;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--gossip-reply-threads", description = NetworkConfig.Descriptions.GOSSIP_REPLY_THREADS)
+    protected void setGossipReplyThreads(int gossipReplyThreads) {
+        this.gossipReplyThreads = gossipReplyThreads;
+    }
+
+    @Override
+    public boolean isGossipBackpressure() {
+        return gossipBackpressure;
+    }
+
+    @JsonProperty
+    @Parameter(names = "--gossip-backpressure", description = NetworkConfig.Descriptions.GOSSIP_BACKPRESSURE, arity = 1)
+    protected void setGossipBackpressure(boolean gossipBackpressure) {
+        this.gossipBackpressure = gossipBackpressure;
+    }
+
     @Override
     public int getMaxDepth() {
         return maxDepth;
@@ -979,6 +1112,19 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         String ROCKS_DB = "rocksdb";
         boolean REVALIDATE = false;
         boolean RESCAN_DB = false;
+        Map<String, ColumnFamilyProfile> DB_COLUMN_FAMILY_PROFILES = Collections.unmodifiableMap(
+                new LinkedHashMap<String, ColumnFamilyProfile>() {{
+                    put("transaction", ColumnFamilyProfile.POINT_LOOKUP);
+                    put("transaction-metadata", ColumnFamilyProfile.POINT_LOOKUP);
+                    put("address", ColumnFamilyProfile.MERGE_INDEX);
+                    put("approvee", ColumnFamilyProfile.MERGE_INDEX);
+                    put("bundle", ColumnFamilyProfile.MERGE_INDEX);
+                    put("bundleNonce", ColumnFamilyProfile.MERGE_INDEX);
+                    put("tag", ColumnFamilyProfile.MERGE_INDEX);
+                }});
+        boolean DB_SYNC_WRITES = false;
+        boolean DB_STATISTICS = false;
+        int DB_TRANSACTION_CACHE_SIZE = 50_000;
 
         //Protocol
         double P_REPLY_RANDOM_TIP = 0.66d;
@@ -992,6 +1138,11 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         int QUEUE_SIZE = 1_000;
         double P_DROP_CACHE_ENTRY = 0.02d;
         int CACHE_SIZE_BYTES = 150_000;
+        int GOSSIP_HASH_THREADS = 2;
+        int GOSSIP_VALIDATE_THREADS = 1;
+        int GOSSIP_STORE_THREADS = 2;
+        int GOSSIP_REPLY_THREADS = 2;
+        boolean GOSSIP_BACKPRESSURE = false;
 
         //Zmq
         int ZMQ_THREADS = 1;
@@ -1057,6 +1208,8 @@ public abstract class BasePendulumConfig implements PendulumConfig {
         int LOCAL_SNAPSHOTS_INTERVAL_UNSYNCED = 1000;
         String LOCAL_SNAPSHOTS_BASE_PATH = "./snapshot";
         int LOCAL_SNAPSHOTS_DEPTH = 100;
+        boolean SNAPSHOT_BALANCES_OFF_HEAP = false;
+        boolean LOCAL_SNAPSHOTS_TEXT_FORMAT = false;
         String SNAPSHOT_FILE = "/snapshotMainnet.txt";
         String SNAPSHOT_SIG_FILE = "/snapshotMainnet.sig";
         String PREVIOUS_EPOCHS_SPENT_ADDRESSES_TXT = "/previousEpochsSpentAddresses.txt";
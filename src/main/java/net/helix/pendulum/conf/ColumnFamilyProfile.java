@@ -0,0 +1,203 @@
+package net.helix.pendulum.conf;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Storage settings of a database column family.
+ * <p>
+ *     The transaction table is read with point lookups of fixed size values, while the index tables
+ *     (address, approvee, bundle, tag...) mostly receive appending merges. A profile describes how a column
+ *     family is tuned for its access pattern: memtable size, compression, prefix extraction, block size,
+ *     its share of the block cache and whether a merge operator is installed.
+ * </p>
+ * <p>
+ *     Column families with equal profiles share their options and therefore their block cache.
+ *     Profiles are immutable, {@link #with(String, String)} returns a modified copy.
+ * </p>
+ */
+public class ColumnFamilyProfile {
+
+    private static final long KB = 1024L;
+    private static final long MB = KB * KB;
+
+    public static final String WRITE_BUFFER_SIZE = "write_buffer_size";
+    public static final String COMPRESSION = "compression";
+    public static final String PREFIX_LENGTH = "prefix_length";
+    public static final String BLOCK_SIZE = "block_size";
+    public static final String CACHE_SHARE = "cache_share";
+    public static final String MERGE_OPERATOR = "merge_operator";
+
+    private static final List<String> COMPRESSIONS =
+            Arrays.asList("none", "snappy", "zlib", "bzip2", "lz4", "lz4hc", "xpress", "zstd");
+
+    /**
+     * Used by small or rarely read column families.
+     */
+    public static final ColumnFamilyProfile DEFAULT =
+            new ColumnFamilyProfile(2 * MB, "snappy", 0, 4 * KB, 1, true);
+
+    /**
+     * Used by column families that are mostly read with point lookups and written with plain puts.
+     */
+    public static final ColumnFamilyProfile POINT_LOOKUP =
+            new ColumnFamilyProfile(16 * MB, "snappy", 0, 4 * KB, 6, false);
+
+    /**
+     * Used by the hash index column families which are mostly written with merges.
+     */
+    public static final ColumnFamilyProfile MERGE_INDEX =
+            new ColumnFamilyProfile(8 * MB, "snappy", 0, 16 * KB, 3, true);
+
+    private final long writeBufferSize;
+    private final String compression;
+    private final int prefixLength;
+    private final long blockSize;
+    private final int cacheShare;
+    private final boolean mergeOperator;
+
+    /**
+     * Creates a profile.
+     *
+     * @param writeBufferSize size of a single memtable in bytes
+     * @param compression name of the compression library (none, snappy, zlib, bzip2, lz4, lz4hc, xpress, zstd)
+     * @param prefixLength length of the fixed key prefix used for prefix bloom filters, <code>0</code> disables it
+     * @param blockSize size of a table block in bytes
+     * @param cacheShare relative weight of the block cache assigned to this profile
+     * @param mergeOperator whether the string append merge operator is installed
+     */
+    public ColumnFamilyProfile(long writeBufferSize, String compression, int prefixLength, long blockSize,
+                               int cacheShare, boolean mergeOperator) {
+        if (writeBufferSize <= 0 || prefixLength < 0 || blockSize <= 0 || cacheShare <= 0) {
+            throw new IllegalArgumentException("invalid column family profile");
+        }
+        if (!COMPRESSIONS.contains(compression)) {
+            throw new IllegalArgumentException("unknown compression: " + compression);
+        }
+        this.writeBufferSize = writeBufferSize;
+        this.compression = compression;
+        this.prefixLength = prefixLength;
+        this.blockSize = blockSize;
+        this.cacheShare = cacheShare;
+        this.mergeOperator = mergeOperator;
+    }
+
+    public long getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    public String getCompression() {
+        return compression;
+    }
+
+    public int getPrefixLength() {
+        return prefixLength;
+    }
+
+    public long getBlockSize() {
+        return blockSize;
+    }
+
+    public int getCacheShare() {
+        return cacheShare;
+    }
+
+    public boolean hasMergeOperator() {
+        return mergeOperator;
+    }
+
+    /**
+     * Returns a copy of this profile with one setting changed.
+     *
+     * @param option name of the setting, one of the option constants of this class
+     * @param value new value of the setting
+     * @return the modified profile
+     * @throws IllegalArgumentException if the option is unknown or the value is invalid
+     */
+    public ColumnFamilyProfile with(String option, String value) {
+        try {
+            switch (option) {
+                case WRITE_BUFFER_SIZE:
+                    return new ColumnFamilyProfile(Long.parseLong(value), compression, prefixLength, blockSize,
+                            cacheShare, mergeOperator);
+                case COMPRESSION:
+                    return new ColumnFamilyProfile(writeBufferSize, value, prefixLength, blockSize,
+                            cacheShare, mergeOperator);
+                case PREFIX_LENGTH:
+                    return new ColumnFamilyProfile(writeBufferSize, compression, Integer.parseInt(value), blockSize,
+                            cacheShare, mergeOperator);
+                case BLOCK_SIZE:
+                    return new ColumnFamilyProfile(writeBufferSize, compression, prefixLength, Long.parseLong(value),
+                            cacheShare, mergeOperator);
+                case CACHE_SHARE:
+                    return new ColumnFamilyProfile(writeBufferSize, compression, prefixLength, blockSize,
+                            Integer.parseInt(value), mergeOperator);
+                case MERGE_OPERATOR:
+                    return new ColumnFamilyProfile(writeBufferSize, compression, prefixLength, blockSize,
+                            cacheShare, Boolean.parseBoolean(value));
+                default:
+                    throw new IllegalArgumentException("unknown column family option: " + option);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid value for column family option " + option + ": " + value, e);
+        }
+    }
+
+    /**
+     * Applies a list of <code>family.option=value</code> overrides to a map of column family profiles.
+     * Families that are not present in the given map start from {@link #DEFAULT}.
+     *
+     * @param profiles the profiles to start from
+     * @param overrides the overrides, e.g. <code>transaction.write_buffer_size=33554432</code>
+     * @return an unmodifiable map with the resulting profiles
+     * @throws IllegalArgumentException if an override is malformed
+     */
+    public static Map<String, ColumnFamilyProfile> applyOverrides(Map<String, ColumnFamilyProfile> profiles,
+                                                                  List<String> overrides) {
+        Map<String, ColumnFamilyProfile> result = new LinkedHashMap<>(profiles);
+        for (String override : overrides) {
+            int dot = override.lastIndexOf('.', override.indexOf('='));
+            int equals = override.indexOf('=');
+            if (dot <= 0 || equals < dot) {
+                throw new IllegalArgumentException("expected family.option=value but got: " + override);
+            }
+            String family = override.substring(0, dot);
+            result.put(family, result.getOrDefault(family, DEFAULT)
+                    .with(override.substring(dot + 1, equals), override.substring(equals + 1)));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ColumnFamilyProfile that = (ColumnFamilyProfile) o;
+        return writeBufferSize == that.writeBufferSize &&
+                prefixLength == that.prefixLength &&
+                blockSize == that.blockSize &&
+                cacheShare == that.cacheShare &&
+                mergeOperator == that.mergeOperator &&
+                compression.equals(that.compression);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(writeBufferSize, compression, prefixLength, blockSize, cacheShare, mergeOperator);
+    }
+
+    @Override
+    public String toString() {
+        return WRITE_BUFFER_SIZE + "=" + writeBufferSize + ", " + COMPRESSION + "=" + compression + ", "
+                + PREFIX_LENGTH + "=" + prefixLength + ", " + BLOCK_SIZE + "=" + blockSize + ", "
+                + CACHE_SHARE + "=" + cacheShare + ", " + MERGE_OPERATOR + "=" + mergeOperator;
+    }
+}
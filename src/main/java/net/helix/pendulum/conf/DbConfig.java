@@ -1,5 +1,7 @@
 package net.helix.pendulum.conf;
 
+import java.util.Map;
+
 public interface DbConfig extends Config {
     /**
      * @return Descriptions#DB_PATH
@@ -31,6 +33,28 @@ public interface DbConfig extends Config {
      */
     boolean isRescanDb();
 
+    /**
+     * Column families that are not in the map use {@link ColumnFamilyProfile#DEFAULT}.
+     *
+     * @return {@value Descriptions#DB_COLUMN_FAMILY_OPTIONS}
+     */
+    Map<String, ColumnFamilyProfile> getDbColumnFamilyProfiles();
+
+    /**
+     * @return {@value Descriptions#DB_SYNC_WRITES}
+     */
+    boolean isDbSyncWrites();
+
+    /**
+     * @return {@value Descriptions#DB_STATISTICS}
+     */
+    boolean isDbStatistics();
+
+    /**
+     * @return {@value Descriptions#DB_TRANSACTION_CACHE_SIZE}
+     */
+    int getDbTransactionCacheSize();
+
     interface Descriptions {
 
         String DB_PATH = "The folder where the DB saves its data.";
@@ -40,5 +64,14 @@ public interface DbConfig extends Config {
         String REVALIDATE = "Reload from the db data about confirmed transaction (milestones), state of the ledger, " +
                 "and transaction metadata.";
         String RESCAN_DB = "Rescan all transaction metadata (Approvees, Bundles, and Tags)";
+        String DB_COLUMN_FAMILY_OPTIONS = "Per column family storage settings as a list of family.option=value " +
+                "entries. Options: write_buffer_size, compression, prefix_length, block_size, cache_share " +
+                "and merge_operator.";
+        String DB_SYNC_WRITES = "Sync the write-ahead log to disk before a stored transaction is acknowledged. " +
+                "Concurrent stores are committed together, so one sync covers several transactions.";
+        String DB_STATISTICS = "Collect the block cache statistics of the DB, which adds a small overhead to every " +
+                "read. The hit rates are logged on startup.";
+        String DB_TRANSACTION_CACHE_SIZE = "The number of parsed transactions cached in memory in front of the DB. " +
+                "0 disables the cache.";
     }
 }
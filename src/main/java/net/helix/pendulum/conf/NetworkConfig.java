@@ -51,6 +51,26 @@ public interface NetworkConfig extends Config {
      * @return Descriptions#CACHE_SIZE_BYTES
      */
     int getCacheSizeBytes();
+    /**
+     * @return Descriptions#GOSSIP_HASH_THREADS
+     */
+    int getGossipHashThreads();
+    /**
+     * @return Descriptions#GOSSIP_VALIDATE_THREADS
+     */
+    int getGossipValidateThreads();
+    /**
+     * @return Descriptions#GOSSIP_STORE_THREADS
+     */
+    int getGossipStoreThreads();
+    /**
+     * @return Descriptions#GOSSIP_REPLY_THREADS
+     */
+    int getGossipReplyThreads();
+    /**
+     * @return Descriptions#GOSSIP_BACKPRESSURE
+     */
+    boolean isGossipBackpressure();
 
     interface Descriptions {
         String UDP_RECEIVER_PORT = "The UDP Receiver Port.";
@@ -62,8 +82,15 @@ public interface NetworkConfig extends Config {
         String DNS_REFRESHER_ENABLED = "Reconnect to neighbors that have dynamic IPs.";
         String DNS_RESOLUTION_ENABLED = "Enable using DNS for neighbor peering.";
         String NEIGHBORS = "Urls of peer nodes.";
-        String Q_SIZE_NODE = "The size of the REPLY, BROADCAST, and RECEIVE network queues.";
+        String Q_SIZE_NODE = "The size of each stage queue of the gossip pipeline (HASH, VALIDATE, STORE, REPLY " +
+                "and BROADCAST).";
         String P_DROP_CACHE_ENTRY = DescriptionHelper.PROB_OF + "dropping recently seen transactions out of the network cache.";
         String CACHE_SIZE_BYTES = "The size of the network cache in bytes";
+        String GOSSIP_HASH_THREADS = "The number of threads hashing received packets.";
+        String GOSSIP_VALIDATE_THREADS = "The number of threads validating received transactions.";
+        String GOSSIP_STORE_THREADS = "The number of threads storing received transactions.";
+        String GOSSIP_REPLY_THREADS = "The number of threads replying to transaction requests.";
+        String GOSSIP_BACKPRESSURE = "If true the receivers wait when the gossip pipeline is full, otherwise " +
+                "received packets are dropped.";
     }
 }
@@ -35,6 +35,16 @@ public interface SnapshotConfig extends Config {
      */
     int getLocalSnapshotsDepth();
 
+    /**
+     * @return {@value Descriptions#SNAPSHOT_BALANCES_OFF_HEAP}
+     */
+    boolean getSnapshotBalancesOffHeap();
+
+    /**
+     * @return {@value Descriptions#LOCAL_SNAPSHOTS_TEXT_FORMAT}
+     */
+    boolean getLocalSnapshotsTextFormat();
+
     /**
      * @return {@value Descriptions#SNAPSHOT_TIME}
      */
@@ -84,6 +94,10 @@ public interface SnapshotConfig extends Config {
         String LOCAL_SNAPSHOTS_INTERVAL_UNSYNCED = "Take local snapshots every n milestones if the node is syncing.";
         String LOCAL_SNAPSHOTS_DEPTH = "Number of milestones to keep.";
         String LOCAL_SNAPSHOTS_BASE_PATH = "Path to the snapshot files (without file extensions).";
+        String SNAPSHOT_BALANCES_OFF_HEAP = "Flag that determines if the balances of the snapshots are kept outside " +
+                "of the Java heap.";
+        String LOCAL_SNAPSHOTS_TEXT_FORMAT = "Flag that determines if local snapshot states are written in the text " +
+                "format instead of the binary format, both formats can be read.";
         String SNAPSHOT_TIME = "Epoch time of the last snapshot.";
         String SNAPSHOT_FILE = "Path of the file that contains the state of the ledger at the last snapshot.";
         String SNAPSHOT_SIGNATURE_FILE = "Path to the file that contains a signature for the snapshot file.";
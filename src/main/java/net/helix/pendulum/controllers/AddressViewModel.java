@@ -68,6 +68,14 @@ public class AddressViewModel implements HashesViewModel {
         return self.set.size();
     }
 
+    /**
+    * Check whether the address has no transactions, without decoding the stored hashes.
+    * @return <code> boolean </code> true if empty
+    */
+    public boolean isEmpty() {
+        return self.set.isEmpty();
+    }
+
     /**
     * Add a transaction hash to the address.
     * @param theHash transaction hash
@@ -8,7 +8,9 @@ import net.helix.pendulum.storage.Persistable;
 import net.helix.pendulum.storage.Tangle;
 import net.helix.pendulum.utils.Pair;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -53,6 +55,21 @@ public class ApproveeViewModel implements HashesViewModel {
         return new ApproveeViewModel((Approvee) tangle.load(Approvee.class, hash), hash);
     }
 
+    /**
+    * Get the ApproveeViewModels of several transaction hashes from the database with a single batched read.
+    * @param tangle
+    * @param hashes transaction hashes
+    * @return <code> List<ApproveeViewModel> </code> in the order of the hashes
+    */
+    public static List<ApproveeViewModel> loadBatch(Tangle tangle, List<Hash> hashes) throws Exception {
+        List<Persistable> approvees = tangle.loadBatch(Approvee.class, hashes);
+        List<ApproveeViewModel> approveeViewModels = new ArrayList<>(hashes.size());
+        for (int i = 0; i < hashes.size(); i++) {
+            approveeViewModels.add(new ApproveeViewModel((Approvee) approvees.get(i), hashes.get(i)));
+        }
+        return approveeViewModels;
+    }
+
     /**
     * Convert a mergable approvee set hash into the approvee model.
     * @param hash transaction hash
@@ -82,6 +99,14 @@ public class ApproveeViewModel implements HashesViewModel {
         return self.set.size();
     }
 
+    /**
+    * Check whether there are no approving transactions, without decoding the stored hashes.
+    * @return <code> boolean </code> true if empty
+    */
+    public boolean isEmpty() {
+        return self.set.isEmpty();
+    }
+
     /**
     * Add an approving transaction hash to the set.
     * @param theHash transaction hash
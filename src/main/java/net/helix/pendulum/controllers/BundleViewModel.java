@@ -90,6 +90,14 @@ public class BundleViewModel implements HashesViewModel {
         return self.set.size();
     }
 
+    /**
+    * Check whether the bundle has no transactions, without decoding the stored hashes.
+    * @return <code> boolean </code> true if empty
+    */
+    public boolean isEmpty() {
+        return self.set.isEmpty();
+    }
+
     /**
     * Add a transaction hash to the bundle.
     * @param theHash transaction hash
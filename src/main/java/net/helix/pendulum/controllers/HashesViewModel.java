@@ -18,6 +18,7 @@ import java.util.Set;
 public interface HashesViewModel {
     boolean store(Tangle tangle) throws Exception;
     int size();
+    boolean isEmpty();
     boolean addHash(Hash theHash);
     Indexable getIndex();
     Set<Hash> getHashes();
@@ -7,6 +7,7 @@ import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.HashFactory;
 import net.helix.pendulum.model.IntegerIndex;
 import net.helix.pendulum.model.persistables.Round;
+import net.helix.pendulum.model.persistables.RoundConfirmations;
 import net.helix.pendulum.service.milestone.MilestoneTracker;
 import net.helix.pendulum.storage.Indexable;
 import net.helix.pendulum.storage.Persistable;
@@ -35,6 +36,22 @@ public class RoundViewModel {
     //private final Set<Hash> confirmingMilestones = new HashSet<>();
     private static final Map<Integer, RoundViewModel> rounds = new ConcurrentHashMap<>();
 
+    /**
+     * Maximum number of rounds whose confirmed transactions are kept decoded in memory.
+     */
+    private static final int MAX_CACHED_CONFIRMATIONS = 64;
+
+    /**
+     * Decoded confirmed transactions of the most recently queried rounds, see {@link #getConfirmedTransactions}.
+     */
+    private static final Map<Integer, Set<Hash>> confirmedTransactionsCache = Collections.synchronizedMap(
+            new LinkedHashMap<Integer, Set<Hash>>(MAX_CACHED_CONFIRMATIONS * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, Set<Hash>> eldest) {
+                    return size() > MAX_CACHED_CONFIRMATIONS;
+                }
+            });
+
     private RoundViewModel(final Round round) {
         this.round = round;
     }
@@ -44,6 +61,7 @@ public class RoundViewModel {
      */
     public static void clear() {
         rounds.clear();
+        confirmedTransactionsCache.clear();
     }
 
     /**
@@ -56,6 +74,7 @@ public class RoundViewModel {
      */
     public static void clear(int index) {
         rounds.remove(index);
+        confirmedTransactionsCache.remove(index);
     }
 
     /**
@@ -373,8 +392,66 @@ public class RoundViewModel {
      * @throws Exception Exception
      */
     public boolean isTransactionConfirmed(Tangle tangle, int security, Hash transaction) throws Exception {
-        Set<Hash> confirmedTransactions = getReferencedTransactions(tangle, getConfirmedTips(tangle, security));
-        return confirmedTransactions.contains(transaction);
+        return getConfirmedTransactions(tangle, security).contains(transaction);
+    }
+
+    /**
+     * Returns the transactions confirmed by this round.
+     *
+     * <p>
+     *     Once the round was applied to the ledger its confirmed transactions are persisted by
+     *     {@link #storeConfirmedTransactions(Tangle, int)} and only read from the database (or the in memory cache of
+     *     recently queried rounds) afterwards. Rounds that were not applied yet still traverse the referenced
+     *     transactions of their confirmed tips on every call, because later milestones can change their tips.
+     * </p>
+     *
+     * @param tangle tangle
+     * @param security security level
+     * @return the hashes of the confirmed transactions, must not be modified
+     * @throws Exception if the transactions could not be loaded
+     */
+    public Set<Hash> getConfirmedTransactions(Tangle tangle, int security) throws Exception {
+        Set<Hash> confirmedTransactions = confirmedTransactionsCache.get(index());
+        if (confirmedTransactions != null) {
+            return confirmedTransactions;
+        }
+
+        RoundConfirmations roundConfirmations = (RoundConfirmations) tangle.load(RoundConfirmations.class,
+                round.index);
+        if (roundConfirmations != null && roundConfirmations.index != null) {
+            confirmedTransactions = Collections.unmodifiableSet(new HashSet<>(roundConfirmations.set));
+            confirmedTransactionsCache.put(index(), confirmedTransactions);
+            return confirmedTransactions;
+        }
+
+        return getReferencedTransactions(tangle, getConfirmedTips(tangle, security));
+    }
+
+    /**
+     * Computes the transactions confirmed by this round once and persists them, so that later confirmation queries are
+     * simple lookups. It is called when the round is applied to the ledger.
+     *
+     * @param tangle tangle
+     * @param security security level
+     * @throws Exception if the transactions could not be loaded or stored
+     */
+    public void storeConfirmedTransactions(Tangle tangle, int security) throws Exception {
+        RoundConfirmations roundConfirmations = new RoundConfirmations();
+        roundConfirmations.index = round.index;
+        roundConfirmations.set = getReferencedTransactions(tangle, getConfirmedTips(tangle, security));
+        tangle.save(roundConfirmations, round.index);
+        confirmedTransactionsCache.put(index(), Collections.unmodifiableSet(roundConfirmations.set));
+    }
+
+    /**
+     * Removes the persisted confirmed transactions of this round, e.g. after the round was reset.
+     *
+     * @param tangle tangle
+     * @throws Exception if the transactions could not be deleted
+     */
+    public void deleteConfirmedTransactions(Tangle tangle) throws Exception {
+        confirmedTransactionsCache.remove(index());
+        tangle.delete(RoundConfirmations.class, round.index);
     }
 
     /**
@@ -0,0 +1,137 @@
+package net.helix.pendulum.controllers;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.IntegerIndex;
+import net.helix.pendulum.model.StateDiffCheckpoint;
+import net.helix.pendulum.storage.Tangle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+ /**
+ * The StateDiffCheckpointViewModel class interacts with the StateDiffCheckpoint model class.
+ * <p>
+ *     The rounds are split into blocks of {@link #INTERVAL} rounds, a checkpoint holds the accumulated state diffs of
+ *     one block and is stored under the index of the last round of its block. Replaying a whole block only needs its
+ *     checkpoint instead of the state diff and the round of every single round.
+ * </p>
+ * <p>
+ *     A checkpoint that is not stored for a whole block can still be used to accumulate the state diffs of a part of
+ *     a block.
+ * </p>
+ */
+public class StateDiffCheckpointViewModel {
+
+    /**
+     * Number of rounds of a block.
+     */
+    public static final int INTERVAL = 1000;
+
+    private final StateDiffCheckpoint checkpoint;
+    private final IntegerIndex lastRoundIndex;
+
+    /**
+     * Loads the checkpoint of the block that ends with the given round.
+     * @param tangle
+     * @param lastRoundIndex index of the last round of the block
+     * @return <code> StateDiffCheckpointViewModel </code>, see {@link #exists()}
+     */
+    public static StateDiffCheckpointViewModel load(Tangle tangle, final int lastRoundIndex) throws Exception {
+        return new StateDiffCheckpointViewModel((StateDiffCheckpoint) tangle.load(StateDiffCheckpoint.class,
+                new IntegerIndex(lastRoundIndex)), lastRoundIndex);
+    }
+
+    /**
+     * Deletes the checkpoint of the block that contains the given round, it has to be called whenever the state diff
+     * of the round changes.
+     * @param tangle
+     * @param roundIndex index of the round
+     */
+    public static void delete(Tangle tangle, final int roundIndex) throws Exception {
+        tangle.delete(StateDiffCheckpoint.class, new IntegerIndex(lastRoundOfBlock(roundIndex)));
+    }
+
+    /**
+     * @param roundIndex index of a round
+     * @return index of the first round of the block that contains the round
+     */
+    public static int firstRoundOfBlock(int roundIndex) {
+        return lastRoundOfBlock(roundIndex) - INTERVAL + 1;
+    }
+
+    /**
+     * @param roundIndex index of a round
+     * @return index of the last round of the block that contains the round
+     */
+    public static int lastRoundOfBlock(int roundIndex) {
+        return Math.floorDiv(roundIndex + INTERVAL - 1, INTERVAL) * INTERVAL;
+    }
+
+    /**
+     * Creates a checkpoint of consecutive rounds.
+     * @param state accumulated balance changes of the rounds
+     * @param skippedRounds rounds that do not exist
+     * @param firstRoundIndex index of the first round
+     * @param lastRoundIndex index of the last round
+     */
+    public StateDiffCheckpointViewModel(final Map<Hash, Long> state, final Collection<Integer> skippedRounds,
+                                        final int firstRoundIndex, final int lastRoundIndex) {
+        this.lastRoundIndex = new IntegerIndex(lastRoundIndex);
+        this.checkpoint = new StateDiffCheckpoint();
+        this.checkpoint.firstRoundIndex = firstRoundIndex;
+        this.checkpoint.skippedRounds = skippedRounds.stream().mapToInt(Integer::intValue).sorted().toArray();
+        this.checkpoint.state = state;
+    }
+
+    private StateDiffCheckpointViewModel(final StateDiffCheckpoint checkpoint, final int lastRoundIndex) {
+        this.lastRoundIndex = new IntegerIndex(lastRoundIndex);
+        this.checkpoint = checkpoint == null ? new StateDiffCheckpoint() : checkpoint;
+    }
+
+    /**
+     * A loaded checkpoint only exists if it was stored for the whole block, a checkpoint that was written with a
+     * different block size is ignored.
+     * @return <code> true </code> if the checkpoint holds the state diffs of its block
+     */
+    public boolean exists() {
+        return checkpoint.state != null && checkpoint.firstRoundIndex == firstRoundOfBlock(getLastRoundIndex());
+    }
+
+    public int getFirstRoundIndex() {
+        return checkpoint.firstRoundIndex;
+    }
+
+    public int getLastRoundIndex() {
+        return lastRoundIndex.getValue();
+    }
+
+    /**
+     * @return index of the last round that is not skipped or <code> -1 </code> if all rounds are skipped
+     */
+    public int getLastAppliedRoundIndex() {
+        for (int roundIndex = getLastRoundIndex(); roundIndex >= getFirstRoundIndex(); roundIndex--) {
+            if (Arrays.binarySearch(checkpoint.skippedRounds, roundIndex) < 0) {
+                return roundIndex;
+            }
+        }
+        return -1;
+    }
+
+    public int[] getSkippedRounds() {
+        return checkpoint.skippedRounds;
+    }
+
+    public Map<Hash, Long> getDiff() {
+        return checkpoint.state;
+    }
+
+    /**
+     * Stores the checkpoint, it must span the whole block of its last round.
+     * @param tangle
+     * @return <code> true </code> if the checkpoint was stored
+     */
+    public boolean store(Tangle tangle) throws Exception {
+        return tangle.save(checkpoint, lastRoundIndex);
+    }
+}
@@ -3,8 +3,11 @@ package net.helix.pendulum.controllers;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.IntegerIndex;
 import net.helix.pendulum.model.StateDiff;
+import net.helix.pendulum.storage.Persistable;
 import net.helix.pendulum.storage.Tangle;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -23,6 +26,27 @@ public class StateDiffViewModel {
         return new StateDiffViewModel((StateDiff) tangle.load(StateDiff.class, new IntegerIndex(roundIndex)), roundIndex);
     }
 
+    /**
+    * Loads the state diffs of consecutive rounds with a single batched read.
+    * @param tangle
+    * @param firstRoundIndex index of the first round
+    * @param lastRoundIndex index of the last round
+    * @return <code> List<StateDiffViewModel> </code> in the order of the rounds
+    */
+    public static List<StateDiffViewModel> loadBatch(Tangle tangle, final int firstRoundIndex,
+                                                     final int lastRoundIndex) throws Exception {
+        List<IntegerIndex> roundIndexes = new ArrayList<>(lastRoundIndex - firstRoundIndex + 1);
+        for (int roundIndex = firstRoundIndex; roundIndex <= lastRoundIndex; roundIndex++) {
+            roundIndexes.add(new IntegerIndex(roundIndex));
+        }
+        List<Persistable> stateDiffs = tangle.loadBatch(StateDiff.class, roundIndexes);
+        List<StateDiffViewModel> stateDiffViewModels = new ArrayList<>(roundIndexes.size());
+        for (int i = 0; i < roundIndexes.size(); i++) {
+            stateDiffViewModels.add(new StateDiffViewModel((StateDiff) stateDiffs.get(i), firstRoundIndex + i));
+        }
+        return stateDiffViewModels;
+    }
+
     public StateDiffViewModel(final Map<Hash, Long> state, final int roundIndex) {
         this.roundIndex = new IntegerIndex(roundIndex);
         this.stateDiff = new StateDiff();
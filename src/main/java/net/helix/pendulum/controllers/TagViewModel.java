@@ -53,6 +53,10 @@ public class TagViewModel implements HashesViewModel {
         return self.set.size();
     }
 
+    public boolean isEmpty() {
+        return self.set.isEmpty();
+    }
+
     public boolean addHash(Hash theHash) {
         return getHashes().add(theHash);
     }
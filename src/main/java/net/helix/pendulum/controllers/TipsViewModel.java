@@ -2,27 +2,40 @@ package net.helix.pendulum.controllers;
 
 import net.helix.pendulum.model.Hash;
 
-import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
 
 /**
  * Acts as a controller interface for a <tt>Tips</tt> set. A tips set is a a First In First Out cache for
  * {@link net.helix.pendulum.model.persistables.Transaction} objects that have no children. <tt>Tips</tt> are stored in the
  * {@link TipsViewModel} until they are deemed solid or are removed from the cache.
+ *
+ * <p>
+ *     Both tip sets are {@link TipPool}s, which add, remove, evict and sample a tip in constant time. Random samples
+ *     are taken with an optimistic read of the {@link StampedLock}, so concurrent tip selections and tip requests
+ *     don't block each other and only retry under a read lock if a tip was added or removed at the same time.
+ * </p>
  */
 public class TipsViewModel {
 
     /** The maximum size of the <tt>Tips</tt> set*/
     public static final int MAX_TIPS = 5000;
 
-    private final FifoHashCache<Hash> tips = new FifoHashCache<>(TipsViewModel.MAX_TIPS);
-    private final FifoHashCache<Hash> solidTips = new FifoHashCache<>(TipsViewModel.MAX_TIPS);
+    private final TipPool<Hash> tips = new TipPool<>(TipsViewModel.MAX_TIPS);
+    private final TipPool<Hash> solidTips = new TipPool<>(TipsViewModel.MAX_TIPS);
 
-    private final SecureRandom seed = new SecureRandom();
-    private final Object sync = new Object();
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Copy of all tips returned by {@link #getTips()}, shared by all callers until the tips change.
+     */
+    private volatile Set<Hash> tipsSnapshot;
 
     /**
      * Adds a {@link Hash} object to the tip cache in a synchronous fashion.
@@ -30,8 +43,13 @@ public class TipsViewModel {
      * @param hash The {@link Hash} identifier of the object to be added
      */
     public void addTipHash(Hash hash) {
-        synchronized (sync) {
-            tips.add(hash);
+        long stamp = lock.writeLock();
+        try {
+            if (tips.add(hash)) {
+                tipsSnapshot = null;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -41,10 +59,13 @@ public class TipsViewModel {
      * @param hash The {@link Hash} identifier of the object to be removed
      */
     public void removeTipHash(Hash hash) {
-        synchronized (sync) {
-            if (!tips.remove(hash)) {
-                solidTips.remove(hash);
+        long stamp = lock.writeLock();
+        try {
+            if (tips.remove(hash) || solidTips.remove(hash)) {
+                tipsSnapshot = null;
             }
+        } finally {
+            lock.unlockWrite(stamp);
         }
     }
 
@@ -59,84 +80,82 @@ public class TipsViewModel {
      * @param tip The {@link Hash} identifier for the object that will be set to solid
      */
     public void setSolid(Hash tip) {
-        synchronized (sync) {
+        long stamp = lock.writeLock();
+        try {
             if (tips.remove(tip)) {
                 solidTips.add(tip);
+                tipsSnapshot = null;
             }
+        } finally {
+            lock.unlockWrite(stamp);
         }
     }
 
     /**
-     * Iterates through all solid and non-solid tips and compiles them into one {@link Hash} set to be returned. This
-     * does so in a synchronised fashion.
+     * Compiles all solid and non-solid tips into one {@link Hash} set. The set is only copied again after the tips
+     * changed, callers must not modify it.
      *
      * @return The {@link Hash} set containing all solid and non-solid tips
      */
     public Set<Hash> getTips() {
-        Set<Hash> hashes = new HashSet<>();
-        synchronized (sync) {
-            Iterator<Hash> hashIterator;
-            hashIterator = tips.iterator();
-            while (hashIterator.hasNext()) {
-                hashes.add(hashIterator.next());
-            }
-
-            hashIterator = solidTips.iterator();
-            while (hashIterator.hasNext()) {
-                hashes.add(hashIterator.next());
+        Set<Hash> snapshot = tipsSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long stamp = lock.readLock();
+        try {
+            snapshot = tipsSnapshot;
+            if (snapshot == null) {
+                Set<Hash> hashes = new HashSet<>((tips.size() + solidTips.size()) * 4 / 3 + 1);
+                tips.copyTo(hashes);
+                solidTips.copyTo(hashes);
+                snapshot = Collections.unmodifiableSet(hashes);
+                // a concurrent writer can't clear the field in between, it needs the write lock
+                tipsSnapshot = snapshot;
             }
+            return snapshot;
+        } finally {
+            lock.unlockRead(stamp);
         }
-        return hashes;
     }
 
     /**
-     * Returns a random tip by generating a random integer within the range of the <tt>SolidTips</tt> set, and iterates
-     * through the set until a hash is returned. If there are no <tt>Solid</tt> tips available, then
+     * Returns a random tip of the <tt>SolidTips</tt> set. If there are no <tt>Solid</tt> tips available, then
      * <tt>getRandomNonSolidTipHash</tt> is called and returned instead.
      *
      * @return A random <tt>Solid</tt> tip if available, a random <tt>NonSolid</tt> tip if not
      */
     public Hash getRandomSolidTipHash() {
-        synchronized (sync) {
-            int size = solidTips.size();
-            if (size == 0) {
-                return getRandomNonSolidTipHash();
-            }
-            return getRandomTipHash(size);
-            //return solidTips.size() != 0 ? solidTips.get(seed.nextInt(solidTips.size())) : getRandomNonSolidTipHash();     <- For later stage
-        }
+        Hash hash = getRandomTipHash(solidTips);
+        return hash != null ? hash : getRandomNonSolidTipHash();
     }
 
     /**
-     * Returns a random tip by generating integer within the range of the <tt>Tips</tt> set, and iterates through the
-     * set until a hash is returned. If there are no tips available, then null is returned instead.
+     * Returns a random tip of the <tt>Tips</tt> set. If there are no tips available, then null is returned instead.
      *
      * @return A random tip if available, null if not
      */
     public Hash getRandomNonSolidTipHash() {
-        synchronized (sync) {
-            int size = tips.size();
-            if (size == 0) {
-                return null;
-            }
-            return getRandomTipHash(size);
-            //return tips.size() != 0 ? tips.get(seed.nextInt(tips.size())) : null;    <- For later stage
-        }
+        return getRandomTipHash(tips);
     }
 
     /**
-     * Helper method for getting a random tip
+     * Helper method for getting a random tip, falls back to a read lock if the pool changed while sampling.
      * @return A random tip hash or null
      */
-    private Hash getRandomTipHash(int size) {
-        int index = seed.nextInt(size);
-        Iterator<Hash> hashIterator;
-        hashIterator = tips.iterator();
-        Hash hash = null;
-        while (index-- >= 0 && hashIterator.hasNext()) {
-            hash = hashIterator.next();
-        }
-        return hash;
+    private Hash getRandomTipHash(TipPool<Hash> pool) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long stamp = lock.tryOptimisticRead();
+        Hash hash = pool.random(random);
+        if (lock.validate(stamp)) {
+            return hash;
+        }
+        stamp = lock.readLock();
+        try {
+            return pool.random(random);
+        } finally {
+            lock.unlockRead(stamp);
+        }
     }
 
     /**
@@ -144,8 +163,11 @@ public class TipsViewModel {
      * @return The size of the set
      */
     public int nonSolidSize() {
-        synchronized (sync) {
+        long stamp = lock.readLock();
+        try {
             return tips.size();
+        } finally {
+            lock.unlockRead(stamp);
         }
     }
 
@@ -154,8 +176,11 @@ public class TipsViewModel {
      * @return The size of the set
      */
     public int solidSize() {
-        synchronized (sync) {
+        long stamp = lock.readLock();
+        try {
             return solidTips.size();
+        } finally {
+            lock.unlockRead(stamp);
         }
     }
 
@@ -165,49 +190,67 @@ public class TipsViewModel {
      * @return The size of both sets combined
      */
     public int size() {
-        synchronized (sync) {
+        long stamp = lock.readLock();
+        try {
             return tips.size() + solidTips.size();
+        } finally {
+            lock.unlockRead(stamp);
         }
     }
 
     /**
-     * A First In First Out hash set for storing <tt>Tip</tt> transactions.
+     * A First In First Out set of <tt>Tip</tt> transactions with constant time random access.
+     * <p>
+     *     The tips are kept densely packed in an array, a removed tip is replaced by the last one, so a random tip is
+     *     a random slot of the array. The insertion order is kept in a queue from which removed tips are only dropped
+     *     lazily, when they reach its head or when the queue grew to twice the capacity.
+     * </p>
+     * <p>
+     *     The pool is not thread safe. {@link #random(ThreadLocalRandom)} tolerates concurrent modifications, but its
+     *     result is only meaningful if no modification happened meanwhile.
+     * </p>
      *
-     * @param <K> The class of object that will be stored in the hash set
+     * @param <K> The class of object that will be stored in the set
      */
-    private class FifoHashCache<K> {
+    private static class TipPool<K> {
 
         private final int capacity;
-        private final LinkedHashSet<K> set;
+        private final Entry<K>[] slots;
+        private final Map<K, Entry<K>> entries;
+        private final ArrayDeque<Entry<K>> insertionOrder;
+        private int size;
 
         /**
-         * Constructor for a <tt>Fifo LinkedHashSet Hash</tt> set of a given size.
+         * Constructor for a <tt>TipPool</tt> of a given size.
          *
-         * @param capacity The maximum size allocated for the set
+         * @param capacity The maximum number of tips in the pool
          */
-        public FifoHashCache(int capacity) {
+        @SuppressWarnings("unchecked")
+        TipPool(int capacity) {
             this.capacity = capacity;
-            this.set = new LinkedHashSet<>();
+            this.slots = new Entry[capacity];
+            this.entries = new HashMap<>(capacity * 4 / 3 + 1);
+            this.insertionOrder = new ArrayDeque<>(capacity);
         }
 
         /**
-         * Determines if there is vacant space available in the set, and adds the provided object to the set if so. If
-         * there is no space available, the set removes the next available object iteratively until there is room
-         * available.
+         * Adds the provided object to the set, evicting the oldest object if the set is full.
          *
          * @param key The {@link Hash} identifier for the object that will be added to the set
-         * @return True if the new objects have been added, False if not
+         * @return True if the new object has been added, False if it was already in the set
          */
-        public boolean add(K key) {
-            int vacancy = this.capacity - this.set.size();
-            if (vacancy <= 0) {
-                Iterator<K> it = this.set.iterator();
-                for (int i = vacancy; i <= 0; i++) {
-                    it.next();
-                    it.remove();
-                }
+        boolean add(K key) {
+            if (entries.containsKey(key)) {
+                return false;
             }
-            return this.set.add(key);
+            if (size == capacity) {
+                evictOldest();
+            }
+            Entry<K> entry = new Entry<>(key, size);
+            slots[size++] = entry;
+            entries.put(key, entry);
+            insertionOrder.offer(entry);
+            return true;
         }
 
         /**
@@ -216,20 +259,75 @@ public class TipsViewModel {
          * @param key The {@link Hash} identifier for the object that will be removed from the set
          * @return True if the object is removed, False if not
          */
-        public boolean remove(K key) {
-            return this.set.remove(key);
+        boolean remove(K key) {
+            Entry<K> entry = entries.remove(key);
+            if (entry == null) {
+                return false;
+            }
+            removeSlot(entry);
+            if (insertionOrder.size() > 2 * capacity) {
+                insertionOrder.removeIf(e -> e.removed);
+            }
+            return true;
+        }
+
+        private void evictOldest() {
+            Entry<K> oldest;
+            while ((oldest = insertionOrder.poll()) != null && oldest.removed) {
+                // skip tips that were removed before they became the oldest
+            }
+            if (oldest != null) {
+                entries.remove(oldest.key);
+                removeSlot(oldest);
+            }
         }
 
-        /**@return The integer size of the stored {@link Hash} set*/
-        public int size() {
-            return this.set.size();
+        private void removeSlot(Entry<K> entry) {
+            Entry<K> last = slots[--size];
+            slots[entry.slot] = last;
+            last.slot = entry.slot;
+            slots[size] = null;
+            entry.removed = true;
+        }
+
+        /**
+         * @param random the random number generator of the calling thread
+         * @return a random object of the set or null if the set is empty
+         */
+        K random(ThreadLocalRandom random) {
+            int currentSize = size;
+            if (currentSize <= 0) {
+                return null;
+            }
+            Entry<K> entry = slots[random.nextInt(Math.min(currentSize, capacity))];
+            return entry == null ? null : entry.key;
         }
 
         /**
-         * Creates a new iterator for the object set based on the {@link Hash} class of the set.
-         * @return The class matched iterator for the stored set*/
-        public Iterator<K> iterator() {
-            return this.set.iterator();
+         * Adds all objects of the set to the collection.
+         *
+         * @param target the collection
+         */
+        void copyTo(Set<K> target) {
+            for (int i = 0; i < size; i++) {
+                target.add(slots[i].key);
+            }
+        }
+
+        /**@return The integer size of the set*/
+        int size() {
+            return size;
+        }
+
+        private static class Entry<K> {
+            private final K key;
+            private int slot;
+            private boolean removed;
+
+            private Entry(K key, int slot) {
+                this.key = key;
+                this.slot = slot;
+            }
         }
     }
 
@@ -111,6 +111,25 @@ public class TransactionViewModel {
         return transactionViewModel;
     }
 
+    /**
+    * Get the TransactionViewModels of several transaction hashes with a single batched read. Uses
+    * @see #Tangle.loadBatch(Class<?>, List<Indexable>)
+    * @param tangle
+    * @param hashes transaction hashes
+    * @return <code>List<TransactionViewModel></code> of the transactions in the order of their hashes
+    */
+    public static List<TransactionViewModel> fromHashes(Tangle tangle, List<Hash> hashes) throws Exception {
+        List<Persistable> transactions = tangle.loadBatch(Transaction.class, hashes);
+        List<TransactionViewModel> transactionViewModels = new ArrayList<>(hashes.size());
+        for (int i = 0; i < hashes.size(); i++) {
+            TransactionViewModel transactionViewModel = new TransactionViewModel((Transaction) transactions.get(i),
+                    hashes.get(i));
+            fillMetadata(tangle, transactionViewModel);
+            transactionViewModels.add(transactionViewModel);
+        }
+        return transactionViewModels;
+    }
+
     /**
     * Get TransactionViewModel of a given transaction hash. Uses @see #Tangle.maybeHas(Class<?>, Indexable),
     * which checks the possible existence of an entry in the database.
@@ -170,6 +189,43 @@ public class TransactionViewModel {
      * @throws Exception Thrown if any of the metadata fails to fetch, or if the database update fails
      */
     public void update(Tangle tangle, Snapshot initialSnapshot, String item) throws Exception {
+        if (prepareUpdate(initialSnapshot)) {
+            tangle.update(transaction, hash, item);
+        }
+    }
+
+    /**
+     * Updates the metadata of several transactions in the database with a single write. This has the same effect as
+     * calling {@link #update(Tangle, Snapshot, String)} for each of the transactions, but the transactions are
+     * written together, which is a lot cheaper when many transactions change at once, e.g. while solidifying or
+     * confirming a round.
+     *
+     * @param tangle The tangle reference for the database
+     * @param initialSnapshot snapshot that acts as genesis
+     * @param transactionViewModels the transactions to update
+     * @param item The string identifying the purpose of the update
+     * @throws Exception Thrown if any of the metadata fails to fetch, or if the database update fails
+     */
+    public static void updateBatch(Tangle tangle, Snapshot initialSnapshot,
+                                   Collection<TransactionViewModel> transactionViewModels, String item) throws Exception {
+        List<Pair<Indexable, Persistable>> batch = new ArrayList<>(transactionViewModels.size());
+        for (TransactionViewModel transactionViewModel : transactionViewModels) {
+            if (transactionViewModel.prepareUpdate(initialSnapshot)) {
+                batch.add(new Pair<>(transactionViewModel.hash, transactionViewModel.transaction));
+            }
+        }
+        if (!batch.isEmpty()) {
+            tangle.updateBatch(batch, item);
+        }
+    }
+
+    /**
+     * Makes sure all metadata fields of the {@link Transaction} are filled before it is written.
+     *
+     * @param initialSnapshot snapshot that acts as genesis
+     * @return <code>false</code> if the transaction is a solid entry point whose metadata is never written
+     */
+    private boolean prepareUpdate(Snapshot initialSnapshot) {
         getAddressHash();
         getTrunkTransactionHash();
         getBranchTransactionHash();
@@ -178,10 +234,7 @@ public class TransactionViewModel {
         getBundleNonceHash();
         setAttachmentData();
         setMetadata();
-        if (initialSnapshot.hasSolidEntryPoint(hash)) {
-            return;
-        }
-        tangle.update(transaction, hash, item);
+        return !initialSnapshot.hasSolidEntryPoint(hash);
     }
 
     /**
@@ -295,7 +348,7 @@ public class TransactionViewModel {
      * This method fetches the saved batch of metadata and orders them into a list of {@link Hash} objects and
      * {@link Hash} identifier pairs. If the {@link Hash} identifier of the {@link Transaction} is null, or the database
      * already contains the {@link Transaction}, then the method returns False. Otherwise, the method tries to store the
-     * {@link Transaction} batch into the database.
+     * {@link Transaction} batch into the database in one atomic write, see {@link Tangle#storeTransaction(List)}.
      *
      * @param tangle The tangle reference for the database.
      * @param initialSnapshot snapshot that acts as genesis
@@ -311,7 +364,7 @@ public class TransactionViewModel {
         if (exists(tangle, hash)) {
             return false;
         }
-        return tangle.saveBatch(batch);
+        return tangle.storeTransaction(batch);
     }
 
     /**
@@ -603,6 +656,7 @@ public class TransactionViewModel {
     public static void updateSolidTransactions(Tangle tangle, Snapshot initialSnapshot, final Set<Hash> analyzedHashes) throws Exception {
         Iterator<Hash> hashIterator = analyzedHashes.iterator();
         TransactionViewModel transactionViewModel;
+        List<TransactionViewModel> newSolidTransactions = new ArrayList<>();
         while(hashIterator.hasNext()) {
             transactionViewModel = TransactionViewModel.fromHash(tangle, hashIterator.next());
 
@@ -610,9 +664,10 @@ public class TransactionViewModel {
 
             if(!transactionViewModel.isSolid()) {
                 transactionViewModel.updateSolid(true);
-                transactionViewModel.update(tangle, initialSnapshot,  "solid|height");
+                newSolidTransactions.add(transactionViewModel);
             }
         }
+        updateBatch(tangle, initialSnapshot, newSolidTransactions, "solid|height");
     }
 
     /**
@@ -710,33 +765,36 @@ public class TransactionViewModel {
     */
     public void updateHeights(Tangle tangle, Snapshot initialSnapshot) throws Exception {
         TransactionViewModel transactionVM = this, trunk = this.getTrunkTransaction(tangle);
-        Stack<Hash> transactionViewModels = new Stack<>();
-        transactionViewModels.push(transactionVM.getHash());
+        // the loaded view models are updated in place, so that this transaction knows its new height afterwards
+        Deque<TransactionViewModel> transactionViewModels = new ArrayDeque<>();
+        transactionViewModels.push(transactionVM);
         while(trunk.getHeight() == 0 && trunk.getType() != PREFILLED_SLOT && !trunk.getHash().equals(Hash.NULL_HASH)) {
             transactionVM = trunk;
             trunk = transactionVM.getTrunkTransaction(tangle);
-            transactionViewModels.push(transactionVM.getHash());
+            transactionViewModels.push(transactionVM);
         }
+        List<TransactionViewModel> updatedTransactions = new ArrayList<>();
         while(transactionViewModels.size() != 0) {
-            transactionVM = TransactionViewModel.fromHash(tangle, transactionViewModels.pop());
+            transactionVM = transactionViewModels.pop();
             long currentHeight = transactionVM.getHeight();
             if(Hash.NULL_HASH.equals(trunk.getHash()) && trunk.getHeight() == 0
                     && !Hash.NULL_HASH.equals(transactionVM.getHash())) {
                 if(currentHeight != 1L ){
                     transactionVM.updateHeight(1L);
-                    transactionVM.update(tangle, initialSnapshot, "height");
+                    updatedTransactions.add(transactionVM);
                 }
             } else if ( trunk.getType() != PREFILLED_SLOT && transactionVM.getHeight() == 0){
                 long newHeight = 1L + trunk.getHeight();
                 if(currentHeight != newHeight) {
                     transactionVM.updateHeight(newHeight);
-                    transactionVM.update(tangle, initialSnapshot, "height");
+                    updatedTransactions.add(transactionVM);
                 }
             } else {
                 break;
             }
             trunk = transactionVM;
         }
+        updateBatch(tangle, initialSnapshot, updatedTransactions, "height");
     }
 
     public void updateSender(String sender) throws Exception {
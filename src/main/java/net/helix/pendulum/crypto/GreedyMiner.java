@@ -3,18 +3,33 @@ package net.helix.pendulum.crypto;
 import net.helix.pendulum.controllers.TransactionViewModel;
 import net.helix.pendulum.utils.FastByteComparisons;
 import org.bouncycastle.util.BigIntegers;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 
 import static net.helix.pendulum.crypto.GreedyMiner.State.*;
 
 /**
  * The Miner performs the proof-of-work needed for a valid block.
+ * <p>
+ *     All miners share one pool of daemon worker threads. Every call of {@link #mine(byte[], int, int)} is a job whose
+ *     tasks search a chunk of nonces each and requeue themselves afterwards, so concurrent calls share the workers
+ *     instead of starting threads of their own.
+ * </p>
+ * <p>
+ *     The bytes in front of the nonce are absorbed once per job. Workers rewind their own digest to that prefix for
+ *     every nonce and only absorb the nonce and the bytes behind it, without allocating.
+ * </p>
  */
 public class GreedyMiner {
 
@@ -27,13 +42,36 @@ public class GreedyMiner {
         COMPLETED
     }
 
-    private volatile AtomicReference state;
+    /**
+     * Number of nonces a task searches before it lets the tasks of other jobs run.
+     */
+    private static final int NONCES_PER_TASK = 1 << 14;
+
+    private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+
+    private static final AtomicInteger workerNumber = new AtomicInteger();
+
+    private static final ExecutorService workers = Executors.newFixedThreadPool(WORKER_COUNT, runnable -> {
+        Thread worker = new Thread(runnable, "miner#" + workerNumber.incrementAndGet());
+        worker.setDaemon(true);
+        return worker;
+    });
+
+    private static final ThreadLocal<Worker> worker = ThreadLocal.withInitial(Worker::new);
+
+    private final Set<Job> jobs = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hashes = new LongAdder();
+    private int activeJobs;
+    private long miningSince;
+    private long miningNanos;
 
     /**
      * Creates miners to find a correct nonce for the given byte block.
      * @param txBytes byte block.
      * @param difficulty the mining difficulty. The difficulty is a number of leading zero bytes and it has to be in [1..31].
-     * @param threadCount miner count. If the count is not in [1..16], it is set automatically.
+     * @param threadCount miner count. If the count is not in [1..16], it is set automatically. It is limited to the
+     *                    number of available processors.
      * @return {@code true} if a valid nonce has been added into the byte block, {@code false} otherwise.
      * @throws IllegalArgumentException if TransactionViewModel.NONCE_SIZE < Long.BYTES
      * @throws IllegalArgumentException if txBytes is null or txBytes.length != TransactionViewModel.SIZE
@@ -41,7 +79,7 @@ public class GreedyMiner {
      * @see TransactionViewModel#SIZE
      * @see TransactionViewModel#NONCE_SIZE
      */
-    public synchronized boolean mine(byte[] txBytes, int difficulty, int threadCount) {
+    public boolean mine(byte[] txBytes, int difficulty, int threadCount) {
         if (TransactionViewModel.NONCE_SIZE < Long.BYTES) {
             throw new IllegalArgumentException("Illegal NONCE_SIZE: " + TransactionViewModel.NONCE_SIZE);
         }
@@ -56,75 +94,147 @@ public class GreedyMiner {
         if (threadCount < 1 || threadCount > 16) {
             threadCount = Math.max(1, Math.floorDiv(Runtime.getRuntime().availableProcessors() * 8, 10));
         }
-        state = new AtomicReference(RUNNING);
         byte[] target = BigIntegers.asUnsignedByteArray(Sha3.HASH_LENGTH,
                 BigInteger.valueOf(2).pow(256 - difficulty));
 
-        ArrayList<Thread> miners = new ArrayList<>(threadCount);
-        for (int i = 1; i <= threadCount; i++) {
-            Runnable runnable = getMiner(txBytes, target, i, threadCount);
-            Thread miner = new Thread(runnable);
-            miner.setName("miner#" + i);
-            miner.setDaemon(true);
-            miners.add(miner);
-            miner.start();
-        }
-        for (Thread miner : miners) {
-            try {
-                miner.join();
-            } catch (InterruptedException ex) {
-                cancel();
+        Job job = new Job(txBytes, target);
+        jobs.add(job);
+        jobStarted();
+        try {
+            for (int i = Math.min(threadCount, WORKER_COUNT); i > 0; i--) {
+                workers.execute(job);
             }
+            job.done.await();
+        } catch (InterruptedException ex) {
+            job.cancel();
+            Thread.currentThread().interrupt();
+        } finally {
+            jobs.remove(job);
+            jobFinished();
         }
-        //log.debug("MINER_STATE: {}", state);
-        return state.get() == COMPLETED;
+        return job.state.get() == COMPLETED;
     }
 
     /**
      * Cancels miners working.
      */
     public void cancel() {
-        if (state != null) {
-            state.set(CANCELLED);
+        for (Job job : jobs) {
+            job.cancel();
         }
     }
 
     /**
-     * The miner finds a correct nonce and adds it into the byte block.
-     * @param txBytes the byte block.
-     * @param target the pattern to compare.
-     * @param offset the initial nonce.
-     * @param step the step added to the nonce every iteration.
-     * @return the miner.
+     * @return the number of nonces hashed by this miner
      */
-    private Runnable getMiner(byte[] txBytes, byte[] target, int offset, int step) {
-        return () -> {
-            byte[] result = txBytes.clone();
-            ByteBuffer nonceWrapper = ByteBuffer.wrap(result, TransactionViewModel.NONCE_OFFSET,
-                    TransactionViewModel.NONCE_SIZE).slice();
-            for (long nonce = offset; state.get() == RUNNING && nonce > 0; nonce += step) {
-                nonceWrapper.putLong(0, nonce);
-                byte[] hash = sha3(result);
-                if(FastByteComparisons.compareTo(hash, 0, Sha3.HASH_LENGTH, target, 0, Sha3.HASH_LENGTH) < 0 && state.compareAndSet(RUNNING, COMPLETED)) {
-                        System.arraycopy(result, TransactionViewModel.NONCE_OFFSET, txBytes,
-                                TransactionViewModel.NONCE_OFFSET, TransactionViewModel.NONCE_SIZE);
+    public long getHashCount() {
+        return hashes.sum();
+    }
+
+    /**
+     * @return the number of nonces hashed per second while this miner was mining
+     */
+    public synchronized long getHashesPerSecond() {
+        long nanos = miningNanos + (activeJobs > 0 ? System.nanoTime() - miningSince : 0);
+        return nanos == 0 ? 0 : (long) (hashes.sum() * 1_000_000_000d / nanos);
+    }
+
+    private synchronized void jobStarted() {
+        if (activeJobs++ == 0) {
+            miningSince = System.nanoTime();
+        }
+    }
+
+    private synchronized void jobFinished() {
+        if (--activeJobs == 0) {
+            miningNanos += System.nanoTime() - miningSince;
+        }
+    }
+
+    /**
+     * The search for the nonce of one byte block. Running the job searches the next chunk of nonces, a job is queued
+     * once per miner thread and requeues itself until it is completed or cancelled.
+     */
+    private class Job implements Runnable {
+
+        private final byte[] txBytes;
+        private final byte[] target;
+        private final PrefixedSha3Digest prefix = new PrefixedSha3Digest();
+        private final byte[] suffix;
+
+        private final AtomicReference<State> state = new AtomicReference<>(RUNNING);
+        private final AtomicLong nextNonce = new AtomicLong(1);
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private Job(byte[] txBytes, byte[] target) {
+            this.txBytes = txBytes;
+            this.target = target;
+            prefix.update(txBytes, 0, TransactionViewModel.NONCE_OFFSET);
+            suffix = Arrays.copyOfRange(txBytes, TransactionViewModel.NONCE_OFFSET, txBytes.length);
+        }
+
+        @Override
+        public void run() {
+            if (state.get() != RUNNING) {
+                return;
+            }
+            long first = nextNonce.getAndAdd(NONCES_PER_TASK);
+            if (first <= 0) {
+                // every positive nonce was tried
+                finish(CANCELLED);
+                return;
+            }
+
+            Worker current = worker.get();
+            System.arraycopy(suffix, 0, current.tail, 0, suffix.length);
+            long nonce = first;
+            for (long last = first + NONCES_PER_TASK; nonce != last && nonce > 0 && state.get() == RUNNING; nonce++) {
+                if (current.hash(prefix, nonce, target)) {
+                    hashes.add(nonce - first + 1);
+                    if (state.compareAndSet(RUNNING, COMPLETED)) {
+                        System.arraycopy(current.tail, 0, txBytes, TransactionViewModel.NONCE_OFFSET,
+                                TransactionViewModel.NONCE_SIZE);
+                        done.countDown();
+                    }
+                    return;
                 }
             }
-        };
+            hashes.add(nonce - first);
+            if (state.get() == RUNNING) {
+                workers.execute(this);
+            }
+        }
+
+        private void cancel() {
+            finish(CANCELLED);
+        }
+
+        private void finish(State result) {
+            if (state.compareAndSet(RUNNING, result)) {
+                done.countDown();
+            }
+        }
     }
 
     /**
-     * Hashes the byte array.
-     * @param message the bytes to be hashed
-     * @return the hash
+     * The buffers of one worker thread, reused for every nonce it hashes.
      */
-    private static byte[] sha3(byte[] message) {
-        Sha3 sha3 = new Sha3();
-        byte[] txHash = new byte[Sha3.HASH_LENGTH];
-        sha3.reset();
-        sha3.absorb(message, 0, message.length);
-        sha3.squeeze(txHash, 0, Sha3.HASH_LENGTH);
-        return txHash;
-    }
+    private static class Worker {
+        private final PrefixedSha3Digest digest = new PrefixedSha3Digest();
+        private final byte[] tail = new byte[TransactionViewModel.SIZE - TransactionViewModel.NONCE_OFFSET];
+        private final ByteBuffer nonceWrapper = ByteBuffer.wrap(tail, 0, TransactionViewModel.NONCE_SIZE).slice();
+        private final byte[] hash = new byte[Sha3.HASH_LENGTH];
 
+        /**
+         * Hashes the absorbed prefix followed by the nonce and the tail of the byte block.
+         * @return {@code true} if the hash is below the target
+         */
+        private boolean hash(PrefixedSha3Digest prefix, long nonce, byte[] target) {
+            nonceWrapper.putLong(0, nonce);
+            digest.restore(prefix);
+            digest.update(tail, 0, tail.length);
+            digest.doFinal(hash, 0);
+            return FastByteComparisons.compareTo(hash, 0, Sha3.HASH_LENGTH, target, 0, Sha3.HASH_LENGTH) < 0;
+        }
+    }
 }
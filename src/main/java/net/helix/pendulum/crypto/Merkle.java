@@ -16,7 +16,7 @@ public class Merkle {
 
     public static byte[] getMerkleRoot(SpongeFactory.Mode mode, byte[] hash, byte[] bytes, int offset, final int indexIn, int size) {
         int index = indexIn;
-        final Sponge sha3 = SpongeFactory.create(mode);
+        final Sponge sha3 = SpongeFactory.get(mode);
         for (int i = 0; i < size; i++) {
             sha3.reset();
             if ((index & 1) == 0) {
@@ -59,8 +59,9 @@ public class Merkle {
         if (leaves.isEmpty()) {
             leaves.add(Hash.NULL_HASH);
         }
-        byte[] buffer;
-        Sponge sha3 = SpongeFactory.create(SpongeFactory.Mode.S256);
+        byte[] zero = new byte[Sha3.HASH_LENGTH];
+        byte[] buffer = new byte[Sha3.HASH_LENGTH];
+        Sponge sha3 = SpongeFactory.get(SpongeFactory.Mode.S256);
         int depth = (int) Math.ceil(Math.sqrt(leaves.size()));
         List<List<Hash>> merkleTree = new ArrayList<>(depth + 1);
         merkleTree.add(0, leaves);
@@ -77,10 +78,8 @@ public class Merkle {
                 sha3.reset();
                 Hash k1 = leaves.get(i * 2);
                 Hash k2 = leaves.get(i * 2 + 1);
-                buffer = Arrays.copyOfRange(k1 == null ? Hex.decode("0000000000000000000000000000000000000000000000000000000000000000") : k1.bytes(), 0, 32);
-                sha3.absorb(buffer, 0, buffer.length);
-                buffer = Arrays.copyOfRange(k2 == null ? Hex.decode("0000000000000000000000000000000000000000000000000000000000000000") : k2.bytes(), 0, 32);
-                sha3.absorb(buffer, 0, buffer.length);
+                sha3.absorb(k1 == null ? zero : k1.bytes(), 0, Sha3.HASH_LENGTH);
+                sha3.absorb(k2 == null ? zero : k2.bytes(), 0, Sha3.HASH_LENGTH);
                 sha3.squeeze(buffer, 0, buffer.length);
                 nextKeys.set(i, HashFactory.TRANSACTION.create(buffer));
             }
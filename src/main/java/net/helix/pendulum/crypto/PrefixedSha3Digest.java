@@ -0,0 +1,36 @@
+package net.helix.pendulum.crypto;
+
+import org.bouncycastle.crypto.digests.SHA3Digest;
+
+/**
+ * Sha3-256 digest that can be rewound to a previously absorbed prefix without allocating.
+ * <p>
+ *     The miner absorbs the bytes in front of the nonce once, keeps that digest as the prefix and restores every
+ *     worker digest from it before absorbing a nonce and the remaining bytes. Only the sponge blocks that contain the
+ *     nonce are permuted per nonce.
+ * </p>
+ */
+class PrefixedSha3Digest extends SHA3Digest {
+
+    PrefixedSha3Digest() {
+        super(256);
+    }
+
+    PrefixedSha3Digest(PrefixedSha3Digest source) {
+        super(source);
+    }
+
+    /**
+     * Copies the absorbed state of another digest into this one.
+     *
+     * @param source the digest to rewind to
+     */
+    void restore(PrefixedSha3Digest source) {
+        System.arraycopy(source.state, 0, state, 0, source.state.length);
+        System.arraycopy(source.dataQueue, 0, dataQueue, 0, source.dataQueue.length);
+        rate = source.rate;
+        bitsInQueue = source.bitsInQueue;
+        fixedOutputLength = source.fixedOutputLength;
+        squeezing = source.squeezing;
+    }
+}
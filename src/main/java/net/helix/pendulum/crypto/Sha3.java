@@ -6,6 +6,7 @@ import net.helix.pendulum.utils.FastByteComparisons;
 import org.bouncycastle.crypto.digests.SHA3Digest;
 import org.bouncycastle.jcajce.provider.digest.SHA3;
 
+import java.nio.ByteBuffer;
 import java.security.DigestException;
 
 // Sha3-256
@@ -32,7 +33,28 @@ public class Sha3 implements Sponge {
         for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
             sha.update(bytes, pos, HASH_LENGTH);
         }
-        only0 = only0 && (FastByteComparisons.compareTo(bytes, offset, length, new byte[length], 0, length) == 0);
+        only0 = only0 && FastByteComparisons.isZero(bytes, offset, length);
+    }
+
+    /**
+     * Absorbs the remaining bytes of the buffer without copying them, also for direct buffers.
+     *
+     * @param buffer bytes to absorb, the number of remaining bytes has to be a multiple of {@link #HASH_LENGTH}
+     */
+    @Override
+    public void absorb(final ByteBuffer buffer) {
+        if (buffer.remaining() % HASH_LENGTH != 0) {
+            throw new IllegalHashLengthException("Illegal length: " + buffer.remaining());
+        }
+        if (only0) {
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                if (buffer.get(i) != 0) {
+                    only0 = false;
+                    break;
+                }
+            }
+        }
+        sha.update(buffer);
     }
 
     @Override
@@ -67,8 +89,7 @@ public class Sha3 implements Sponge {
         SHA3Digest digest = new SHA3Digest(256);
         byte[] hash = new byte[digest.getDigestSize()];
         if (message.length != 0) {
-            if ((FastByteComparisons.compareTo(message, 0, message.length,
-                    new byte[message.length], 0, message.length) == 0)) {
+            if (FastByteComparisons.isZero(message, 0, message.length)) {
                 return hash;
             }
             digest.update(message, 0, message.length);
@@ -32,7 +32,7 @@ public class Sha3_512 implements Sponge {
         for (int pos = offset; pos < offset + length; pos += HASH_LENGTH) {
             sha.update(bytes, pos, HASH_LENGTH);
         }
-        only0 = only0 && (FastByteComparisons.compareTo(bytes, offset, length, new byte[length], 0, length) == 0);
+        only0 = only0 && FastByteComparisons.isZero(bytes, offset, length);
     }
 
     @Override
@@ -67,8 +67,7 @@ public class Sha3_512 implements Sponge {
         SHA3Digest digest = new SHA3Digest(512);
         byte[] hash = new byte[digest.getDigestSize()];
         if (message.length != 0) {
-            if ((FastByteComparisons.compareTo(message, 0, message.length,
-                    new byte[message.length], 0, message.length) == 0)) {
+            if (FastByteComparisons.isZero(message, 0, message.length)) {
                 return hash;
             }
             digest.update(message, 0, message.length);
@@ -1,9 +1,30 @@
 package net.helix.pendulum.crypto;
 
+import java.nio.ByteBuffer;
+
 public interface Sponge {
     int HASH_LENGTH = 32;
 
     void absorb(final byte[] bytes, final int offset, final int length);
+
+    /**
+     * Absorbs the remaining bytes of the buffer and moves its position to its limit. Heap buffers are absorbed in
+     * place, sponges that can read direct buffers without copying them override this method.
+     *
+     * @param buffer bytes to absorb, the number of remaining bytes has to be a multiple of the hash length
+     */
+    default void absorb(final ByteBuffer buffer) {
+        int length = buffer.remaining();
+        if (buffer.hasArray()) {
+            absorb(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.duplicate().get(bytes);
+            absorb(bytes, 0, length);
+        }
+        buffer.position(buffer.limit());
+    }
+
     void squeeze(final byte[] bytes, final int offset, final int length);
     void reset();
 }
@@ -10,6 +10,34 @@ public abstract class SpongeFactory {
         S256,
         S512
     }
+
+    private static final ThreadLocal<Sponge[]> pooled =
+            ThreadLocal.withInitial(() -> new Sponge[Mode.values().length]);
+
+    /**
+     * Returns the sponge of the calling thread for the given mode, so hashing one transaction after another does not
+     * allocate a new digest every time.
+     * <p>
+     *     The sponge is reset and every call on the same thread returns the same instance. It must not be passed to
+     *     other threads and must not be kept while calling code that might hash with the pooled sponge of the same
+     *     mode, use {@link #create(Mode)} for sponges that live longer.
+     * </p>
+     *
+     * @param mode hashing mode
+     * @return the reset sponge of the calling thread
+     */
+    public static Sponge get(Mode mode) {
+        Sponge[] sponges = pooled.get();
+        Sponge sponge = sponges[mode.ordinal()];
+        if (sponge == null) {
+            sponge = create(mode);
+            sponges[mode.ordinal()] = sponge;
+        } else {
+            sponge.reset();
+        }
+        return sponge;
+    }
+
     public static Sponge create(Mode mode){
         switch (mode) {
             case K256: return new K256();
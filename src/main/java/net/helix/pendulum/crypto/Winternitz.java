@@ -32,7 +32,7 @@ public class Winternitz {
         if (index < 0 || index > Integer.MAX_VALUE - 255) {
             throw new IllegalHashLengthException("Invalid subseed index: " + index);
         }
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.get(mode);
         if (seed.length % hash.HASH_LENGTH != 0) {
             throw new IllegalHashLengthException("Invalid seed length: " + seed.length);
         }
@@ -60,7 +60,7 @@ public class Winternitz {
      * @return <code> byte[] </code> private key
      */
     public static byte[] key(SpongeFactory.Mode mode, final byte[] subseed, final int numberOfFragments) {
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.get(mode);
         if (subseed.length != hash.HASH_LENGTH) {
             throw new IllegalHashLengthException("Invalid subseed length: " + subseed.length);
         }
@@ -85,7 +85,7 @@ public class Winternitz {
             throw new IllegalHashLengthException("Invalid private key length: " + key.length);
         }
 
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.get(mode);
         final byte[] digests = new byte[key.length / FRAGMENT_LENGTH * hash.HASH_LENGTH];
 
 
@@ -117,7 +117,7 @@ public class Winternitz {
      * @return <code> byte[] </code> address
      */
     public static byte[] address(SpongeFactory.Mode mode, final byte[] digests) {
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.get(mode);
         if (digests.length == 0 || digests.length %  hash.HASH_LENGTH != 0) {
             throw new IllegalHashLengthException("Invalid public key length: " + digests.length);
         }
@@ -142,7 +142,7 @@ public class Winternitz {
             throw new IllegalHashLengthException("Invalid key fragment length: " + keyFragment.length);
         }
         final byte[] signatureFragment = Arrays.copyOf(keyFragment, keyFragment.length);
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.get(mode);
 
         for (int j = 0; j < NUMBER_OF_FRAGMENT_CHUNKS; j++) {
             for (int k = (bundleFragment[j] < 0) ? rounds - (bundleFragment[j] + 256) : rounds - bundleFragment[j]; k-- > 0; ) {
@@ -166,7 +166,7 @@ public class Winternitz {
      */
     public static byte[] signatureFragments(SpongeFactory.Mode mode, final byte[] seed, final int index, final int numberOfFragments, final byte[] bundleHash) {
 
-        if (bundleHash.length != SpongeFactory.create(mode).HASH_LENGTH) {
+        if (bundleHash.length != Sponge.HASH_LENGTH) {
             throw new IllegalHashLengthException("Invalid bundle fragment length: " + bundleHash.length);
         }
         if (seed.length == 0) {
@@ -201,7 +201,7 @@ public class Winternitz {
             throw new IllegalHashLengthException("Invalid signature fragment length: " + signatureFragment.length);
         }
 
-        final Sponge hash = SpongeFactory.create(mode);
+        final Sponge hash = SpongeFactory.get(mode);
         final byte[] digest = new byte[hash.HASH_LENGTH];
         final byte[] buffer = Arrays.copyOfRange(signatureFragment, 0, FRAGMENT_LENGTH);
             for (int j = 0; j < NUMBER_OF_FRAGMENT_CHUNKS; j++) {
@@ -218,6 +218,47 @@ public class Winternitz {
         return digest;
     }
 
+    /**
+     * Same as {@link #digest(SpongeFactory.Mode, byte[], byte[])}, but reads the fragments in place and reuses the
+     * sponge and the buffer of the caller, so verifying many fragments does not allocate.
+     *
+     * @param hash              sponge that is used for hashing, it is reset before every use
+     * @param normalizedBundle  normalized bundle hash, positions behind its end count as 0
+     * @param bundleOffset      offset of the bundle fragment in the normalized bundle hash
+     * @param signatureFragment bytes that contain the signature fragment
+     * @param signatureOffset   offset of the signature fragment in these bytes
+     * @param buffer            scratch space of exactly {@link #FRAGMENT_LENGTH} bytes, like the copy of the fragment
+     *                          that {@link #digest(SpongeFactory.Mode, byte[], byte[])} hashes in
+     * @param digest            receives the digest
+     * @param digestOffset      offset of the digest in its array
+     */
+    public static void digest(Sponge hash, final byte[] normalizedBundle, int bundleOffset,
+                              final byte[] signatureFragment, int signatureOffset, byte[] buffer,
+                              byte[] digest, int digestOffset) {
+        if (signatureFragment.length - signatureOffset < FRAGMENT_LENGTH) {
+            throw new IllegalHashLengthException("Invalid signature fragment length: "
+                    + (signatureFragment.length - signatureOffset));
+        }
+        if (buffer.length != FRAGMENT_LENGTH) {
+            throw new IllegalArgumentException("Invalid buffer length: " + buffer.length);
+        }
+
+        System.arraycopy(signatureFragment, signatureOffset, buffer, 0, FRAGMENT_LENGTH);
+        for (int j = 0; j < NUMBER_OF_FRAGMENT_CHUNKS; j++) {
+            int position = bundleOffset + j;
+            byte value = position < normalizedBundle.length ? normalizedBundle[position] : 0;
+            for (int k = (value < 0) ? value + 256 : value; k-- > 0; ) {
+                hash.reset();
+                hash.absorb(buffer, j * HASH_LENGTH, HASH_LENGTH);
+                hash.squeeze(buffer, j * HASH_LENGTH, HASH_LENGTH);
+            }
+        }
+        hash.reset();
+        hash.absorb(buffer, 0, FRAGMENT_LENGTH);
+        hash.squeeze(buffer, 0, HASH_LENGTH);
+        System.arraycopy(buffer, 0, digest, digestOffset, HASH_LENGTH);
+    }
+
     public static boolean validateSignature(SpongeFactory.Mode mode, byte[] expectedAddress, byte[] signatureFragments, byte[] bundleHash) {
 
         byte[] normBundleHash = normalizedBundle(bundleHash);
@@ -0,0 +1,63 @@
+package net.helix.pendulum.model;
+
+import net.helix.pendulum.storage.Persistable;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+ /**
+ * The StateDiffCheckpoint model class is an implementation of the <code> Persistable </code> interface.
+ * It holds the accumulated {@link StateDiff}s of a block of consecutive rounds, the index of the first round of the
+ * block and the rounds of the block that did not exist when the checkpoint was written.
+ */
+public class StateDiffCheckpoint implements Persistable {
+    private static final int ENTRY_SIZE = Hash.SIZE_IN_BYTES + Long.BYTES;
+
+    public int firstRoundIndex;
+    public int[] skippedRounds;
+    public Map<Hash, Long> state;
+
+    public byte[] bytes() {
+        ByteBuffer buffer = ByteBuffer.allocate((2 + skippedRounds.length) * Integer.BYTES + state.size() * ENTRY_SIZE);
+        buffer.putInt(firstRoundIndex);
+        buffer.putInt(skippedRounds.length);
+        for (int skippedRound : skippedRounds) {
+            buffer.putInt(skippedRound);
+        }
+        state.forEach((address, balance) -> buffer.put(address.bytes()).putLong(balance));
+        return buffer.array();
+    }
+
+    public void read(byte[] bytes) {
+        if (bytes == null) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        firstRoundIndex = buffer.getInt();
+        skippedRounds = new int[buffer.getInt()];
+        for (int i = 0; i < skippedRounds.length; i++) {
+            skippedRounds[i] = buffer.getInt();
+        }
+        state = new HashMap<>(buffer.remaining() / ENTRY_SIZE * 4 / 3 + 1);
+        for (int i = buffer.position(); i < bytes.length; i += ENTRY_SIZE) {
+            state.put(HashFactory.ADDRESS.create(bytes, i, Hash.SIZE_IN_BYTES),
+                    buffer.getLong(i + Hash.SIZE_IN_BYTES));
+        }
+    }
+
+    @Override
+    public byte[] metadata() {
+        return new byte[0];
+    }
+
+    @Override
+    public void readMetadata(byte[] bytes) {
+        // Does nothing
+    }
+
+    @Override
+    public boolean merge() {
+        return false;
+    }
+}
@@ -4,8 +4,17 @@ import net.helix.pendulum.crypto.Sponge;
 import net.helix.pendulum.crypto.SpongeFactory;
 import org.bouncycastle.util.encoders.Hex;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
 public class TransactionHash extends AbstractHash {
 
+    /**
+     * Minimum number of transactions that are hashed in parallel by {@link #calculate(SpongeFactory.Mode, List)}.
+     */
+    private static final int MIN_PARALLEL_BATCH = 64;
+
     public TransactionHash() {
     }
 
@@ -20,7 +29,28 @@ public class TransactionHash extends AbstractHash {
      * @return The {@link TransactionHash}
      */
     public static TransactionHash calculate(SpongeFactory.Mode mode, byte[] bytes) {
-        return calculate(bytes, 0, bytes.length, SpongeFactory.create(mode));
+        return calculate(bytes, 0, bytes.length, SpongeFactory.get(mode));
+    }
+
+    /**
+     * Calculates the transaction hashes of many arrays of bytes at once.
+     * <p>
+     *     Large batches are hashed in parallel on the common fork join pool, every thread hashes with its pooled
+     *     sponge, see {@link SpongeFactory#get(SpongeFactory.Mode)}.
+     * </p>
+     * @param mode The mode(sha3 or keccak) we absorb the bytes with
+     * @param transactions arrays of bytes we calculate the hashes with
+     * @return The {@link TransactionHash}es in the order of the arrays
+     */
+    public static List<TransactionHash> calculate(SpongeFactory.Mode mode, List<byte[]> transactions) {
+        final byte[][] batch = transactions.toArray(new byte[transactions.size()][]);
+        final TransactionHash[] hashes = new TransactionHash[batch.length];
+        IntStream indexes = IntStream.range(0, batch.length);
+        if (batch.length >= MIN_PARALLEL_BATCH) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> hashes[i] = calculate(mode, batch[i]));
+        return Arrays.asList(hashes);
     }
 
     @Override
@@ -3,10 +3,15 @@ package net.helix.pendulum.model.persistables;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.HashFactory;
 import net.helix.pendulum.storage.Persistable;
-import org.apache.commons.lang3.ArrayUtils;
 
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Created by paul on 3/8/17 for IRI.
@@ -17,20 +22,40 @@ import java.util.Set;
  * It contains a set <code> LinkedHashSet </code> and delimiter <code> byte </code>.
  * The <code> LinkedHashSet </code> is a hash table with linked entries, which can be converted into a byte array.
  * The delimiter is used as indicator for next element of the LinkedHashSet.
+ * <br />
+ * Sets read from the database are backed by the stored bytes and are only decoded into a <code> LinkedHashSet </code>
+ * once they are modified, iterated or queried by value, so counting, streaming and re-encoding them stays
+ * allocation-light.
  */
 public class Hashes implements Persistable {
     public Set<Hash> set = new LinkedHashSet<>();
     static final byte delimiter = ",".getBytes()[0];
 
+    /**
+     * Size of one encoded entry: the delimiter followed by the hash (the first entry has no delimiter).
+     */
+    static final int ENTRY_SIZE = 1 + Hash.SIZE_IN_BYTES;
+
     /**
     * Get byte array of the set.
+    * The array is allocated once with its final size and filled in a single pass.
     * @return a <code> byte[] </code>
     */
     public byte[] bytes() {
-        return set.parallelStream()
-                .map(Hash::bytes)
-                .reduce((a,b) -> ArrayUtils.addAll(ArrayUtils.add(a, delimiter), b))
-                .orElse(new byte[0]);
+        if (set instanceof EncodedSet && !((EncodedSet) set).isDecoded()) {
+            return ((EncodedSet) set).encoded();
+        }
+        int size = set.size();
+        byte[] bytes = new byte[size == 0 ? 0 : size * ENTRY_SIZE - 1];
+        int position = 0;
+        for (Hash hash : set) {
+            if (position != 0) {
+                bytes[position++] = delimiter;
+            }
+            System.arraycopy(hash.bytes(), 0, bytes, position, Hash.SIZE_IN_BYTES);
+            position += Hash.SIZE_IN_BYTES;
+        }
+        return bytes;
     }
 
     /**
@@ -44,15 +69,14 @@ public class Hashes implements Persistable {
 
     /**
     * Create the set from a given byte array.
+    * The hashes are not decoded here, the set is backed by the given array until it is first needed as a real set.
     * @param bytes is a <code> byte[] </code>
     * @param offset the offset defining the start point for hash objects in the array
+    * @param c the class of the hashes stored in the array
     */
     protected void read(byte[] bytes, int offset, Class<?> c) {
         if (bytes != null) {
-            set = new LinkedHashSet<>((bytes.length - offset) / (1 + Hash.SIZE_IN_BYTES) + 1);
-            for (int i = offset; i < bytes.length; i += 1 + Hash.SIZE_IN_BYTES) {
-                set.add(HashFactory.GENERIC.create(c, bytes, i, Hash.SIZE_IN_BYTES));
-            }
+            set = new EncodedSet(bytes, offset, c);
         }
     }
 
@@ -82,4 +106,152 @@ public class Hashes implements Persistable {
     public boolean merge() {
         return true;
     }
+
+    /**
+     * A set view on the serialized form of {@link Hashes}.
+     * <br />
+     * Emptiness checks, counting, streaming and re-encoding work directly on the stored bytes. Every other operation
+     * decodes the hashes once into a <code> LinkedHashSet </code> and delegates to it from then on.
+     * Merged values can contain the same hash more than once, so counts and streams are deduplicated on the fly.
+     */
+    private static final class EncodedSet extends AbstractSet<Hash> {
+        private final byte[] bytes;
+        private final int offset;
+        private final Class<?> hashClass;
+        private Set<Hash> decoded;
+        private int distinctEntries = -1;
+
+        private EncodedSet(byte[] bytes, int offset, Class<?> hashClass) {
+            this.bytes = bytes;
+            this.offset = offset;
+            this.hashClass = hashClass;
+        }
+
+        private boolean isDecoded() {
+            return decoded != null;
+        }
+
+        private int entries() {
+            return bytes.length <= offset ? 0 : (bytes.length - offset + 1) / ENTRY_SIZE;
+        }
+
+        private Hash entry(int i) {
+            return HashFactory.GENERIC.create(hashClass, bytes, offset + i * ENTRY_SIZE, Hash.SIZE_IN_BYTES);
+        }
+
+        /**
+         * Counts the distinct entries without creating hashes. The indices of the entries are put into an open
+         * addressing table of primitives, entries are only compared byte by byte when their slots collide.
+         *
+         * @return the number of distinct hashes in the stored bytes
+         */
+        private int distinctEntries() {
+            if (distinctEntries < 0) {
+                int entries = entries();
+                if (entries <= 1) {
+                    distinctEntries = entries;
+                } else {
+                    int[] table = new int[Integer.highestOneBit(entries * 2 + 1) << 1];
+                    int mask = table.length - 1;
+                    int count = 0;
+                    for (int i = 0; i < entries; i++) {
+                        int slot = entryHash(i) & mask;
+                        while (table[slot] != 0 && !sameEntries(table[slot] - 1, i)) {
+                            slot = (slot + 1) & mask;
+                        }
+                        if (table[slot] == 0) {
+                            table[slot] = i + 1;
+                            count++;
+                        }
+                    }
+                    distinctEntries = count;
+                }
+            }
+            return distinctEntries;
+        }
+
+        private int entryHash(int i) {
+            int start = offset + i * ENTRY_SIZE;
+            int hash = 1;
+            for (int j = start; j < start + Hash.SIZE_IN_BYTES; j++) {
+                hash = 31 * hash + bytes[j];
+            }
+            return hash ^ (hash >>> 16);
+        }
+
+        private boolean sameEntries(int i, int j) {
+            int first = offset + i * ENTRY_SIZE;
+            int second = offset + j * ENTRY_SIZE;
+            for (int k = 0; k < Hash.SIZE_IN_BYTES; k++) {
+                if (bytes[first + k] != bytes[second + k]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private byte[] encoded() {
+            return offset == 0 ? bytes : Arrays.copyOfRange(bytes, offset, bytes.length);
+        }
+
+        private Set<Hash> decoded() {
+            if (decoded == null) {
+                int entries = entries();
+                Set<Hash> hashes = new LinkedHashSet<>(entries + 1);
+                for (int i = 0; i < entries; i++) {
+                    hashes.add(entry(i));
+                }
+                decoded = hashes;
+            }
+            return decoded;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return decoded == null ? entries() == 0 : decoded.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return decoded == null ? distinctEntries() : decoded.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return decoded().contains(o);
+        }
+
+        @Override
+        public Iterator<Hash> iterator() {
+            return decoded().iterator();
+        }
+
+        @Override
+        public boolean add(Hash hash) {
+            return decoded().add(hash);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return decoded().remove(o);
+        }
+
+        @Override
+        public void clear() {
+            decoded().clear();
+        }
+
+        @Override
+        public Stream<Hash> stream() {
+            if (decoded != null) {
+                return decoded.stream();
+            }
+            return IntStream.range(0, entries()).mapToObj(this::entry).distinct();
+        }
+
+        @Override
+        public void forEach(Consumer<? super Hash> action) {
+            stream().forEach(action);
+        }
+    }
 }
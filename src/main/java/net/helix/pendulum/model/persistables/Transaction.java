@@ -85,12 +85,13 @@ public class Transaction implements Persistable {
 
     @Override
     public byte[] metadata() {
+        byte[] senderBytes = sender.getBytes();
         int allocateSize =
                 Hash.SIZE_IN_BYTES * 5 + //address,bundle,trunk,branch,bundleNonce 160
                         Long.BYTES * 11 + //bundleNonce,value,currentIndex,lastIndex,timestamp,roundIndex,tag,attachmentTimestampLowerBound,attachmentTimestampUpperBound,arrivalTime,height 88
                         Integer.BYTES * 4 + //validity,type,snapshot,confirmations 16
                         1 + //solid
-                        sender.getBytes().length; //sender
+                        senderBytes.length; //sender
         ByteBuffer buffer = ByteBuffer.allocate(allocateSize);
 
         buffer.put(address.bytes());
@@ -99,21 +100,21 @@ public class Transaction implements Persistable {
         buffer.put(branch.bytes());
 
         buffer.put(bundleNonce.bytes());
-        buffer.put(Serializer.serialize(value));
-        buffer.put(Serializer.serialize(currentIndex));
-        buffer.put(Serializer.serialize(lastIndex));
-        buffer.put(Serializer.serialize(timestamp));
-        buffer.put(Serializer.serialize(roundIndex));
+        buffer.putLong(value);
+        buffer.putLong(currentIndex);
+        buffer.putLong(lastIndex);
+        buffer.putLong(timestamp);
+        buffer.putLong(roundIndex);
         buffer.put(tag.bytes());
 
-        buffer.put(Serializer.serialize(attachmentTimestamp));
-        buffer.put(Serializer.serialize(attachmentTimestampLowerBound));
-        buffer.put(Serializer.serialize(attachmentTimestampUpperBound));
+        buffer.putLong(attachmentTimestamp);
+        buffer.putLong(attachmentTimestampLowerBound);
+        buffer.putLong(attachmentTimestampUpperBound);
 
-        buffer.put(Serializer.serialize(validity));
-        buffer.put(Serializer.serialize(type));
-        buffer.put(Serializer.serialize(arrivalTime));
-        buffer.put(Serializer.serialize(height));
+        buffer.putInt(validity);
+        buffer.putInt(type);
+        buffer.putLong(arrivalTime);
+        buffer.putLong(height);
         //buffer.put((byte) (confirmed ? 1:0));
 
         byte flags = 0;
@@ -121,9 +122,9 @@ public class Transaction implements Persistable {
         flags |= milestone ? IS_MILESTONE_BITMASK : 0;
         buffer.put(flags);
 
-        buffer.put(Serializer.serialize(snapshot));
-        buffer.put(Serializer.serialize(confirmations));
-        buffer.put(sender.getBytes());
+        buffer.putInt(snapshot);
+        buffer.putInt(confirmations);
+        buffer.put(senderBytes);
         return buffer.array();
     }
 
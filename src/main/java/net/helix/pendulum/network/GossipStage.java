@@ -0,0 +1,260 @@
+package net.helix.pendulum.network;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A stage of the gossip processing pipeline of the {@link Node}.
+ * <p>
+ *     Items are handed to the stage with {@link #offer(Object)} and processed by a fixed number of worker threads.
+ *     The queue is bounded: a full stage either drops new items ({@link OverflowPolicy#DROP}) or blocks the offering
+ *     thread until a worker frees a slot ({@link OverflowPolicy#BLOCK}), which propagates backpressure to the
+ *     previous stage. The queue itself is lock-free, capacity and wake-ups are tracked with semaphores so that
+ *     workers park instead of polling.
+ * </p>
+ * <p>
+ *     The stage keeps counters of processed and dropped items and of the time items spend in the stage, see
+ *     {@link #metrics()}.
+ * </p>
+ *
+ * @param <T> the type of the processed items
+ */
+public class GossipStage<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(GossipStage.class);
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    /**
+     * What happens to items offered to a full stage.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The item is discarded and counted as dropped.
+         */
+        DROP,
+        /**
+         * The offering thread waits until the stage has room for the item.
+         */
+        BLOCK
+    }
+
+    /**
+     * Processes a single item of a stage.
+     *
+     * @param <T> the type of the processed items
+     */
+    @FunctionalInterface
+    public interface Handler<T> {
+        void handle(T item) throws Exception;
+    }
+
+    private final String name;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final Handler<T> handler;
+
+    private final Queue<Queued<T>> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore freeSlots;
+    private final Semaphore queuedItems = new Semaphore(0);
+
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private volatile int threads;
+
+    /**
+     * @param name name of the stage, used for the worker threads and the metrics
+     * @param capacity maximum number of queued items
+     * @param overflowPolicy what happens to items offered to a full stage
+     * @param handler processes the items
+     */
+    public GossipStage(String name, int capacity, OverflowPolicy overflowPolicy, Handler<T> handler) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.handler = handler;
+        this.freeSlots = new Semaphore(capacity);
+    }
+
+    /**
+     * Starts the worker threads of the stage.
+     *
+     * @param threads number of worker threads
+     */
+    public synchronized void start(int threads) {
+        running = true;
+        this.threads = Math.max(1, threads);
+        for (int i = 0; i < this.threads; i++) {
+            Thread worker = new Thread(this::work, "Gossip " + name + " #" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Stops the worker threads, queued items are discarded.
+     *
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public synchronized void shutdown() throws InterruptedException {
+        running = false;
+        stopped = true;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(1));
+        }
+        workers.clear();
+        threads = 0;
+    }
+
+    /**
+     * Hands an item to the stage.
+     *
+     * @param item the item to process
+     * @return <code>true</code> if the item was queued, <code>false</code> if it was dropped
+     */
+    public boolean offer(T item) {
+        if (!acquireSlot()) {
+            dropped.increment();
+            return false;
+        }
+        queue.offer(new Queued<>(item, System.nanoTime()));
+        queuedItems.release();
+        return true;
+    }
+
+    private boolean acquireSlot() {
+        if (overflowPolicy == OverflowPolicy.DROP) {
+            return freeSlots.tryAcquire();
+        }
+        try {
+            while (!stopped) {
+                if (freeSlots.tryAcquire(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void work() {
+        while (running) {
+            try {
+                if (!queuedItems.tryAcquire(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Queued<T> queued = queue.poll();
+            freeSlots.release();
+            try {
+                handler.handle(queued.item);
+            } catch (Exception e) {
+                log.error("Gossip " + name + " stage exception:", e);
+            }
+            processed.increment();
+            latencyNanos.add(System.nanoTime() - queued.enqueuedAt);
+        }
+    }
+
+    /**
+     * @return the number of queued items
+     */
+    public int size() {
+        return queuedItems.availablePermits();
+    }
+
+    /**
+     * @return a snapshot of the counters of this stage
+     */
+    public Metrics metrics() {
+        long processedItems = processed.sum();
+        return new Metrics(name, size(), capacity, threads, processedItems, dropped.sum(),
+                processedItems == 0 ? 0 : latencyNanos.sum() / processedItems / 1000);
+    }
+
+    private static class Queued<T> {
+        private final T item;
+        private final long enqueuedAt;
+
+        private Queued(T item, long enqueuedAt) {
+            this.item = item;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * Counters of a stage as reported by <code>getNodeInfo</code>.
+     */
+    public static class Metrics {
+        private final String name;
+        private final int queueSize;
+        private final int capacity;
+        private final int threads;
+        private final long processed;
+        private final long dropped;
+        private final long averageLatencyMicros;
+
+        Metrics(String name, int queueSize, int capacity, int threads, long processed, long dropped,
+                long averageLatencyMicros) {
+            this.name = name;
+            this.queueSize = queueSize;
+            this.capacity = capacity;
+            this.threads = threads;
+            this.processed = processed;
+            this.dropped = dropped;
+            this.averageLatencyMicros = averageLatencyMicros;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public long getProcessed() {
+            return processed;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getAverageLatencyMicros() {
+            return averageLatencyMicros;
+        }
+    }
+}
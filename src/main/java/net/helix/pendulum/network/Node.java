@@ -23,14 +23,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.*;
-import java.nio.ByteBuffer;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * Class Node is the core class for handling gossip protocol packets.
@@ -52,23 +50,25 @@ public class Node {
     private final int reqHashSize;
 
 
-    private int BROADCAST_QUEUE_SIZE;
-    private int RECV_QUEUE_SIZE;
-    private int REPLY_QUEUE_SIZE;
-    private static final int PAUSE_BETWEEN_TRANSACTIONS = 1;
-
     private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
 
     private final List<Neighbor> neighbors = new CopyOnWriteArrayList<>();
-    private final ConcurrentSkipListSet<TransactionViewModel> broadcastQueue = weightQueue();
-    private final ConcurrentSkipListSet<Pair<TransactionViewModel, Neighbor>> receiveQueue = weightQueueTxPair();
-    private final ConcurrentSkipListSet<Pair<Hash, Neighbor>> replyQueue = weightQueueHashPair();
 
+    /**
+     * The gossip pipeline: received packets are hashed, validated and stored by separate stages, replies and
+     * broadcasts are sent by their own stages. The stages are created in {@link #init()}.
+     */
+    private GossipStage<ReceivedPacket> hashStage;
+    private GossipStage<ReceivedTransaction> validateStage;
+    private GossipStage<Pair<TransactionViewModel, Neighbor>> storeStage;
+    private GossipStage<Pair<Hash, Neighbor>> replyStage;
+    private GossipStage<TransactionViewModel> broadcastStage;
+    private final Set<Hash> transactionsBeingStored = ConcurrentHashMap.newKeySet();
 
     private final DatagramPacket sendingPacket;
     private final DatagramPacket tipRequestingPacket;
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(5);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
     private final NodeConfig configuration;
     private final Tangle tangle;
     private final SnapshotProvider snapshotProvider;
@@ -79,17 +79,20 @@ public class Node {
     private static final SecureRandom rnd = new SecureRandom();
 
 
-    private FIFOCache<ByteBuffer, Hash> recentSeenBytes;
-
-    private static AtomicLong recentSeenBytesMissCount = new AtomicLong(0L);
-    private static AtomicLong recentSeenBytesHitCount = new AtomicLong(0L);
+    private RecentSeenBytesCache recentSeenBytes;
 
     private static long sendLimit = -1;
     private static AtomicLong sendPacketsCounter = new AtomicLong(0L);
     private static AtomicLong sendPacketsTimer = new AtomicLong(0L);
 
     public static final ConcurrentSkipListSet<String> rejectedAddresses = new ConcurrentSkipListSet<String>();
-    private DatagramSocket udpSocket;
+    private UDPReceiver udpReceiver;
+
+    /**
+     * Number of packet arrays kept by the {@link #packetPool}.
+     */
+    private static final int PACKET_POOL_SIZE = 4096;
+    private final PacketPool packetPool;
 
     /**
      * Internal map used to keep track of neighbor's IP vs DNS name
@@ -121,6 +124,7 @@ public class Node {
         int packetSize = configuration.getTransactionPacketSize();
         this.sendingPacket = new DatagramPacket(new byte[packetSize], packetSize);
         this.tipRequestingPacket = new DatagramPacket(new byte[packetSize], packetSize);
+        this.packetPool = new PacketPool(packetSize, PACKET_POOL_SIZE);
 
     }
 
@@ -133,37 +137,61 @@ public class Node {
         //TODO ask Alon
         sendLimit = (long) ((configuration.getSendLimit() * 1000000) / (configuration.getTransactionPacketSize() * 8));
 
-        BROADCAST_QUEUE_SIZE = RECV_QUEUE_SIZE = REPLY_QUEUE_SIZE = configuration.getqSizeNode();
-        recentSeenBytes = new FIFOCache<>(configuration.getCacheSizeBytes(), configuration.getpDropCacheEntry());
+        recentSeenBytes = new RecentSeenBytesCache(configuration.getCacheSizeBytes(),
+                configuration.getpDropCacheEntry());
 
         parseNeighborsConfig();
 
-        executor.submit(spawnBroadcasterThread());
+        int queueSize = configuration.getqSizeNode();
+        hashStage = new GossipStage<>("hash", queueSize, configuration.isGossipBackpressure()
+                ? GossipStage.OverflowPolicy.BLOCK : GossipStage.OverflowPolicy.DROP, this::hashReceivedData);
+        validateStage = new GossipStage<>("validate", queueSize, GossipStage.OverflowPolicy.BLOCK,
+                this::validateReceivedData);
+        storeStage = new GossipStage<>("store", queueSize, GossipStage.OverflowPolicy.BLOCK,
+                received -> storeReceivedData(received.getLeft(), received.getRight()));
+        replyStage = new GossipStage<>("reply", queueSize, GossipStage.OverflowPolicy.DROP,
+                request -> replyToRequest(request.getLeft(), request.getRight()));
+        broadcastStage = new GossipStage<>("broadcast", queueSize, GossipStage.OverflowPolicy.DROP,
+                this::broadcastToNeighbors);
+
+        hashStage.start(configuration.getGossipHashThreads());
+        validateStage.start(configuration.getGossipValidateThreads());
+        storeStage.start(configuration.getGossipStoreThreads());
+        replyStage.start(configuration.getGossipReplyThreads());
+        broadcastStage.start(1);
+
         executor.submit(spawnTipRequesterThread());
         executor.submit(spawnNeighborDNSRefresherThread());
-        executor.submit(spawnProcessReceivedThread());
-        executor.submit(spawnReplyToRequestThread());
 
         executor.shutdown();
     }
 
     /**
-     * Keeps the passed UDP DatagramSocket reference from {@link UDPReceiver}.
-     * This is currently only used in creating a new {@link UDPNeighbor}.
+     * Keeps the passed {@link UDPReceiver} reference.
+     * Its channel is used in creating a new {@link UDPNeighbor}.
      *
-     * @param {@link DatagramSocket} socket created by UDPReceiver
+     * @param udpReceiver the UDP receiver of this node
      */
-    public void setUDPSocket(final DatagramSocket socket) {
-        this.udpSocket = socket;
+    public void setUDPReceiver(final UDPReceiver udpReceiver) {
+        this.udpReceiver = udpReceiver;
     }
 
     /**
-     * Returns the stored UDP DatagramSocket reference from {@link UDPReceiver}.
+     * Returns the stored {@link UDPReceiver} reference.
      *
-     * @return {@link DatagramSocket} socket created by UDPReceiver
+     * @return the UDP receiver of this node or <code>null</code> if it was not started
      */
-    public DatagramSocket getUdpSocket() {
-        return udpSocket;
+    public UDPReceiver getUdpReceiver() {
+        return udpReceiver;
+    }
+
+    /**
+     * Returns the pool the receivers take the arrays for received packets from.
+     *
+     * @return the packet pool
+     */
+    public PacketPool getPacketPool() {
+        return packetPool;
     }
 
     /**
@@ -267,20 +295,32 @@ public class Node {
 
     /**
      * First Entry point for receiving any incoming transactions from TCP/UDP Receivers.
-     * At this point, the transport protocol (UDP/TCP) is irrelevant. We check if we have
-     * already received this packet by taking a hash of incoming payload and
-     * comparing it against a saved hash set. If the packet is new, we construct
-     * a {@link TransactionViewModel} object from it and perform some basic validation
-     * on the received transaction via  {@link TransactionValidator#runValidation}
+     * At this point, the transport protocol (UDP/TCP) is irrelevant. The packet is matched
+     * against the neighbors and handed to the gossip pipeline:
+     * <ol>
+     *     <li>the hash stage checks if we have already received this packet by taking a hash of the
+     *     incoming payload and comparing it against the recently seen packets. If the packet is new, it
+     *     constructs a {@link TransactionViewModel} object from it.</li>
+     *     <li>the validate stage performs some basic validation on the received transaction via
+     *     {@link TransactionValidator#runValidation}.</li>
+     *     <li>the store stage stores the transaction, see {@link #processReceivedData}.</li>
+     * </ol>
+     * The request contained in the packet is answered by the reply stage.
      *
-     * The packet is then added to receiveQueue for further processing.
+     * The caller must not modify <code>receivedData</code> afterwards, the packet is processed asynchronously and
+     * the array is returned to the {@link #getPacketPool() packet pool} afterwards.
+     *
+     * @return <code>true</code> if the packet was passed to the gossip pipeline, <code>false</code> if it was dropped
      */
 
-    public void preProcessReceivedData(byte[] receivedData, SocketAddress senderAddress, String uriScheme) {
-        Hash receivedTransactionHash = null;
-
+    public boolean preProcessReceivedData(byte[] receivedData, SocketAddress senderAddress, String uriScheme) {
+        if (hashStage == null) {
+            // not initialized yet
+            packetPool.release(receivedData);
+            return false;
+        }
         boolean addressMatch = false;
-        boolean cached = false;
+        boolean accepted = false;
         double pDropTransaction = configuration.getpDropTransaction();
 
         for (final Neighbor neighbor : getNeighbors()) {
@@ -292,83 +332,13 @@ public class Node {
                     //log.info("Randomly dropping transaction. Stand by... ");
                     break;
                 }
-                try {
-
-                    //Transaction bytes
-                    ByteBuffer digest = getBytesDigest(receivedData);
-
-                    //check if cached
-                    synchronized (recentSeenBytes) {
-                        cached = (receivedTransactionHash = recentSeenBytes.get(digest)) != null;
-                    }
-
-                    //if not cached, then validate
-                    if (!cached) {
-                        TransactionViewModel receivedTransactionViewModel = new TransactionViewModel(receivedData, TransactionHash.calculate(receivedData, TransactionViewModel.SIZE, SpongeFactory.create(SpongeFactory.Mode.S256)));
-                        receivedTransactionHash = receivedTransactionViewModel.getHash();
-                        transactionValidator.runValidation(receivedTransactionViewModel, transactionValidator.getMinWeightMagnitude());
-                        log.trace("Received_txvm / sender / isMilestone = {} {} {}", receivedTransactionHash.toString(), senderAddress.toString(), receivedTransactionViewModel.isMilestone());
-                        synchronized (recentSeenBytes) {
-                            recentSeenBytes.put(digest, receivedTransactionHash);
-                        }
-
-                        //if valid - add to receive queue (receivedTransactionViewModel, neighbor)
-                        addReceivedDataToReceiveQueue(receivedTransactionViewModel, neighbor);
-
-                    }
-
-                } catch (NoSuchAlgorithmException e) {
-                    log.error("MessageDigest: " + e);
-                } catch (final TransactionValidator.StaleTimestampException e) {
-                    log.debug(e.getMessage());
-                    try {
-                        transactionRequester.clearTransactionRequest(receivedTransactionHash);
-                    } catch (Exception e1) {
-                        log.error(e1.getMessage());
-                    }
-                    neighbor.incStaleTransactions();
-
-                } catch (final RuntimeException e) {
-                    log.error(e.getMessage());
-                    log.error("Received an Invalid TransactionViewModel. Dropping it...");
-                    neighbor.incInvalidTransactions();
-                    break;
-                }
-
-                //Request bytes
-
-                //add request to reply queue (requestedHash, neighbor)
-                Hash requestedHash = HashFactory.TRANSACTION.create(receivedData, TransactionViewModel.SIZE, reqHashSize);
-                if (requestedHash.equals(receivedTransactionHash)) {
-                    //requesting a random tip
-                    requestedHash = Hash.NULL_HASH;
-                }
-
-                addReceivedDataToReplyQueue(requestedHash, neighbor);
-
-                //recentSeenBytes statistics
-
-                if (log.isDebugEnabled()) {
-                    long hitCount;
-                    long missCount;
-                    if (cached) {
-                        hitCount = recentSeenBytesHitCount.incrementAndGet();
-                        missCount = recentSeenBytesMissCount.get();
-                    } else {
-                        hitCount = recentSeenBytesHitCount.get();
-                        missCount = recentSeenBytesMissCount.incrementAndGet();
-                    }
-                    if (((hitCount + missCount) % 50000L == 0)) {
-                        log.info("RecentSeenBytes cache hit/miss ratio: " + hitCount + "/" + missCount);
-                        tangle.publish("hmr %d/%d", hitCount, missCount);
-                        recentSeenBytesMissCount.set(0L);
-                        recentSeenBytesHitCount.set(0L);
-                    }
-                }
-
+                accepted = hashStage.offer(new ReceivedPacket(receivedData, neighbor));
                 break;
             }
         }
+        if (!accepted) {
+            packetPool.release(receivedData);
+        }
 
         if (!addressMatch && configuration.isTestnet()) {
             int maxPeersAllowed = configuration.getMaxPeers();
@@ -398,56 +368,126 @@ public class Node {
                 }
             }
         }
+        return accepted;
     }
 
     /**
-     * Adds incoming transactions to the {@link Node#receiveQueue} to be processed later.
+     * Passes a batch of received packets to {@link #preProcessReceivedData(byte[], SocketAddress, String)}.
+     *
+     * @param receivedData the packets, the first <code>count</code> entries are processed
+     * @param senderAddresses the senders of the packets
+     * @param count number of packets in the batch
+     * @param uriScheme the transport protocol of the packets
+     * @return the number of packets that were passed to the gossip pipeline
      */
-    public void addReceivedDataToReceiveQueue(TransactionViewModel receivedTransactionViewModel, Neighbor neighbor) {
-        receiveQueue.add(new ImmutablePair<>(receivedTransactionViewModel, neighbor));
-        if (receiveQueue.size() > RECV_QUEUE_SIZE) {
-            receiveQueue.pollLast();
+    public int preProcessReceivedData(byte[][] receivedData, SocketAddress[] senderAddresses, int count,
+                                      String uriScheme) {
+        int accepted = 0;
+        for (int i = 0; i < count; i++) {
+            if (preProcessReceivedData(receivedData[i], senderAddresses[i], uriScheme)) {
+                accepted++;
+            }
         }
+        return accepted;
+    }
 
+    /**
+     * Hash stage of the gossip pipeline. Packets that were recently seen are only answered, new packets are
+     * hashed and passed to the validate stage.
+     */
+    private void hashReceivedData(ReceivedPacket packet) {
+        try {
+            hashReceivedTransaction(packet);
+        } finally {
+            packetPool.release(packet.data);
+        }
+    }
+
+    private void hashReceivedTransaction(ReceivedPacket packet) {
+        RecentSeenBytesCache.Fingerprint fingerprint = recentSeenBytes.fingerprint(packet.data,
+                TransactionViewModel.SIZE);
+        Hash requestedHash = HashFactory.TRANSACTION.create(packet.data, TransactionViewModel.SIZE, reqHashSize);
+
+        //check if cached
+        Hash receivedTransactionHash = recentSeenBytes.get(fingerprint);
+        if (receivedTransactionHash != null) {
+            replyToPacket(requestedHash, receivedTransactionHash, packet.neighbor);
+            return;
+        }
+
+        TransactionViewModel receivedTransactionViewModel = new TransactionViewModel(packet.data,
+                TransactionHash.calculate(packet.data, TransactionViewModel.SIZE,
+                        SpongeFactory.get(SpongeFactory.Mode.S256)));
+        validateStage.offer(new ReceivedTransaction(receivedTransactionViewModel, fingerprint, requestedHash,
+                packet.neighbor));
     }
 
     /**
-     * Adds incoming transactions to the {@link Node#replyQueue} to be processed later
+     * Validate stage of the gossip pipeline. Valid transactions are remembered as recently seen and passed to the
+     * store stage. Stale transactions are not stored but their requests are still answered, invalid transactions
+     * are dropped.
      */
-    public void addReceivedDataToReplyQueue(Hash requestedHash, Neighbor neighbor) {
-        replyQueue.add(new ImmutablePair<>(requestedHash, neighbor));
-        if (replyQueue.size() > REPLY_QUEUE_SIZE) {
-            replyQueue.pollLast();
+    private void validateReceivedData(ReceivedTransaction received) {
+        TransactionViewModel receivedTransactionViewModel = received.transactionViewModel;
+        Hash receivedTransactionHash = receivedTransactionViewModel.getHash();
+        try {
+            transactionValidator.runValidation(receivedTransactionViewModel,
+                    transactionValidator.getMinWeightMagnitude());
+            log.trace("Received_txvm / sender / isMilestone = {} {} {}", receivedTransactionHash.toString(),
+                    received.neighbor.getAddress().toString(), receivedTransactionViewModel.isMilestone());
+            recentSeenBytes.put(received.fingerprint, receivedTransactionHash);
+
+            //if valid - pass to the store stage (receivedTransactionViewModel, neighbor)
+            storeStage.offer(new ImmutablePair<>(receivedTransactionViewModel, received.neighbor));
+        } catch (final TransactionValidator.StaleTimestampException e) {
+            log.debug(e.getMessage());
+            try {
+                transactionRequester.clearTransactionRequest(receivedTransactionHash);
+            } catch (Exception e1) {
+                log.error(e1.getMessage());
+            }
+            received.neighbor.incStaleTransactions();
+        } catch (final RuntimeException e) {
+            log.error(e.getMessage());
+            log.error("Received an Invalid TransactionViewModel. Dropping it...");
+            received.neighbor.incInvalidTransactions();
+            return;
         }
+
+        replyToPacket(received.requestedHash, receivedTransactionHash, received.neighbor);
     }
 
     /**
-     * Picks up a transaction and neighbor pair from receive queue. Calls
-     * {@link Node#processReceivedData} on the pair.
+     * Store stage of the gossip pipeline. Transactions that are already being stored by another worker are skipped.
      */
-    public void processReceivedDataFromQueue() {
-        final Pair<TransactionViewModel, Neighbor> receivedData = receiveQueue.pollFirst();
-        if (receivedData != null) {
-            processReceivedData(receivedData.getLeft(), receivedData.getRight());
+    private void storeReceivedData(TransactionViewModel receivedTransactionViewModel, Neighbor neighbor) {
+        Hash hash = receivedTransactionViewModel.getHash();
+        if (!transactionsBeingStored.add(hash)) {
+            return;
+        }
+        try {
+            processReceivedData(receivedTransactionViewModel, neighbor);
+        } finally {
+            transactionsBeingStored.remove(hash);
         }
     }
 
     /**
-     * Picks up a transaction hash and neighbor pair from reply queue. Calls
-     * {@link Node#replyToRequest} on the pair.
+     * Passes the request of a received packet (requestedHash, neighbor) to the reply stage.
      */
-    public void replyToRequestFromQueue() {
-        final Pair<Hash, Neighbor> receivedData = replyQueue.pollFirst();
-        if (receivedData != null) {
-            replyToRequest(receivedData.getLeft(), receivedData.getRight());
+    private void replyToPacket(Hash requestedHash, Hash receivedTransactionHash, Neighbor neighbor) {
+        if (requestedHash.equals(receivedTransactionHash)) {
+            //requesting a random tip
+            requestedHash = Hash.NULL_HASH;
         }
+        replyStage.offer(new ImmutablePair<>(requestedHash, neighbor));
     }
 
     /**
-     * This is second step of incoming transaction processing. The newly received
-     * and validated transactions are stored in {@link Node#receiveQueue}. This function
-     * picks up these transaction and stores them into the {@link Tangle} Database. The
-     * transaction is then added to the broadcast queue, to be fruther spammed to the neighbors.
+     * This is the last step of incoming transaction processing. The newly received
+     * and validated transactions are passed from the validate stage to the store stage, which
+     * stores them into the {@link Tangle} Database. The
+     * transaction is then added to the broadcast stage, to be fruther spammed to the neighbors.
      */
     public void processReceivedData(TransactionViewModel receivedTransactionViewModel, Neighbor neighbor) {
 
@@ -511,10 +551,9 @@ public class Node {
     }
 
     /**
-     * This is second step of incoming transaction processing. The newly received
-     * and validated transactions are stored in {@link Node#receiveQueue}. This function
-     * picks up these transaction and stores them into the {@link Tangle} Database. The
-     * transaction is then added to the broadcast queue, to be fruther spammed to the neighbors.
+     * Reply stage of the gossip pipeline. Sends the requested transaction, or a random tip if the
+     * {@link Hash#NULL_HASH} was requested, back to the neighbor. Requested transactions that we don't know
+     * are requested from our neighbors with probability {@link NodeConfig#getpPropagateRequest()}.
      */
     public void replyToRequest(Hash requestedHash, Neighbor neighbor) {
 
@@ -551,10 +590,8 @@ public class Node {
             try {
                 sendPacket(sendingPacket, transactionViewModel, neighbor);
 
-                ByteBuffer digest = getBytesDigest(transactionViewModel.getBytes());
-                synchronized (recentSeenBytes) {
-                    recentSeenBytes.put(digest, transactionViewModel.getHash());
-                }
+                recentSeenBytes.put(recentSeenBytes.fingerprint(transactionViewModel.getBytes(),
+                        TransactionViewModel.SIZE), transactionViewModel.getHash());
             } catch (Exception e) {
                 log.error("Error fetching transaction to request.", e);
             }
@@ -631,38 +668,18 @@ public class Node {
     }
 
     /**
-     * This thread picks up a new transaction from the broadcast queue and
-     * spams it to all of the neigbors. Sadly, this also includes the neigbor who
-     * originally sent us the transaction. This could be improved in future.
-     *
+     * Broadcast stage of the gossip pipeline. Spams a new transaction to all of the neigbors. Sadly, this also
+     * includes the neigbor who originally sent us the transaction. This could be improved in future.
      */
-    private Runnable spawnBroadcasterThread() {
-        return () -> {
-
-            log.info("Spawning Broadcaster Thread");
-
-            while (!shuttingDown.get()) {
-
-                try {
-                    final TransactionViewModel transactionViewModel = broadcastQueue.pollFirst();
-                    if (transactionViewModel != null) {
-
-                        for (final Neighbor neighbor : neighbors) {
-                            try {
-                                sendPacket(sendingPacket, transactionViewModel, neighbor);
-                                log.trace("Broadcasted_txhash = {}", transactionViewModel.getHash().toString());
-                            } catch (final Exception e) {
-                                // ignore
-                            }
-                        }
-                    }
-                    Thread.sleep(PAUSE_BETWEEN_TRANSACTIONS);
-                } catch (final Exception e) {
-                    log.error("Broadcaster Thread Exception:", e);
-                }
+    private void broadcastToNeighbors(TransactionViewModel transactionViewModel) {
+        for (final Neighbor neighbor : neighbors) {
+            try {
+                sendPacket(sendingPacket, transactionViewModel, neighbor);
+                log.trace("Broadcasted_txhash = {}", transactionViewModel.getHash().toString());
+            } catch (final Exception e) {
+                // ignore
             }
-            log.info("Shutting down Broadcaster Thread");
-        };
+        }
     }
 
     /**
@@ -697,6 +714,7 @@ public class Node {
                                 getReceiveQueueSize(), getBroadcastQueueSize(),
                                 transactionRequester.numberOfTransactionsToRequest(), getReplyQueueSize(),
                                 TransactionViewModel.getNumberOfStoredTransactions(tangle));
+                        tangle.publish("hmr %d/%d", recentSeenBytes.getHits(), recentSeenBytes.getMisses());
                     }
 
                     Thread.sleep(5000);
@@ -708,109 +726,23 @@ public class Node {
         };
     }
 
-    private Runnable spawnProcessReceivedThread() {
-        return () -> {
-
-            log.info("Spawning Process Received Data Thread");
-
-            while (!shuttingDown.get()) {
-
-                try {
-                    processReceivedDataFromQueue();
-                    Thread.sleep(1);
-                } catch (final Exception e) {
-                    log.error("Process Received Data Thread Exception:", e);
-                }
-            }
-            log.info("Shutting down Process Received Data Thread");
-        };
-    }
-
-    private Runnable spawnReplyToRequestThread() {
-        return () -> {
-
-            log.info("Spawning Reply To Request Thread");
-
-            while (!shuttingDown.get()) {
-
-                try {
-                    replyToRequestFromQueue();
-                    Thread.sleep(1);
-                } catch (final Exception e) {
-                    log.error("Reply To Request Thread Exception:", e);
-                }
-            }
-            log.info("Shutting down Reply To Request Thread");
-        };
-    }
-
-
-    private static ConcurrentSkipListSet<TransactionViewModel> weightQueue() {
-        return new ConcurrentSkipListSet<>((transaction1, transaction2) -> {
-            if (transaction1.weightMagnitude == transaction2.weightMagnitude) {
-                for (int i = Hash.SIZE_IN_BYTES; i-- > 0; ) {
-                    if (transaction1.getHash().bytes()[i] != transaction2.getHash().bytes()[i]) {
-                        return transaction2.getHash().bytes()[i] - transaction1.getHash().bytes()[i];
-                    }
-                }
-                return 0;
-            }
-            return transaction2.weightMagnitude - transaction1.weightMagnitude;
-        });
-    }
-
-    //TODO generalize these weightQueues
-    private static ConcurrentSkipListSet<Pair<Hash, Neighbor>> weightQueueHashPair() {
-        return new ConcurrentSkipListSet<Pair<Hash, Neighbor>>((transaction1, transaction2) -> {
-            Hash tx1 = transaction1.getLeft();
-            Hash tx2 = transaction2.getLeft();
-
-            for (int i = Hash.SIZE_IN_BYTES; i-- > 0; ) {
-                if (tx1.bytes()[i] != tx2.bytes()[i]) {
-                    return tx2.bytes()[i] - tx1.bytes()[i];
-                }
-            }
-            return 0;
-
-        });
-    }
-
-    private static ConcurrentSkipListSet<Pair<TransactionViewModel, Neighbor>> weightQueueTxPair() {
-        return new ConcurrentSkipListSet<Pair<TransactionViewModel, Neighbor>>((transaction1, transaction2) -> {
-            TransactionViewModel tx1 = transaction1.getLeft();
-            TransactionViewModel tx2 = transaction2.getLeft();
-
-            if (tx1.weightMagnitude == tx2.weightMagnitude) {
-                for (int i = Hash.SIZE_IN_BYTES; i-- > 0; ) {
-                    if (tx1.getHash().bytes()[i] != tx2.getHash().bytes()[i]) {
-                        return tx2.getHash().bytes()[i] - tx1.getHash().bytes()[i];
-                    }
-                }
-                return 0;
-            }
-            return tx2.weightMagnitude - tx1.weightMagnitude;
-        });
-    }
-
-
+    /**
+     * Hands a new transaction to the broadcast stage. Transactions are dropped if the stage is full.
+     */
     public void broadcast(final TransactionViewModel transactionViewModel) {
-        broadcastQueue.add(transactionViewModel);
-        if (broadcastQueue.size() > BROADCAST_QUEUE_SIZE) {
-            broadcastQueue.pollLast();
+        if (broadcastStage != null) {
+            broadcastStage.offer(transactionViewModel);
         }
     }
 
     public void shutdown() throws InterruptedException {
         shuttingDown.set(true);
+        for (GossipStage<?> stage : gossipStages()) {
+            stage.shutdown();
+        }
         executor.awaitTermination(6, TimeUnit.SECONDS);
     }
 
-    private ByteBuffer getBytesDigest(byte[] receivedData) throws NoSuchAlgorithmException {
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        digest.update(receivedData, 0, TransactionViewModel.SIZE);
-        return ByteBuffer.wrap(digest.digest());
-    }
-
     // helpers methods
 
     public boolean removeNeighbor(final URI uri, boolean isConfigured) {
@@ -846,7 +778,8 @@ public class Node {
                 return new TCPNeighbor(new InetSocketAddress(uri.getHost(), uri.getPort()), isConfigured);
             }
             if (uri.getScheme().equals("udp")) {
-                return new UDPNeighbor(new InetSocketAddress(uri.getHost(), uri.getPort()), udpSocket, isConfigured);
+                return new UDPNeighbor(new InetSocketAddress(uri.getHost(), uri.getPort()),
+                        udpReceiver == null ? null : udpReceiver.getChannel(), isConfigured);
             }
         }
         throw new IllegalArgumentException(uri.toString());
@@ -874,7 +807,7 @@ public class Node {
     }
 
     public int queuedTransactionsSize() {
-        return broadcastQueue.size();
+        return getBroadcastQueueSize();
     }
 
     public int howManyNeighbors() {
@@ -886,49 +819,78 @@ public class Node {
     }
 
     public int getBroadcastQueueSize() {
-        return broadcastQueue.size();
+        return sizeOf(broadcastStage);
     }
 
     public int getReceiveQueueSize() {
-        return receiveQueue.size();
+        return sizeOf(hashStage) + sizeOf(validateStage) + sizeOf(storeStage);
     }
 
     public int getReplyQueueSize() {
-        return replyQueue.size();
+        return sizeOf(replyStage);
     }
 
-    public class FIFOCache<K, V> {
+    private static int sizeOf(GossipStage<?> stage) {
+        return stage == null ? 0 : stage.size();
+    }
 
-        private final int capacity;
-        private final double dropRate;
-        private LinkedHashMap<K, V> map;
-        private final SecureRandom rnd = new SecureRandom();
+    /**
+     * @return queue depth, throughput and latency of each stage of the gossip pipeline
+     */
+    public List<GossipStage.Metrics> getGossipStageMetrics() {
+        return gossipStages().stream().map(GossipStage::metrics).collect(Collectors.toList());
+    }
 
-        public FIFOCache(int capacity, double dropRate) {
-            this.capacity = capacity;
-            this.dropRate = dropRate;
-            this.map = new LinkedHashMap<>();
+    /**
+     * @return number of received packets that were recently seen and therefore not processed again
+     */
+    public long getRecentSeenBytesHits() {
+        return recentSeenBytes == null ? 0 : recentSeenBytes.getHits();
+    }
+
+    /**
+     * @return number of received packets that were not recently seen
+     */
+    public long getRecentSeenBytesMisses() {
+        return recentSeenBytes == null ? 0 : recentSeenBytes.getMisses();
+    }
+
+    private List<GossipStage<?>> gossipStages() {
+        if (hashStage == null) {
+            return Collections.emptyList();
         }
+        return Arrays.asList(hashStage, validateStage, storeStage, replyStage, broadcastStage);
+    }
 
-        public V get(K key) {
-            V value = this.map.get(key);
-            if (value != null && (rnd.nextDouble() < this.dropRate)) {
-                this.map.remove(key);
-                return null;
-            }
-            return value;
+    /**
+     * A packet received from a neighbor, input of the hash stage.
+     */
+    private static class ReceivedPacket {
+        private final byte[] data;
+        private final Neighbor neighbor;
+
+        private ReceivedPacket(byte[] data, Neighbor neighbor) {
+            this.data = data;
+            this.neighbor = neighbor;
         }
+    }
 
-        public V put(K key, V value) {
-            if (this.map.containsKey(key)) {
-                return value;
-            }
-            if (this.map.size() >= this.capacity) {
-                Iterator<K> it = this.map.keySet().iterator();
-                it.next();
-                it.remove();
-            }
-            return this.map.put(key, value);
+    /**
+     * A hashed transaction that was not seen recently, input of the validate stage.
+     */
+    private static class ReceivedTransaction {
+        private final TransactionViewModel transactionViewModel;
+        private final RecentSeenBytesCache.Fingerprint fingerprint;
+        private final Hash requestedHash;
+        private final Neighbor neighbor;
+
+        private ReceivedTransaction(TransactionViewModel transactionViewModel,
+                                    RecentSeenBytesCache.Fingerprint fingerprint, Hash requestedHash,
+                                    Neighbor neighbor) {
+            this.transactionViewModel = transactionViewModel;
+            this.fingerprint = fingerprint;
+            this.requestedHash = requestedHash;
+            this.neighbor = neighbor;
         }
     }
 
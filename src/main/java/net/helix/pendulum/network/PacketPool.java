@@ -0,0 +1,65 @@
+package net.helix.pendulum.network;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of the arrays that received packets are copied into.
+ * <p>
+ *     The receivers take an array with {@link #acquire()} and pass it to {@link Node#preProcessReceivedData}, which
+ *     returns it with {@link #release(byte[])} once the packet was hashed or dropped. If the pool is empty a new array
+ *     is allocated, so arrays that are not returned only cost an allocation.
+ * </p>
+ */
+public class PacketPool {
+
+    private final int packetSize;
+    private final int capacity;
+    private final Queue<byte[]> packets = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * @param packetSize size of the pooled arrays
+     * @param capacity maximum number of pooled arrays
+     */
+    public PacketPool(int packetSize, int capacity) {
+        this.packetSize = packetSize;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return an array of the packet size, its content is undefined
+     */
+    public byte[] acquire() {
+        byte[] packet = packets.poll();
+        if (packet == null) {
+            return new byte[packetSize];
+        }
+        size.decrementAndGet();
+        return packet;
+    }
+
+    /**
+     * Returns an array to the pool, the caller must not use it afterwards.
+     *
+     * @param packet the array
+     */
+    public void release(byte[] packet) {
+        if (packet.length != packetSize) {
+            return;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return;
+        }
+        packets.offer(packet);
+    }
+
+    /**
+     * @return the size of the pooled arrays
+     */
+    public int getPacketSize() {
+        return packetSize;
+    }
+}
@@ -0,0 +1,237 @@
+package net.helix.pendulum.network;
+
+import net.helix.pendulum.model.Hash;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the hashes of recently received transaction payloads, so that packets which were already seen don't
+ * have to be hashed and validated again.
+ * <p>
+ *     Payloads are identified by a 128 bit fingerprint instead of a cryptographic digest. The fingerprint is
+ *     SipHash-2-4 with 128 bit output, a keyed pseudorandom function: without the random per node key a peer can not
+ *     find two payloads with the same fingerprint, so it can not make the node skip the validation of a payload by
+ *     sending one that collides with a valid transaction. The entries are kept in a
+ *     direct mapped table of atomic references: lookups and insertions are lock-free, a new entry replaces the entry
+ *     that occupies its slot. Like the previous FIFO cache, a hit drops the entry with a configurable probability
+ *     so that transactions are eventually processed again.
+ * </p>
+ */
+public class RecentSeenBytesCache {
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    private final double dropRate;
+    private final long key0;
+    private final long key1;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity minimal number of slots, rounded up to a power of two
+     * @param dropRate probability of dropping an entry when it is hit
+     */
+    public RecentSeenBytesCache(int capacity, double dropRate) {
+        this(capacity, dropRate, new SecureRandom());
+    }
+
+    private RecentSeenBytesCache(int capacity, double dropRate, SecureRandom random) {
+        this(capacity, dropRate, random.nextLong(), random.nextLong());
+    }
+
+    /**
+     * @param capacity minimal number of slots, rounded up to a power of two
+     * @param dropRate probability of dropping an entry when it is hit
+     * @param key0 first half of the key of the fingerprints
+     * @param key1 second half of the key of the fingerprints
+     */
+    RecentSeenBytesCache(int capacity, double dropRate, long key0, long key1) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.dropRate = dropRate;
+        this.key0 = key0;
+        this.key1 = key1;
+    }
+
+    /**
+     * Calculates the fingerprint of a transaction payload.
+     *
+     * @param data the packet
+     * @param length number of bytes of the packet that make up the payload
+     * @return the fingerprint of the payload
+     */
+    public Fingerprint fingerprint(byte[] data, int length) {
+        long[] v = {
+                key0 ^ 0x736f6d6570736575L,
+                key1 ^ 0x646f72616e646f6dL ^ 0xeeL,
+                key0 ^ 0x6c7967656e657261L,
+                key1 ^ 0x7465646279746573L
+        };
+
+        int end = length - length % 8;
+        for (int i = 0; i < end; i += 8) {
+            compress(v, getLong(data, i));
+        }
+        long last = (long) length << 56;
+        for (int i = length - 1; i >= end; i--) {
+            last |= (data[i] & 0xffL) << ((i - end) * 8);
+        }
+        compress(v, last);
+
+        v[2] ^= 0xeeL;
+        sipRound(v);
+        sipRound(v);
+        sipRound(v);
+        sipRound(v);
+        long low = v[0] ^ v[1] ^ v[2] ^ v[3];
+
+        v[1] ^= 0xddL;
+        sipRound(v);
+        sipRound(v);
+        sipRound(v);
+        sipRound(v);
+        long high = v[0] ^ v[1] ^ v[2] ^ v[3];
+
+        return new Fingerprint(low, high);
+    }
+
+    /**
+     * Looks up the transaction hash of a payload and updates the hit and miss counters.
+     *
+     * @param fingerprint fingerprint of the payload
+     * @return the hash of the transaction or <code>null</code> if the payload was not seen recently
+     */
+    public Hash get(Fingerprint fingerprint) {
+        int index = index(fingerprint);
+        Entry entry = slots.get(index);
+        if (entry == null || !entry.fingerprint.equals(fingerprint)) {
+            misses.increment();
+            return null;
+        }
+        if (dropRate > 0 && ThreadLocalRandom.current().nextDouble() < dropRate) {
+            slots.compareAndSet(index, entry, null);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.hash;
+    }
+
+    /**
+     * Remembers the transaction hash of a payload.
+     *
+     * @param fingerprint fingerprint of the payload
+     * @param hash hash of the transaction
+     */
+    public void put(Fingerprint fingerprint, Hash hash) {
+        int index = index(fingerprint);
+        Entry entry = slots.get(index);
+        if (entry == null || !entry.fingerprint.equals(fingerprint)) {
+            slots.set(index, new Entry(fingerprint, hash));
+        }
+    }
+
+    /**
+     * @return number of lookups that found the payload
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that did not find the payload
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private int index(Fingerprint fingerprint) {
+        return (int) (fingerprint.low ^ (fingerprint.low >>> 32)) & mask;
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        return (data[offset] & 0xffL)
+                | (data[offset + 1] & 0xffL) << 8
+                | (data[offset + 2] & 0xffL) << 16
+                | (data[offset + 3] & 0xffL) << 24
+                | (data[offset + 4] & 0xffL) << 32
+                | (data[offset + 5] & 0xffL) << 40
+                | (data[offset + 6] & 0xffL) << 48
+                | (data[offset + 7] & 0xffL) << 56;
+    }
+
+    private static void compress(long[] v, long m) {
+        v[3] ^= m;
+        sipRound(v);
+        sipRound(v);
+        v[0] ^= m;
+    }
+
+    private static void sipRound(long[] v) {
+        v[0] += v[1];
+        v[1] = Long.rotateLeft(v[1], 13);
+        v[1] ^= v[0];
+        v[0] = Long.rotateLeft(v[0], 32);
+        v[2] += v[3];
+        v[3] = Long.rotateLeft(v[3], 16);
+        v[3] ^= v[2];
+        v[0] += v[3];
+        v[3] = Long.rotateLeft(v[3], 21);
+        v[3] ^= v[0];
+        v[2] += v[1];
+        v[1] = Long.rotateLeft(v[1], 17);
+        v[1] ^= v[2];
+        v[2] = Long.rotateLeft(v[2], 32);
+    }
+
+    /**
+     * 128 bit fingerprint of a transaction payload.
+     */
+    public static final class Fingerprint {
+        private final long low;
+        private final long high;
+
+        Fingerprint(long low, long high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Fingerprint that = (Fingerprint) o;
+            return low == that.low && high == that.high;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (low ^ (low >>> 32));
+        }
+    }
+
+    private static final class Entry {
+        private final Fingerprint fingerprint;
+        private final Hash hash;
+
+        private Entry(Fingerprint fingerprint, Hash hash) {
+            this.fingerprint = fingerprint;
+            this.hash = hash;
+        }
+    }
+}
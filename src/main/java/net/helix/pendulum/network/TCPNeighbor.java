@@ -6,10 +6,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.TimeUnit;
 
 /**
  * Created by paul on 4/15/17.
@@ -17,26 +15,30 @@ import java.util.concurrent.TimeUnit;
 
 /**
  * This class Extends {@link Neighbor} base class with TCP specific functionality.
- * It keeps reference of Source and Sink while maintaining a sendQueue for keeping
- * outgoing requests.
+ * It keeps reference of Source and Sink channels while maintaining a bounded sendQueue for keeping
+ * outgoing packets until the sink is writable. If the sink can't keep up the oldest packets are dropped.
  *
  */
 public class TCPNeighbor extends Neighbor {
     private static final Logger log = LoggerFactory.getLogger(Neighbor.class);
+
+    private static final int SEND_QUEUE_SIZE = 64;
+
     private int tcpPort;
 
-    private final ArrayBlockingQueue<ByteBuffer> sendQueue = new ArrayBlockingQueue<>(10);
+    private final ArrayBlockingQueue<byte[]> sendQueue = new ArrayBlockingQueue<>(SEND_QUEUE_SIZE);
+    private volatile Runnable sendListener;
     private boolean stopped = false;
 
-    private Socket source = null;
-    private Socket sink = null;
+    private volatile SocketChannel source = null;
+    private volatile SocketChannel sink = null;
 
     public TCPNeighbor(InetSocketAddress address, boolean isConfigured) {
         super(address, isConfigured);
         this.tcpPort = address.getPort();
     }
 
-    public Socket getSource() {
+    public SocketChannel getSource() {
         return source;
     }
 
@@ -50,8 +52,8 @@ public class TCPNeighbor extends Neighbor {
         return stopped;
     }
 
-    public void setSource(Socket source) {
-        if (source == null && this.source != null && !this.source.isClosed()) {
+    public void setSource(SocketChannel source) {
+        if (source == null && this.source != null && this.source.isOpen()) {
             try {
                 this.source.close();
                 log.info("Source {} closed", this.getHostAddress());
@@ -62,12 +64,12 @@ public class TCPNeighbor extends Neighbor {
         this.source = source;
     }
 
-    public Socket getSink() {
+    public SocketChannel getSink() {
         return sink;
     }
 
-    public void setSink(Socket sink) {
-        if (sink == null && this.sink != null && !this.sink.isClosed()) {
+    public void setSink(SocketChannel sink) {
+        if (sink == null && this.sink != null && this.sink.isOpen()) {
             try {
                 this.sink.close();
                 log.info("Sink {} closed", this.getHostAddress());
@@ -85,15 +87,26 @@ public class TCPNeighbor extends Neighbor {
      */
     @Override
     public void send(DatagramPacket packet) {
+        byte[] bytes = packet.getData().clone();
         synchronized (sendQueue) {
             if (sendQueue.remainingCapacity() == 0) {
                 sendQueue.poll();
                 log.debug("Sendqueue full...dropped 1 tx");
             }
-            byte[] bytes = packet.getData().clone();
-            sendQueue.add(ByteBuffer.wrap(bytes));
+            sendQueue.add(bytes);
         }
+        notifySendListener();
+    }
 
+    /**
+     * Runs the send listener, so that the sink writes the packets that were queued while it could not send them (i.e.
+     * before the source of the neighbor was connected).
+     */
+    public void notifySendListener() {
+        Runnable listener = sendListener;
+        if (listener != null) {
+            listener.run();
+        }
     }
 
     @Override
@@ -110,8 +123,24 @@ public class TCPNeighbor extends Neighbor {
         this.tcpPort = tcpPort;
     }
 
-    public ByteBuffer getNextMessage() throws InterruptedException {
-        return (this.sendQueue.poll(10000, TimeUnit.MILLISECONDS));
+    /**
+     * Sets the callback that is run after a packet was queued, used by the sink to schedule a write.
+     *
+     * @param sendListener the callback or <code>null</code> to remove it
+     */
+    public void setSendListener(Runnable sendListener) {
+        this.sendListener = sendListener;
+    }
+
+    /**
+     * @return the next queued packet or <code>null</code> if the queue is empty
+     */
+    public byte[] pollMessage() {
+        return sendQueue.poll();
+    }
+
+    public boolean hasQueuedMessages() {
+        return !sendQueue.isEmpty();
     }
 
 }
\ No newline at end of file
@@ -6,32 +6,51 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.util.Arrays;
-import java.util.concurrent.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Created by paul on 4/16/17.
  */
+
+/**
+ * Receives the UDP packets of the neighbors.
+ * <p>
+ *     A single thread drains the non-blocking {@link DatagramChannel} into a reusable direct buffer whenever the
+ *     channel is readable. Packets of the expected size are copied into arrays of the {@link PacketPool} and passed
+ *     to the {@link Node} in batches of up to {@link #BATCH_SIZE} packets. Packets of the wrong size and packets the
+ *     node can't accept are counted as dropped.
+ * </p>
+ */
 public class UDPReceiver {
     private static final Logger log = LoggerFactory.getLogger(UDPReceiver.class);
 
-    private final DatagramPacket receivingPacket;
+    private static final int BATCH_SIZE = 64;
+    private static final long SELECT_TIMEOUT_MS = 1000;
 
     private final AtomicBoolean shuttingDown = new AtomicBoolean(false);
     private final int port;
     private final Node node;
     private final int packetSize;
 
-    private DatagramSocket socket;
+    /**
+     * One byte larger than a packet, so that oversized datagrams are detected instead of silently truncated.
+     */
+    private final ByteBuffer receiveBuffer;
+    private final byte[][] batch = new byte[BATCH_SIZE][];
+    private final SocketAddress[] senderAddresses = new SocketAddress[BATCH_SIZE];
 
-    private final int PROCESSOR_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() * 4 );
+    private final LongAdder receivedPackets = new LongAdder();
+    private final LongAdder droppedPackets = new LongAdder();
 
-    private final ExecutorService processor = new ThreadPoolExecutor(PROCESSOR_THREADS, PROCESSOR_THREADS, 5000L,
-            TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(PROCESSOR_THREADS, true),
-            new ThreadPoolExecutor.AbortPolicy());
+    private DatagramChannel channel;
+    private Selector selector;
 
     private Thread receivingThread;
 
@@ -39,13 +58,17 @@ public class UDPReceiver {
         this.node = node;
         this.port = config.getUdpReceiverPort();
         this.packetSize = config.getTransactionPacketSize();
-        this.receivingPacket = new DatagramPacket(new byte[packetSize], packetSize);
+        this.receiveBuffer = ByteBuffer.allocateDirect(packetSize + 1);
     }
 
     public void init() throws Exception {
 
-        socket = new DatagramSocket(port);
-        node.setUDPSocket(socket);
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(port));
+        channel.configureBlocking(false);
+        selector = Selector.open();
+        channel.register(selector, SelectionKey.OP_READ);
+        node.setUDPReceiver(this);
         log.info("UDP replicator is accepting connections on udp port " + port);
 
         receivingThread = new Thread(spawnReceiverThread(), "UDP receiving thread");
@@ -58,37 +81,31 @@ public class UDPReceiver {
 
             log.info("Spawning Receiver Thread");
 
-            int processed = 0;
-            int dropped = 0;
+            long reported = 0;
 
             while (!shuttingDown.get()) {
 
-                if (((processed + dropped) % 50000 == 49999)) {
-                    log.info("Receiver thread processed/dropped ratio: "+processed+"/"+dropped);
-                    processed = 0;
-                    dropped = 0;
+                long received = receivedPackets.sum();
+                if (received - reported >= 50000) {
+                    log.info("Receiver thread processed/dropped ratio: " + (received - droppedPackets.sum()) + "/"
+                            + droppedPackets.sum());
+                    reported = received;
                 }
 
                 try {
-                    socket.receive(receivingPacket);
-
-                    if (receivingPacket.getLength() == packetSize) {
-
-                        byte[] bytes = Arrays.copyOf(receivingPacket.getData(), receivingPacket.getLength());
-                        SocketAddress address = receivingPacket.getSocketAddress();
-
-                        processor.submit(() -> node.preProcessReceivedData(bytes, address, "udp"));
-                        processed++;
-
-                        Thread.yield();
-
-                    } else {
-                        receivingPacket.setLength(packetSize);
+                    if (selector.select(SELECT_TIMEOUT_MS) == 0) {
+                        continue;
                     }
-                } catch (final RejectedExecutionException e) {
-                    //no free thread, packet dropped
-                    dropped++;
-
+                    selector.selectedKeys().clear();
+
+                    int count;
+                    do {
+                        count = receiveBatch();
+                        if (count > 0) {
+                            int accepted = node.preProcessReceivedData(batch, senderAddresses, count, "udp");
+                            droppedPackets.add(count - accepted);
+                        }
+                    } while (count == BATCH_SIZE && !shuttingDown.get());
                 } catch (final Exception e) {
                     log.error("Receiver Thread Exception:", e);
                 }
@@ -97,26 +114,84 @@ public class UDPReceiver {
         };
     }
 
+    /**
+     * Reads the pending datagrams into the batch.
+     *
+     * @return the number of packets of the expected size that were read
+     */
+    private int receiveBatch() throws IOException {
+        int count = 0;
+        SocketAddress address;
+        while (count < BATCH_SIZE && (address = channel.receive(receiveBuffer)) != null) {
+            receiveBuffer.flip();
+            receivedPackets.increment();
+            if (receiveBuffer.remaining() == packetSize) {
+                byte[] data = node.getPacketPool().acquire();
+                receiveBuffer.get(data);
+                batch[count] = data;
+                senderAddresses[count] = address;
+                count++;
+            } else {
+                droppedPackets.increment();
+            }
+            receiveBuffer.clear();
+        }
+        return count;
+    }
+
     public void send(final DatagramPacket packet) {
         try {
-            if (socket != null) {
-                socket.send(packet);
+            if (channel != null) {
+                channel.send(ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength()),
+                        packet.getSocketAddress());
             }
         } catch (IOException e) {
             // ignore
         }
     }
 
+    /**
+     * @return the channel the packets are received with, also used to send packets to the UDP neighbors
+     */
+    public DatagramChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * @return number of received datagrams
+     */
+    public long getReceivedPackets() {
+        return receivedPackets.sum();
+    }
+
+    /**
+     * @return number of received datagrams that had the wrong size or could not be accepted by the node
+     */
+    public long getDroppedPackets() {
+        return droppedPackets.sum();
+    }
+
     public void shutdown() throws InterruptedException {
         shuttingDown.set(true);
-        processor.shutdown();
-        processor.awaitTermination(6, TimeUnit.SECONDS);
+        if (selector != null) {
+            selector.wakeup();
+        }
         try {
             receivingThread.join(6000L);
         }
         catch (Exception e) {
             // ignore
         }
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.error("UDP channel close failure", e);
+        }
     }
 
-}
\ No newline at end of file
+}
@@ -1,51 +1,78 @@
 package net.helix.pendulum.network.replicator;
 
 import net.helix.pendulum.conf.NodeConfig;
+import net.helix.pendulum.network.GossipStage;
 import net.helix.pendulum.network.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
 
 /**
- * This class manages a set of Source and Sink pool workers {@link ReplicatorSourceProcessor}
- * and {@link ReplicatorSinkProcessor}. The workers are managed by the Pool manager threads
- * {@link ReplicatorSourcePool} and {@link ReplicatorSinkPool}
+ * This class manages the TCP connections to the neighbors. All connections are non-blocking and driven by a single
+ * {@link ReplicatorEventLoop} thread, independent of the number of neighbors.
+ * <br>
+ * A **Sink** is the connection we open to a neighbor to send transactions to it. The {@link ReplicatorSinkPool}
+ * opens the sinks of the configured neighbors and reconnects them when they get disconnected, the
+ * {@link ReplicatorSinkProcessor} writes the queued packets of a neighbor in batches.
  * <br>
- * A **Sink** is basically a received end point for TCP where all  the peers send
- * trnasactions to. Since there is only one global endpoint for all the peers, we need
- * only a single thread to manage all the incoming messages.
+ * A **Source** is the connection a neighbor opened to us to send us transactions. The {@link ReplicatorSourcePool}
+ * accepts the connections, the {@link ReplicatorSourceProcessor} reads the packets of a neighbor. The received packets
+ * are handed to the node by a separate stage, so that a node that applies backpressure never blocks the event loop.
  * <br>
- * A **Source** is a single peer which sends packets to us, therefore we need multiple worker
- * threads to manage sending transaction to multiple peers.
+ * See {@link ReplicatorProtocol} for the wire format.
  *
  */
 
 public class Replicator {
 
-    public static final int NUM_THREADS = 32;
-
     private static final Logger log = LoggerFactory.getLogger(Replicator.class);
+    private final ReplicatorEventLoop eventLoop;
     private final ReplicatorSinkPool replicatorSinkPool;
+    private final GossipStage<Runnable> receiveStage;
     private final int port;
     private ReplicatorSourcePool replicatorSourcePool;
+    private Thread eventLoopThread;
+    private Thread sinkPoolThread;
 
     public Replicator(Node node, NodeConfig configuration) {
         this.port = configuration.getTcpReceiverPort();
-        replicatorSinkPool = new ReplicatorSinkPool(node, port, configuration.getTransactionPacketSize());
-        replicatorSourcePool = new ReplicatorSourcePool(replicatorSinkPool, node, configuration.getMaxPeers(),
-                configuration.isTestnet());
+        try {
+            eventLoop = new ReplicatorEventLoop();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot open replicator selector", e);
+        }
+        replicatorSinkPool = new ReplicatorSinkPool(node, eventLoop, port, configuration.getTransactionPacketSize());
+        receiveStage = new GossipStage<>("tcp-receive", configuration.getqSizeNode(),
+                GossipStage.OverflowPolicy.DROP, Runnable::run);
+        replicatorSourcePool = new ReplicatorSourcePool(replicatorSinkPool, eventLoop, receiveStage, node,
+                configuration.getMaxPeers(), configuration.isTestnet());
     }
 
     public void init() {
-        new Thread(replicatorSinkPool).start();
-        new Thread(replicatorSourcePool.init(port)).start();
+        receiveStage.start(1);
+        eventLoopThread = new Thread(eventLoop, "Replicator Event Loop");
+        eventLoopThread.start();
+        replicatorSourcePool.init(port);
+        sinkPoolThread = new Thread(replicatorSinkPool, "Replicator Sink Pool");
+        sinkPoolThread.start();
         log.info("Started ReplicatorSourcePool");
     }
 
     public void shutdown() throws InterruptedException {
-        // TODO
         replicatorSourcePool.shutdown();
         replicatorSinkPool.shutdown();
+        eventLoop.shutdown();
+        if (sinkPoolThread != null) {
+            sinkPoolThread.interrupt();
+            sinkPoolThread.join(TimeUnit.SECONDS.toMillis(6));
+        }
+        if (eventLoopThread != null) {
+            eventLoopThread.join(TimeUnit.SECONDS.toMillis(6));
+        }
+        receiveStage.shutdown();
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,136 @@
+package net.helix.pendulum.network.replicator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Single thread that drives all TCP connections of the {@link Replicator} with a {@link Selector}.
+ * <p>
+ *     Channels are registered together with a {@link Handler} that is called when the channel is ready. Channels
+ *     may only be registered and modified by the event loop thread, other threads hand their work to the loop with
+ *     {@link #execute(Runnable)}.
+ * </p>
+ */
+class ReplicatorEventLoop implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicatorEventLoop.class);
+
+    private static final long SELECT_TIMEOUT_MS = 1000;
+
+    /**
+     * Handles the events of a registered channel.
+     */
+    interface Handler {
+        /**
+         * Called by the event loop when the channel of the key is ready for one of its interest operations.
+         *
+         * @param key the selected key
+         * @throws IOException if the connection failed, the handler is closed afterwards
+         */
+        void handle(SelectionKey key) throws IOException;
+
+        /**
+         * Closes the channel and releases the resources of the handler.
+         */
+        void close();
+    }
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean shutdown = false;
+
+    ReplicatorEventLoop() throws IOException {
+        this.selector = Selector.open();
+    }
+
+    /**
+     * Runs a task on the event loop thread.
+     *
+     * @param task the task
+     */
+    void execute(Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * Registers a channel, must be called from the event loop thread.
+     *
+     * @param channel a non-blocking channel
+     * @param ops the interest operations
+     * @param handler handles the events of the channel
+     * @return the key of the registration
+     * @throws ClosedChannelException if the channel is closed
+     */
+    SelectionKey register(SelectableChannel channel, int ops, Handler handler) throws ClosedChannelException {
+        return channel.register(selector, ops, handler);
+    }
+
+    @Override
+    public void run() {
+        log.info("Spawning Replicator Event Loop");
+        while (!shutdown) {
+            try {
+                selector.select(SELECT_TIMEOUT_MS);
+                runTasks();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    dispatch(key);
+                }
+            } catch (IOException e) {
+                log.error("Replicator Event Loop Exception:", e);
+            }
+        }
+
+        for (SelectionKey key : selector.keys()) {
+            ((Handler) key.attachment()).close();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            log.error("Replicator selector close failure", e);
+        }
+        log.info("Shutting down Replicator Event Loop");
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Replicator task exception:", e);
+            }
+        }
+    }
+
+    private void dispatch(SelectionKey key) {
+        Handler handler = (Handler) key.attachment();
+        if (!key.isValid()) {
+            handler.close();
+            return;
+        }
+        try {
+            handler.handle(key);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Replicator connection failure", e);
+            handler.close();
+        }
+    }
+
+    void shutdown() {
+        shutdown = true;
+        selector.wakeup();
+    }
+}
@@ -0,0 +1,47 @@
+package net.helix.pendulum.network.replicator;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Wire format of the TCP replicator.
+ * <p>
+ *     After connecting, the sink sends a handshake with the protocol version and the TCP listener port of the node
+ *     (both unsigned 16 bit integers). The handshake is followed by a stream of frames, each consisting of the length
+ *     of the packet (unsigned 16 bit), the packet itself and the CRC32 of the packet (32 bit). All integers are big
+ *     endian.
+ * </p>
+ */
+final class ReplicatorProtocol {
+
+    static final int VERSION = 1;
+    static final int HANDSHAKE_BYTES = 4;
+    static final int LENGTH_BYTES = 2;
+    static final int CRC32_BYTES = 4;
+    static final int FRAME_OVERHEAD = LENGTH_BYTES + CRC32_BYTES;
+
+    /**
+     * Size of the direct read and write buffers of a connection.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private ReplicatorProtocol() {
+    }
+
+    static void putHandshake(ByteBuffer buffer, int port) {
+        buffer.putShort((short) VERSION);
+        buffer.putShort((short) port);
+    }
+
+    static void putFrame(ByteBuffer buffer, byte[] packet, CRC32 crc32) {
+        buffer.putShort((short) packet.length);
+        buffer.put(packet);
+        buffer.putInt(crc(packet, crc32));
+    }
+
+    static int crc(byte[] packet, CRC32 crc32) {
+        crc32.reset();
+        crc32.update(packet, 0, packet.length);
+        return (int) crc32.getValue();
+    }
+}
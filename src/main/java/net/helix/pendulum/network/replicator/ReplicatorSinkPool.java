@@ -6,41 +6,37 @@ import net.helix.pendulum.network.TCPNeighbor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.IOException;
-import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
+/**
+ * Opens the outgoing connections to the configured TCP neighbors and periodically reconnects the ones that got
+ * disconnected. The connections themselves are driven by the {@link ReplicatorEventLoop}.
+ */
 public class ReplicatorSinkPool  implements Runnable {
 
     private static final Logger log = LoggerFactory.getLogger(ReplicatorSinkPool.class);
     private final int port;
     private int transactionPacketSize;
     private final Node node;
+    private final ReplicatorEventLoop eventLoop;
 
-    private ExecutorService sinkPool;
+    public volatile boolean shutdown = false;
 
-    public boolean shutdown = false;
-
-    public final static int PORT_BYTES = 10;
-
-    public ReplicatorSinkPool(Node node, int port, int transactionPacketSize) {
+    ReplicatorSinkPool(Node node, ReplicatorEventLoop eventLoop, int port, int transactionPacketSize) {
         this.node = node;
+        this.eventLoop = eventLoop;
         this.port = port;
         this.transactionPacketSize = transactionPacketSize;
     }
 
     @Override
     public void run() {
-
-        sinkPool = Executors.newFixedThreadPool(Replicator.NUM_THREADS);
         {
             List<Neighbor> neighbors = node.getNeighbors();
             // wait until list is populated
             int loopcnt = 10;
-            while ((loopcnt-- > 0) && neighbors.size() == 0) {
+            while ((loopcnt-- > 0) && neighbors.size() == 0 && !shutdown) {
                 try {
                     Thread.sleep(1000);
                 } catch (InterruptedException e) {
@@ -52,44 +48,49 @@ public class ReplicatorSinkPool  implements Runnable {
                     .forEach(this::createSink);
         }
 
-        while (!Thread.interrupted()) {
+        while (!shutdown) {
             // Restart attempt for neighbors that are in the configuration.
             try {
                 Thread.sleep(30000);
             } catch (InterruptedException e) {
                 log.debug("Interrupted: ", e);
+                continue;
             }
             List<Neighbor> neighbors = node.getNeighbors();
             neighbors.stream()
                     .filter(n -> n instanceof TCPNeighbor && n.isFlagged())
                     .map(n -> ((TCPNeighbor) n))
-                    .filter(n -> n.getSink() == null)
-                    .forEach(this::createSink);
+                    .forEach(n -> eventLoop.execute(() -> reconnect(n)));
+        }
+    }
+
+    /**
+     * Drops the sink of the neighbor if its connection attempt timed out and opens a new one if it has none. Must be
+     * called from the event loop thread, which owns the channels.
+     *
+     * @param neighbor the configured neighbor
+     */
+    private void reconnect(TCPNeighbor neighbor) {
+        SocketChannel sink = neighbor.getSink();
+        if (sink != null && sink.isConnectionPending()) {
+            // connection attempt timed out
+            shutdownSink(neighbor);
+        } else if (sink == null) {
+            createSink(neighbor);
         }
     }
 
     public void createSink(TCPNeighbor neighbor) {
-        Runnable proc = new ReplicatorSinkProcessor( neighbor, this, port, transactionPacketSize);
-        sinkPool.submit(proc);
+        ReplicatorSinkProcessor proc = new ReplicatorSinkProcessor(neighbor, this, eventLoop, port,
+                transactionPacketSize);
+        eventLoop.execute(proc::connect);
     }
 
     public void shutdownSink(TCPNeighbor neighbor) {
-        Socket socket = neighbor.getSink();
-        if (socket != null && !socket.isClosed()) {
-            try {
-                socket.close();
-                log.info("Sink {} closed", neighbor.getHostAddress());
-            } catch (IOException e) {
-                // TODO
-            }
-        }
         neighbor.setSink(null);
     }
 
-
-    public void shutdown() throws InterruptedException {
+    public void shutdown() {
         shutdown = true;
-        sinkPool.shutdown();
-        sinkPool.awaitTermination(6, TimeUnit.SECONDS);
     }
-}
\ No newline at end of file
+}
@@ -5,136 +5,191 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.net.InetSocketAddress;
-import java.net.Socket;
+import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.zip.CRC32;
 
-class ReplicatorSinkProcessor implements Runnable {
+/**
+ * Outgoing connection to a {@link TCPNeighbor}. The packets queued in the neighbor are framed into a direct buffer
+ * and written with as few writes as possible. While the socket is not writable, or the source of the neighbor is not
+ * connected yet, the packets stay in the bounded queue of the neighbor, which drops the oldest packets when it is full.
+ */
+class ReplicatorSinkProcessor implements ReplicatorEventLoop.Handler {
 
     private static final Logger log = LoggerFactory.getLogger(ReplicatorSinkProcessor.class);
 
     private final TCPNeighbor neighbor;
 
-    public final static int CRC32_BYTES = 16;
     private final ReplicatorSinkPool replicatorSinkPool;
+    private final ReplicatorEventLoop eventLoop;
     private final int port;
-    private int transactionPacketSize;
+    private final int transactionPacketSize;
+    private final String remoteAddress;
+
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(ReplicatorProtocol.BUFFER_SIZE);
+    private final CRC32 crc32 = new CRC32();
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(false);
+
+    private SocketChannel channel;
+    private SelectionKey key;
 
     public ReplicatorSinkProcessor(final TCPNeighbor neighbor,
                                    final ReplicatorSinkPool replicatorSinkPool,
+                                   final ReplicatorEventLoop eventLoop,
                                    final int port, int transactionPacketSize) {
         this.neighbor = neighbor;
         this.replicatorSinkPool = replicatorSinkPool;
+        this.eventLoop = eventLoop;
         this.port = port;
         this.transactionPacketSize = transactionPacketSize;
+        this.remoteAddress = neighbor.getHostAddress();
     }
 
-    @Override
-    public void run() {
+    /**
+     * Opens the connection to the neighbor, must be called from the event loop thread.
+     */
+    void connect() {
         try {
-            Thread.sleep(1000);
-        }
-        catch (InterruptedException e) {
-            log.info("Interrupted");
-        }
-
-        String remoteAddress = neighbor.getHostAddress();
-
-        try {
-            Socket socket;
             synchronized (neighbor) {
-                Socket sink = neighbor.getSink();
-                if ( sink == null ) {
-                    log.info("Opening sink {}", remoteAddress);
-                    socket = new Socket();
-                    socket.setSoLinger(true, 0);
-                    socket.setSoTimeout(30000);
-                    neighbor.setSink(socket);
-                }
-                else {
+                if (neighbor.getSink() != null) {
                     // Sink already created
                     log.info("Sink {} already created", remoteAddress);
                     return;
                 }
+                log.info("Opening sink {}", remoteAddress);
+                channel = SocketChannel.open();
+                neighbor.setSink(channel);
             }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+            log.info("Connecting sink {}", remoteAddress);
+            boolean connected = channel.connect(new InetSocketAddress(remoteAddress, neighbor.getPort()));
+            key = eventLoop.register(channel, SelectionKey.OP_CONNECT, this);
+            if (connected) {
+                onConnected();
+            }
+        } catch (Exception e) {
+            logFailure(e);
+            close();
+        }
+    }
 
-            if (socket != null) {
-                log.info("Connecting sink {}", remoteAddress);
-                socket.connect(new InetSocketAddress(remoteAddress, neighbor.getPort()), 30000);
-                if (!socket.isClosed() && socket.isConnected()) {
-                    OutputStream out = socket.getOutputStream();
-                    log.info("----- NETWORK INFO ----- Sink {} is connected", remoteAddress);
-
-                    // Let neighbor know our tcp listener port
-                    String fmt = "%0"+ ReplicatorSinkPool.PORT_BYTES +"d";
-                    byte [] portAsByteArray = new byte [10];
-                    System.arraycopy(String.format(fmt, port).getBytes(), 0,
-                            portAsByteArray, 0, ReplicatorSinkPool.PORT_BYTES);
-                    out.write(portAsByteArray);
-
-                    while (!replicatorSinkPool.shutdown && !neighbor.isStopped()) {
-                        try {
-                            ByteBuffer message = neighbor.getNextMessage();
-                            if (neighbor.getSink() != null) {
-                                if (neighbor.getSink().isClosed() || !neighbor.getSink().isConnected()) {
-                                    log.info("----- NETWORK INFO ----- Sink {} got disconnected", remoteAddress);
-                                    return;
-                                } else {
-                                    if ((message != null) && (neighbor.getSink() != null && neighbor.getSink().isConnected())
-                                            && (neighbor.getSource() != null && neighbor.getSource().isConnected())) {
-
-                                        byte[] bytes = message.array();
-
-                                        if (bytes.length == transactionPacketSize) {
-                                            try {
-                                                CRC32 crc32 = new CRC32();
-                                                crc32.update(message.array());
-                                                String crc32String = Long.toHexString(crc32.getValue());
-                                                while (crc32String.length() < CRC32_BYTES) {
-                                                    crc32String = "0"+crc32String;
-                                                }
-                                                out.write(message.array());
-                                                out.write(crc32String.getBytes());
-                                                out.flush();
-                                                neighbor.incSentTransactions();
-                                            } catch (IOException e2) {
-                                                if (!neighbor.getSink().isClosed() && neighbor.getSink().isConnected()) {
-                                                    out.close();
-                                                    out = neighbor.getSink().getOutputStream();
-                                                } else {
-                                                    log.info("----- NETWORK INFO ----- Sink {} thread terminating",
-                                                            remoteAddress);
-                                                    return;
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        } catch (InterruptedException e) {
-                            log.error("Interrupted while waiting for send buffer");
-                        }
-                    }
+    @Override
+    public void handle(SelectionKey key) throws IOException {
+        try {
+            if (key.isConnectable()) {
+                if (channel.finishConnect()) {
+                    onConnected();
                 }
+                return;
             }
-        } catch (Exception e) {
-            String reason = e.getMessage();
-            if (reason == null || reason.equals("null")) {
-                reason = "closed";
+            if (key.isWritable()) {
+                write();
             }
-            log.error("***** NETWORK ALERT ***** No sink to apiHost {}:{}, reason: {}", remoteAddress, neighbor.getPort(),
-                    reason);
-            synchronized (neighbor) {
-                Socket sourceSocket = neighbor.getSource();
-                if (sourceSocket != null && (sourceSocket.isClosed() || !sourceSocket.isConnected())) {
-                    neighbor.setSource(null);
+        } catch (IOException e) {
+            logFailure(e);
+            throw e;
+        }
+    }
+
+    private void onConnected() {
+        log.info("----- NETWORK INFO ----- Sink {} is connected", remoteAddress);
+
+        // Let neighbor know our tcp listener port
+        ReplicatorProtocol.putHandshake(writeBuffer, port);
+        key.interestOps(SelectionKey.OP_WRITE);
+        neighbor.setSendListener(this::scheduleWrite);
+    }
+
+    private void scheduleWrite() {
+        if (writeScheduled.compareAndSet(false, true)) {
+            eventLoop.execute(() -> {
+                if (key.isValid() && channel.isConnected()) {
+                    key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
                 }
-                neighbor.setSink(null);
+            });
+        }
+    }
+
+    /**
+     * Writes the pending frames. Packets sent by the node while this runs schedule another write.
+     */
+    private void write() throws IOException {
+        writeScheduled.set(false);
+        while (true) {
+            boolean sourceConnected = fillWriteBuffer();
+            writeBuffer.flip();
+            channel.write(writeBuffer);
+            boolean drained = !writeBuffer.hasRemaining();
+            writeBuffer.compact();
+            if (!drained) {
+                // socket buffer is full, wait until it is writable again
+                return;
+            }
+            if (!sourceConnected || !neighbor.hasQueuedMessages()) {
+                // the source schedules another write once it is connected
+                key.interestOps(key.interestOps() & ~SelectionKey.OP_WRITE);
+                return;
             }
         }
+    }
 
+    /**
+     * Frames the queued packets until the write buffer is full. Packets are only replicated to neighbors that are
+     * connected in both directions, so they stay queued while the source of the neighbor is not connected.
+     *
+     * @return <code>false</code> if the source of the neighbor is not connected
+     */
+    private boolean fillWriteBuffer() {
+        while (writeBuffer.remaining() >= transactionPacketSize + ReplicatorProtocol.FRAME_OVERHEAD) {
+            if (neighbor.getSource() == null) {
+                return false;
+            }
+            byte[] packet = neighbor.pollMessage();
+            if (packet == null) {
+                return true;
+            }
+            if (packet.length == transactionPacketSize) {
+                ReplicatorProtocol.putFrame(writeBuffer, packet, crc32);
+                neighbor.incSentTransactions();
+            }
+        }
+        return true;
     }
 
+    @Override
+    public void close() {
+        synchronized (neighbor) {
+            SocketChannel sourceChannel = neighbor.getSource();
+            if (sourceChannel != null && !sourceChannel.isOpen()) {
+                neighbor.setSource(null);
+            }
+            if (neighbor.getSink() == channel) {
+                neighbor.setSendListener(null);
+                replicatorSinkPool.shutdownSink(neighbor);
+            }
+        }
+        if (channel != null && channel.isOpen()) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Sink {} close failure", remoteAddress, e);
+            }
+        }
+    }
+
+    private void logFailure(Exception e) {
+        String reason = e.getMessage();
+        if (reason == null || reason.equals("null")) {
+            reason = "closed";
+        }
+        log.error("***** NETWORK ALERT ***** No sink to apiHost {}:{}, reason: {}", remoteAddress, neighbor.getPort(),
+                reason);
+    }
 }
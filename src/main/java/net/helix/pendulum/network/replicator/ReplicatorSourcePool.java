@@ -1,82 +1,150 @@
 package net.helix.pendulum.network.replicator;
 
+import net.helix.pendulum.network.GossipStage;
+import net.helix.pendulum.network.Neighbor;
 import net.helix.pendulum.network.Node;
+import net.helix.pendulum.network.TCPNeighbor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 
-public class ReplicatorSourcePool implements Runnable {
+/**
+ * Accepts the incoming TCP connections of the neighbors and registers a {@link ReplicatorSourceProcessor} for each of
+ * them with the {@link ReplicatorEventLoop}.
+ */
+public class ReplicatorSourcePool implements ReplicatorEventLoop.Handler {
 
     private final ReplicatorSinkPool replicatorSinkPool;
+    private final ReplicatorEventLoop eventLoop;
+    private final GossipStage<Runnable> receiveStage;
     private final Node node;
     private final int maxPeers;
     private final boolean testnet;
-    private volatile boolean shutdown = false;
 
     private static final Logger log = LoggerFactory.getLogger(ReplicatorSourcePool.class);
-    private ExecutorService pool;
-    private int port;
+    private ServerSocketChannel server;
 
-    public ReplicatorSourcePool(final ReplicatorSinkPool replicatorSinkPool,
-                                final Node node,
-                                final int maxPeers,
-                                final boolean testnet) {
+    ReplicatorSourcePool(final ReplicatorSinkPool replicatorSinkPool,
+                         final ReplicatorEventLoop eventLoop,
+                         final GossipStage<Runnable> receiveStage,
+                         final Node node,
+                         final int maxPeers,
+                         final boolean testnet) {
         this.replicatorSinkPool = replicatorSinkPool;
+        this.eventLoop = eventLoop;
+        this.receiveStage = receiveStage;
         this.node = node;
         this.maxPeers = maxPeers;
         this.testnet = testnet;
     }
 
+    /**
+     * Opens the server socket and starts accepting connections.
+     *
+     * @param port the tcp listener port
+     */
+    public void init(int port) {
+        eventLoop.execute(() -> {
+            try {
+                server = ServerSocketChannel.open();
+                server.configureBlocking(false);
+                server.bind(new InetSocketAddress(port));
+                eventLoop.register(server, SelectionKey.OP_ACCEPT, this);
+                log.info("TCP replicator is accepting connections on tcp port " + port);
+            } catch (IOException e) {
+                log.error("***** NETWORK ALERT ***** Cannot create server socket on port {}, {}", port,
+                        e.getMessage());
+                close();
+            }
+        });
+    }
+
     @Override
-    public void run() {
-        ExecutorService pool;
-        ServerSocket server = null;
-        pool = Executors.newFixedThreadPool(Replicator.NUM_THREADS);
-        this.pool = pool;
+    public void handle(SelectionKey key) {
+        SocketChannel connection = null;
         try {
-            server = new ServerSocket(port);
-            log.info("TCP replicator is accepting connections on tcp port " + server.getLocalPort());
-            while (!shutdown) {
-                try {
-                    Socket request = server.accept();
-                    request.setSoLinger(true, 0);
-                    Runnable proc = new ReplicatorSourceProcessor( replicatorSinkPool, request, node, maxPeers, testnet);
-                    pool.submit(proc);
-                } catch (IOException ex) {
-                    log.error("Error accepting connection", ex);
-                }
+            while ((connection = server.accept()) != null) {
+                accept(connection);
             }
-            log.info("ReplicatorSinkPool shutting down");
-        } catch (IOException e) {
-            log.error("***** NETWORK ALERT ***** Cannot create server socket on port {}, {}", port, e.getMessage());
-        } finally {
-            if (server != null) {
+        } catch (IOException ex) {
+            log.error("Error accepting connection", ex);
+            if (connection != null) {
                 try {
-                    server.close();
-                }
-                catch (Exception e) {
+                    connection.close();
+                } catch (IOException e) {
                     // don't care.
                 }
             }
         }
     }
 
-    public void shutdown() throws InterruptedException {
-        shutdown = true;
-        //notify();
-        pool.shutdown();
-        pool.awaitTermination(6, TimeUnit.SECONDS);
+    private void accept(SocketChannel connection) throws IOException {
+        connection.configureBlocking(false);
+        connection.setOption(StandardSocketOptions.SO_LINGER, 0);
+        InetSocketAddress inetSocketAddress = (InetSocketAddress) connection.getRemoteAddress();
+        String hisAddress = inetSocketAddress.getAddress().getHostAddress();
+
+        TCPNeighbor neighbor = node.getNeighbors().stream()
+                .filter(n -> n instanceof TCPNeighbor)
+                .map(n -> ((TCPNeighbor) n))
+                .filter(n -> n.getHostAddress().equals(hisAddress))
+                .reduce((first, second) -> second)
+                .orElse(null);
+
+        if (neighbor == null) {
+            int maxPeersAllowed = maxPeers;
+            if (!testnet || Neighbor.getNumPeers() >= maxPeersAllowed) {
+                String hostAndPort = inetSocketAddress.getHostName() + ":" + inetSocketAddress.getPort();
+                if (Node.rejectedAddresses.add(inetSocketAddress.getHostName())) {
+                    String sb = "***** NETWORK ALERT ***** Got connected from unknown neighbor tcp://"
+                            + hostAndPort
+                            + " (" + hisAddress + ") - closing connection";
+                    if (testnet && Neighbor.getNumPeers() >= maxPeersAllowed) {
+                        sb = sb + (" (max-peers allowed is "+ maxPeersAllowed +")");
+                    }
+                    log.info(sb);
+                }
+                connection.close();
+                return;
+            }
+            neighbor = new TCPNeighbor(inetSocketAddress, false);
+            node.getNeighbors().add(neighbor);
+            Neighbor.incNumPeers();
+        }
+
+        synchronized (neighbor) {
+            if (neighbor.getSource() != null) {
+                log.info("Source {} already connected", hisAddress);
+                connection.close();
+                return;
+            }
+            neighbor.setSource(connection);
+        }
+        eventLoop.register(connection, SelectionKey.OP_READ, new ReplicatorSourceProcessor(replicatorSinkPool,
+                receiveStage, connection, inetSocketAddress, neighbor, node, testnet));
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            try {
+                server.close();
+            }
+            catch (Exception e) {
+                // don't care.
+            }
+        }
     }
 
-    public ReplicatorSourcePool init(int port) {
-        this.port = port;
-        return this;
+    public void shutdown() {
+        log.info("ReplicatorSourcePool shutting down");
+        eventLoop.execute(this::close);
     }
 
-}
\ No newline at end of file
+}
@@ -2,196 +2,162 @@ package net.helix.pendulum.network.replicator;
 
 import net.helix.pendulum.conf.MainnetConfig;
 import net.helix.pendulum.conf.TestnetConfig;
-import net.helix.pendulum.network.Neighbor;
+import net.helix.pendulum.network.GossipStage;
 import net.helix.pendulum.network.Node;
+import net.helix.pendulum.network.PacketPool;
 import net.helix.pendulum.network.TCPNeighbor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.net.InetSocketAddress;
-import java.net.Socket;
 import java.net.SocketAddress;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
 import java.util.zip.CRC32;
 
-class ReplicatorSourceProcessor implements Runnable {
+/**
+ * Incoming connection from a {@link TCPNeighbor}. Reads the handshake and the framed packets of the neighbor into a
+ * direct buffer and hands every packet with a valid checksum to the receive stage, which passes it to
+ * {@link Node#preProcessReceivedData} outside of the event loop. Packets are dropped while the receive stage is full.
+ */
+class ReplicatorSourceProcessor implements ReplicatorEventLoop.Handler {
 
     private static final Logger log = LoggerFactory.getLogger(ReplicatorSourceProcessor.class);
 
-    private final Socket connection;
+    private final SocketChannel connection;
+    private final SocketAddress address;
 
-    private final boolean shutdown = false;
     private final Node node;
-    private final int maxPeers;
-    private final boolean testnet;
     private final ReplicatorSinkPool replicatorSinkPool;
+    private final GossipStage<Runnable> receiveStage;
     private final int packetSize;
+    private final TCPNeighbor neighbor;
 
-    private boolean existingNeighbor;
-
-    private TCPNeighbor neighbor;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(ReplicatorProtocol.BUFFER_SIZE);
+    private final CRC32 crc32 = new CRC32();
+    private boolean handshakeReceived = false;
 
     public ReplicatorSourceProcessor(final ReplicatorSinkPool replicatorSinkPool,
-                                     final Socket connection,
+                                     final GossipStage<Runnable> receiveStage,
+                                     final SocketChannel connection,
+                                     final SocketAddress address,
+                                     final TCPNeighbor neighbor,
                                      final Node node,
-                                     final int maxPeers,
                                      final boolean testnet) {
         this.connection = connection;
+        this.address = address;
+        this.neighbor = neighbor;
         this.node = node;
-        this.maxPeers = maxPeers;
-        this.testnet = testnet;
         this.replicatorSinkPool = replicatorSinkPool;
+        this.receiveStage = receiveStage;
         this.packetSize = testnet
                 ? TestnetConfig.Defaults.PACKET_SIZE
                 : MainnetConfig.Defaults.PACKET_SIZE;
     }
 
     @Override
-    public void run() {
+    public void handle(SelectionKey key) throws IOException {
         int count;
-        byte[] data = new byte[2000];
-        int offset = 0;
-        //boolean isNew;
-        boolean finallyClose = true;
-
         try {
-            SocketAddress address = connection.getRemoteSocketAddress();
-            InetSocketAddress inetSocketAddress = (InetSocketAddress) address;
-
-            existingNeighbor = false;
-            List<Neighbor> neighbors = node.getNeighbors();
-            neighbors.stream().filter(n -> n instanceof TCPNeighbor)
-                    .map(n -> ((TCPNeighbor) n))
-                    .forEach(n -> {
-                        String hisAddress = inetSocketAddress.getAddress().getHostAddress();
-                        if (n.getHostAddress().equals(hisAddress)) {
-                            existingNeighbor = true;
-                            neighbor = n;
-                        }
-                    });
-
-            if (!existingNeighbor) {
-                int maxPeersAllowed = maxPeers;
-                if (!testnet || Neighbor.getNumPeers() >= maxPeersAllowed) {
-                    String hostAndPort = inetSocketAddress.getHostName() + ":" + inetSocketAddress.getPort();
-                    if (Node.rejectedAddresses.add(inetSocketAddress.getHostName())) {
-                        String sb = "***** NETWORK ALERT ***** Got connected from unknown neighbor tcp://"
-                                + hostAndPort
-                                + " (" + inetSocketAddress.getAddress().getHostAddress() + ") - closing connection";
-                        if (testnet && Neighbor.getNumPeers() >= maxPeersAllowed) {
-                            sb = sb + (" (max-peers allowed is "+ maxPeersAllowed +")");
-                        }
-                        log.info(sb);
-                    }
-                    connection.getInputStream().close();
-                    connection.shutdownInput();
-                    connection.shutdownOutput();
-                    connection.close();
-                    return;
-                } else {
-                    final TCPNeighbor freshNeighbor = new TCPNeighbor(inetSocketAddress, false);
-                    node.getNeighbors().add(freshNeighbor);
-                    neighbor = freshNeighbor;
-                    Neighbor.incNumPeers();
-                }
-            }
-
-            if ( neighbor.getSource() != null ) {
-                log.info("Source {} already connected", inetSocketAddress.getAddress().getHostAddress());
-                finallyClose = false;
-                return;
-            }
-            neighbor.setSource(connection);
-
-            // Read neighbors tcp listener port number.
-            InputStream stream = connection.getInputStream();
-            offset = 0;
-            while (((count = stream.read(data, offset, ReplicatorSinkPool.PORT_BYTES - offset)) != -1) && (offset < ReplicatorSinkPool.PORT_BYTES)) {
-                offset += count;
-            }
+            count = connection.read(readBuffer);
+        } catch (IOException e) {
+            log.error("***** NETWORK ALERT ***** TCP connection reset by neighbor {}, source closed, {}",
+                    neighbor.getHostAddress(), e.getMessage());
+            throw e;
+        }
+        if (count == -1 || neighbor.isStopped()) {
+            close();
+            return;
+        }
 
-            if ( count == -1 || connection.isClosed() ) {
-                log.error("Did not receive neighbors listener port");
+        readBuffer.flip();
+        try {
+            if (!handshakeReceived && !readHandshake()) {
                 return;
             }
-
-            byte [] pbytes = new byte [10];
-            System.arraycopy(data, 0, pbytes, 0, ReplicatorSinkPool.PORT_BYTES);
-            neighbor.setTcpPort((int)Long.parseLong(new String(pbytes)));
-
-            if (neighbor.getSink() == null) {
-                log.info("Creating sink for {}", neighbor.getHostAddress());
-                replicatorSinkPool.createSink(neighbor);
-            }
-
-            if (connection.isConnected()) {
-                log.info("----- NETWORK INFO ----- Source {} is connected", inetSocketAddress.getAddress().getHostAddress());
-            }
-
-            connection.setSoTimeout(0);  // infinite timeout - blocking read
-
-            offset = 0;
-            while (!shutdown && !neighbor.isStopped()) {
-
-                while ( ((count = stream.read(data, offset, (packetSize- offset + ReplicatorSinkProcessor.CRC32_BYTES))) != -1)
-                        && (offset < (packetSize + ReplicatorSinkProcessor.CRC32_BYTES))) {
-                    offset += count;
+            while (readBuffer.remaining() >= ReplicatorProtocol.LENGTH_BYTES) {
+                int length = readBuffer.getShort(readBuffer.position()) & 0xffff;
+                if (length != packetSize) {
+                    log.error("***** NETWORK ALERT ***** Invalid packet length {} from neighbor {}, source closed",
+                            length, neighbor.getHostAddress());
+                    neighbor.incInvalidTransactions();
+                    close();
+                    return;
                 }
-
-                if ( count == -1 || connection.isClosed() ) {
+                if (readBuffer.remaining() < length + ReplicatorProtocol.FRAME_OVERHEAD) {
                     break;
                 }
-
-                offset = 0;
-
-                try {
-                    CRC32 crc32 = new CRC32();
-                    for (int i=0; i<packetSize; i++) {
-                        crc32.update(data[i]);
-                    }
-                    String crc32String = Long.toHexString(crc32.getValue());
-                    while (crc32String.length() < ReplicatorSinkProcessor.CRC32_BYTES) {
-                        crc32String = "0"+crc32String;
-                    }
-                    byte [] crc32Bytes = crc32String.getBytes();
-
-                    boolean crcError = false;
-                    for (int i=0; i<ReplicatorSinkProcessor.CRC32_BYTES; i++) {
-                        if (crc32Bytes[i] != data[packetSize + i]) {
-                            crcError = true;
-                            break;
-                        }
-                    }
-                    if (!crcError) {
-                        node.preProcessReceivedData(data, address, "tcp");
+                readBuffer.position(readBuffer.position() + ReplicatorProtocol.LENGTH_BYTES);
+                // the packet is processed asynchronously, so every packet gets its own array
+                PacketPool packetPool = node.getPacketPool();
+                byte[] data = length == packetPool.getPacketSize() ? packetPool.acquire() : new byte[length];
+                readBuffer.get(data);
+                if (readBuffer.getInt() == ReplicatorProtocol.crc(data, crc32)) {
+                    if (!receiveStage.offer(() -> processPacket(data))) {
+                        packetPool.release(data);
                     }
-                }
-                catch (IllegalStateException e) {
-                    log.error("Queue is full for neighbor IP {}",inetSocketAddress.getAddress().getHostAddress());
-                } catch (final RuntimeException e) {
-                    log.error("Transaction processing runtime exception ",e);
-                    neighbor.incInvalidTransactions();
-                } catch (Exception e) {
-                    log.info("Transaction processing exception " + e.getMessage());
-                    log.error("Transaction processing exception ",e);
+                } else {
+                    log.debug("CRC32 mismatch for packet from neighbor {}", neighbor.getHostAddress());
+                    packetPool.release(data);
                 }
             }
-        } catch (IOException e) {
-            log.error("***** NETWORK ALERT ***** TCP connection reset by neighbor {}, source closed, {}", neighbor.getHostAddress(), e.getMessage());
-            replicatorSinkPool.shutdownSink(neighbor);
         } finally {
-            if (neighbor != null) {
-                if (finallyClose) {
-                    replicatorSinkPool.shutdownSink(neighbor);
-                    neighbor.setSource(null);
-                    neighbor.setSink(null);
-                    //if (!neighbor.isFlagged() ) {
-                    //   Node.instance().getNeighbors().remove(neighbor);
-                    //}
-                }
+            readBuffer.compact();
+        }
+    }
+
+    /**
+     * Reads the protocol version and the tcp listener port of the neighbor and opens our sink to the neighbor.
+     *
+     * @return <code>true</code> if the handshake was read, <code>false</code> if more bytes are needed
+     * @throws IOException if the neighbor uses another protocol version
+     */
+    private boolean readHandshake() throws IOException {
+        if (readBuffer.remaining() < ReplicatorProtocol.HANDSHAKE_BYTES) {
+            return false;
+        }
+        int version = readBuffer.getShort() & 0xffff;
+        if (version != ReplicatorProtocol.VERSION) {
+            throw new IOException("unsupported replicator protocol version " + version);
+        }
+        neighbor.setTcpPort(readBuffer.getShort() & 0xffff);
+        handshakeReceived = true;
+
+        if (neighbor.getSink() == null) {
+            log.info("Creating sink for {}", neighbor.getHostAddress());
+            replicatorSinkPool.createSink(neighbor);
+        }
+        log.info("----- NETWORK INFO ----- Source {} is connected", neighbor.getHostAddress());
+        // the sink holds back the packets of the neighbor until its source is connected
+        neighbor.notifySendListener();
+        return true;
+    }
+
+    private void processPacket(byte[] data) {
+        try {
+            node.preProcessReceivedData(data, address, "tcp");
+        } catch (final RuntimeException e) {
+            log.error("Transaction processing runtime exception ", e);
+            neighbor.incInvalidTransactions();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (neighbor) {
+            if (neighbor.getSource() == connection) {
+                replicatorSinkPool.shutdownSink(neighbor);
+                neighbor.setSource(null);
+                neighbor.setSink(null);
+            }
+        }
+        if (connection.isOpen()) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                log.debug("Source {} close failure", neighbor.getHostAddress(), e);
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -18,6 +18,7 @@ import net.helix.pendulum.model.persistables.Transaction;
 import net.helix.pendulum.network.Neighbor;
 import net.helix.pendulum.network.Node;
 import net.helix.pendulum.network.TransactionRequester;
+import net.helix.pendulum.network.UDPReceiver;
 import net.helix.pendulum.service.dto.*;
 import net.helix.pendulum.service.ledger.LedgerService;
 import net.helix.pendulum.service.milestone.MilestoneTracker;
@@ -28,6 +29,7 @@ import net.helix.pendulum.service.tipselection.TipSelector;
 import net.helix.pendulum.service.tipselection.impl.WalkValidatorImpl;
 import net.helix.pendulum.service.validatormanager.CandidateTracker;
 import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.storage.TransactionCache;
 import net.helix.pendulum.utils.Serializer;
 import net.helix.pendulum.utils.bundle.BundleTypes;
 import net.helix.pendulum.utils.bundle.BundleUtils;
@@ -119,7 +121,7 @@ public class API {
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     private final Gson gson = new GsonBuilder().create();
-    private GreedyMiner miner = new GreedyMiner();
+    private final GreedyMiner miner = new GreedyMiner();
 
     private final AtomicInteger counter = new AtomicInteger(0);
     private Pattern hexPattern = Pattern.compile("[0-9a-f]*");
@@ -480,7 +482,7 @@ public class API {
      * @param hashes The transaction hashes you want to get bytes from.
      * @return {@link GetTransactionStringsResponse}
      **/
-    private synchronized AbstractResponse getTransactionStringsStatement(List<String> hashes) throws Exception {
+    private AbstractResponse getTransactionStringsStatement(List<String> hashes) throws Exception {
         final List<String> elements = new LinkedList<>();
         for (final String hash : hashes) {
             final TransactionViewModel transactionViewModel = TransactionViewModel.fromHash(tangle, HashFactory.TRANSACTION.create(hash));
@@ -507,7 +509,7 @@ public class API {
      * @return {@link net.helix.pendulum.service.dto.GetTransactionsToApproveResponse}
      * @throws Exception When tip selection has failed. Currently caught and returned as an {@link ErrorResponse}.
      **/
-    private synchronized AbstractResponse getTransactionsToApproveStatement(int depth, Optional<Hash> reference) {
+    private AbstractResponse getTransactionsToApproveStatement(int depth, Optional<Hash> reference) {
         if (depth < 0 || depth > configuration.getMaxDepth()) {
             return ErrorResponse.create("Invalid depth input");
         }
@@ -555,15 +557,18 @@ public class API {
      * </p>
      */
     private void gatherStatisticsOnTipSelection() {
-        API.incCounterGetTxToApprove();
-        if ((getCounterGetTxToApprove() % 100) == 0) {
-            String sb = "Last 100 getTxToApprove consumed "
-                    + API.getEllapsedTimeGetTxToApprove() / 1000000000L
-                    + " seconds processing time.";
-
-            log.debug(sb);
-            counterGetTxToApprove = 0;
-            ellapsedTime_getTxToApprove = 0L;
+        // tip selections run concurrently, so the shared counters need their own lock
+        synchronized (API.class) {
+            API.incCounterGetTxToApprove();
+            if ((getCounterGetTxToApprove() % 100) == 0) {
+                String sb = "Last 100 getTxToApprove consumed "
+                        + API.getEllapsedTimeGetTxToApprove() / 1000000000L
+                        + " seconds processing time.";
+
+                log.debug(sb);
+                counterGetTxToApprove = 0;
+                ellapsedTime_getTxToApprove = 0L;
+            }
         }
     }
 
@@ -572,7 +577,7 @@ public class API {
      *
      * @return {@link net.helix.pendulum.service.dto.GetTipsResponse}
      **/
-    private synchronized AbstractResponse getTipsStatement() throws Exception {
+    private AbstractResponse getTipsStatement() throws Exception {
         return GetTipsResponse.create(tipsViewModel.getTips()
                 .stream()
                 .map(Hash::toString)
@@ -589,7 +594,10 @@ public class API {
      **/
 
     public void storeTransactionsStatement(final List<String> txString) throws Exception {
-        final List<TransactionViewModel> elements = addValidTxvmToList(txString);
+        storeValidTransactions(addValidTxvmToList(txString));
+    }
+
+    private void storeValidTransactions(final List<TransactionViewModel> elements) throws Exception {
         for (final TransactionViewModel transactionViewModel : elements) {
             //store transactions
             if(transactionViewModel.store(tangle, snapshotProvider.getInitialSnapshot())) {
@@ -604,18 +612,20 @@ public class API {
         }
     }
 
-    private LinkedList addValidTxvmToList(List<String> txString){
-        final List<TransactionViewModel> elements = new LinkedList<>();
-        byte[] txBytes;
+    /**
+     * Decodes and validates transactions, their hashes are calculated in one batch across all cores.
+     *
+     * @param txString transaction data
+     * @return the valid transactions in their order
+     * @throws RuntimeException if any transaction is invalid
+     */
+    private List<TransactionViewModel> addValidTxvmToList(List<String> txString){
+        final List<byte[]> txBytes = new ArrayList<>(txString.size());
         for (final String hex : txString) {
-            //validate all tx
-            txBytes = Hex.decode(hex);
-            final TransactionViewModel transactionViewModel = transactionValidator.validateBytes(
-                    txBytes, transactionValidator.getMinWeightMagnitude()
-            );
-            elements.add(transactionViewModel);
+            txBytes.add(Hex.decode(hex));
         }
-        return (LinkedList) elements;
+        //validate all tx
+        return transactionValidator.validateBytes(txBytes, transactionValidator.getMinWeightMagnitude());
     }
     /**
      * Interrupts and completely aborts the <tt>attachToTangle</tt> process.
@@ -635,6 +645,22 @@ public class API {
     private AbstractResponse getNodeInfoStatement() throws Exception {
         String name = configuration.isTestnet() ? Main.TESTNET_NAME : Main.MAINNET_NAME;
         RoundViewModel round = RoundViewModel.first(tangle);
+        UDPReceiver udpReceiver = node.getUdpReceiver();
+        TransactionCache transactionCache = tangle.getTransactionCache();
+
+        // read the snapshot fields together, so they belong to the same round
+        final Hash latestSnapshotHash;
+        final int latestSnapshotIndex;
+        final int initialSnapshotIndex;
+        snapshotProvider.getLatestSnapshot().lockRead();
+        try {
+            latestSnapshotHash = snapshotProvider.getLatestSnapshot().getHash();
+            latestSnapshotIndex = snapshotProvider.getLatestSnapshot().getIndex();
+            initialSnapshotIndex = snapshotProvider.getLatestSnapshot().getInitialIndex();
+        } finally {
+            snapshotProvider.getLatestSnapshot().unlockRead();
+        }
+
         return GetNodeInfoResponse.create(name, Main.VERSION,
                 Runtime.getRuntime().availableProcessors(),
                 Runtime.getRuntime().freeMemory(),
@@ -643,17 +669,27 @@ public class API {
                 Runtime.getRuntime().totalMemory(),
                 milestoneTracker.getCurrentRoundIndex(),
 
-                snapshotProvider.getLatestSnapshot().getHash(),
-                snapshotProvider.getLatestSnapshot().getIndex(),
+                latestSnapshotHash,
+                latestSnapshotIndex,
 
                 round != null ? round.index() : 0,
-                snapshotProvider.getLatestSnapshot().getInitialIndex(),
+                initialSnapshotIndex,
 
                 node.howManyNeighbors(),
                 node.queuedTransactionsSize(),
                 System.currentTimeMillis(),
                 tipsViewModel.size(),
                 transactionRequester.numberOfTransactionsToRequest(),
+                node.getGossipStageMetrics(),
+                node.getRecentSeenBytesHits(),
+                node.getRecentSeenBytesMisses(),
+                udpReceiver != null ? udpReceiver.getReceivedPackets() : 0,
+                udpReceiver != null ? udpReceiver.getDroppedPackets() : 0,
+                transactionCache != null ? transactionCache.getHits() : 0,
+                transactionCache != null ? transactionCache.getMisses() : 0,
+                transactionCache != null ? transactionCache.getEvictions() : 0,
+                miner.getHashCount(),
+                miner.getHashesPerSecond(),
                 features
         );
     }
@@ -742,13 +778,14 @@ public class API {
         final byte[] confirmationStates = new byte[numberOfNonMetTransactions];
         int count = 0;
 
-        for(Hash hash: trans) {
-            TransactionViewModel transaction = TransactionViewModel.fromHash(tangle, hash);
+        for(TransactionViewModel transaction: TransactionViewModel.fromHashes(tangle, trans)) {
             int txRound = (int)transaction.getRoundIndex();
-            RoundViewModel rvm = RoundViewModel.get(tangle, txRound);
+            // the confirmed transactions of applied rounds are persisted, so this is a lookup per transaction
+            RoundViewModel rvm = txRound == 0 ? null : RoundViewModel.get(tangle, txRound);
 
             // is transaction finalized
-            if(rvm.isTransactionConfirmed(tangle, configuration.getValidatorSecurity(), hash)) {
+            if(rvm != null && rvm.isTransactionConfirmed(tangle, configuration.getValidatorSecurity(),
+                    transaction.getHash())) {
                 confirmationStates[count] = 1;
             }
             // not finalized yet
@@ -972,7 +1009,7 @@ public class API {
      * @throws Exception If a model cannot be loaded, no valid input fields were supplied
      *                   or the total transactions to find exceeds {@link APIConfig#getMaxFindTransactions()}.
      **/
-    private synchronized AbstractResponse findTransactionsStatement(final Map<String, Object> request) throws Exception {
+    private AbstractResponse findTransactionsStatement(final Map<String, Object> request) throws Exception {
 
         final Set<Hash> foundTransactions =  new HashSet<>();
         boolean containsKey = false;
@@ -1090,7 +1127,10 @@ public class API {
      * @param txString the list of transaction bytes to broadcast
      **/
     public void broadcastTransactionsStatement(final List<String> txString) {
-        final List<TransactionViewModel> elements = addValidTxvmToList(txString);
+        broadcastValidTransactions(addValidTxvmToList(txString));
+    }
+
+    private void broadcastValidTransactions(final List<TransactionViewModel> elements) {
         for (final TransactionViewModel transactionViewModel : elements) {
             //push first in line to broadcast
             transactionViewModel.weightMagnitude = Sha3.HASH_LENGTH;
@@ -1249,10 +1289,9 @@ public class API {
      * @return The list of transactions in bytes, ready to be broadcast to the network.
      **/
 
-    public synchronized List<String> attachToTangleStatement(final Hash trunkTransaction, final Hash branchTransaction, int minWeightMagnitude, final List<String> txs) {
+    public List<String> attachToTangleStatement(final Hash trunkTransaction, final Hash branchTransaction, int minWeightMagnitude, final List<String> txs) {
         final List<TransactionViewModel> transactionViewModels = new LinkedList<>();
         Hash prevTransaction = null;
-        miner = new GreedyMiner();
 
         byte[] txBytes = new byte[BYTES_SIZE];
 
@@ -1286,7 +1325,7 @@ public class API {
                 System.arraycopy(Serializer.serialize(MAX_TIMESTAMP_VALUE),0,txBytes,TransactionViewModel.ATTACHMENT_TIMESTAMP_UPPER_BOUND_OFFSET,
                         TransactionViewModel.ATTACHMENT_TIMESTAMP_UPPER_BOUND_SIZE);
 
-                if (!miner.mine(txBytes, minWeightMagnitude, 4)) {
+                if (!miner.mine(txBytes, minWeightMagnitude, configuration.getPowThreads())) {
                     transactionViewModels.clear();
                     break;
                 }
@@ -1297,15 +1336,18 @@ public class API {
                 transactionViewModels.add(transactionViewModel);
                 prevTransaction = transactionViewModel.getHash();
             } finally {
-                API.incEllapsedTimePoW(System.nanoTime() - startTime);
-                API.incCounterPoW();
-                if ( ( API.getCounterPoW() % 100) == 0 ) {
-                    String sb = "Last 100 PoW consumed " +
-                            API.getEllapsedTimePoW() / 1000000000L +
-                            " seconds processing time.";
-                    log.info(sb);
-                    counter_PoW = 0;
-                    ellapsedTime_PoW = 0L;
+                // attachments run concurrently, so the shared counters need their own lock
+                synchronized (API.class) {
+                    API.incEllapsedTimePoW(System.nanoTime() - startTime);
+                    API.incCounterPoW();
+                    if ( ( API.getCounterPoW() % 100) == 0 ) {
+                        String sb = "Last 100 PoW consumed " +
+                                API.getEllapsedTimePoW() / 1000000000L +
+                                " seconds processing time, " + miner.getHashesPerSecond() + " hashes per second.";
+                        log.info(sb);
+                        counter_PoW = 0;
+                        ellapsedTime_PoW = 0L;
+                    }
                 }
             }
         }
@@ -1540,8 +1582,9 @@ public class API {
         transactions = transactions.stream().map(tx -> StringUtils.rightPad(tx + bundleHash + StringUtils.repeat('0', 128) + tagHex, BYTES_SIZE, '0')).collect(Collectors.toList());
         Collections.reverse(transactions);
         List<String> powResult = attachToTangleStatement(txToApprove.get(0), txToApprove.get(1), minWeightMagnitude, transactions);
-        storeTransactionsStatement(powResult);
-        broadcastTransactionsStatement(powResult);
+        final List<TransactionViewModel> elements = addValidTxvmToList(powResult);
+        storeValidTransactions(elements);
+        broadcastValidTransactions(elements);
     }
 
     /**
@@ -1555,8 +1598,9 @@ public class API {
     private void storeAndBroadcast(Hash tip1, Hash tip2, int mwm, List<String> txs) throws Exception{
         List<String> powResult = attachToTangleStatement(tip1, tip2, mwm, txs);
         log.debug("Milestone tips 1 & 2 = {} {}", tip1.toString(), tip2.toString());
-        storeTransactionsStatement(powResult);
-        broadcastTransactionsStatement(powResult);
+        final List<TransactionViewModel> elements = addValidTxvmToList(powResult);
+        storeValidTransactions(elements);
+        broadcastValidTransactions(elements);
     }
 
     //
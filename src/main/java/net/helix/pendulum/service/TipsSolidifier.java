@@ -70,7 +70,7 @@ public class TipsSolidifier {
         if (size != 0) {
             Hash hash = tipsViewModel.getRandomNonSolidTipHash();
             boolean isTip = true;
-            if (hash != null && TransactionViewModel.fromHash(tangle, hash).getApprovers(tangle).size() != 0) {
+            if (hash != null && !TransactionViewModel.fromHash(tangle, hash).getApprovers(tangle).isEmpty()) {
                 tipsViewModel.removeTipHash(hash);
                 isTip = false;
             }
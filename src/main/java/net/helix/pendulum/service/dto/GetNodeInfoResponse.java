@@ -1,10 +1,13 @@
 package net.helix.pendulum.service.dto;
 
 import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.network.GossipStage;
 import net.helix.pendulum.service.API;
 import net.helix.pendulum.service.Feature;
 import org.bouncycastle.util.encoders.Hex;
 
+import java.util.List;
+
 /**
  *
  * Contains information about the result of a successful {@code getNodeInfo} API call.
@@ -107,6 +110,58 @@ public class GetNodeInfoResponse extends AbstractResponse {
 	 */
 	private int transactionsToRequest;
 
+	/**
+	 * Queue depth, number of worker threads, processed and dropped packets and the average latency
+	 * of each stage of the gossip pipeline.
+	 */
+	private List<GossipStage.Metrics> gossipStages;
+
+	/**
+	 * Number of received packets that were found in the cache of recently seen packets.
+	 * These packets are not hashed and validated again.
+	 */
+	private long recentSeenBytesHits;
+
+	/**
+	 * Number of received packets that were not found in the cache of recently seen packets.
+	 */
+	private long recentSeenBytesMisses;
+
+	/**
+	 * Number of datagrams received by the UDP receiver.
+	 */
+	private long udpPacketsReceived;
+
+	/**
+	 * Number of received datagrams that had the wrong size or were dropped because the gossip pipeline was full.
+	 */
+	private long udpPacketsDropped;
+
+	/**
+	 * Number of transaction loads that were served by the in-memory transaction cache.
+	 */
+	private long transactionCacheHits;
+
+	/**
+	 * Number of transaction loads that had to read the transaction from the database.
+	 */
+	private long transactionCacheMisses;
+
+	/**
+	 * Number of transactions that were removed from the full transaction cache to make room for others.
+	 */
+	private long transactionCacheEvictions;
+
+	/**
+	 * Number of nonces hashed by the proof-of-work of <tt>attachToTangle</tt> calls.
+	 */
+	private long powHashes;
+
+	/**
+	 * Number of nonces hashed per second while <tt>attachToTangle</tt> calls were doing proof-of-work.
+	 */
+	private long powHashesPerSecond;
+
 	/**
 	 * Every node can have features enabled or disabled.
 	 * This list will contain all the names of the features of a node as specified in {@link Feature}.
@@ -133,6 +188,16 @@ public class GetNodeInfoResponse extends AbstractResponse {
 	 * @param currentTimeMillis {@link #time}
 	 * @param tips {@link #tips}
 	 * @param numberOfTransactionsToRequest {@link #transactionsToRequest}
+	 * @param gossipStages {@link #gossipStages}
+	 * @param recentSeenBytesHits {@link #recentSeenBytesHits}
+	 * @param recentSeenBytesMisses {@link #recentSeenBytesMisses}
+	 * @param udpPacketsReceived {@link #udpPacketsReceived}
+	 * @param udpPacketsDropped {@link #udpPacketsDropped}
+	 * @param transactionCacheHits {@link #transactionCacheHits}
+	 * @param transactionCacheMisses {@link #transactionCacheMisses}
+	 * @param transactionCacheEvictions {@link #transactionCacheEvictions}
+	 * @param powHashes {@link #powHashes}
+	 * @param powHashesPerSecond {@link #powHashesPerSecond}
 	 * @param features {@link #features}
 	 * @return a {@link GetNodeInfoResponse} filled with all the provided parameters
 	 */
@@ -140,7 +205,10 @@ public class GetNodeInfoResponse extends AbstractResponse {
 	        String jreVersion, long maxMemory, long totalMemory, int currentRoundIndex,
 	        Hash latestSolidRoundHash, int latestSolidRoundIndex, int roundStartIndex, int lastSnapshottedRoundIndex,
 	        int neighbors, int packetsQueueSize,
-	        long currentTimeMillis, int tips, int numberOfTransactionsToRequest, String[] features) {
+	        long currentTimeMillis, int tips, int numberOfTransactionsToRequest,
+	        List<GossipStage.Metrics> gossipStages, long recentSeenBytesHits, long recentSeenBytesMisses,
+	        long udpPacketsReceived, long udpPacketsDropped, long transactionCacheHits, long transactionCacheMisses,
+	        long transactionCacheEvictions, long powHashes, long powHashesPerSecond, String[] features) {
 		final GetNodeInfoResponse res = new GetNodeInfoResponse();
 		res.appName = appName;
 		res.appVersion = appVersion;
@@ -163,6 +231,16 @@ public class GetNodeInfoResponse extends AbstractResponse {
 		res.time = currentTimeMillis;
 		res.tips = tips;
 		res.transactionsToRequest = numberOfTransactionsToRequest;
+		res.gossipStages = gossipStages;
+		res.recentSeenBytesHits = recentSeenBytesHits;
+		res.recentSeenBytesMisses = recentSeenBytesMisses;
+		res.udpPacketsReceived = udpPacketsReceived;
+		res.udpPacketsDropped = udpPacketsDropped;
+		res.transactionCacheHits = transactionCacheHits;
+		res.transactionCacheMisses = transactionCacheMisses;
+		res.transactionCacheEvictions = transactionCacheEvictions;
+		res.powHashes = powHashes;
+		res.powHashesPerSecond = powHashesPerSecond;
 
 		res.features = features;
 
@@ -297,6 +375,86 @@ public class GetNodeInfoResponse extends AbstractResponse {
 		return transactionsToRequest;
 	}
 
+	/**
+	 *
+	 * @return {@link #gossipStages}
+	 */
+	public List<GossipStage.Metrics> getGossipStages() {
+		return gossipStages;
+	}
+
+	/**
+	 *
+	 * @return {@link #recentSeenBytesHits}
+	 */
+	public long getRecentSeenBytesHits() {
+		return recentSeenBytesHits;
+	}
+
+	/**
+	 *
+	 * @return {@link #recentSeenBytesMisses}
+	 */
+	public long getRecentSeenBytesMisses() {
+		return recentSeenBytesMisses;
+	}
+
+	/**
+	 *
+	 * @return {@link #udpPacketsReceived}
+	 */
+	public long getUdpPacketsReceived() {
+		return udpPacketsReceived;
+	}
+
+	/**
+	 *
+	 * @return {@link #udpPacketsDropped}
+	 */
+	public long getUdpPacketsDropped() {
+		return udpPacketsDropped;
+	}
+
+	/**
+	 *
+	 * @return {@link #transactionCacheHits}
+	 */
+	public long getTransactionCacheHits() {
+		return transactionCacheHits;
+	}
+
+	/**
+	 *
+	 * @return {@link #transactionCacheMisses}
+	 */
+	public long getTransactionCacheMisses() {
+		return transactionCacheMisses;
+	}
+
+	/**
+	 *
+	 * @return {@link #transactionCacheEvictions}
+	 */
+	public long getTransactionCacheEvictions() {
+		return transactionCacheEvictions;
+	}
+
+	/**
+	 *
+	 * @return {@link #powHashes}
+	 */
+	public long getPowHashes() {
+		return powHashes;
+	}
+
+	/**
+	 *
+	 * @return {@link #powHashesPerSecond}
+	 */
+	public long getPowHashesPerSecond() {
+		return powHashesPerSecond;
+	}
+
 	/**
 	 *
 	 * @return {@link #features}
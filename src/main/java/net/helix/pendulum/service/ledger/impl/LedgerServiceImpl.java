@@ -9,6 +9,7 @@ import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.service.ledger.LedgerException;
 import net.helix.pendulum.service.ledger.LedgerService;
 import net.helix.pendulum.service.milestone.MilestoneService;
+import net.helix.pendulum.service.snapshot.Snapshot;
 import net.helix.pendulum.service.snapshot.SnapshotException;
 import net.helix.pendulum.service.snapshot.SnapshotProvider;
 import net.helix.pendulum.service.snapshot.SnapshotService;
@@ -19,15 +20,47 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
  * Creates a service instance that allows us to perform ledger state specific operations.<br />
  * <br />
- * This class is stateless and does not hold any domain specific models.<br />
+ * This class does not hold any domain specific models, it just implements the business logic related to the ledger
+ * state.<br />
+ * <br />
+ * The balance changes of a cone are generated level by level, the transactions of a large level are loaded and their
+ * bundles are validated in parallel by a dedicated pool. Overlapping cones don't validate their bundles again because
+ * the {@link BundleValidator} remembers the valid bundles.<br />
  */
 public class LedgerServiceImpl implements LedgerService {
     private static final Logger log = LoggerFactory.getLogger(LedgerServiceImpl.class);
+
+    /**
+     * Minimum number of transactions of one level of a cone that are loaded in parallel.<br />
+     */
+    private static final int MIN_PARALLEL_TRANSACTIONS = 64;
+
+    /**
+     * Number of transactions of a level that are visited by one task of the {@link #VISITOR_POOL}.<br />
+     */
+    private static final int VISIT_BATCH_SIZE = 16;
+
+    /**
+     * Dedicated pool that visits the transactions of large levels. The visits block on the database, so they don't run
+     * on the common pool which is shared with the parallel streams of the node.<br />
+     */
+    private static final ForkJoinPool VISITOR_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors(),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("Ledger Visitor " + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+
     /**
      * Holds the tangle object which acts as a database interface.<br />
      */
@@ -50,7 +83,6 @@ public class LedgerServiceImpl implements LedgerService {
      */
     private MilestoneService milestoneService;
 
-
     /**
      * Initializes the instance and registers its dependencies.<br />
      * <br />
@@ -159,8 +191,8 @@ public class LedgerServiceImpl implements LedgerService {
                 currentState.putIfAbsent(key, value);
             }
         });
-        boolean isConsistent = snapshotProvider.getLatestSnapshot().patchedState(new SnapshotStateDiffImpl(
-                currentState)).isConsistent();
+        boolean isConsistent = snapshotProvider.getLatestSnapshot().isConsistentWith(new SnapshotStateDiffImpl(
+                currentState));
         if (isConsistent) {
             diff.putAll(currentState);
             approvedHashes.addAll(visitedHashes);
@@ -172,69 +204,42 @@ public class LedgerServiceImpl implements LedgerService {
     public Map<Hash, Long> generateBalanceDiff(Set<Hash> visitedTransactions, Set<Hash> startTransactions, int milestoneIndex)
             throws LedgerException {
 
+        final Snapshot initialSnapshot = snapshotProvider.getInitialSnapshot();
         Map<Hash, Long> state = new HashMap<>();
         Set<Hash> countedTx = new HashSet<>();
 
-        snapshotProvider.getInitialSnapshot().getSolidEntryPoints().keySet().forEach(solidEntryPointHash -> {
-            visitedTransactions.add(solidEntryPointHash);
-            countedTx.add(solidEntryPointHash);
-        });
+        List<Hash> nonAnalyzedTransactions = new ArrayList<>(startTransactions);
+        while (!nonAnalyzedTransactions.isEmpty()) {
+            // the solid entry points are looked up in the initial snapshot instead of being added to the visited set
+            final List<Hash> level = new ArrayList<>(nonAnalyzedTransactions.size());
+            for (Hash transactionPointer : nonAnalyzedTransactions) {
+                if (!initialSnapshot.hasSolidEntryPoint(transactionPointer) && visitedTransactions.add(transactionPointer)) {
+                    level.add(transactionPointer);
+                }
+            }
 
-        final Queue<Hash> nonAnalyzedTransactions = new LinkedList<>(startTransactions);
-        Hash transactionPointer;
-        while ((transactionPointer = nonAnalyzedTransactions.poll()) != null) {
-            if (visitedTransactions.add(transactionPointer)) {
-                try {
-                    final TransactionViewModel transactionViewModel = TransactionViewModel.fromHash(tangle,
-                            transactionPointer);
-                    // only take transactions into account that have not been confirmed by the referenced milestone, yet
-                    if (!milestoneService.isTransactionConfirmed(transactionViewModel, milestoneIndex)) {
-                        if (transactionViewModel.getType() == TransactionViewModel.PREFILLED_SLOT) {
-                            log.debug("Txvm should be filled: {}", transactionViewModel.toString());
-                            return null;
-                        } else {
-                            if (transactionViewModel.getCurrentIndex() == 0) {
-                                boolean validBundle = false;
-
-                                final List<List<TransactionViewModel>> bundleTransactions = BundleValidator.validate(
-                                        tangle, snapshotProvider.getInitialSnapshot(), transactionViewModel.getHash());
-
-                                for (final List<TransactionViewModel> bundleTransactionViewModels : bundleTransactions) {
-
-                                    if (BundleValidator.isInconsistent(bundleTransactionViewModels)) {
-                                        break;
-                                    }
-                                    if (bundleTransactionViewModels.get(0).getHash().equals(transactionViewModel.getHash())) {
-                                        validBundle = true;
-
-                                        for (final TransactionViewModel bundleTransactionViewModel : bundleTransactionViewModels) {
-
-                                            if (bundleTransactionViewModel.value() != 0 && countedTx.add(bundleTransactionViewModel.getHash())) {
-
-                                                final Hash address = bundleTransactionViewModel.getAddressHash();
-                                                final Long value = state.get(address);
-                                                state.put(address, value == null ? bundleTransactionViewModel.value()
-                                                        : Math.addExact(value, bundleTransactionViewModel.value()));
-                                            }
-                                        }
-
-                                        break;
-                                    }
-                                }
-                                if (!validBundle) {
-                                    return null;
-                                }
-                            }
-                            if (!visitedTransactions.contains(transactionViewModel.getTrunkTransactionHash())) {
-                                nonAnalyzedTransactions.offer(transactionViewModel.getTrunkTransactionHash());
-                            }
-                            if (!visitedTransactions.contains(transactionViewModel.getBranchTransactionHash())) {
-                                nonAnalyzedTransactions.offer(transactionViewModel.getBranchTransactionHash());
-                            }
-                        }
+            final Visit[] visits = visitLevel(initialSnapshot, level, milestoneIndex);
+
+            nonAnalyzedTransactions = new ArrayList<>(2 * visits.length);
+            for (Visit visit : visits) {
+                if (visit.error != null) {
+                    throw new LedgerException("unexpected error while generating the balance diff", visit.error);
+                }
+                if (visit.inconsistent) {
+                    return null;
+                }
+                if (visit.bundleTransactions != null) {
+                    try {
+                        addBalanceChanges(visit.bundleTransactions, state, countedTx, initialSnapshot);
+                    } catch (ArithmeticException e) {
+                        throw new LedgerException("unexpected error while generating the balance diff", e);
                     }
-                } catch (Exception e) {
-                    throw new LedgerException("unexpected error while generating the balance diff", e);
+                }
+                if (visit.trunk != null && !visitedTransactions.contains(visit.trunk)) {
+                    nonAnalyzedTransactions.add(visit.trunk);
+                }
+                if (visit.branch != null && !visitedTransactions.contains(visit.branch)) {
+                    nonAnalyzedTransactions.add(visit.branch);
                 }
             }
         }
@@ -242,6 +247,135 @@ public class LedgerServiceImpl implements LedgerService {
         return state;
     }
 
+    /**
+     * Visits the transactions of one level of a cone, in parallel on the {@link #VISITOR_POOL} if the level is
+     * large.<br />
+     *
+     * @param initialSnapshot the initial snapshot that is used to validate bundles
+     * @param level the transactions of the level
+     * @param milestoneIndex the index of the milestone that the balance changes are relative to
+     * @return the results of the visits in the order of the level
+     * @throws LedgerException if a visit fails unexpectedly
+     */
+    private Visit[] visitLevel(Snapshot initialSnapshot, List<Hash> level, int milestoneIndex) throws LedgerException {
+        final Visit[] visits = new Visit[level.size()];
+        if (visits.length < MIN_PARALLEL_TRANSACTIONS) {
+            for (int i = 0; i < visits.length; i++) {
+                visits[i] = visit(initialSnapshot, level.get(i), milestoneIndex);
+            }
+            return visits;
+        }
+
+        List<Callable<Void>> batches = new ArrayList<>(visits.length / VISIT_BATCH_SIZE + 1);
+        for (int from = 0; from < visits.length; from += VISIT_BATCH_SIZE) {
+            final int start = from;
+            final int end = Math.min(from + VISIT_BATCH_SIZE, visits.length);
+            batches.add(() -> {
+                for (int i = start; i < end; i++) {
+                    visits[i] = visit(initialSnapshot, level.get(i), milestoneIndex);
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> batch : VISITOR_POOL.invokeAll(batches)) {
+                batch.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LedgerException("interrupted while generating the balance diff", e);
+        } catch (ExecutionException e) {
+            throw new LedgerException("unexpected error while generating the balance diff", e.getCause());
+        }
+        return visits;
+    }
+
+    /**
+     * Loads a transaction of the cone that is traversed by {@link #generateBalanceDiff(Set, Set, int)} and the
+     * transactions of its bundle if it is a tail.<br />
+     * <br />
+     * It is called in parallel for the transactions of one level of the cone, so it doesn't touch the sets and maps of
+     * the traversal and reports errors through its result.<br />
+     *
+     * @param initialSnapshot the initial snapshot that is used to validate bundles
+     * @param transactionHash the transaction that is visited
+     * @param milestoneIndex the index of the milestone that the balance changes are relative to
+     * @return the result of the visit
+     */
+    private Visit visit(Snapshot initialSnapshot, Hash transactionHash, int milestoneIndex) {
+        try {
+            final TransactionViewModel transactionViewModel = TransactionViewModel.fromHash(tangle, transactionHash);
+            // only take transactions into account that have not been confirmed by the referenced milestone, yet
+            if (milestoneService.isTransactionConfirmed(transactionViewModel, milestoneIndex)) {
+                return Visit.CONFIRMED;
+            }
+            if (transactionViewModel.getType() == TransactionViewModel.PREFILLED_SLOT) {
+                log.debug("Txvm should be filled: {}", transactionViewModel.toString());
+                return Visit.INCONSISTENT;
+            }
+
+            List<TransactionViewModel> bundleTransactions = null;
+            if (transactionViewModel.getCurrentIndex() == 0) {
+                bundleTransactions = getValidBundle(initialSnapshot, transactionViewModel.getHash());
+                if (bundleTransactions == null) {
+                    return Visit.INCONSISTENT;
+                }
+            }
+
+            return new Visit(transactionViewModel.getTrunkTransactionHash(),
+                    transactionViewModel.getBranchTransactionHash(), bundleTransactions);
+        } catch (Exception e) {
+            return new Visit(e);
+        }
+    }
+
+    /**
+     * Returns the transactions of the valid bundle that starts with the given tail.<br />
+     * <br />
+     * The {@link BundleValidator} remembers the valid bundles, so overlapping cones don't validate their bundles
+     * again.<br />
+     *
+     * @param initialSnapshot the initial snapshot that is used to validate the bundle
+     * @param tailHash the tail transaction of the bundle
+     * @return the transactions of the bundle or {@code null} if the bundle is not valid
+     * @throws Exception if anything unexpected happens while validating the bundle
+     */
+    private List<TransactionViewModel> getValidBundle(Snapshot initialSnapshot, Hash tailHash) throws Exception {
+        for (final List<TransactionViewModel> bundleTransactionViewModels : BundleValidator.validate(tangle,
+                initialSnapshot, tailHash)) {
+
+            if (BundleValidator.isInconsistent(bundleTransactionViewModels)) {
+                break;
+            }
+            if (bundleTransactionViewModels.get(0).getHash().equals(tailHash)) {
+                return bundleTransactionViewModels;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds the balance changes of the value transactions of a bundle that were not counted yet to the given
+     * state.<br />
+     *
+     * @param bundleTransactions the transactions of a valid bundle
+     * @param state the balance changes of the cone
+     * @param countedTx the transactions that were counted already, the added transactions are added to it
+     * @param initialSnapshot the initial snapshot whose solid entry points are never counted
+     */
+    private static void addBalanceChanges(List<TransactionViewModel> bundleTransactions, Map<Hash, Long> state,
+                                          Set<Hash> countedTx, Snapshot initialSnapshot) {
+        for (final TransactionViewModel bundleTransactionViewModel : bundleTransactions) {
+            if (bundleTransactionViewModel.value() != 0
+                    && !initialSnapshot.hasSolidEntryPoint(bundleTransactionViewModel.getHash())
+                    && countedTx.add(bundleTransactionViewModel.getHash())) {
+                state.merge(bundleTransactionViewModel.getAddressHash(), bundleTransactionViewModel.value(),
+                        Math::addExact);
+            }
+        }
+    }
+
     /**
      * Generates the {@link net.helix.pendulum.model.StateDiff} that belongs to the given milestone in the database and marks
      * all transactions that have been approved by the milestone accordingly by setting their {@code snapshotIndex}
@@ -285,10 +419,11 @@ public class LedgerServiceImpl implements LedgerService {
                             snapshotProvider.getLatestSnapshot().getIndex() + 1);
                     successfullyProcessed = balanceChanges != null;
                     if (successfullyProcessed) {
-                        successfullyProcessed = snapshotProvider.getLatestSnapshot().patchedState(
-                                new SnapshotStateDiffImpl(balanceChanges)).isConsistent();
+                        successfullyProcessed = snapshotProvider.getLatestSnapshot().isConsistentWith(
+                                new SnapshotStateDiffImpl(balanceChanges));
                         if (successfullyProcessed) {
                             milestoneService.updateRoundIndexOfMilestoneTransactions(round.index());
+                            round.storeConfirmedTransactions(tangle, config.getValidatorSecurity());
 
                             if (!balanceChanges.isEmpty()) {
                                 new StateDiffViewModel(balanceChanges, round.index()).store(tangle);
@@ -304,4 +439,35 @@ public class LedgerServiceImpl implements LedgerService {
             throw new LedgerException("unexpected error while generating the StateDiff for Round" + round.index(), e);
         }
     }
+
+    /**
+     * The result of visiting a transaction of a cone (see {@link #visit(Snapshot, Hash, int)}).<br />
+     */
+    private static final class Visit {
+        private static final Visit CONFIRMED = new Visit(null, null, null, false, null);
+        private static final Visit INCONSISTENT = new Visit(null, null, null, true, null);
+
+        private final Hash trunk;
+        private final Hash branch;
+        private final List<TransactionViewModel> bundleTransactions;
+        private final boolean inconsistent;
+        private final Exception error;
+
+        private Visit(Hash trunk, Hash branch, List<TransactionViewModel> bundleTransactions) {
+            this(trunk, branch, bundleTransactions, false, null);
+        }
+
+        private Visit(Exception error) {
+            this(null, null, null, false, error);
+        }
+
+        private Visit(Hash trunk, Hash branch, List<TransactionViewModel> bundleTransactions, boolean inconsistent,
+                      Exception error) {
+            this.trunk = trunk;
+            this.branch = branch;
+            this.bundleTransactions = bundleTransactions;
+            this.inconsistent = inconsistent;
+            this.error = error;
+        }
+    }
 }
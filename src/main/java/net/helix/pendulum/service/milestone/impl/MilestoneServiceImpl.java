@@ -5,6 +5,7 @@ import net.helix.pendulum.BundleValidator;
 import net.helix.pendulum.TransactionValidator;
 import net.helix.pendulum.conf.ConsensusConfig;
 import net.helix.pendulum.controllers.RoundViewModel;
+import net.helix.pendulum.controllers.StateDiffCheckpointViewModel;
 import net.helix.pendulum.controllers.TransactionViewModel;
 import net.helix.pendulum.crypto.Merkle;
 import net.helix.pendulum.crypto.SpongeFactory;
@@ -360,6 +361,8 @@ public class MilestoneServiceImpl implements MilestoneService {
     private void updateRoundIndexOfMilestoneTransactions(int correctIndex, int newIndex,
                                                              Set<Hash> processedTransactions) throws MilestoneException {
         Set<Integer> inconsistentMilestones = new HashSet<>();
+        Set<Hash> confirmedTransactions = new HashSet<>();
+        Set<Hash> referencedTransactions = new HashSet<>();
 
         try {
             // update milestones
@@ -368,10 +371,17 @@ public class MilestoneServiceImpl implements MilestoneService {
                 for (Hash milestoneHash : round.getHashes()) {
                     TransactionViewModel milestoneTx = TransactionViewModel.fromHash(tangle, milestoneHash);
                     updateRoundIndexOfSingleTransaction(milestoneTx, newIndex);
+                    if (newIndex != 0) {
+                        collectReferencedTransaction(TransactionViewModel.fromHash(tangle,
+                                milestoneTx.getTrunkTransactionHash()), correctIndex, referencedTransactions);
+                        collectReferencedTransaction(TransactionViewModel.fromHash(tangle,
+                                milestoneTx.getBranchTransactionHash()), correctIndex, referencedTransactions);
+                    }
                 }
             }
             // update confirmed transactions
-            final Queue<Hash> transactionsToUpdate = new LinkedList<>(getConfirmedTips(newIndex));
+            final Set<Hash> confirmedTips = getConfirmedTips(newIndex);
+            final Queue<Hash> transactionsToUpdate = new LinkedList<>(confirmedTips);
             Hash transactionPointer;
             while ((transactionPointer = transactionsToUpdate.poll()) != null) {
                 if (processedTransactions.add(transactionPointer)) {
@@ -379,10 +389,12 @@ public class MilestoneServiceImpl implements MilestoneService {
                             transactionPointer);
                     if (isTransactionConfirmed(transactionViewModel, correctIndex - 1)) {
                         patchSolidEntryPointsIfNecessary(snapshotProvider.getInitialSnapshot(), transactionViewModel);
+                        collectReferencedTransaction(transactionViewModel, correctIndex, referencedTransactions);
                     } else {
                         prepareRoundIndexUpdate(transactionViewModel, correctIndex, newIndex,
                                 inconsistentMilestones, transactionsToUpdate);
                         updateRoundIndexOfSingleTransaction(transactionViewModel, newIndex);
+                        confirmedTransactions.add(transactionPointer);
                         if (!transactionsToUpdate.contains(transactionViewModel.getTrunkTransactionHash())) {
                             transactionsToUpdate.offer(transactionViewModel.getTrunkTransactionHash());
                         }
@@ -393,6 +405,10 @@ public class MilestoneServiceImpl implements MilestoneService {
                 }
             }
 
+            if (newIndex != 0) {
+                snapshotService.registerAppliedRound(newIndex, confirmedTips, confirmedTransactions,
+                        referencedTransactions);
+            }
         } catch (Exception e) {
             throw new MilestoneException("error while updating the milestone index", e);
         }
@@ -433,6 +449,26 @@ public class MilestoneServiceImpl implements MilestoneService {
                 transaction.getBundleHash().toString());
     }
 
+    /**
+     * This method collects a transaction that was confirmed by an earlier round than the one that is being applied and
+     * is directly approved by a transaction of the applied round.<br />
+     * <br />
+     * These transactions are the candidates for the solid entry points of local snapshots that are taken between the
+     * round that confirmed them and the applied round (see {@link SnapshotService#registerAppliedRound(int, Set, Set,
+     * Set)}).<br />
+     *
+     * @param transaction the approved transaction
+     * @param roundIndex index of the round that is being applied
+     * @param referencedTransactions a set that is used to collect the transactions [output parameter]
+     */
+    private void collectReferencedTransaction(TransactionViewModel transaction, int roundIndex,
+                                              Set<Hash> referencedTransactions) {
+
+        if (isTransactionConfirmed(transaction, roundIndex - 1)) {
+            referencedTransactions.add(transaction.getHash());
+        }
+    }
+
     /**
      * This method prepares the update of the milestone index by checking the current {@code snapshotIndex} of the given
      * transaction.<br />
@@ -518,7 +554,8 @@ public class MilestoneServiceImpl implements MilestoneService {
      * <br />
      * 1. resetting the ledger state if it addresses a milestone before the current latest solid milestone<br />
      * 2. resetting the {@code milestoneIndex} of all transactions that were confirmed by the current milestone<br />
-     * 3. deleting the corresponding {@link StateDiff} entry from the database<br />
+     * 3. deleting the corresponding {@link StateDiff} entry and the checkpoint that contains it from the database<br />
+     * 4. discarding the candidates for solid entry points of the milestone and all later milestones<br />
      *
      * @param index milestone index that shall be reverted
      * @param processedTransactions a set of transactions that have been processed already
@@ -538,6 +575,9 @@ public class MilestoneServiceImpl implements MilestoneService {
                 updateRoundIndexOfMilestoneTransactions(roundToRepair.index(), 0,
                             processedTransactions);
                 tangle.delete(StateDiff.class, new IntegerIndex(roundToRepair.index()));
+                StateDiffCheckpointViewModel.delete(tangle, roundToRepair.index());
+                snapshotService.unregisterAppliedRounds(roundToRepair.index());
+                roundToRepair.deleteConfirmedTransactions(tangle);
             }
         } catch (Exception e) {
             throw new MilestoneException("failed to repair corrupted milestone with index #" + index, e);
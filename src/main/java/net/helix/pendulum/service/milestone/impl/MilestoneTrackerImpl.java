@@ -18,8 +18,10 @@ import net.helix.pendulum.utils.thread.DedicatedScheduledExecutorService;
 import net.helix.pendulum.utils.thread.SilentScheduledExecutorService;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -189,13 +191,15 @@ public class MilestoneTrackerImpl implements MilestoneTracker {
          Set<Hash> referencedTipSet = currentRVM.getReferencedTransactions(tangle, RoundViewModel.getTipSet(tangle, transaction.getHash(), config.getValidatorSecurity()));
          // Milestone that first references a transaction determines the roundIndex - it should not change after that.
          // The confirmation counter should be incremented with each milestone reference
+         List<TransactionViewModel> referencedTransactions = new ArrayList<>(referencedTipSet.size());
          for (Hash tx : referencedTipSet) {
              TransactionViewModel txvm = TransactionViewModel.fromHash(tangle, tx);
              txvm.setRoundIndex(txvm.getRoundIndex() == 0 ? roundIndex : txvm.getRoundIndex());
-             txvm.update(tangle, snapshotProvider.getInitialSnapshot(), "roundIndex");
              txvm.setConfirmations(txvm.getConfirmations() + 1);
-             txvm.update(tangle, snapshotProvider.getInitialSnapshot(), "confirmation");
+             referencedTransactions.add(txvm);
          }
+         TransactionViewModel.updateBatch(tangle, snapshotProvider.getInitialSnapshot(), referencedTransactions,
+                 "roundIndex|confirmation");
     }
 
     @Override
@@ -6,12 +6,14 @@ import net.helix.pendulum.service.milestone.MilestoneTracker;
 import net.helix.pendulum.service.transactionpruning.TransactionPruner;
 
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Represents the service for snapshots that contains the relevant business logic for modifying {@link Snapshot}s and
  * generating new local {@link Snapshot}s.
  *
- * This class is stateless and does not hold any domain specific models.
+ * This class does not hold any domain specific models, it only keeps track of the candidates for solid entry points
+ * of the rounds that were applied since the last local snapshot.
  */
 public interface SnapshotService {
     /**
@@ -23,6 +25,10 @@ public interface SnapshotService {
      * mean time. If the application of changes fails, we restore the state of the snapshot to the one it had before the
      * application attempt so this method only modifies the Snapshot if it succeeds.<br />
      * <br />
+     * The balance changes of every block of {@link net.helix.pendulum.controllers.StateDiffCheckpointViewModel#INTERVAL}
+     * rounds are stored as a checkpoint once the block was applied, so later replays only apply the checkpoints of
+     * whole blocks and the single rounds of the partial blocks at both ends.<br />
+     * <br />
      * Note: the changes done by this method can be reverted by using {@link #rollBackMilestones(Snapshot, int)}<br />
      *
      * @param snapshot the Snapshot that shall get modified
@@ -94,6 +100,31 @@ public interface SnapshotService {
      */
     Map<Hash, Integer> generateSolidEntryPoints(RoundViewModel targetMilestone) throws SnapshotException;
 
+    /**
+     * This method registers the candidates for solid entry points that were found while a round was applied to the
+     * ledger.
+     *
+     * Once all rounds after a local snapshot are registered, {@link #generateSolidEntryPoints(RoundViewModel)} derives
+     * the solid entry points from the registered rounds instead of analyzing the tangle.
+     *
+     * @param roundIndex index of the round that was applied
+     * @param confirmedTips tips that were confirmed by the round
+     * @param confirmedTransactions transactions that were confirmed by the round
+     * @param referencedTransactions transactions that were confirmed by earlier rounds and are directly approved by the
+     *                               transactions of the round
+     */
+    void registerAppliedRound(int roundIndex, Set<Hash> confirmedTips, Set<Hash> confirmedTransactions,
+                              Set<Hash> referencedTransactions);
+
+    /**
+     * This method discards the candidates for solid entry points of the given round and all later rounds.
+     *
+     * It has to be called whenever a round is reset, the rounds are registered again when they are applied again.
+     *
+     * @param roundIndex index of the round that was reset
+     */
+    void unregisterAppliedRounds(int roundIndex);
+
     /**
      * This method generates the map of seen milestones that happened after the given target milestone.
      *
@@ -78,4 +78,17 @@ public interface SnapshotState {
      * @return a differential SnapshotState that contains the resulting balances of all modified addresses
      */
     SnapshotState patchedState(SnapshotStateDiff snapshotStateDiff);
+
+    /**
+     * Checks if the given {@link SnapshotStateDiff} would leave all the addresses it modifies with a non-negative
+     * balance.
+     *
+     * It gives the same result as {@code patchedState(snapshotStateDiff).isConsistent()}, but only looks up the
+     * modified addresses in the current state without creating a differential state, so its cost only depends on the
+     * size of the {@link SnapshotStateDiff}.
+     *
+     * @param snapshotStateDiff the balance patches that we want to check
+     * @return true if all modified addresses stay positive and false otherwise
+     */
+    boolean isConsistentWith(SnapshotStateDiff snapshotStateDiff);
 }
@@ -0,0 +1,506 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.model.AddressHash;
+import net.helix.pendulum.model.BundleHash;
+import net.helix.pendulum.model.BundleNonceHash;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.model.TagHash;
+import net.helix.pendulum.model.TransactionHash;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * Balances of addresses in an open addressing hash table of primitive slots.
+ * <p>
+ *     Every slot holds the 32 bytes of an address, its balance as a <code>long</code> and the type of its {@link Hash},
+ *     so balances are neither boxed nor kept in map entries. The slots are stored in pages of {@link ByteBuffer}s that
+ *     live on the heap or off heap. Collisions are resolved by linear probing and removals shift the following slots
+ *     back, so the table never contains tombstones.
+ * </p>
+ * <p>
+ *     {@link #copy()} takes a copy-on-write snapshot: the copy shares all pages with the original and whichever of the
+ *     two ledgers writes to a shared page first copies only this page. Applying a diff to a copy therefore costs the
+ *     pages of the changed addresses instead of the whole ledger.
+ * </p>
+ * <p>
+ *     The ledger is not thread safe. Ledgers that share pages may be used by different threads, but a ledger must not
+ *     be read while it is written.
+ * </p>
+ */
+public final class BalanceLedger {
+
+    /**
+     * Consumer of the entries of a ledger.
+     */
+    @FunctionalInterface
+    public interface BalanceConsumer {
+        void accept(Hash address, long balance);
+    }
+
+    private static final int PAGE_SHIFT = 9;
+    private static final int PAGE_SLOTS = 1 << PAGE_SHIFT;
+    private static final int KEY_SIZE = Hash.SIZE_IN_BYTES;
+    private static final int BALANCES_OFFSET = PAGE_SLOTS * KEY_SIZE;
+    private static final int TYPES_OFFSET = BALANCES_OFFSET + PAGE_SLOTS * Long.BYTES;
+    private static final int PAGE_SIZE = TYPES_OFFSET + PAGE_SLOTS;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * Types of the stored hashes, the index is stored in the slot and 0 marks an empty slot.
+     */
+    private static final Class<?>[] TYPES = {null, TransactionHash.class, AddressHash.class, BundleHash.class,
+            TagHash.class, BundleNonceHash.class};
+    private static final HashFactory[] FACTORIES = {null, HashFactory.TRANSACTION, HashFactory.ADDRESS,
+            HashFactory.BUNDLE, HashFactory.TAG, HashFactory.BUNDLENONCE};
+
+    private final boolean offHeap;
+    private Page[] pages;
+    private int mask;
+    private int size;
+
+    /**
+     * Pages created by this ledger after its last {@link #copy()} are owned by this token and may be written in place.
+     */
+    private volatile Object owner = new Object();
+
+    /**
+     * Creates an empty ledger.
+     *
+     * @param expectedSize number of addresses the ledger holds without growing
+     * @param offHeap <code>true</code> if the pages shall be allocated outside of the heap
+     */
+    public BalanceLedger(int expectedSize, boolean offHeap) {
+        this.offHeap = offHeap;
+        allocate(capacityFor(expectedSize));
+    }
+
+    private BalanceLedger(BalanceLedger ledger) {
+        offHeap = ledger.offHeap;
+        pages = ledger.pages.clone();
+        mask = ledger.mask;
+        size = ledger.size;
+    }
+
+    /**
+     * Creates a ledger with the balances of a map.
+     *
+     * @param balances map with the addresses associated to their balance
+     * @param offHeap <code>true</code> if the pages shall be allocated outside of the heap
+     * @return the ledger
+     */
+    public static BalanceLedger of(Map<Hash, Long> balances, boolean offHeap) {
+        BalanceLedger ledger = new BalanceLedger(balances.size(), offHeap);
+        balances.forEach(ledger::put);
+        return ledger;
+    }
+
+    /**
+     * @return <code>true</code> if the pages are allocated outside of the heap
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * @return the number of bytes allocated for the slots, pages shared with copies are included
+     */
+    public long getAllocatedBytes() {
+        return (long) pages.length * PAGE_SIZE;
+    }
+
+    /**
+     * @return the number of addresses in the ledger
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param address the address
+     * @return the balance of the address or <code>null</code> if the address is not in the ledger
+     */
+    public Long get(Hash address) {
+        if (address == null) {
+            return null;
+        }
+        byte[] key = address.bytes();
+        int slot = find(readLong(key, 0), readLong(key, 8), readLong(key, 16), readLong(key, 24), typeOf(address));
+        return slot < 0 ? null : balance(slot);
+    }
+
+    /**
+     * Returns the balance of an address without boxing it.
+     *
+     * @param address the address
+     * @param defaultBalance the balance that is returned if the address is not in the ledger
+     * @return the balance of the address or <code>defaultBalance</code> if the address is not in the ledger
+     */
+    public long getOrDefault(Hash address, long defaultBalance) {
+        if (address == null) {
+            return defaultBalance;
+        }
+        byte[] key = address.bytes();
+        int slot = find(readLong(key, 0), readLong(key, 8), readLong(key, 16), readLong(key, 24), typeOf(address));
+        return slot < 0 ? defaultBalance : balance(slot);
+    }
+
+    /**
+     * Sets the balance of an address.
+     *
+     * @param address the address
+     * @param balance the new balance
+     */
+    public void put(Hash address, long balance) {
+        add(address, balance, true);
+    }
+
+    /**
+     * Adds to the balance of an address, an address that is not in the ledger starts with a balance of 0.
+     *
+     * @param address the address
+     * @param delta the change of the balance
+     * @return the new balance
+     */
+    public long add(Hash address, long delta) {
+        return add(address, delta, false);
+    }
+
+    /**
+     * Removes an address.
+     *
+     * @param address the address
+     * @return <code>true</code> if the address was in the ledger
+     */
+    public boolean remove(Hash address) {
+        byte[] key = address.bytes();
+        int slot = find(readLong(key, 0), readLong(key, 8), readLong(key, 16), readLong(key, 24), typeOf(address));
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all addresses, the capacity of the ledger is kept.
+     */
+    public void clear() {
+        allocate(mask + 1);
+    }
+
+    /**
+     * Sums up all balances.
+     *
+     * @return the sum of the balances
+     * @throws ArithmeticException if the sum overflows
+     */
+    public long sum() {
+        long sum = 0;
+        for (Page page : pages) {
+            for (int index = 0; index < PAGE_SLOTS; index++) {
+                if (page.slots.get(TYPES_OFFSET + index) != 0) {
+                    sum = Math.addExact(sum, page.slots.getLong(BALANCES_OFFSET + index * Long.BYTES));
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Passes all addresses and their balances to the consumer.
+     *
+     * @param consumer the consumer
+     */
+    public void forEach(BalanceConsumer consumer) {
+        forEach(balance -> true, consumer);
+    }
+
+    /**
+     * Passes the addresses whose balances match a filter to the consumer. {@link Hash} objects are only created for
+     * the matching addresses.
+     *
+     * @param balanceFilter filter of the balances
+     * @param consumer the consumer
+     */
+    public void forEach(LongPredicate balanceFilter, BalanceConsumer consumer) {
+        for (Page page : pages) {
+            for (int index = 0; index < PAGE_SLOTS; index++) {
+                byte type = page.slots.get(TYPES_OFFSET + index);
+                if (type != 0) {
+                    long balance = page.slots.getLong(BALANCES_OFFSET + index * Long.BYTES);
+                    if (balanceFilter.test(balance)) {
+                        consumer.accept(address(page.slots, index, type), balance);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a new map with the addresses associated to their balance
+     */
+    public Map<Hash, Long> toMap() {
+        Map<Hash, Long> balances = new HashMap<>(size * 4 / 3 + 1);
+        forEach(balances::put);
+        return balances;
+    }
+
+    /**
+     * Takes a copy-on-write snapshot of the ledger. It only copies the page table, the pages are copied when one of
+     * the ledgers writes to them.
+     *
+     * @return the copy
+     */
+    public BalanceLedger copy() {
+        BalanceLedger copy = new BalanceLedger(this);
+        // the pages are shared from now on, neither ledger may write them in place
+        owner = new Object();
+        return copy;
+    }
+
+    /**
+     * @param ledger other ledger
+     * @return <code>true</code> if both ledgers contain the same addresses with the same balances
+     */
+    public boolean contentEquals(BalanceLedger ledger) {
+        if (ledger.size != size) {
+            return false;
+        }
+        for (Page page : pages) {
+            for (int index = 0; index < PAGE_SLOTS; index++) {
+                byte type = page.slots.get(TYPES_OFFSET + index);
+                if (type != 0) {
+                    int keyOffset = index * KEY_SIZE;
+                    int slot = ledger.find(page.slots.getLong(keyOffset), page.slots.getLong(keyOffset + 8),
+                            page.slots.getLong(keyOffset + 16), page.slots.getLong(keyOffset + 24), type);
+                    if (slot < 0 || ledger.balance(slot) != page.slots.getLong(BALANCES_OFFSET + index * Long.BYTES)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a hash code of the contents that does not depend on the capacity or the order of the addresses
+     */
+    public int contentHashCode() {
+        int hashCode = 0;
+        for (Page page : pages) {
+            for (int index = 0; index < PAGE_SLOTS; index++) {
+                byte type = page.slots.get(TYPES_OFFSET + index);
+                if (type != 0) {
+                    int keyOffset = index * KEY_SIZE;
+                    hashCode += (spread(page.slots.getLong(keyOffset), page.slots.getLong(keyOffset + 8),
+                            page.slots.getLong(keyOffset + 16), page.slots.getLong(keyOffset + 24)) + type)
+                            ^ Long.hashCode(page.slots.getLong(BALANCES_OFFSET + index * Long.BYTES));
+                }
+            }
+        }
+        return hashCode;
+    }
+
+    private long add(Hash address, long value, boolean replace) {
+        byte[] key = address.bytes();
+        long k0 = readLong(key, 0);
+        long k1 = readLong(key, 8);
+        long k2 = readLong(key, 16);
+        long k3 = readLong(key, 24);
+        byte type = typeOf(address);
+        if (type == 0) {
+            throw new IllegalArgumentException("unsupported address type " + address.getClass().getName());
+        }
+        int slot = find(k0, k1, k2, k3, type);
+        if (slot >= 0) {
+            long balance = replace ? value : balance(slot) + value;
+            writable(slot).putLong(BALANCES_OFFSET + (slot & (PAGE_SLOTS - 1)) * Long.BYTES, balance);
+            return balance;
+        }
+        if ((size + 1L) * 4 > (mask + 1L) * 3) {
+            grow();
+            slot = find(k0, k1, k2, k3, type);
+        }
+        write(~slot, k0, k1, k2, k3, type, value);
+        size++;
+        return value;
+    }
+
+    /**
+     * @return the slot of the address or the complement of the empty slot where the address belongs
+     */
+    private int find(long k0, long k1, long k2, long k3, byte type) {
+        for (int slot = spread(k0, k1, k2, k3) & mask; ; slot = (slot + 1) & mask) {
+            ByteBuffer slots = pages[slot >>> PAGE_SHIFT].slots;
+            int index = slot & (PAGE_SLOTS - 1);
+            byte slotType = slots.get(TYPES_OFFSET + index);
+            if (slotType == 0) {
+                return ~slot;
+            }
+            int keyOffset = index * KEY_SIZE;
+            if (slots.getLong(keyOffset) == k0 && slots.getLong(keyOffset + 8) == k1
+                    && slots.getLong(keyOffset + 16) == k2 && slots.getLong(keyOffset + 24) == k3
+                    && slotType == type) {
+                return slot;
+            }
+        }
+    }
+
+    private void removeSlot(int slot) {
+        int hole = slot;
+        for (int next = (hole + 1) & mask; type(next) != 0; next = (next + 1) & mask) {
+            ByteBuffer slots = pages[next >>> PAGE_SHIFT].slots;
+            int keyOffset = (next & (PAGE_SLOTS - 1)) * KEY_SIZE;
+            int home = spread(slots.getLong(keyOffset), slots.getLong(keyOffset + 8), slots.getLong(keyOffset + 16),
+                    slots.getLong(keyOffset + 24)) & mask;
+            // the entry may fill the hole if the hole lies between its home slot and its current slot
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                write(hole, slots.getLong(keyOffset), slots.getLong(keyOffset + 8), slots.getLong(keyOffset + 16),
+                        slots.getLong(keyOffset + 24), type(next), balance(next));
+                hole = next;
+            }
+        }
+        writable(hole).put(TYPES_OFFSET + (hole & (PAGE_SLOTS - 1)), (byte) 0);
+    }
+
+    private void write(int slot, long k0, long k1, long k2, long k3, byte type, long balance) {
+        ByteBuffer slots = writable(slot);
+        int index = slot & (PAGE_SLOTS - 1);
+        int keyOffset = index * KEY_SIZE;
+        slots.putLong(keyOffset, k0);
+        slots.putLong(keyOffset + 8, k1);
+        slots.putLong(keyOffset + 16, k2);
+        slots.putLong(keyOffset + 24, k3);
+        slots.putLong(BALANCES_OFFSET + index * Long.BYTES, balance);
+        slots.put(TYPES_OFFSET + index, type);
+    }
+
+    private ByteBuffer writable(int slot) {
+        Object currentOwner = owner;
+        Page page = pages[slot >>> PAGE_SHIFT];
+        if (page.owner != currentOwner) {
+            page = page.copy(currentOwner, offHeap);
+            pages[slot >>> PAGE_SHIFT] = page;
+        }
+        return page.slots;
+    }
+
+    private byte type(int slot) {
+        return pages[slot >>> PAGE_SHIFT].slots.get(TYPES_OFFSET + (slot & (PAGE_SLOTS - 1)));
+    }
+
+    private long balance(int slot) {
+        return pages[slot >>> PAGE_SHIFT].slots.getLong(BALANCES_OFFSET + (slot & (PAGE_SLOTS - 1)) * Long.BYTES);
+    }
+
+    private void grow() {
+        if (mask + 1 >= MAX_CAPACITY) {
+            throw new IllegalStateException("balance ledger can not hold more than " + size + " addresses");
+        }
+        Page[] oldPages = pages;
+        allocate((mask + 1) << 1);
+        for (Page page : oldPages) {
+            for (int index = 0; index < PAGE_SLOTS; index++) {
+                byte type = page.slots.get(TYPES_OFFSET + index);
+                if (type != 0) {
+                    int keyOffset = index * KEY_SIZE;
+                    long k0 = page.slots.getLong(keyOffset);
+                    long k1 = page.slots.getLong(keyOffset + 8);
+                    long k2 = page.slots.getLong(keyOffset + 16);
+                    long k3 = page.slots.getLong(keyOffset + 24);
+                    write(~find(k0, k1, k2, k3, type), k0, k1, k2, k3, type,
+                            page.slots.getLong(BALANCES_OFFSET + index * Long.BYTES));
+                    size++;
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        Object currentOwner = owner;
+        pages = new Page[capacity >>> PAGE_SHIFT];
+        for (int i = 0; i < pages.length; i++) {
+            pages[i] = new Page(offHeap ? ByteBuffer.allocateDirect(PAGE_SIZE) : ByteBuffer.allocate(PAGE_SIZE),
+                    currentOwner);
+        }
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long slots = Math.max(PAGE_SLOTS, expectedSize * 4L / 3 + 1);
+        if (slots > MAX_CAPACITY) {
+            throw new IllegalArgumentException("balance ledger can not hold " + expectedSize + " addresses");
+        }
+        return Integer.highestOneBit((int) slots - 1) << 1;
+    }
+
+    private static Hash address(ByteBuffer slots, int index, byte type) {
+        byte[] key = new byte[KEY_SIZE];
+        for (int i = 0; i < KEY_SIZE; i += Long.BYTES) {
+            writeLong(key, i, slots.getLong(index * KEY_SIZE + i));
+        }
+        return FACTORIES[type].create(key);
+    }
+
+    /**
+     * @return the type of the hash or 0 if hashes of its class can't be stored
+     */
+    private static byte typeOf(Hash address) {
+        for (byte type = 1; type < TYPES.length; type++) {
+            if (TYPES[type] == address.getClass()) {
+                return type;
+            }
+        }
+        return 0;
+    }
+
+    private static int spread(long k0, long k1, long k2, long k3) {
+        long h = k0 ^ Long.rotateLeft(k1, 16) ^ Long.rotateLeft(k2, 32) ^ Long.rotateLeft(k3, 48);
+        h *= 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static long readLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = offset; i < offset + Long.BYTES; i++) {
+            value = (value << 8) | (bytes[i] & 0xFF);
+        }
+        return value;
+    }
+
+    private static void writeLong(byte[] bytes, int offset, long value) {
+        for (int i = offset + Long.BYTES - 1; i >= offset; i--) {
+            bytes[i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    /**
+     * A page of slots and the token of the ledger that may write it in place.
+     */
+    private static final class Page {
+        private final ByteBuffer slots;
+        private final Object owner;
+
+        private Page(ByteBuffer slots, Object owner) {
+            this.slots = slots;
+            this.owner = owner;
+        }
+
+        private Page copy(Object owner, boolean offHeap) {
+            ByteBuffer source = slots.duplicate();
+            source.clear();
+            ByteBuffer copy = offHeap ? ByteBuffer.allocateDirect(PAGE_SIZE) : ByteBuffer.allocate(PAGE_SIZE);
+            copy.put(source);
+            // slots are only accessed at absolute offsets, but further copies start at the position
+            copy.clear();
+            return new Page(copy, owner);
+        }
+    }
+}
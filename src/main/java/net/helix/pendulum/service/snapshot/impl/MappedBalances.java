@@ -0,0 +1,170 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.model.AddressHash;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.utils.FastByteComparisons;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/**
+ * A read-only view of the balances of a binary snapshot state file (see {@link SnapshotStateFile}).
+ * <p>
+ *     The entries are a 32 byte address followed by an 8 byte balance and are sorted by the unsigned bytes of their
+ *     addresses, so an address is found with a binary search directly in the buffer. The buffer is usually mapped
+ *     from the file, the balances are only read into the heap when they are copied into a {@link BalanceLedger}.
+ * </p>
+ * <p>
+ *     All addresses of a snapshot state file are {@link AddressHash}es, hashes of other types are never found. The
+ *     view only uses absolute reads, so it may be read by several threads at once.
+ * </p>
+ */
+final class MappedBalances {
+
+    /**
+     * Size of an entry in bytes.
+     */
+    static final int ENTRY_SIZE = Hash.SIZE_IN_BYTES + Long.BYTES;
+
+    private final ByteBuffer entries;
+    private final int size;
+
+    /**
+     * @param entries the sorted entries, the buffer is not modified
+     */
+    MappedBalances(ByteBuffer entries) {
+        this.entries = entries.slice();
+        this.size = this.entries.capacity() / ENTRY_SIZE;
+    }
+
+    /**
+     * Compares two addresses in the order of the entries.
+     *
+     * @param address first address
+     * @param other second address
+     * @return a negative number, zero or a positive number if the first address is less than, equal to or greater
+     *         than the second one
+     */
+    static int compare(Hash address, Hash other) {
+        return FastByteComparisons.compareTo(address.bytes(), 0, Hash.SIZE_IN_BYTES, other.bytes(), 0,
+                Hash.SIZE_IN_BYTES);
+    }
+
+    /**
+     * @return the number of addresses
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param address the address
+     * @return the balance of the address or <code>null</code> if the address is not in the file
+     */
+    Long get(Hash address) {
+        int entry = find(address);
+        return entry < 0 ? null : balance(entry);
+    }
+
+    /**
+     * @param address the address
+     * @param defaultBalance the balance that is returned if the address is not in the file
+     * @return the balance of the address or <code>defaultBalance</code> if the address is not in the file
+     */
+    long getOrDefault(Hash address, long defaultBalance) {
+        int entry = find(address);
+        return entry < 0 ? defaultBalance : balance(entry);
+    }
+
+    /**
+     * Sums up all balances.
+     *
+     * @return the sum of the balances
+     * @throws ArithmeticException if the sum overflows
+     */
+    long sum() {
+        long sum = 0;
+        for (int entry = 0; entry < size; entry++) {
+            sum = Math.addExact(sum, balance(entry));
+        }
+        return sum;
+    }
+
+    /**
+     * Passes the addresses whose balances match a filter to the consumer. {@link Hash} objects are only created for
+     * the matching addresses.
+     *
+     * @param balanceFilter filter of the balances
+     * @param consumer the consumer
+     */
+    void forEach(LongPredicate balanceFilter, BalanceLedger.BalanceConsumer consumer) {
+        ByteBuffer reader = entries.duplicate();
+        byte[] key = new byte[Hash.SIZE_IN_BYTES];
+        for (int entry = 0; entry < size; entry++) {
+            long balance = balance(entry);
+            if (balanceFilter.test(balance)) {
+                reader.position(entry * ENTRY_SIZE);
+                reader.get(key);
+                consumer.accept(HashFactory.ADDRESS.create(key), balance);
+            }
+        }
+    }
+
+    /**
+     * @return a new map with the addresses associated to their balance
+     */
+    Map<Hash, Long> toMap() {
+        Map<Hash, Long> balances = new HashMap<>(size * 4 / 3 + 1);
+        forEach(balance -> true, balances::put);
+        return balances;
+    }
+
+    /**
+     * @param offHeap <code>true</code> if the pages of the ledger shall be allocated outside of the heap
+     * @return a new ledger with the balances
+     */
+    BalanceLedger toLedger(boolean offHeap) {
+        BalanceLedger ledger = new BalanceLedger(size, offHeap);
+        forEach(balance -> true, ledger::put);
+        return ledger;
+    }
+
+    private int find(Hash address) {
+        if (address == null || address.getClass() != AddressHash.class) {
+            return -1;
+        }
+        ByteBuffer key = ByteBuffer.wrap(address.bytes());
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int comparison = compareKey(key, middle);
+            if (comparison > 0) {
+                low = middle + 1;
+            } else if (comparison < 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int compareKey(ByteBuffer key, int entry) {
+        int offset = entry * ENTRY_SIZE;
+        for (int i = 0; i < Hash.SIZE_IN_BYTES; i += Long.BYTES) {
+            int comparison = Long.compareUnsigned(key.getLong(i), entries.getLong(offset + i));
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private long balance(int entry) {
+        return entries.getLong(entry * ENTRY_SIZE + Hash.SIZE_IN_BYTES);
+    }
+}
@@ -581,5 +581,21 @@ public class SnapshotImpl implements Snapshot {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * This is a thread-safe wrapper for the underlying {@link SnapshotState} method.
+     */
+    @Override
+    public boolean isConsistentWith(SnapshotStateDiff snapshotStateDiff) {
+        lockRead();
+
+        try {
+            return state.isConsistentWith(snapshotStateDiff);
+        } finally {
+            unlockRead();
+        }
+    }
+
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
 }
\ No newline at end of file
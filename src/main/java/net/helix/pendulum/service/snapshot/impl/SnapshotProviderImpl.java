@@ -331,26 +331,22 @@ public class SnapshotProviderImpl implements SnapshotProvider {
     /**
      * This method reads the balances from the given file on the disk and creates the corresponding SnapshotState.
      *
-     * It simply creates the corresponding reader and for the file on the given location and passes it on to
-     * {@link #readSnapshotState(BufferedReader)}.
+     * The file may be in the binary or in the text format (see {@link SnapshotStateFile}), a binary file is memory
+     * mapped instead of being read into the heap.
      *
      * @param snapshotStateFilePath location of the snapshot state file
      * @return the unserialized version of the state file
      * @throws SnapshotException if anything goes wrong while reading the state file
      */
     private SnapshotState readSnapshotStatefromFile(String snapshotStateFilePath) throws SnapshotException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new BufferedInputStream(new FileInputStream(snapshotStateFilePath))))) {
-            return readSnapshotState(reader);
-        } catch (IOException e) {
-            throw new SnapshotException("failed to read the snapshot file at " + snapshotStateFilePath, e);
-        }
+        return SnapshotStateFile.read(Paths.get(snapshotStateFilePath), config.getSnapshotBalancesOffHeap());
     }
 
     /**
      * This method reads the balances from the given file in the JAR and creates the corresponding SnapshotState.
      *
      * It simply creates the corresponding reader and for the file on the given location in the JAR and passes it on to
-     * {@link #readSnapshotState(BufferedReader)}.
+     * {@link SnapshotStateFile#readText(BufferedReader, boolean)}.
      *
      * @param snapshotStateFilePath location of the snapshot state file
      * @return the unserialized version of the state file
@@ -358,61 +354,27 @@ public class SnapshotProviderImpl implements SnapshotProvider {
      */
     private SnapshotState readSnapshotStateFromJAR(String snapshotStateFilePath) throws SnapshotException {
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(new BufferedInputStream(SnapshotProviderImpl.class.getResourceAsStream(snapshotStateFilePath))))) {
-            return readSnapshotState(reader);
+            return SnapshotStateFile.readText(reader, config.getSnapshotBalancesOffHeap());
         } catch (IOException e) {
             throw new SnapshotException("failed to read the snapshot file from JAR at " + snapshotStateFilePath, e);
         }
     }
 
-    /**
-     * This method reads the balances from the given reader.
-     *
-     * The format of the input is pairs of "address;balance" separated by newlines. It simply reads the input line by
-     * line, adding the corresponding values to the map.
-     *
-     * @param reader reader allowing us to retrieve the lines of the {@link SnapshotState} file
-     * @return the unserialized version of the snapshot state state file
-     * @throws IOException if something went wrong while trying to access the file
-     * @throws SnapshotException if anything goes wrong while reading the state file
-     */
-    private SnapshotState readSnapshotState(BufferedReader reader) throws IOException, SnapshotException {
-        Map<Hash, Long> state = new HashMap<>();
-
-        String line;
-        while ((line = reader.readLine()) != null) {
-            String[] parts = line.split(";", 2);
-            if (parts.length == 2) {
-                state.put(HashFactory.ADDRESS.create(parts[0]), Long.valueOf(parts[1]));
-            } else {
-                throw new SnapshotException("malformed snapshot state file");
-            }
-        }
-
-        return new SnapshotStateImpl(state);
-    }
-
     /**
      * This method dumps the current state to a file.
      *
      * It is used by local snapshots to persist the in memory states and allow IRI to resume from the local snapshot.
+     * The state is written in the binary format unless {@link SnapshotConfig#getLocalSnapshotsTextFormat()} is set.
      *
      * @param snapshotState state object that shall be written
      * @param snapshotPath location of the file that shall be written
      * @throws SnapshotException if anything goes wrong while writing the file
      */
     private void writeSnapshotStateToDisk(SnapshotState snapshotState, String snapshotPath) throws SnapshotException {
-        try {
-            Files.write(
-                    Paths.get(snapshotPath),
-                    () -> snapshotState.getBalances().entrySet()
-                            .stream()
-                            .filter(entry -> entry.getValue() != 0)
-                            .<CharSequence>map(entry -> entry.getKey().toString() + ";" + entry.getValue())
-                            .sorted()
-                            .iterator()
-            );
-        } catch (IOException e) {
-            throw new SnapshotException("failed to write the snapshot state file at " + snapshotPath, e);
+        if (config.getLocalSnapshotsTextFormat()) {
+            SnapshotStateFile.writeText(snapshotState, Paths.get(snapshotPath));
+        } else {
+            SnapshotStateFile.writeBinary(snapshotState, Paths.get(snapshotPath));
         }
     }
 
@@ -4,6 +4,7 @@ import net.helix.pendulum.conf.BasePendulumConfig;
 import net.helix.pendulum.conf.PendulumConfig;
 import net.helix.pendulum.controllers.ApproveeViewModel;
 import net.helix.pendulum.controllers.RoundViewModel;
+import net.helix.pendulum.controllers.StateDiffCheckpointViewModel;
 import net.helix.pendulum.controllers.StateDiffViewModel;
 import net.helix.pendulum.controllers.TransactionViewModel;
 import net.helix.pendulum.model.Hash;
@@ -24,8 +25,10 @@ import net.helix.pendulum.utils.log.interval.IntervalProgressLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -34,7 +37,8 @@ import java.util.stream.Collectors;
 /**
  * Creates a service instance that allows us to access the business logic for {@link Snapshot}s.<br />
  * <br />
- * The service instance is stateless and can be shared by multiple other consumers.<br />
+ * The service instance only keeps track of the candidates for solid entry points of the rounds that were applied since
+ * the last local snapshot (see {@link SolidEntryPointCandidates}) and can be shared by multiple other consumers.<br />
  */
 public class SnapshotServiceImpl implements SnapshotService {
     /**
@@ -55,7 +59,7 @@ public class SnapshotServiceImpl implements SnapshotService {
      *       enabled node for a few hours before sharing his files (this is a problem in very rare edge cases when
      *       having back-referencing transactions anyway).<br />
      */
-    private static final int OUTER_SHELL_SIZE = 100;
+    static final int OUTER_SHELL_SIZE = 100;
 
     /**
      * Maximum age in milestones since creation of solid entry points.
@@ -64,7 +68,7 @@ public class SnapshotServiceImpl implements SnapshotService {
      * to them, we limit the life time of solid entry points and ignore them whenever they become too old. This is a
      * measure against a potential attack vector where somebody might try to blow up the meta data of local snapshots.
      */
-    private static final int SOLID_ENTRY_POINT_LIFETIME = 1000;
+    static final int SOLID_ENTRY_POINT_LIFETIME = 1000;
 
     /**
      * Holds the tangle object which acts as a database interface.<br />
@@ -85,6 +89,11 @@ public class SnapshotServiceImpl implements SnapshotService {
 
     private SpentAddressesProvider spentAddressesProvider;
 
+    /**
+     * Holds the candidates for solid entry points of the rounds that were applied since the last local snapshot.<br />
+     */
+    private final SolidEntryPointCandidates solidEntryPointCandidates = new SolidEntryPointCandidates();
+
     /**
      * This method initializes the instance and registers its dependencies.<br />
      * <br />
@@ -130,21 +139,43 @@ public class SnapshotServiceImpl implements SnapshotService {
         RoundViewModel lastAppliedRound = null;
 
         try {
-            for (int currentRoundIndex = snapshot.getIndex() + 1; currentRoundIndex <= targetRoundIndex;
-                 currentRoundIndex++) {
-
-                RoundViewModel currentRound = RoundViewModel.get(tangle, currentRoundIndex);
-                if (currentRound != null) {
-                    StateDiffViewModel stateDiffViewModel = StateDiffViewModel.load(tangle, currentRoundIndex);
-                    if(!stateDiffViewModel.isEmpty()) {
-                        stateDiffViewModel.getDiff().forEach((address, change) -> {
-                            balanceChanges.compute(address, (k, balance) -> (balance == null ? 0 : balance) + change);
-                        });
+            int lastAppliedRoundIndex = -1;
+            for (int currentRoundIndex = snapshot.getIndex() + 1; currentRoundIndex <= targetRoundIndex; ) {
+                int lastRoundOfBlock = StateDiffCheckpointViewModel.lastRoundOfBlock(currentRoundIndex);
+                int lastRoundIndex = Math.min(lastRoundOfBlock, targetRoundIndex);
+                boolean wholeBlock = lastRoundIndex == lastRoundOfBlock
+                        && currentRoundIndex == StateDiffCheckpointViewModel.firstRoundOfBlock(currentRoundIndex);
+
+                StateDiffCheckpointViewModel checkpoint = wholeBlock
+                        ? StateDiffCheckpointViewModel.load(tangle, lastRoundOfBlock)
+                        : null;
+                if (checkpoint == null || !checkpoint.exists()) {
+                    checkpoint = accumulateStateDiffs(currentRoundIndex, lastRoundIndex);
+                    if (wholeBlock) {
+                        storeCheckpoint(snapshot, checkpoint);
                     }
+                }
+                int firstRoundOfBlock = StateDiffCheckpointViewModel.firstRoundOfBlock(lastRoundIndex);
+                if (!wholeBlock && lastRoundIndex == lastRoundOfBlock
+                        && firstRoundOfBlock > snapshot.getInitialIndex()) {
+                    // the block was completed by this replay, its checkpoint needs the rounds we replayed earlier,
+                    // unless it reaches down to the initial index and can't be stored anyway
+                    storeCheckpoint(snapshot, accumulateStateDiffs(firstRoundOfBlock, lastRoundIndex));
+                }
+
+                checkpoint.getDiff().forEach((address, change) -> balanceChanges.merge(address, change, Long::sum));
+                for (int skippedRound : checkpoint.getSkippedRounds()) {
+                    skippedMilestones.add(skippedRound);
+                }
+                lastAppliedRoundIndex = Math.max(lastAppliedRoundIndex, checkpoint.getLastAppliedRoundIndex());
 
-                    lastAppliedRound = currentRound;
-                } else {
-                    skippedMilestones.add(currentRoundIndex);
+                currentRoundIndex = lastRoundIndex + 1;
+            }
+
+            if (lastAppliedRoundIndex != -1) {
+                lastAppliedRound = RoundViewModel.get(tangle, lastAppliedRoundIndex);
+                if (lastAppliedRound == null) {
+                    throw new SnapshotException("failed to load the last applied round #" + lastAppliedRoundIndex);
                 }
             }
 
@@ -185,6 +216,57 @@ public class SnapshotServiceImpl implements SnapshotService {
         }
     }
 
+    /**
+     * Accumulates the {@link net.helix.pendulum.model.StateDiff}s of consecutive rounds, the rounds that don't exist
+     * are skipped.<br />
+     * <br />
+     * The state diffs of all rounds are read from the database with a single batched read.<br />
+     *
+     * @param firstRoundIndex index of the first round
+     * @param lastRoundIndex index of the last round
+     * @return an unsaved checkpoint of the rounds
+     * @throws Exception if anything goes wrong while loading the rounds
+     */
+    private StateDiffCheckpointViewModel accumulateStateDiffs(int firstRoundIndex, int lastRoundIndex)
+            throws Exception {
+
+        Map<Hash, Long> balanceChanges = new HashMap<>();
+        List<Integer> skippedRounds = new ArrayList<>();
+        for (StateDiffViewModel stateDiffViewModel : StateDiffViewModel.loadBatch(tangle, firstRoundIndex,
+                lastRoundIndex)) {
+
+            if (RoundViewModel.get(tangle, stateDiffViewModel.getRoundIndex()) == null) {
+                skippedRounds.add(stateDiffViewModel.getRoundIndex());
+            } else if (!stateDiffViewModel.isEmpty()) {
+                stateDiffViewModel.getDiff().forEach((address, change) ->
+                        balanceChanges.merge(address, change, Long::sum));
+            }
+        }
+
+        return new StateDiffCheckpointViewModel(balanceChanges, skippedRounds, firstRoundIndex, lastRoundIndex);
+    }
+
+    /**
+     * Stores the checkpoint of a block of rounds.<br />
+     * <br />
+     * Blocks that reach down to the initial index of the snapshot are not stored, the state diffs of their older
+     * rounds are not known. A checkpoint is only an optimization, so failures are logged instead of failing the
+     * replay.<br />
+     *
+     * @param snapshot the snapshot that is replayed
+     * @param checkpoint the checkpoint of a whole block
+     */
+    private void storeCheckpoint(Snapshot snapshot, StateDiffCheckpointViewModel checkpoint) {
+        if (checkpoint.getFirstRoundIndex() <= snapshot.getInitialIndex()) {
+            return;
+        }
+        try {
+            checkpoint.store(tangle);
+        } catch (Exception e) {
+            log.warn("failed to store the state diff checkpoint of round #" + checkpoint.getLastRoundIndex(), e);
+        }
+    }
+
     // todo: unfortunately we need to have getRound in milestoneTracker and here, as RoundIndexUtils is static and we need to check isTestnet.
     public int getRound(long time) {
         return config.isTestnet() ?
@@ -242,6 +324,8 @@ public class SnapshotServiceImpl implements SnapshotService {
         }
         log.debug("takeLocalSnapshot += 1");
         persistLocalSnapshot(snapshotProvider, newSnapshot, config);
+
+        solidEntryPointCandidates.removeRoundsUntil(targetMilestone.index());
     }
 
     /**
@@ -291,9 +375,29 @@ public class SnapshotServiceImpl implements SnapshotService {
 
     /**
      * {@inheritDoc}
+     * <br />
+     * If all rounds after the outer shell of the target milestone were registered while they were applied, the solid
+     * entry points are derived from the registered candidates without traversing the tangle. Only the candidates that
+     * are not referenced by a later round are checked for non-orphaned unconfirmed approvers, so both ways yield the
+     * same solid entry points. Otherwise (i.e. after the node was restarted) the old solid entry points are analyzed
+     * again and the approvees of the rounds in the outer shell are traversed.<br />
      */
     @Override
     public Map<Hash, Integer> generateSolidEntryPoints(RoundViewModel targetMilestone) throws SnapshotException {
+        Snapshot initialSnapshot = snapshotProvider.getInitialSnapshot();
+        if (solidEntryPointCandidates.covers(Math.max(initialSnapshot.getIndex(),
+                targetMilestone.index() - OUTER_SHELL_SIZE) + 1)) {
+
+            Map<Hash, Integer> solidEntryPoints = solidEntryPointCandidates.getSolidEntryPoints(
+                    targetMilestone.index(), initialSnapshot.getIndex(), initialSnapshot.getSolidEntryPoints(),
+                    OUTER_SHELL_SIZE, SOLID_ENTRY_POINT_LIFETIME,
+                    transactionHash -> isSolidEntryPoint(tangle, transactionHash, targetMilestone));
+            log.debug("Taking local snapshot [derived {} solid entry points from the applied rounds]",
+                    solidEntryPoints.size());
+
+            return solidEntryPoints;
+        }
+
         Map<Hash, Integer> solidEntryPoints = new HashMap<>();
         solidEntryPoints.put(Hash.NULL_HASH, targetMilestone.index());
 
@@ -303,6 +407,33 @@ public class SnapshotServiceImpl implements SnapshotService {
         return solidEntryPoints;
     }
 
+    /**
+     * {@inheritDoc}
+     * <br />
+     * The candidates are only kept if local snapshots are enabled. The next local snapshot is taken at least
+     * {@link PendulumConfig#getLocalSnapshotsDepth()} rounds before the registered round, so the rounds before its
+     * outer shell are discarded right away.<br />
+     */
+    @Override
+    public void registerAppliedRound(int roundIndex, Set<Hash> confirmedTips, Set<Hash> confirmedTransactions,
+                                     Set<Hash> referencedTransactions) {
+
+        if (!config.getLocalSnapshotsEnabled()) {
+            return;
+        }
+
+        solidEntryPointCandidates.addRound(roundIndex, confirmedTips, confirmedTransactions, referencedTransactions);
+        solidEntryPointCandidates.removeRoundsUntil(roundIndex - config.getLocalSnapshotsDepth() - OUTER_SHELL_SIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void unregisterAppliedRounds(int roundIndex) {
+        solidEntryPointCandidates.removeRoundsFrom(roundIndex);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -370,7 +501,7 @@ public class SnapshotServiceImpl implements SnapshotService {
                 if (!snapshotStateDiff.isConsistent()) {
                     throw new SnapshotException("the StateDiff belonging to milestone #" + snapshot.getIndex() +
                             " (" + snapshot.getHash() + ") is inconsistent");
-                } else if (!snapshot.patchedState(snapshotStateDiff).isConsistent()) {
+                } else if (!snapshot.isConsistentWith(snapshotStateDiff)) {
                     throw new SnapshotException("failed to apply patch belonging to milestone #" + snapshot.getIndex() +
                             " (" + snapshot.getHash() + ")");
                 }
@@ -0,0 +1,267 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.service.snapshot.SnapshotException;
+import net.helix.pendulum.service.snapshot.SnapshotState;
+import org.apache.commons.lang3.SystemUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes the files that hold the balances of a {@link SnapshotState}.
+ * <p>
+ *     The text format has a line of "address;balance" per address with the address in hex. The binary format
+ *     consists of:
+ * </p>
+ * <ul>
+ *     <li>the 8 bytes {@link #MAGIC}</li>
+ *     <li>the version of the format as an int</li>
+ *     <li>the number of addresses as an int</li>
+ *     <li>an entry of the 32 bytes of the address and the balance as a long per address, sorted by the addresses</li>
+ *     <li>the CRC32 checksum of all preceding bytes as a long</li>
+ * </ul>
+ * <p>
+ *     All numbers are big endian. A binary file is memory mapped when it is read, the state looks its balances up in
+ *     the mapped file until it is modified for the first time (see {@link MappedBalances}).
+ * </p>
+ * <p>
+ *     Windows doesn't allow to move a file while it is mapped and a mapping is only released once it is garbage
+ *     collected, so the snapshot files couldn't be rotated (see {@link SnapshotProviderImpl#writeSnapshotToDisk}).
+ *     On Windows the binary file is therefore copied into the heap instead of being mapped.
+ * </p>
+ */
+public final class SnapshotStateFile {
+
+    /**
+     * The first bytes of a binary snapshot state file, they can never start a text file.
+     */
+    static final byte[] MAGIC = {'H', 'L', 'X', 'S', 'T', 'A', 'T', 'E'};
+
+    /**
+     * The version of the binary format that is written.
+     */
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = MAGIC.length + 2 * Integer.BYTES;
+    private static final int CHECKSUM_SIZE = Long.BYTES;
+
+    /**
+     * <code>false</code> if binary files are copied into the heap instead of being mapped.
+     */
+    private static final boolean MAP_FILES = !SystemUtils.IS_OS_WINDOWS;
+
+    private SnapshotStateFile() {
+    }
+
+    /**
+     * Reads a snapshot state file in either format.
+     *
+     * @param path location of the file
+     * @param offHeap <code>true</code> if the balances shall be kept outside of the heap once they are copied into a
+     *                {@link BalanceLedger}
+     * @return the state
+     * @throws SnapshotException if the file could not be read or is malformed
+     */
+    public static SnapshotState read(Path path, boolean offHeap) throws SnapshotException {
+        try {
+            if (isBinary(path)) {
+                return new SnapshotStateImpl(readBinary(path), offHeap);
+            }
+            try (BufferedReader reader = Files.newBufferedReader(path)) {
+                return readText(reader, offHeap);
+            }
+        } catch (IOException e) {
+            throw new SnapshotException("failed to read the snapshot file at " + path, e);
+        }
+    }
+
+    /**
+     * Reads the balances from the lines of a text snapshot state file.
+     *
+     * @param reader reader allowing us to retrieve the lines of the file
+     * @param offHeap <code>true</code> if the balances shall be kept outside of the heap
+     * @return the state
+     * @throws IOException if something went wrong while trying to access the file
+     * @throws SnapshotException if a line is malformed
+     */
+    public static SnapshotState readText(BufferedReader reader, boolean offHeap) throws IOException,
+            SnapshotException {
+
+        Map<Hash, Long> state = new HashMap<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.split(";", 2);
+            if (parts.length == 2) {
+                state.put(HashFactory.ADDRESS.create(parts[0]), Long.valueOf(parts[1]));
+            } else {
+                throw new SnapshotException("malformed snapshot state file");
+            }
+        }
+
+        return new SnapshotStateImpl(state, offHeap);
+    }
+
+    /**
+     * Writes the addresses with a balance other than 0 in the text format.
+     *
+     * @param snapshotState state that shall be written
+     * @param path location of the file
+     * @throws SnapshotException if anything goes wrong while writing the file
+     */
+    public static void writeText(SnapshotState snapshotState, Path path) throws SnapshotException {
+        try {
+            Files.write(
+                    path,
+                    () -> snapshotState.getBalances().entrySet()
+                            .stream()
+                            .filter(entry -> entry.getValue() != 0)
+                            .<CharSequence>map(entry -> entry.getKey().toString() + ";" + entry.getValue())
+                            .sorted()
+                            .iterator()
+            );
+        } catch (IOException e) {
+            throw new SnapshotException("failed to write the snapshot state file at " + path, e);
+        }
+    }
+
+    /**
+     * Writes the addresses with a balance other than 0 in the binary format.
+     *
+     * @param snapshotState state that shall be written
+     * @param path location of the file
+     * @throws SnapshotException if anything goes wrong while writing the file
+     */
+    public static void writeBinary(SnapshotState snapshotState, Path path) throws SnapshotException {
+        List<Map.Entry<Hash, Long>> entries = new ArrayList<>();
+        snapshotState.getBalances().forEach((address, balance) -> {
+            if (balance != 0) {
+                entries.add(new HashMap.SimpleImmutableEntry<>(address, balance));
+            }
+        });
+        entries.sort((entry, other) -> MappedBalances.compare(entry.getKey(), other.getKey()));
+
+        CRC32 checksum = new CRC32();
+        try (DataOutputStream output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(path)), checksum))) {
+
+            output.write(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(entries.size());
+            for (Map.Entry<Hash, Long> entry : entries) {
+                output.write(entry.getKey().bytes(), 0, Hash.SIZE_IN_BYTES);
+                output.writeLong(entry.getValue());
+            }
+            output.writeLong(checksum.getValue());
+        } catch (IOException e) {
+            throw new SnapshotException("failed to write the snapshot state file at " + path, e);
+        }
+    }
+
+    /**
+     * @param path location of the file
+     * @return <code>true</code> if the file starts with {@link #MAGIC}
+     * @throws IOException if the file could not be read
+     */
+    static boolean isBinary(Path path) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        try (InputStream input = Files.newInputStream(path)) {
+            int read = 0;
+            for (int count; read < magic.length && (count = input.read(magic, read, magic.length - read)) > 0; ) {
+                read += count;
+            }
+            return read == magic.length && Arrays.equals(magic, MAGIC);
+        }
+    }
+
+    /**
+     * Maps a binary snapshot state file, or copies it into the heap on Windows, and verifies its header and
+     * checksum.
+     *
+     * @param path location of the file
+     * @return the balances of the file
+     * @throws IOException if the file could not be mapped
+     * @throws SnapshotException if the file is malformed
+     */
+    static MappedBalances readBinary(Path path) throws IOException, SnapshotException {
+        return readBinary(path, MAP_FILES);
+    }
+
+    /**
+     * Reads a binary snapshot state file and verifies its header and checksum.
+     *
+     * @param path location of the file
+     * @param map <code>true</code> if the file shall be mapped, <code>false</code> if it shall be copied into the heap
+     * @return the balances of the file
+     * @throws IOException if the file could not be read
+     * @throws SnapshotException if the file is malformed
+     */
+    static MappedBalances readBinary(Path path, boolean map) throws IOException, SnapshotException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new SnapshotException("the snapshot state file at " + path + " is too large to be mapped");
+            }
+            if (size < HEADER_SIZE + CHECKSUM_SIZE) {
+                throw new SnapshotException("malformed snapshot state file");
+            }
+            if (map) {
+                // the mapping stays valid after the channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        throw new SnapshotException("malformed snapshot state file");
+                    }
+                }
+                buffer.flip();
+            }
+        }
+
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new SnapshotException("malformed snapshot state file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new SnapshotException("unsupported version " + version + " of the snapshot state file");
+        }
+        int count = buffer.getInt();
+        long entriesSize = (long) count * MappedBalances.ENTRY_SIZE;
+        if (count < 0 || HEADER_SIZE + entriesSize + CHECKSUM_SIZE != buffer.capacity()) {
+            throw new SnapshotException("malformed snapshot state file");
+        }
+
+        CRC32 checksum = new CRC32();
+        ByteBuffer checkedBytes = buffer.duplicate();
+        checkedBytes.position(0).limit(buffer.capacity() - CHECKSUM_SIZE);
+        checksum.update(checkedBytes);
+        if (checksum.getValue() != buffer.getLong(buffer.capacity() - CHECKSUM_SIZE)) {
+            throw new SnapshotException("the checksum of the snapshot state file does not match");
+        }
+
+        ByteBuffer entries = buffer.duplicate();
+        entries.position(HEADER_SIZE).limit(HEADER_SIZE + (int) entriesSize);
+        return new MappedBalances(entries);
+    }
+}
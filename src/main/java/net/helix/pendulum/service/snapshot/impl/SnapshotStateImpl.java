@@ -10,11 +10,18 @@ import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
  * Implements the basic contract of the {@link SnapshotState} interface.
+ * <p>
+ *     The balances are kept in a {@link BalanceLedger}, so cloning a state only takes a copy-on-write snapshot of the
+ *     ledger and applying a diff only copies the parts of the ledger that hold the changed addresses.
+ * </p>
+ * <p>
+ *     A state that was read from a binary snapshot state file looks its balances up in the mapped file instead (see
+ *     {@link MappedBalances}), its clones share the mapping. The balances are only copied into a ledger when the state
+ *     is modified for the first time.
+ * </p>
  */
 public class SnapshotStateImpl implements SnapshotState {
     /**
@@ -23,9 +30,19 @@ public class SnapshotStateImpl implements SnapshotState {
     private static final Logger log = LoggerFactory.getLogger(SnapshotStateImpl.class);
 
     /**
-     * Holds the balances of the addresses.
+     * Holds the balances of the addresses, it is <code>null</code> as long as the state is backed by a mapped file.
      */
-    private final Map<Hash, Long> balances;
+    private BalanceLedger balances;
+
+    /**
+     * Holds the balances of the addresses until the state is modified for the first time.
+     */
+    private MappedBalances mappedBalances;
+
+    /**
+     * Determines if the ledger of the state is allocated outside of the heap.
+     */
+    private final boolean offHeap;
 
     /**
      * Creates a deep clone of the passed in {@link SnapshotState}.
@@ -33,11 +50,12 @@ public class SnapshotStateImpl implements SnapshotState {
      * @param snapshotState the object that shall be cloned
      */
     public SnapshotStateImpl(SnapshotState snapshotState) {
-        this(snapshotState.getBalances());
+        this(null, null, snapshotState instanceof SnapshotStateImpl && ((SnapshotStateImpl) snapshotState).offHeap);
+        copyFrom(snapshotState);
     }
 
     /**
-     * Creates a {@link SnapshotState} from the passed in {@link Map} by storing the mapping in its private property.
+     * Creates a {@link SnapshotState} from the passed in {@link Map} by copying the mapping into its private property.
      *
      * While most of the other methods are public, this constructor is protected since we do not want to allow the
      * manual creation of {@link SnapshotState}'s outside of the snapshot logic.
@@ -45,7 +63,38 @@ public class SnapshotStateImpl implements SnapshotState {
      * @param balances map with the addresses associated to their balance
      */
     protected SnapshotStateImpl(Map<Hash, Long> balances) {
+        this(balances, false);
+    }
+
+    /**
+     * Creates a {@link SnapshotState} from the passed in {@link Map} like {@link #SnapshotStateImpl(Map)}, clones of
+     * the state keep the balances on or off the heap like the state itself.
+     *
+     * @param balances map with the addresses associated to their balance
+     * @param offHeap <code>true</code> if the balances shall be kept outside of the heap
+     */
+    protected SnapshotStateImpl(Map<Hash, Long> balances, boolean offHeap) {
+        this(BalanceLedger.of(balances, offHeap));
+    }
+
+    /**
+     * Creates a {@link SnapshotState} that looks its balances up in a mapped snapshot state file.
+     *
+     * @param balances the balances of the file
+     * @param offHeap <code>true</code> if the balances shall be kept outside of the heap once the state is modified
+     */
+    SnapshotStateImpl(MappedBalances balances, boolean offHeap) {
+        this(null, balances, offHeap);
+    }
+
+    private SnapshotStateImpl(BalanceLedger balances) {
+        this(balances, null, balances.isOffHeap());
+    }
+
+    private SnapshotStateImpl(BalanceLedger balances, MappedBalances mappedBalances, boolean offHeap) {
         this.balances = balances;
+        this.mappedBalances = mappedBalances;
+        this.offHeap = offHeap;
     }
 
     /**
@@ -53,7 +102,7 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     @Override
     public Long getBalance(Hash address) {
-        return this.balances.get(address);
+        return mappedBalances != null ? mappedBalances.get(address) : balances.get(address);
     }
 
     /**
@@ -61,7 +110,7 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     @Override
     public Map<Hash, Long> getBalances() {
-        return new HashMap<>(balances);
+        return mappedBalances != null ? mappedBalances.toMap() : balances.toMap();
     }
 
     /**
@@ -77,10 +126,12 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     @Override
     public boolean hasCorrectSupply() {
-        long supply = balances.values()
-                .stream()
-                .reduce(Math::addExact)
-                .orElse(Long.MAX_VALUE);
+        long supply;
+        if (mappedBalances != null) {
+            supply = mappedBalances.size() == 0 ? Long.MAX_VALUE : mappedBalances.sum();
+        } else {
+            supply = balances.size() == 0 ? Long.MAX_VALUE : balances.sum();
+        }
 
         return supply == TransactionViewModel.SUPPLY;
     }
@@ -90,8 +141,7 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     @Override
     public void update(SnapshotState newState) {
-        balances.clear();
-        balances.putAll(newState.getBalances());
+        copyFrom(newState);
     }
 
     /**
@@ -103,12 +153,13 @@ public class SnapshotStateImpl implements SnapshotState {
             throw new SnapshotException("cannot apply an inconsistent SnapshotStateDiff");
         }
 
-        diff.getBalanceChanges().forEach((addressHash, balance) -> {
-            if (balances.computeIfPresent(addressHash, (hash, aLong) -> balance + aLong) == null) {
-                balances.putIfAbsent(addressHash, balance);
-            }
+        if (mappedBalances != null) {
+            balances = mappedBalances.toLedger(offHeap);
+            mappedBalances = null;
+        }
 
-            if (balances.get(addressHash) == 0) {
+        diff.getBalanceChanges().forEach((addressHash, balance) -> {
+            if (balances.add(addressHash, balance) == 0) {
                 balances.remove(addressHash);
             }
         });
@@ -119,19 +170,36 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     @Override
     public SnapshotState patchedState(SnapshotStateDiff snapshotStateDiff) {
-        Map<Hash, Long> patchedBalances = snapshotStateDiff.getBalanceChanges()
-                .entrySet()
-                .stream()
-                .map(hashLongEntry -> new HashMap.SimpleEntry<>(hashLongEntry.getKey(),
-                        balances.getOrDefault(hashLongEntry.getKey(), 0L) + hashLongEntry.getValue()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        Map<Hash, Long> balanceChanges = snapshotStateDiff.getBalanceChanges();
+        BalanceLedger patchedBalances = new BalanceLedger(balanceChanges.size(), false);
+        balanceChanges.forEach((address, balance) -> {
+            Long currentBalance = getBalance(address);
+            patchedBalances.put(address, currentBalance == null ? balance : currentBalance + balance);
+        });
 
         return new SnapshotStateImpl(patchedBalances);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isConsistentWith(SnapshotStateDiff snapshotStateDiff) {
+        for (Map.Entry<Hash, Long> balanceChange : snapshotStateDiff.getBalanceChanges().entrySet()) {
+            long balance = getBalanceOrDefault(balanceChange.getKey(), 0) + balanceChange.getValue();
+            if (balance < 0) {
+                log.info("negative value for address " + balanceChange.getKey() + ": " + balance);
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hash(getClass(), balances);
+        return 31 * getClass().hashCode() + contentLedger().contentHashCode();
     }
 
     @Override
@@ -144,7 +212,12 @@ public class SnapshotStateImpl implements SnapshotState {
             return false;
         }
 
-        return Objects.equals(balances, ((SnapshotStateImpl) obj).balances);
+        SnapshotStateImpl other = (SnapshotStateImpl) obj;
+        if (mappedBalances != null && mappedBalances == other.mappedBalances) {
+            return true;
+        }
+
+        return contentLedger().contentEquals(other.contentLedger());
     }
 
     /**
@@ -158,14 +231,49 @@ public class SnapshotStateImpl implements SnapshotState {
      */
     private Map<Hash, Long> getInconsistentAddresses() {
         HashMap<Hash, Long> result = new HashMap<>();
-        balances.forEach((key, value) -> {
-            if (value < 0) {
-                log.info("negative value for address " + key + ": " + value);
+        BalanceLedger.BalanceConsumer consumer = (key, value) -> {
+            log.info("negative value for address " + key + ": " + value);
 
-                result.put(key, value);
-            }
-        });
+            result.put(key, value);
+        };
+        if (mappedBalances != null) {
+            mappedBalances.forEach(balance -> balance < 0, consumer);
+        } else {
+            balances.forEach(balance -> balance < 0, consumer);
+        }
 
         return result;
     }
+
+    private long getBalanceOrDefault(Hash address, long defaultBalance) {
+        return mappedBalances != null ? mappedBalances.getOrDefault(address, defaultBalance)
+                : balances.getOrDefault(address, defaultBalance);
+    }
+
+    /**
+     * Returns a ledger with the balances of the state to compare it, the mapped balances are copied into a new ledger
+     * that is not kept.
+     *
+     * @return a ledger with the balances of the state
+     */
+    private BalanceLedger contentLedger() {
+        return mappedBalances != null ? mappedBalances.toLedger(false) : balances;
+    }
+
+    /**
+     * Copies the balances of a state, the ledger of a {@link SnapshotStateImpl} is copied on write and its mapped
+     * balances are shared.
+     *
+     * @param snapshotState the state
+     */
+    private void copyFrom(SnapshotState snapshotState) {
+        if (snapshotState instanceof SnapshotStateImpl) {
+            SnapshotStateImpl state = (SnapshotStateImpl) snapshotState;
+            mappedBalances = state.mappedBalances;
+            balances = state.balances == null ? null : state.balances.copy();
+        } else {
+            mappedBalances = null;
+            balances = BalanceLedger.of(snapshotState.getBalances(), false);
+        }
+    }
 }
@@ -0,0 +1,169 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.model.Hash;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * Keeps track of the candidates for the solid entry points of local snapshots while the rounds are applied to the
+ * ledger.<br />
+ * <br />
+ * For every applied round it holds the tips and transactions that were confirmed by the round and the transactions
+ * that were confirmed by an earlier round but are directly approved by a transaction of the round. A transaction that
+ * was confirmed at or before the index of a snapshot and that is referenced by a round after the snapshot has a
+ * confirmed approver that is newer than the snapshot, which makes it a solid entry point of the snapshot. All other
+ * candidates can only become solid entry points through unconfirmed approvers, so only they have to be checked against
+ * the tangle.<br />
+ * <br />
+ * The candidates can only be used for a snapshot if all rounds after it were registered since the node started. The
+ * rounds that are older than the latest local snapshot or the outer shell of the next local snapshot are discarded, so
+ * the candidates only hold a bounded window of rounds. A snapshot whose outer shell reaches into the discarded rounds
+ * is not covered anymore.<br />
+ */
+class SolidEntryPointCandidates {
+    /**
+     * Holds the candidates of the registered rounds by their index.<br />
+     */
+    private final TreeMap<Integer, RoundCandidates> rounds = new TreeMap<>();
+
+    /**
+     * Holds the index of the first round that is covered by the candidates or {@link Integer#MAX_VALUE} if no round
+     * is covered.<br />
+     */
+    private int firstRoundIndex = Integer.MAX_VALUE;
+
+    /**
+     * Registers the candidates of an applied round.<br />
+     *
+     * @param roundIndex index of the round
+     * @param confirmedTips tips that were confirmed by the round
+     * @param confirmedTransactions transactions that were confirmed by the round
+     * @param referencedTransactions transactions that were confirmed by earlier rounds and are directly approved by the
+     *                               round
+     */
+    synchronized void addRound(int roundIndex, Set<Hash> confirmedTips, Set<Hash> confirmedTransactions,
+                               Set<Hash> referencedTransactions) {
+
+        rounds.put(roundIndex, new RoundCandidates(confirmedTips, confirmedTransactions, referencedTransactions));
+        if (firstRoundIndex == Integer.MAX_VALUE) {
+            firstRoundIndex = roundIndex;
+        }
+    }
+
+    /**
+     * Discards the candidates of the given round and all later rounds, since they have to be registered again when
+     * the rounds are applied again.<br />
+     *
+     * @param roundIndex index of the first round that is discarded
+     */
+    synchronized void removeRoundsFrom(int roundIndex) {
+        rounds.tailMap(roundIndex, true).clear();
+        if (roundIndex <= firstRoundIndex) {
+            firstRoundIndex = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Discards the candidates of the given round and all earlier rounds once a local snapshot was taken at the given
+     * round.<br />
+     *
+     * @param roundIndex index of the last round that is discarded
+     */
+    synchronized void removeRoundsUntil(int roundIndex) {
+        rounds.headMap(roundIndex, true).clear();
+        if (firstRoundIndex <= roundIndex) {
+            firstRoundIndex = roundIndex + 1;
+        }
+    }
+
+    /**
+     * @param roundIndex index of a round
+     * @return <code>true</code> if the given round and all later rounds are covered by the candidates
+     */
+    synchronized boolean covers(int roundIndex) {
+        return firstRoundIndex <= roundIndex;
+    }
+
+    /**
+     * Derives the solid entry points of a snapshot from the candidates.<br />
+     * <br />
+     * The candidates are the old solid entry points that did not exceed their lifetime and the transactions that were
+     * confirmed by the last {@code outerShellSize} rounds of the snapshot. A candidate that is referenced by a round
+     * after the snapshot is a solid entry point, all other candidates are checked with the given predicate. Old solid
+     * entry points keep their index. The tips confirmed by the last {@code outerShellSize} rounds of the snapshot are
+     * always solid entry points.<br />
+     *
+     * @param targetIndex index of the round of the snapshot
+     * @param initialIndex index of the current initial snapshot
+     * @param oldSolidEntryPoints solid entry points of the current initial snapshot
+     * @param outerShellSize number of rounds whose confirmed transactions are analyzed
+     * @param lifetime maximum age of a solid entry point in rounds
+     * @param isSolidEntryPoint check for the candidates that are not referenced by a round after the snapshot
+     * @return the solid entry points associated to the index of the round they were added with
+     */
+    Map<Hash, Integer> getSolidEntryPoints(int targetIndex, int initialIndex, Map<Hash, Integer> oldSolidEntryPoints,
+                                           int outerShellSize, int lifetime, Predicate<Hash> isSolidEntryPoint) {
+
+        // the predicate accesses the database, so the candidates are only collected while holding the lock
+        Set<Hash> referencedTransactions = new HashSet<>();
+        Set<Hash> confirmedTransactions = new HashSet<>();
+        Set<Hash> confirmedTips = new HashSet<>();
+        synchronized (this) {
+            for (RoundCandidates round : rounds.tailMap(targetIndex, false).values()) {
+                referencedTransactions.addAll(round.referencedTransactions);
+            }
+            for (RoundCandidates round : rounds.subMap(Math.max(initialIndex, targetIndex - outerShellSize), false,
+                    targetIndex, true).values()) {
+
+                confirmedTransactions.addAll(round.confirmedTransactions);
+                confirmedTips.addAll(round.confirmedTips);
+            }
+        }
+        Predicate<Hash> isCandidateSolidEntryPoint = transactionHash -> referencedTransactions.contains(
+                transactionHash) || isSolidEntryPoint.test(transactionHash);
+
+        Map<Hash, Integer> solidEntryPoints = new HashMap<>();
+        solidEntryPoints.put(Hash.NULL_HASH, targetIndex);
+
+        oldSolidEntryPoints.forEach((transactionHash, index) -> {
+            if (!Hash.NULL_HASH.equals(transactionHash) && targetIndex - index <= lifetime
+                    && isCandidateSolidEntryPoint.test(transactionHash)) {
+
+                solidEntryPoints.put(transactionHash, index);
+            }
+        });
+
+        for (Hash confirmedTransaction : confirmedTransactions) {
+            if (!confirmedTips.contains(confirmedTransaction)
+                    && isCandidateSolidEntryPoint.test(confirmedTransaction)) {
+
+                solidEntryPoints.put(confirmedTransaction, targetIndex);
+            }
+        }
+        confirmedTips.forEach(confirmedTip -> solidEntryPoints.put(confirmedTip, targetIndex));
+
+        return solidEntryPoints;
+    }
+
+    /**
+     * Holds the candidates of a single round.<br />
+     */
+    private static class RoundCandidates {
+        private final Set<Hash> confirmedTips;
+        private final Set<Hash> confirmedTransactions;
+        private final Set<Hash> referencedTransactions;
+
+        private RoundCandidates(Set<Hash> confirmedTips, Set<Hash> confirmedTransactions,
+                                Set<Hash> referencedTransactions) {
+
+            this.confirmedTips = confirmedTips;
+            this.confirmedTransactions = confirmedTransactions;
+            this.referencedTransactions = referencedTransactions;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package net.helix.pendulum.service.tipselection.impl;
+
+import net.helix.pendulum.conf.TipSelConfig;
+import net.helix.pendulum.controllers.ApproveeViewModel;
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.service.tipselection.RatingCalculator;
+import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.utils.thread.DedicatedScheduledExecutorService;
+import net.helix.pendulum.utils.thread.SilentScheduledExecutorService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation of {@link RatingCalculator} that keeps the cumulative weights of all recent transactions in memory
+ * and updates them incrementally whenever a new transaction is stored.<br />
+ * <br />
+ * The cumulative weight of a transaction is the number of transactions that directly or indirectly approve it (plus
+ * one for the transaction itself). Instead of recalculating the ratings of the whole subtangle with a fresh DFS for
+ * every tip selection, this index adds one to the weight of every transaction in the past cone of a newly stored
+ * transaction. Tip selection then only has to look up the weights of the transactions it steps on.<br />
+ * <br />
+ * Stored transactions are only queued on the thread that stores them, a background worker adds them to the index. If
+ * the worker falls behind by more than {@link #PENDING_TRANSACTIONS_CAPACITY} transactions, the index is cleared and
+ * seeded from the database again by the next tip selection.<br />
+ * <br />
+ * Transactions that were first seen more than {@link TipSelConfig#getMaxDepth()} rounds before the latest solid round
+ * can not be reached by a random walk anymore and get dropped from the index by the background worker whenever the
+ * latest solid round moves, so the size of the index stays bounded even if no tips are selected.
+ */
+public class CumulativeWeightIndex implements RatingCalculator {
+    /**
+     * Amount of rounds that are kept in addition to the maximum depth of the random walks, to cover transactions that
+     * arrived shortly before the milestone they approve.
+     */
+    private static final int REBASE_MARGIN = 2;
+
+    /**
+     * Maximum amount of stored transactions that wait to be added to the index.
+     */
+    private static final int PENDING_TRANSACTIONS_CAPACITY = 100_000;
+
+    /**
+     * Delay in milliseconds between two runs of the background worker.
+     */
+    private static final int INDEXING_INTERVAL = 10;
+
+    private static final Logger log = LoggerFactory.getLogger(CumulativeWeightIndex.class);
+
+    private final Tangle tangle;
+    private final SnapshotProvider snapshotProvider;
+    private final TipSelConfig config;
+
+    /**
+     * Indexed transactions by their hash.
+     */
+    private final Map<Hash, IndexedTransaction> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Mutex that serializes all modifications of the index (ratings can be read concurrently).
+     */
+    private final Object indexLock = new Object();
+
+    /**
+     * Index of the latest solid round at the time of the last rebase.
+     */
+    private volatile int rebaseIndex = -1;
+
+    /**
+     * Stored transactions (hash, trunk and branch) that were not added to the index yet.
+     */
+    private final BlockingQueue<Hash[]> pendingTransactions = new LinkedBlockingQueue<>(PENDING_TRANSACTIONS_CAPACITY);
+
+    /**
+     * Flag that is set when a stored transaction could not be queued, the index has to be rebuilt then.
+     */
+    private volatile boolean pendingTransactionsDropped = false;
+
+    /**
+     * Holds a reference to the manager of the background worker.
+     */
+    private final SilentScheduledExecutorService executorService = new DedicatedScheduledExecutorService(
+            "Cumulative Weight Indexer", log, false);
+
+    /**
+     * Constructor for the Cumulative Weight Index
+     *
+     * @param tangle Tangle object which acts as a database interface
+     * @param snapshotProvider accesses ledger's snapshots
+     * @param config configurations to set the maximum depth of the random walks
+     */
+    public CumulativeWeightIndex(Tangle tangle, SnapshotProvider snapshotProvider, TipSelConfig config) {
+        this.tangle = tangle;
+        this.snapshotProvider = snapshotProvider;
+        this.config = config;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The returned map is a read-only view on the index that only contains the transactions referencing
+     * {@code entryPoint}. If the entry point was not indexed yet (i.e. after a restart), its future cone gets loaded
+     * from the database once.
+     */
+    @Override
+    public Map<Hash, Integer> calculate(Hash entryPoint) throws Exception {
+        rebaseIfNecessary();
+        if (!entries.containsKey(entryPoint)) {
+            seed(entryPoint);
+        }
+
+        return new RatingView(entryPoint);
+    }
+
+    /**
+     * Starts the background worker that adds the queued transactions to the index.
+     */
+    public void start() {
+        executorService.silentScheduleWithFixedDelay(this::indexingThread, 0, INDEXING_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the background worker.
+     */
+    public void shutdown() {
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Queues a newly stored transaction, so that the background worker adds it to the index and increments the
+     * weights of all indexed transactions that it (directly or indirectly) approves.<br />
+     * <br />
+     * The method neither blocks nor accesses the database, so it can be called on the thread that stores the
+     * transaction.
+     *
+     * @param transactionViewModel transaction that was stored in the tangle
+     */
+    public void addTransaction(TransactionViewModel transactionViewModel) {
+        if (!pendingTransactions.offer(new Hash[]{transactionViewModel.getHash(),
+                transactionViewModel.getTrunkTransactionHash(), transactionViewModel.getBranchTransactionHash()})) {
+
+            pendingTransactionsDropped = true;
+        }
+    }
+
+    /**
+     * Adds all queued transactions to the index (it is called by the background worker).<br />
+     * <br />
+     * If transactions had to be dropped because the queue was full, the index is cleared instead and the transactions
+     * get seeded from the database by the next call of {@link #calculate(Hash)}. The lock of the index is only held
+     * while a single transaction is added, so tip selections do not have to wait for the whole queue. Before the
+     * transactions are added, the index drops the transactions that fell out of the random walk window.
+     *
+     * @throws Exception if the approvers of a transaction can not be loaded
+     */
+    void processPendingTransactions() throws Exception {
+        if (pendingTransactionsDropped) {
+            synchronized (indexLock) {
+                pendingTransactionsDropped = false;
+                pendingTransactions.clear();
+                entries.clear();
+            }
+            log.warn("Cleared the cumulative weight index because it could not keep up with the stored transactions");
+
+            return;
+        }
+
+        rebaseIfNecessary();
+        Hash[] transaction;
+        while ((transaction = pendingTransactions.poll()) != null) {
+            addTransaction(transaction[0], transaction[1], transaction[2],
+                    loadApprovers(transaction[0], new HashMap<>()));
+        }
+    }
+
+    /**
+     * @return the number of transactions that are currently indexed
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void addTransaction(Hash hash, Hash trunk, Hash branch, Set<Hash> approvers) {
+        synchronized (indexLock) {
+            if (entries.containsKey(hash)) {
+                return;
+            }
+
+            Hash[] parents;
+            if (trunk.equals(branch)) {
+                parents = trunk.equals(hash) ? new Hash[0] : new Hash[]{trunk};
+            } else {
+                parents = new Hash[]{trunk, branch};
+            }
+
+            IndexedTransaction entry = new IndexedTransaction(parents,
+                    snapshotProvider.getLatestSnapshot().getIndex());
+            entries.put(hash, entry);
+            for (Hash parent : parents) {
+                IndexedTransaction parentEntry = entries.get(parent);
+                if (parentEntry != null) {
+                    parentEntry.approvers.add(hash);
+                }
+            }
+            for (Hash approver : approvers) {
+                if (entries.containsKey(approver)) {
+                    entry.approvers.add(approver);
+                }
+            }
+
+            Set<Hash> ancestors = collectAncestors(hash, null);
+            for (Hash ancestor : ancestors) {
+                entries.get(ancestor).weight++;
+            }
+
+            // the transaction arrived after some of its approvers (i.e. it was requested as a missing transaction),
+            // so its past cone has to be credited with every approver that did not already reference it another way
+            if (!entry.approvers.isEmpty()) {
+                Set<Hash> futureCone = collectApprovers(hash);
+                entry.weight += futureCone.size();
+                if (!ancestors.isEmpty()) {
+                    for (Hash approver : futureCone) {
+                        Set<Hash> previousAncestors = collectAncestors(approver, hash);
+                        for (Hash ancestor : ancestors) {
+                            if (!previousAncestors.contains(ancestor)) {
+                                entries.get(ancestor).weight++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method contains the logic of the background worker that adds the queued transactions to the index.
+     */
+    private void indexingThread() {
+        try {
+            processPendingTransactions();
+        } catch (Exception e) {
+            log.error("error while updating the cumulative weight index", e);
+        }
+    }
+
+    /**
+     * Drops all transactions that can not be reached by a random walk anymore, once the latest solid round moved.
+     */
+    private void rebaseIfNecessary() {
+        int latestIndex = snapshotProvider.getLatestSnapshot().getIndex();
+        if (latestIndex == rebaseIndex) {
+            return;
+        }
+
+        synchronized (indexLock) {
+            int cutoffIndex = latestIndex - config.getMaxDepth() - REBASE_MARGIN;
+            Iterator<Map.Entry<Hash, IndexedTransaction>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Hash, IndexedTransaction> indexEntry = iterator.next();
+                if (indexEntry.getValue().arrivalIndex < cutoffIndex) {
+                    for (Hash parent : indexEntry.getValue().parents) {
+                        IndexedTransaction parentEntry = entries.get(parent);
+                        if (parentEntry != null) {
+                            parentEntry.approvers.remove(indexEntry.getKey());
+                        }
+                    }
+                    iterator.remove();
+                }
+            }
+            rebaseIndex = latestIndex;
+        }
+
+        log.debug("Rebased cumulative weight index to round #{} ({} transactions indexed)", latestIndex,
+                entries.size());
+    }
+
+    /**
+     * Loads the future cone of a transaction that is not indexed yet from the database and adds it to the index, so
+     * that every transaction gets added after the transactions it approves.
+     *
+     * @param entryPoint transaction that is used as the starting point of the random walk
+     * @throws Exception if the database fails to load the transactions
+     */
+    private void seed(Hash entryPoint) throws Exception {
+        Map<Hash, Set<Hash>> approversByHash = new HashMap<>();
+        List<Hash> postOrder = new ArrayList<>();
+        Deque<Hash> stack = new ArrayDeque<>();
+        Deque<Iterator<Hash>> iterators = new ArrayDeque<>();
+
+        stack.push(entryPoint);
+        iterators.push(loadApprovers(entryPoint, approversByHash).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<Hash> iterator = iterators.peek();
+            if (iterator.hasNext()) {
+                Hash approver = iterator.next();
+                if (!entries.containsKey(approver) && !approversByHash.containsKey(approver)) {
+                    stack.push(approver);
+                    iterators.push(loadApprovers(approver, approversByHash).iterator());
+                }
+            } else {
+                iterators.pop();
+                postOrder.add(stack.pop());
+            }
+        }
+
+        for (int i = postOrder.size() - 1; i >= 0; i--) {
+            Hash hash = postOrder.get(i);
+            TransactionViewModel transaction = TransactionViewModel.fromHash(tangle, hash);
+            addTransaction(hash, transaction.getTrunkTransactionHash(), transaction.getBranchTransactionHash(),
+                    approversByHash.get(hash));
+        }
+
+        log.debug("Seeded cumulative weight index with {} transactions from {}", postOrder.size(), entryPoint);
+    }
+
+    private Set<Hash> loadApprovers(Hash hash, Map<Hash, Set<Hash>> approversByHash) throws Exception {
+        ApproveeViewModel approvers = ApproveeViewModel.load(tangle, hash);
+        Set<Hash> hashes = approvers == null || approvers.getHashes() == null
+                ? Collections.emptySet()
+                : approvers.getHashes();
+        approversByHash.put(hash, hashes);
+
+        return hashes;
+    }
+
+    /**
+     * Collects all indexed transactions that are directly or indirectly approved by the given transaction.
+     *
+     * @param hash transaction whose past cone is collected
+     * @param skippedHash transaction whose parents are not followed (or {@code null})
+     * @return the indexed past cone of the transaction (without the transaction itself)
+     */
+    private Set<Hash> collectAncestors(Hash hash, Hash skippedHash) {
+        Set<Hash> ancestors = new HashSet<>();
+        Deque<Hash> stack = new ArrayDeque<>();
+        stack.push(hash);
+        while (!stack.isEmpty()) {
+            IndexedTransaction entry = entries.get(stack.pop());
+            for (Hash parent : entry.parents) {
+                if (!parent.equals(skippedHash) && entries.containsKey(parent) && ancestors.add(parent)) {
+                    stack.push(parent);
+                }
+            }
+        }
+        ancestors.remove(hash);
+
+        return ancestors;
+    }
+
+    /**
+     * Collects all indexed transactions that directly or indirectly approve the given transaction.
+     *
+     * @param hash transaction whose future cone is collected
+     * @return the indexed future cone of the transaction (without the transaction itself)
+     */
+    private Set<Hash> collectApprovers(Hash hash) {
+        Set<Hash> approvers = new HashSet<>();
+        Deque<Hash> stack = new ArrayDeque<>();
+        stack.push(hash);
+        while (!stack.isEmpty()) {
+            IndexedTransaction entry = entries.get(stack.pop());
+            if (entry == null) {
+                continue;
+            }
+            for (Hash approver : entry.approvers) {
+                if (approvers.add(approver)) {
+                    stack.push(approver);
+                }
+            }
+        }
+        approvers.remove(hash);
+
+        return approvers;
+    }
+
+    /**
+     * An indexed transaction with its current cumulative weight.
+     */
+    private static class IndexedTransaction {
+        private final Hash[] parents;
+        private final Set<Hash> approvers = ConcurrentHashMap.newKeySet();
+        private final int arrivalIndex;
+        private volatile int weight = 1;
+
+        private IndexedTransaction(Hash[] parents, int arrivalIndex) {
+            this.parents = parents;
+            this.arrivalIndex = arrivalIndex;
+        }
+    }
+
+    /**
+     * Read-only view on the ratings of the transactions that reference a given entry point.<br />
+     * <br />
+     * Membership is resolved lazily by checking whether one of the parents of a transaction is part of the view, so a
+     * random walk (which only asks for the approvers of transactions it already stepped on) only needs a constant
+     * amount of work per step.
+     */
+    private class RatingView extends AbstractMap<Hash, Integer> {
+        private final Hash entryPoint;
+        private final Map<Hash, Boolean> membership = new HashMap<>();
+
+        private RatingView(Hash entryPoint) {
+            this.entryPoint = entryPoint;
+            membership.put(entryPoint, Boolean.TRUE);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Hash && isMember((Hash) key);
+        }
+
+        @Override
+        public Integer get(Object key) {
+            if (!containsKey(key)) {
+                return null;
+            }
+            IndexedTransaction entry = entries.get(key);
+
+            return entry == null ? null : entry.weight;
+        }
+
+        @Override
+        public Set<Map.Entry<Hash, Integer>> entrySet() {
+            Map<Hash, Integer> ratings = new HashMap<>();
+            IndexedTransaction entryPointEntry = entries.get(entryPoint);
+            if (entryPointEntry != null) {
+                ratings.put(entryPoint, entryPointEntry.weight);
+            }
+            for (Hash approver : collectApprovers(entryPoint)) {
+                IndexedTransaction entry = entries.get(approver);
+                if (entry != null) {
+                    ratings.put(approver, entry.weight);
+                }
+            }
+
+            return Collections.unmodifiableMap(ratings).entrySet();
+        }
+
+        private boolean isMember(Hash hash) {
+            Boolean cached = membership.get(hash);
+            if (cached != null) {
+                return cached;
+            }
+
+            // walk down until we either reach the entry point or leave the index
+            Set<Hash> visited = new HashSet<>();
+            Deque<Hash> stack = new ArrayDeque<>();
+            stack.push(hash);
+            boolean member = false;
+            while (!stack.isEmpty() && !member) {
+                Hash current = stack.pop();
+                Boolean currentMembership = membership.get(current);
+                if (currentMembership != null) {
+                    member = currentMembership;
+                    continue;
+                }
+                IndexedTransaction entry = entries.get(current);
+                if (entry != null && visited.add(current)) {
+                    for (Hash parent : entry.parents) {
+                        stack.push(parent);
+                    }
+                }
+            }
+            membership.put(hash, member);
+
+            return member;
+        }
+    }
+}
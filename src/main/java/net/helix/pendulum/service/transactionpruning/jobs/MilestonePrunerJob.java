@@ -4,6 +4,7 @@ import net.helix.pendulum.controllers.RoundViewModel;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.IntegerIndex;
 import net.helix.pendulum.model.persistables.Round;
+import net.helix.pendulum.model.persistables.RoundConfirmations;
 import net.helix.pendulum.model.persistables.Transaction;
 import net.helix.pendulum.service.transactionpruning.TransactionPrunerJobStatus;
 import net.helix.pendulum.service.transactionpruning.TransactionPruningException;
@@ -255,6 +256,7 @@ public class MilestonePrunerJob extends AbstractTransactionPrunerJob {
             RoundViewModel roundViewModel = RoundViewModel.get(getTangle(), getCurrentIndex());
             if (roundViewModel != null) {
                 elementsToDelete.add(new Pair<>(new IntegerIndex(roundViewModel.index()), Round.class));
+                elementsToDelete.add(new Pair<>(new IntegerIndex(roundViewModel.index()), RoundConfirmations.class));
 
                 for (Hash milestoneHash : roundViewModel.getHashes()) {
                     elementsToDelete.add(new Pair<>(milestoneHash, Transaction.class));
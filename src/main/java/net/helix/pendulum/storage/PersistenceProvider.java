@@ -26,6 +26,15 @@ public interface PersistenceProvider {
 
       boolean update(Persistable model, Indexable index, String item) throws Exception;
 
+      /**
+       * Updates the metadata of several models with a single write.
+       * @param models the models and their keys
+       * @param item the string identifying the purpose of the update
+       * @return <code>true</code> if the models were updated
+       * @throws Exception if the batch could not be written
+       */
+      boolean updateBatch(List<Pair<Indexable, Persistable>> models, String item) throws Exception;
+
       boolean exists(Class<?> model, Indexable key) throws Exception;
 
       Pair<Indexable, Persistable> latest(Class<?> model, Class<?> indexModel) throws Exception;
@@ -34,6 +43,16 @@ public interface PersistenceProvider {
 
       Persistable get(Class<?> model, Indexable index) throws Exception;
 
+      /**
+       * Reads several models of the same type at once.
+       * @param model the type of the models
+       * @param indexes the keys of the models
+       * @return the models in the order of their keys, missing models are empty like the ones returned by
+       *         {@link #get(Class, Indexable)}
+       * @throws Exception if the models could not be read
+       */
+      List<Persistable> getBatch(Class<?> model, List<? extends Indexable> indexes) throws Exception;
+
       boolean mayExist(Class<?> model, Indexable index) throws Exception;
 
       long count(Class<?> model) throws Exception;
@@ -49,6 +68,15 @@ public interface PersistenceProvider {
 
       boolean saveBatch(List<Pair<Indexable, Persistable>> models) throws Exception;
 
+      /**
+       * Atomically stores a transaction together with its metadata and index entries.
+       * Implementations may commit the batches of concurrent callers together.
+       * @param models the save batch of the transaction
+       * @return <code>true</code> if the batch was stored
+       * @throws Exception if the batch could not be written
+       */
+      boolean storeTransaction(List<Pair<Indexable, Persistable>> models) throws Exception;
+
       /**
        * Atomically delete all {@code models}.
        * @param models key value pairs that to be expunged from the db
@@ -1,6 +1,7 @@
 package net.helix.pendulum.storage;
 
 import net.helix.pendulum.model.StateDiff;
+import net.helix.pendulum.model.StateDiffCheckpoint;
 import net.helix.pendulum.model.persistables.*;
 import net.helix.pendulum.utils.Pair;
 import net.helix.pendulum.zmq.MessageQProvider;
@@ -22,12 +23,14 @@ public class Tangle {
                 put("transaction", Transaction.class);
                 put("round", Round.class);
                 put("stateDiff", StateDiff.class);
+                put("stateDiffCheckpoint", StateDiffCheckpoint.class);
                 put("address", Address.class);
                 put("approvee", Approvee.class);
                 put("bundle", Bundle.class);
                 put("bundleNonce", BundleNonce.class);
                 put("tag", Tag.class);
                 put("validator", Validator.class);
+                put("roundConfirmations", RoundConfirmations.class);
             }};
 
     public static final Map.Entry<String, Class<? extends Persistable>> METADATA_COLUMN_FAMILY =
@@ -35,6 +38,7 @@ public class Tangle {
 
     private final List<PersistenceProvider> persistenceProviders = new ArrayList<>();
     private final List<MessageQProvider> messageQProviders = new ArrayList<>();
+    private TransactionCache transactionCache;
 
 
     public void addPersistenceProvider(PersistenceProvider provider) {
@@ -49,6 +53,23 @@ public class Tangle {
         this.messageQProviders.add(provider);
     }
 
+    /**
+     * Puts a cache of parsed transactions in front of the persistence providers. Loads of {@link Transaction} models
+     * read through the cache and every write of a transaction invalidates its entry.
+     *
+     * @param transactionCache the cache, <code>null</code> disables caching
+     */
+    public void setTransactionCache(TransactionCache transactionCache) {
+        this.transactionCache = transactionCache;
+    }
+
+    /**
+     * @return the cache of parsed transactions or <code>null</code> if transactions are not cached
+     */
+    public TransactionCache getTransactionCache() {
+        return transactionCache;
+    }
+
     public void init() throws Exception {
         for(PersistenceProvider provider: this.persistenceProviders) {
             provider.init();
@@ -63,6 +84,79 @@ public class Tangle {
     }
 
     public Persistable load(Class<?> model, Indexable index) throws Exception {
+        if (model == Transaction.class && transactionCache != null && index != null) {
+            return loadTransaction(index);
+        }
+        return loadFromProviders(model, index);
+    }
+
+    /**
+     * Loads several models of the same type with as few database round-trips as possible. Transactions are served
+     * from the transaction cache where possible, only the missing ones are read from the database.
+     *
+     * @param model the type of the models
+     * @param indexes the keys of the models
+     * @return the models in the order of their keys
+     * @throws Exception if the models could not be loaded
+     */
+    public List<Persistable> loadBatch(Class<?> model, List<? extends Indexable> indexes) throws Exception {
+        if (model != Transaction.class || transactionCache == null) {
+            return loadBatchFromProviders(model, indexes);
+        }
+
+        Persistable[] out = new Persistable[indexes.size()];
+        List<Indexable> missingIndexes = new ArrayList<>();
+        List<Integer> missingPositions = new ArrayList<>();
+        for (int i = 0; i < out.length; i++) {
+            Indexable index = indexes.get(i);
+            if ((out[i] = transactionCache.get(index)) == null) {
+                missingIndexes.add(index);
+                missingPositions.add(i);
+            }
+        }
+        if (!missingIndexes.isEmpty()) {
+            long[] stamps = new long[missingIndexes.size()];
+            for (int i = 0; i < stamps.length; i++) {
+                stamps[i] = transactionCache.stamp(missingIndexes.get(i));
+            }
+            List<Persistable> loaded = loadBatchFromProviders(model, missingIndexes);
+            for (int i = 0; i < stamps.length; i++) {
+                Transaction transaction = loaded == null ? null : (Transaction) loaded.get(i);
+                if (transaction != null && transaction.bytes != null && transaction.parsed) {
+                    transactionCache.putIfUnchanged(missingIndexes.get(i), transaction, stamps[i]);
+                }
+                out[missingPositions.get(i)] = transaction;
+            }
+        }
+        return Arrays.asList(out);
+    }
+
+    private List<Persistable> loadBatchFromProviders(Class<?> model, List<? extends Indexable> indexes)
+            throws Exception {
+        List<Persistable> out = null;
+        for(PersistenceProvider provider: this.persistenceProviders) {
+            if((out = provider.getBatch(model, indexes)) != null) {
+                break;
+            }
+        }
+        return out;
+    }
+
+    private Persistable loadTransaction(Indexable index) throws Exception {
+        Transaction transaction = transactionCache.get(index);
+        if (transaction != null) {
+            return transaction;
+        }
+        long stamp = transactionCache.stamp(index);
+        transaction = (Transaction) loadFromProviders(Transaction.class, index);
+        // missing transactions and transactions without metadata are about to be written, so they are not cached
+        if (transaction != null && transaction.bytes != null && transaction.parsed) {
+            transactionCache.putIfUnchanged(index, transaction, stamp);
+        }
+        return transaction;
+    }
+
+    private Persistable loadFromProviders(Class<?> model, Indexable index) throws Exception {
         Persistable out = null;
         for(PersistenceProvider provider: this.persistenceProviders) {
             if((out = provider.get(model, index)) != null) {
@@ -81,8 +175,23 @@ public class Tangle {
                 exists = provider.saveBatch(models);
             }
         }
+        invalidateTransactions(models);
         return exists;
     }
+
+    public Boolean storeTransaction(List<Pair<Indexable, Persistable>> models) throws Exception {
+        boolean exists = false;
+        for(PersistenceProvider provider: persistenceProviders) {
+            if(exists) {
+                provider.storeTransaction(models);
+            } else {
+                exists = provider.storeTransaction(models);
+            }
+        }
+        invalidateTransactions(models);
+        return exists;
+    }
+
     public Boolean save(Persistable model, Indexable index) throws Exception {
         boolean exists = false;
         for(PersistenceProvider provider: persistenceProviders) {
@@ -92,6 +201,9 @@ public class Tangle {
                 exists = provider.save(model, index);
             }
         }
+        if (model instanceof Transaction) {
+            invalidateTransaction(index);
+        }
         return exists;
     }
 
@@ -99,12 +211,20 @@ public class Tangle {
         for(PersistenceProvider provider: persistenceProviders) {
             provider.deleteBatch(models);
         }
+        for (Pair<Indexable, ? extends Class<? extends Persistable>> model : models) {
+            if (model.hi == Transaction.class) {
+                invalidateTransaction(model.low);
+            }
+        }
     }
 
     public void delete(Class<?> model, Indexable index) throws Exception {
         for(PersistenceProvider provider: persistenceProviders) {
             provider.delete(model, index);
         }
+        if (model == Transaction.class) {
+            invalidateTransaction(index);
+        }
     }
 
     public Pair<Indexable, Persistable> getLatest(Class<?> model, Class<?> index) throws Exception {
@@ -119,9 +239,46 @@ public class Tangle {
 
     public void update(Persistable model, Indexable index, String item) throws Exception {
         updatePersistenceProvider(model, index, item);
+        if (model instanceof Transaction) {
+            invalidateTransaction(index);
+        }
         updateMessageQueueProvider(model, index, item);
     }
 
+    /**
+     * Updates the metadata of several models in one write of each persistence provider and notifies the message
+     * queue providers about every model, like {@link #update(Persistable, Indexable, String)} does.
+     *
+     * @param models the models and their keys
+     * @param item the string identifying the purpose of the update
+     * @throws Exception if a persistence provider fails to write the batch
+     */
+    public void updateBatch(List<Pair<Indexable, Persistable>> models, String item) throws Exception {
+        for(PersistenceProvider provider: this.persistenceProviders) {
+            provider.updateBatch(models, item);
+        }
+        invalidateTransactions(models);
+        for (Pair<Indexable, Persistable> model : models) {
+            updateMessageQueueProvider(model.hi, model.low, item);
+        }
+    }
+
+    private void invalidateTransactions(List<Pair<Indexable, Persistable>> models) {
+        if (transactionCache != null) {
+            for (Pair<Indexable, Persistable> model : models) {
+                if (model.hi instanceof Transaction) {
+                    transactionCache.invalidate(model.low);
+                }
+            }
+        }
+    }
+
+    private void invalidateTransaction(Indexable index) {
+        if (transactionCache != null && index != null) {
+            transactionCache.invalidate(index);
+        }
+    }
+
     private void updatePersistenceProvider(Persistable model, Indexable index, String item) throws Exception {
         for(PersistenceProvider provider: this.persistenceProviders) {
             provider.update(model, index, item);
@@ -188,6 +345,10 @@ public class Tangle {
     }
 
     public Boolean exists(Class<?> modelClass, Indexable hash) throws Exception {
+        if (modelClass == Transaction.class && transactionCache != null && hash != null
+                && transactionCache.contains(hash)) {
+            return true;
+        }
         for(PersistenceProvider provider: this.persistenceProviders) {
             if (provider.exists(modelClass, hash)) {
                 return true;
@@ -259,12 +420,18 @@ public class Tangle {
         for(PersistenceProvider provider: persistenceProviders) {
             provider.clear(column);
         }
+        if (column == Transaction.class && transactionCache != null) {
+            transactionCache.clear();
+        }
     }
 
     public void clearMetadata(Class<?> column) throws Exception {
         for(PersistenceProvider provider: persistenceProviders) {
             provider.clearMetadata(column);
         }
+        if (column == Transaction.class && transactionCache != null) {
+            transactionCache.clear();
+        }
     }
 
     /*
@@ -0,0 +1,216 @@
+package net.helix.pendulum.storage;
+
+import net.helix.pendulum.model.persistables.Transaction;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size bounded cache of parsed {@link Transaction} models in front of the persistence providers of the {@link Tangle}.
+ * <p>
+ *     The cache is split into shards, each of them a least recently used map guarded by its own lock, so that
+ *     concurrent readers of different transactions rarely contend. Entries are private copies: {@link #get(Indexable)}
+ *     returns a new copy on every hit and {@link #putIfUnchanged(Indexable, Transaction, long)} stores a copy, so
+ *     callers may modify the models they got without affecting the cache.
+ * </p>
+ * <p>
+ *     Writes invalidate the entries of the written transactions. A model loaded from the database is only cached if
+ *     no write invalidated its shard since the load started, see {@link #stamp(Indexable)}, otherwise a load racing
+ *     with a write could cache the old state of the transaction.
+ * </p>
+ */
+public class TransactionCache {
+
+    private static final int SHARDS = 16;
+
+    private final Shard[] shards = new Shard[SHARDS];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity maximum number of cached transactions
+     */
+    public TransactionCache(int capacity) {
+        if (capacity < SHARDS) {
+            throw new IllegalArgumentException("capacity must be at least " + SHARDS);
+        }
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard(capacity / SHARDS);
+        }
+    }
+
+    /**
+     * @param index hash of the transaction
+     * @return a copy of the cached transaction or <code>null</code> if it is not cached
+     */
+    public Transaction get(Indexable index) {
+        Shard shard = shardOf(index);
+        Transaction transaction;
+        synchronized (shard) {
+            transaction = shard.entries.get(index);
+        }
+        if (transaction == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(transaction);
+    }
+
+    /**
+     * @param index hash of the transaction
+     * @return <code>true</code> if the transaction is cached, does not count as a hit or miss
+     */
+    public boolean contains(Indexable index) {
+        Shard shard = shardOf(index);
+        synchronized (shard) {
+            return shard.entries.containsKey(index);
+        }
+    }
+
+    /**
+     * Must be taken before the transaction is loaded from the database and passed to
+     * {@link #putIfUnchanged(Indexable, Transaction, long)} afterwards.
+     *
+     * @param index hash of the transaction
+     * @return the write version of the shard of the transaction
+     */
+    public long stamp(Indexable index) {
+        return shardOf(index).version;
+    }
+
+    /**
+     * Caches a copy of a transaction that was loaded from the database.
+     *
+     * @param index hash of the transaction
+     * @param transaction the loaded transaction
+     * @param stamp the result of {@link #stamp(Indexable)} before the transaction was loaded
+     */
+    public void putIfUnchanged(Indexable index, Transaction transaction, long stamp) {
+        Transaction copy = copy(transaction);
+        Shard shard = shardOf(index);
+        synchronized (shard) {
+            if (shard.version == stamp) {
+                shard.entries.putIfAbsent(index, copy);
+            }
+        }
+    }
+
+    /**
+     * Removes a transaction that was written or deleted.
+     *
+     * @param index hash of the transaction
+     */
+    public void invalidate(Indexable index) {
+        Shard shard = shardOf(index);
+        synchronized (shard) {
+            shard.version++;
+            shard.entries.remove(index);
+        }
+    }
+
+    /**
+     * Removes all transactions.
+     */
+    public void clear() {
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.version++;
+                shard.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * @return number of cached transactions
+     */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return number of lookups that found the transaction in the cache
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups that had to load the transaction from the database
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of transactions that were removed to make room for others
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private Shard shardOf(Indexable index) {
+        int h = index.hashCode();
+        return shards[(h ^ (h >>> 16)) & (SHARDS - 1)];
+    }
+
+    private static Transaction copy(Transaction transaction) {
+        Transaction copy = new Transaction();
+        copy.bytes = transaction.bytes == null ? null : transaction.bytes.clone();
+        copy.address = transaction.address;
+        copy.bundle = transaction.bundle;
+        copy.trunk = transaction.trunk;
+        copy.branch = transaction.branch;
+        copy.bundleNonce = transaction.bundleNonce;
+        copy.value = transaction.value;
+        copy.currentIndex = transaction.currentIndex;
+        copy.lastIndex = transaction.lastIndex;
+        copy.timestamp = transaction.timestamp;
+        copy.roundIndex = transaction.roundIndex;
+        copy.tag = transaction.tag;
+        copy.attachmentTimestamp = transaction.attachmentTimestamp;
+        copy.attachmentTimestampLowerBound = transaction.attachmentTimestampLowerBound;
+        copy.attachmentTimestampUpperBound = transaction.attachmentTimestampUpperBound;
+        copy.validity = transaction.validity;
+        copy.type = transaction.type;
+        copy.arrivalTime = transaction.arrivalTime;
+        copy.parsed = transaction.parsed;
+        copy.solid = transaction.solid;
+        copy.milestone = transaction.milestone;
+        copy.height = transaction.height;
+        copy.sender = transaction.sender;
+        copy.snapshot = transaction.snapshot;
+        copy.confirmations = transaction.confirmations;
+        return copy;
+    }
+
+    /**
+     * Least recently used map of one shard, all accesses are synchronized on the shard.
+     */
+    private class Shard {
+        private final Map<Indexable, Transaction> entries;
+        private volatile long version;
+
+        private Shard(int capacity) {
+            entries = new LinkedHashMap<Indexable, Transaction>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Indexable, Transaction> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package net.helix.pendulum.storage.rocksdb;
 
+import net.helix.pendulum.conf.BasePendulumConfig;
+import net.helix.pendulum.conf.ColumnFamilyProfile;
 import net.helix.pendulum.model.HashFactory;
 import net.helix.pendulum.storage.Indexable;
 import net.helix.pendulum.storage.Persistable;
@@ -18,6 +20,8 @@ import java.io.File;
 import java.nio.file.Paths;
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class RocksDBPersistenceProvider implements PersistenceProvider {
 
@@ -32,24 +36,63 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
     private final String dbPath;
     private final String logPath;
     private final int cacheSize;
+    private final Map<String, ColumnFamilyProfile> columnFamilyProfiles;
+    private final boolean syncWrites;
+    private final boolean statistics;
     private final Map<String, Class<? extends Persistable>> columnFamilies;
     private final Map.Entry<String, Class<? extends Persistable>> metadataColumnFamily;
 
     private Map<Class<?>, ColumnFamilyHandle> classTreeMap;
     private Map<Class<?>, ColumnFamilyHandle> metadataReference = Collections.emptyMap();
+    // the block cache size by column family name in the order of the handles, families of the same profile share it
+    private final Map<String, Long> blockCacheSizes = new LinkedHashMap<>();
 
     private RocksDB db;
     // DBOptions is only used in initDB(). However, it is closeable - so we keep a reference for shutdown.
     private DBOptions options;
     private BloomFilter bloomFilter;
+    private MergeOperator mergeOperator;
+    // one set of options per distinct profile, column families with the same profile share their block cache
+    private final Map<ColumnFamilyProfile, ColumnFamilyOptions> columnFamilyOptions = new LinkedHashMap<>();
+    // iterators scan in key order even when a column family uses a prefix extractor
+    private ReadOptions iteratorOptions;
+    private WriteOptions transactionWriteOptions;
     private boolean available;
 
+    // transaction stores waiting for the next group commit with synced writes, and the lock held by the thread
+    // writing a group
+    private final Queue<PendingStore> pendingStores = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock groupCommitLock = new ReentrantLock();
+
     public RocksDBPersistenceProvider(String dbPath, String logPath, int cacheSize,
                                       Map<String, Class<? extends Persistable>> columnFamilies,
                                       Map.Entry<String, Class<? extends Persistable>> metadataColumnFamily) {
+        this(dbPath, logPath, cacheSize, BasePendulumConfig.Defaults.DB_COLUMN_FAMILY_PROFILES,
+                BasePendulumConfig.Defaults.DB_SYNC_WRITES, BasePendulumConfig.Defaults.DB_STATISTICS, columnFamilies,
+                metadataColumnFamily);
+    }
+
+    /**
+     * @param dbPath the folder of the database
+     * @param logPath the folder of the database logs
+     * @param cacheSize the total size of the block caches in KB
+     * @param columnFamilyProfiles the storage settings by column family name, missing families use
+     *                             {@link ColumnFamilyProfile#DEFAULT}
+     * @param syncWrites whether {@link #storeTransaction(List)} syncs the write-ahead log before returning
+     * @param statistics whether RocksDB collects the statistics of the block caches for {@link #logCacheReport()}
+     * @param columnFamilies the column families and the models stored in them
+     * @param metadataColumnFamily the column family storing the metadata of a model
+     */
+    public RocksDBPersistenceProvider(String dbPath, String logPath, int cacheSize,
+                                      Map<String, ColumnFamilyProfile> columnFamilyProfiles, boolean syncWrites,
+                                      boolean statistics, Map<String, Class<? extends Persistable>> columnFamilies,
+                                      Map.Entry<String, Class<? extends Persistable>> metadataColumnFamily) {
         this.dbPath = dbPath;
         this.logPath = logPath;
         this.cacheSize = cacheSize;
+        this.columnFamilyProfiles = columnFamilyProfiles;
+        this.syncWrites = syncWrites;
+        this.statistics = statistics;
         this.columnFamilies = columnFamilies;
         this.metadataColumnFamily = metadataColumnFamily;
 
@@ -61,6 +104,7 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         initDB(dbPath, logPath, columnFamilies);
         available = true;
         log.info("RocksDB persistence provider initialized.");
+        logCacheReport();
     }
 
     @Override
@@ -74,7 +118,50 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         for (final ColumnFamilyHandle columnFamilyHandle : columnFamilyHandles) {
             PendulumIOUtils.closeQuietly(columnFamilyHandle);
         }
-        PendulumIOUtils.closeQuietly(db, options, bloomFilter);
+        PendulumIOUtils.closeQuietly(db, options, iteratorOptions, transactionWriteOptions);
+        for (ColumnFamilyOptions familyOptions : columnFamilyOptions.values()) {
+            PendulumIOUtils.closeQuietly(familyOptions);
+        }
+        columnFamilyOptions.clear();
+        PendulumIOUtils.closeQuietly(bloomFilter, mergeOperator);
+    }
+
+    /**
+     * Logs the block caches of the column families and how well they perform.
+     * <br />
+     * RocksDB counts the block cache hits and misses for the whole database, so they are reported once for the
+     * database (if the statistics are enabled) followed by the cache size, the key estimate and the memtable size of
+     * every column family. It is logged on startup and can be called again once the node has warmed up its caches.
+     */
+    public void logCacheReport() {
+        if (statistics) {
+            Statistics stats = options.statisticsPtr();
+            log.info("Block cache hit rate: total {}, data {}, index {}, filter {}",
+                    hitRate(stats.getTickerCount(TickerType.BLOCK_CACHE_HIT),
+                            stats.getTickerCount(TickerType.BLOCK_CACHE_MISS)),
+                    hitRate(stats.getTickerCount(TickerType.BLOCK_CACHE_DATA_HIT),
+                            stats.getTickerCount(TickerType.BLOCK_CACHE_DATA_MISS)),
+                    hitRate(stats.getTickerCount(TickerType.BLOCK_CACHE_INDEX_HIT),
+                            stats.getTickerCount(TickerType.BLOCK_CACHE_INDEX_MISS)),
+                    hitRate(stats.getTickerCount(TickerType.BLOCK_CACHE_FILTER_HIT),
+                            stats.getTickerCount(TickerType.BLOCK_CACHE_FILTER_MISS)));
+        }
+        int i = 0;
+        for (Map.Entry<String, Long> blockCacheSize : blockCacheSizes.entrySet()) {
+            ColumnFamilyHandle handle = columnFamilyHandles.get(i++);
+            try {
+                log.info("Column family {}: {} bytes block cache, ~{} keys, {} bytes in memtables",
+                        blockCacheSize.getKey(), blockCacheSize.getValue(),
+                        db.getLongProperty(handle, "rocksdb.estimate-num-keys"),
+                        db.getLongProperty(handle, "rocksdb.cur-size-all-mem-tables"));
+            } catch (RocksDBException e) {
+                log.debug("Could not read the properties of column family " + blockCacheSize.getKey(), e);
+            }
+        }
+    }
+
+    private static String hitRate(long hits, long misses) {
+        return hits + misses == 0 ? "n/a" : String.format("%.1f%%", 100.0 * hits / (hits + misses));
     }
 
     @Override
@@ -105,7 +192,7 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         ColumnFamilyHandle handle = classTreeMap.get(model);
         ColumnFamilyHandle otherHandle = classTreeMap.get(other);
 
-        try (RocksIterator iterator = db.newIterator(handle)) {
+        try (RocksIterator iterator = db.newIterator(handle, iteratorOptions)) {
             Set<Indexable> indexables = null;
 
             for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
@@ -131,6 +218,43 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         return object;
     }
 
+    /**
+     * Reads all models with one {@link RocksDB#multiGet(List, List)}, which looks up the keys of both the model and
+     * the metadata column family in a single call instead of one round-trip per key.
+     */
+    @Override
+    public List<Persistable> getBatch(Class<?> model, List<? extends Indexable> indexes) throws Exception {
+        ColumnFamilyHandle handle = classTreeMap.get(model);
+        ColumnFamilyHandle referenceHandle = metadataReference.get(model);
+        int count = indexes.size();
+
+        List<ColumnFamilyHandle> handles = new ArrayList<>(referenceHandle == null ? count : 2 * count);
+        List<byte[]> keys = new ArrayList<>(handles.size());
+        for (Indexable index : indexes) {
+            handles.add(handle);
+            keys.add(index.bytes());
+        }
+        if (referenceHandle != null) {
+            for (Indexable index : indexes) {
+                handles.add(referenceHandle);
+                // the result is keyed by array identity, so the metadata lookups need their own key arrays
+                keys.add(index.bytes().clone());
+            }
+        }
+        Map<byte[], byte[]> values = keys.isEmpty() ? Collections.emptyMap() : db.multiGet(handles, keys);
+
+        List<Persistable> objects = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Persistable object = (Persistable) model.newInstance();
+            object.read(values.get(keys.get(i)));
+            if (referenceHandle != null) {
+                object.readMetadata(values.get(keys.get(count + i)));
+            }
+            objects.add(object);
+        }
+        return objects;
+    }
+
     @Override
     public boolean mayExist(Class<?> model, Indexable index) {
         ColumnFamilyHandle handle = classTreeMap.get(model);
@@ -153,7 +277,7 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         ColumnFamilyHandle handle = classTreeMap.get(modelClass);
         Set<Indexable> keys = null;
         if (handle != null) {
-            try (RocksIterator iterator = db.newIterator(handle)) {
+            try (RocksIterator iterator = db.newIterator(handle, iteratorOptions)) {
                 iterator.seek(HashFactory.GENERIC.create(modelClass, value, 0, value.length).bytes());
 
                 byte[] found;
@@ -218,7 +342,7 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
 
     @Override
     public Pair<Indexable, Persistable> next(Class<?> model, Indexable index) throws Exception {
-        try (RocksIterator iterator = db.newIterator(classTreeMap.get(model))) {
+        try (RocksIterator iterator = db.newIterator(classTreeMap.get(model), iteratorOptions)) {
             iterator.seek(index.bytes());
             iterator.next();
             return modelAndIndex(model, index.getClass(), iterator);
@@ -227,7 +351,7 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
 
     @Override
     public Pair<Indexable, Persistable> previous(Class<?> model, Indexable index) throws Exception {
-        try (RocksIterator iterator = db.newIterator(classTreeMap.get(model))) {
+        try (RocksIterator iterator = db.newIterator(classTreeMap.get(model), iteratorOptions)) {
             iterator.seek(index.bytes());
             iterator.prev();
             return modelAndIndex(model, index.getClass(), iterator);
@@ -237,7 +361,7 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
     @SuppressWarnings("unchecked")
     @Override
     public Pair<Indexable, Persistable> latest(Class<?> model, Class<?> indexModel) throws Exception {
-        try (RocksIterator iterator = db.newIterator(classTreeMap.get(model))) {
+        try (RocksIterator iterator = db.newIterator(classTreeMap.get(model), iteratorOptions)) {
             iterator.seekToLast();
             return modelAndIndex(model, (Class<Indexable>) indexModel, iterator);
         }
@@ -246,7 +370,7 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
     @SuppressWarnings("unchecked")
     @Override
     public Pair<Indexable, Persistable> first(Class<?> model, Class<?> index) throws Exception {
-        try (RocksIterator iterator = db.newIterator(classTreeMap.get(model))) {
+        try (RocksIterator iterator = db.newIterator(classTreeMap.get(model), iteratorOptions)) {
             iterator.seekToFirst();
             return modelAndIndex(model, (Class<Indexable>) index, iterator);
         }
@@ -264,26 +388,103 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         try (WriteBatch writeBatch = new WriteBatch();
              WriteOptions writeOptions = new WriteOptions()) {
 
-            for (Pair<Indexable, Persistable> entry : models) {
+            addToBatch(writeBatch, models);
+            db.write(writeOptions, writeBatch);
+            return true;
+        }
+    }
 
-                Indexable key = entry.low;
-                Persistable value = entry.hi;
+    /**
+     * Stores the batch in a single atomic write.
+     * <br />
+     * Without synced writes RocksDB already batches concurrent writers itself, so the batch is written directly. With
+     * synced writes concurrent callers are committed as a group: the thread that gets the commit lock writes the
+     * batches of all waiting threads in one {@link WriteBatch}, so the write-ahead log is synced once per group instead
+     * of once per transaction. Callers return once their batch is written.
+     */
+    @Override
+    public boolean storeTransaction(List<Pair<Indexable, Persistable>> models) throws Exception {
+        if (!syncWrites) {
+            try (WriteBatch writeBatch = new WriteBatch()) {
+                addToBatch(writeBatch, models);
+                db.write(transactionWriteOptions, writeBatch);
+            }
+            return true;
+        }
 
-                ColumnFamilyHandle handle = classTreeMap.get(value.getClass());
-                ColumnFamilyHandle referenceHandle = metadataReference.get(value.getClass());
+        PendingStore store = new PendingStore(models);
+        pendingStores.add(store);
 
-                if (value.merge()) {
-                    writeBatch.merge(handle, key.bytes(), value.bytes());
-                } else {
-                    writeBatch.put(handle, key.bytes(), value.bytes());
-                }
-                if (referenceHandle != null) {
-                    writeBatch.put(referenceHandle, key.bytes(), value.metadata());
+        groupCommitLock.lock();
+        try {
+            if (!store.committed) {
+                commitPendingStores();
+            }
+        } finally {
+            groupCommitLock.unlock();
+        }
+
+        if (store.error != null) {
+            throw store.error;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the waiting batches as one group. If the group can not be written (i.e. one of the batches is invalid),
+     * every batch is written on its own, so only the callers whose batch fails get an error.
+     */
+    private void commitPendingStores() {
+        List<PendingStore> group = new ArrayList<>();
+        for (PendingStore pending; (pending = pendingStores.poll()) != null; ) {
+            group.add(pending);
+        }
+
+        try (WriteBatch writeBatch = new WriteBatch()) {
+            for (PendingStore pending : group) {
+                addToBatch(writeBatch, pending.models);
+            }
+            db.write(transactionWriteOptions, writeBatch);
+        } catch (Exception e) {
+            if (group.size() > 1) {
+                log.debug("Group commit of " + group.size() + " transactions failed, writing them one by one", e);
+                for (PendingStore pending : group) {
+                    try (WriteBatch writeBatch = new WriteBatch()) {
+                        addToBatch(writeBatch, pending.models);
+                        db.write(transactionWriteOptions, writeBatch);
+                    } catch (Exception single) {
+                        pending.error = single;
+                    }
                 }
+            } else {
+                group.get(0).error = e;
             }
+        }
 
-            db.write(writeOptions, writeBatch);
-            return true;
+        for (PendingStore pending : group) {
+            pending.committed = true;
+        }
+    }
+
+    private void addToBatch(WriteBatch writeBatch, List<Pair<Indexable, Persistable>> models)
+            throws RocksDBException {
+
+        for (Pair<Indexable, Persistable> entry : models) {
+
+            Indexable key = entry.low;
+            Persistable value = entry.hi;
+
+            ColumnFamilyHandle handle = classTreeMap.get(value.getClass());
+            ColumnFamilyHandle referenceHandle = metadataReference.get(value.getClass());
+
+            if (value.merge()) {
+                writeBatch.merge(handle, key.bytes(), value.bytes());
+            } else {
+                writeBatch.put(handle, key.bytes(), value.bytes());
+            }
+            if (referenceHandle != null) {
+                writeBatch.put(referenceHandle, key.bytes(), value.metadata());
+            }
         }
     }
 
@@ -329,7 +530,7 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         List<byte[]> keyBytes = new ArrayList<>();
 
         ColumnFamilyHandle columnFamilyHandle = classTreeMap.get(column);
-        try (RocksIterator iterator = db.newIterator(columnFamilyHandle)) {
+        try (RocksIterator iterator = db.newIterator(columnFamilyHandle, iteratorOptions)) {
             for (iterator.seekToFirst(); iterator.isValid(); iterator.next()) {
                 keyBytes.add(iterator.key());
             }
@@ -339,7 +540,7 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
 
     private void flushHandle(ColumnFamilyHandle handle) throws RocksDBException {
         List<byte[]> itemsToDelete = new ArrayList<>();
-        try (RocksIterator iterator = db.newIterator(handle)) {
+        try (RocksIterator iterator = db.newIterator(handle, iteratorOptions)) {
 
             for (iterator.seekToLast(); iterator.isValid(); iterator.prev()) {
                 itemsToDelete.add(iterator.key());
@@ -366,6 +567,24 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         return false;
     }
 
+    @Override
+    public boolean updateBatch(List<Pair<Indexable, Persistable>> models, String item) throws Exception {
+        try (WriteBatch writeBatch = new WriteBatch();
+             WriteOptions writeOptions = new WriteOptions()) {
+
+            for (Pair<Indexable, Persistable> model : models) {
+                ColumnFamilyHandle referenceHandle = metadataReference.get(model.hi.getClass());
+                if (referenceHandle != null) {
+                    writeBatch.put(referenceHandle, model.low.bytes(), model.hi.metadata());
+                }
+            }
+            if (writeBatch.count() > 0) {
+                db.write(writeOptions, writeBatch);
+            }
+        }
+        return false;
+    }
+
     // 2018 March 28 - Unused Code
     public void createBackup(String path) throws RocksDBException {
         try (Env env = Env.getDefault();
@@ -429,45 +648,50 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
                     .setMaxBackgroundCompactions(1);
 
             options.setMaxSubcompactions(Runtime.getRuntime().availableProcessors());
-
-            bloomFilter = new BloomFilter(BLOOM_FILTER_BITS_PER_KEY);
-
-            BlockBasedTableConfig blockBasedTableConfig = new BlockBasedTableConfig().setFilter(bloomFilter);
-            blockBasedTableConfig
-                    .setFilter(bloomFilter)
-                    .setCacheNumShardBits(2)
-                    .setBlockSizeDeviation(10)
-                    .setBlockRestartInterval(16)
-                    .setBlockCacheSize(cacheSize * SizeUnit.KB)
-                    .setBlockCacheCompressedNumShardBits(10)
-                    .setBlockCacheCompressedSize(32 * SizeUnit.KB);
+            if (statistics) {
+                options.createStatistics();
+            }
 
             options.setAllowConcurrentMemtableWrite(true);
 
-            MergeOperator mergeOperator = new StringAppendOperator();
-            ColumnFamilyOptions columnFamilyOptions = new ColumnFamilyOptions()
-                    .setMergeOperator(mergeOperator)
-                    .setTableFormatConfig(blockBasedTableConfig)
-                    .setMaxWriteBufferNumber(2)
-                    .setWriteBufferSize(2 * SizeUnit.MB);
+            bloomFilter = new BloomFilter(BLOOM_FILTER_BITS_PER_KEY);
+            mergeOperator = new StringAppendOperator();
+            iteratorOptions = new ReadOptions().setTotalOrderSeek(true);
+            transactionWriteOptions = new WriteOptions().setSync(syncWrites);
 
-            List<ColumnFamilyDescriptor> columnFamilyDescriptors = new ArrayList<>();
+            Map<String, ColumnFamilyProfile> profiles = new LinkedHashMap<>();
             //Add default column family. Main motivation is to not change legacy code
-            columnFamilyDescriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, columnFamilyOptions));
-            for (String name : columnFamilies.keySet()) {
-                columnFamilyDescriptors.add(new ColumnFamilyDescriptor(name.getBytes(), columnFamilyOptions));
+            profiles.put(new String(RocksDB.DEFAULT_COLUMN_FAMILY), ColumnFamilyProfile.DEFAULT);
+            for (Map.Entry<String, Class<? extends Persistable>> columnFamily : columnFamilies.entrySet()) {
+                profiles.put(columnFamily.getKey(), profileFor(columnFamily.getKey(), columnFamily.getValue()));
             }
             // metadata descriptor is always last
             if (metadataColumnFamily != null) {
-                columnFamilyDescriptors.add(
-                        new ColumnFamilyDescriptor(metadataColumnFamily.getKey().getBytes(), columnFamilyOptions));
+                profiles.put(metadataColumnFamily.getKey(), profileFor(metadataColumnFamily.getKey(), null));
                 metadataReference = new HashMap<>();
             }
 
+            int totalCacheShare = new HashSet<>(profiles.values()).stream()
+                    .mapToInt(ColumnFamilyProfile::getCacheShare)
+                    .sum();
+            List<ColumnFamilyDescriptor> columnFamilyDescriptors = new ArrayList<>();
+            for (Map.Entry<String, ColumnFamilyProfile> profile : profiles.entrySet()) {
+                log.info("Column family {}: {}", profile.getKey(), profile.getValue());
+                ColumnFamilyOptions familyOptions = columnFamilyOptions.computeIfAbsent(profile.getValue(), p ->
+                        createColumnFamilyOptions(p, cacheSize * SizeUnit.KB * p.getCacheShare() / totalCacheShare));
+                columnFamilyDescriptors.add(new ColumnFamilyDescriptor(profile.getKey().getBytes(), familyOptions));
+            }
+
 
             db = RocksDB.open(options, path, columnFamilyDescriptors, columnFamilyHandles);
             db.enableFileDeletions(true);
 
+            blockCacheSizes.clear();
+            for (Map.Entry<String, ColumnFamilyProfile> profile : profiles.entrySet()) {
+                blockCacheSizes.put(profile.getKey(),
+                        cacheSize * SizeUnit.KB * profile.getValue().getCacheShare() / totalCacheShare);
+            }
+
             initClassTreeMap(columnFamilyDescriptors);
 
         } catch (Exception e) {
@@ -476,6 +700,79 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         }
     }
 
+    /**
+     * Gets the configured profile of a column family. Column families that are written with merges always keep their
+     * merge operator, since the values already stored could not be read back otherwise.
+     *
+     * @param name the name of the column family
+     * @param model the model stored in the column family or <code>null</code> if it is never merged
+     * @return the profile to use
+     */
+    private ColumnFamilyProfile profileFor(String name, Class<? extends Persistable> model) {
+        ColumnFamilyProfile profile = columnFamilyProfiles.getOrDefault(name, ColumnFamilyProfile.DEFAULT);
+        if (!profile.hasMergeOperator() && model != null && isMerged(model)) {
+            log.warn("Column family {} is written with merges, keeping its merge operator", name);
+            profile = profile.with(ColumnFamilyProfile.MERGE_OPERATOR, Boolean.TRUE.toString());
+        }
+        return profile;
+    }
+
+    private static boolean isMerged(Class<? extends Persistable> model) {
+        try {
+            return model.newInstance().merge();
+        } catch (ReflectiveOperationException e) {
+            return true;
+        }
+    }
+
+    private ColumnFamilyOptions createColumnFamilyOptions(ColumnFamilyProfile profile, long blockCacheSize) {
+        BlockBasedTableConfig blockBasedTableConfig = new BlockBasedTableConfig()
+                .setFilter(bloomFilter)
+                .setBlockSize(profile.getBlockSize())
+                .setCacheNumShardBits(2)
+                .setBlockSizeDeviation(10)
+                .setBlockRestartInterval(16)
+                .setBlockCacheSize(blockCacheSize)
+                .setBlockCacheCompressedNumShardBits(10)
+                .setBlockCacheCompressedSize(32 * SizeUnit.KB);
+
+        ColumnFamilyOptions familyOptions = new ColumnFamilyOptions()
+                .setTableFormatConfig(blockBasedTableConfig)
+                .setCompressionType(compressionType(profile.getCompression()))
+                .setMaxWriteBufferNumber(2)
+                .setWriteBufferSize(profile.getWriteBufferSize());
+        if (profile.hasMergeOperator()) {
+            familyOptions.setMergeOperator(mergeOperator);
+        }
+        if (profile.getPrefixLength() > 0) {
+            familyOptions.useFixedLengthPrefixExtractor(profile.getPrefixLength());
+        }
+        return familyOptions;
+    }
+
+    private static CompressionType compressionType(String compression) {
+        switch (compression) {
+            case "none":
+                return CompressionType.NO_COMPRESSION;
+            case "snappy":
+                return CompressionType.SNAPPY_COMPRESSION;
+            case "zlib":
+                return CompressionType.ZLIB_COMPRESSION;
+            case "bzip2":
+                return CompressionType.BZLIB2_COMPRESSION;
+            case "lz4":
+                return CompressionType.LZ4_COMPRESSION;
+            case "lz4hc":
+                return CompressionType.LZ4HC_COMPRESSION;
+            case "xpress":
+                return CompressionType.XPRESS_COMPRESSION;
+            case "zstd":
+                return CompressionType.ZSTD_COMPRESSION;
+            default:
+                throw new IllegalArgumentException("unknown compression: " + compression);
+        }
+    }
+
     private void initClassTreeMap(List<ColumnFamilyDescriptor> columnFamilyDescriptors) throws Exception {
         Map<Class<?>, ColumnFamilyHandle> classMap = new LinkedHashMap<>();
         String mcfName = metadataColumnFamily == null ? "" : metadataColumnFamily.getKey();
@@ -500,4 +797,19 @@ public class RocksDBPersistenceProvider implements PersistenceProvider {
         classTreeMap = MapUtils.unmodifiableMap(classMap);
     }
 
+    /**
+     * A batch waiting in {@link #storeTransaction(List)}. Its fields are written by the thread holding the group
+     * commit lock. The waiting thread reads them after it acquired the lock itself, which makes the writes visible, and
+     * only reads the error again after releasing it.
+     */
+    private static class PendingStore {
+        private final List<Pair<Indexable, Persistable>> models;
+        private boolean committed;
+        private Exception error;
+
+        private PendingStore(List<Pair<Indexable, Persistable>> models) {
+            this.models = models;
+        }
+    }
+
 }
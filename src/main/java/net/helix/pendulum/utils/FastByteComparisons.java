@@ -48,6 +48,24 @@ public abstract class FastByteComparisons {
         return LexicographicalComparerHolder.BEST_COMPARER.compareTo(b1, s1, l1, b2, s2, l2);
     }
 
+    /**
+     * Checks if a range of a byte array only contains zeros, without allocating a zero array to compare with.
+     *
+     * @param bytes  buffer
+     * @param offset offset
+     * @param length length
+     *
+     * @return <code>true</code> if all bytes in the range are 0
+     */
+    public static boolean isZero(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private interface Comparer<T> {
         int compareTo(T buffer1, int offset1, int length1,
                       T buffer2, int offset2, int length2);
@@ -6,6 +6,9 @@ import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.storage.Tangle;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -24,6 +27,32 @@ public class DAGHelper {
      */
     protected Tangle tangle;
 
+    /**
+     * Maximum number of transactions that are read from the database with a single batched read.
+     */
+    protected static final int BATCH_SIZE = 512;
+
+    /**
+     * Maximum number of threads of the {@link #BATCH_LOADER_POOL}.
+     */
+    protected static final int BATCH_LOADER_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Dedicated pool for the batched reads of all DAGHelper instances. The reads block on the database, so they must
+     * not run on the common pool which is shared with the parallel streams of the node.
+     */
+    protected static final ForkJoinPool BATCH_LOADER_POOL = new ForkJoinPool(BATCH_LOADER_THREADS, pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("DAG Batch Loader " + thread.getPoolIndex());
+        return thread;
+    }, null, false);
+
+    /**
+     * Pool that loads the batches of a large level of a traversal in parallel, <code>null</code> loads all batches in
+     * the calling thread.
+     */
+    protected volatile ForkJoinPool forkJoinPool = BATCH_LOADER_POOL;
+
     /**
      * This method allows us to retrieve the DAGHelper instance that corresponds to the given parameters.
      *
@@ -60,6 +89,15 @@ public class DAGHelper {
         this.tangle = tangle;
     }
 
+    /**
+     * Sets the pool that loads the batches of large traversal levels in parallel.
+     *
+     * @param forkJoinPool the pool or <code>null</code> to load all batches in the thread that traverses
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
     //region TRAVERSE APPROVERS (BOTTOM -> TOP) ////////////////////////////////////////////////////////////////////////
 
     /**
@@ -70,8 +108,9 @@ public class DAGHelper {
      * name).
      *
      * It uses an non-recursive iterative algorithm that is able to handle huge chunks of the tangle without running out
-     * of memory. It creates a queue of transactions that are being examined and processes them one by one. As new
-     * approvers are found, they will be added to the queue and processed accordingly.
+     * of memory. It examines the tangle level by level: all transactions of a level are loaded with batched reads, and
+     * the approvers of the accepted ones are loaded with batched reads again and form the next level. Large levels are
+     * loaded in parallel by the {@link #forkJoinPool}, the lambdas are always called in the thread that traverses.
      *
      * Every found transaction is passed into the provided condition lambda, to determine if it still belongs to the
      * desired set of transactions and only then will be passed on to the currentTransactionConsumer lambda.
@@ -88,12 +127,12 @@ public class DAGHelper {
                                   Predicate<TransactionViewModel> condition,
                                   Consumer<TransactionViewModel> currentTransactionConsumer,
                                   Set<Hash> processedTransactions) throws TraversalException {
-        Queue<Hash> transactionsToExamine = new ArrayDeque<>(Collections.singleton(startingTransactionHash));
+        List<Hash> transactionsToExamine = Collections.singletonList(startingTransactionHash);
         try {
-            Hash currentTransactionHash;
-            while((currentTransactionHash = transactionsToExamine.poll()) != null) {
-                if(currentTransactionHash.equals(startingTransactionHash) || processedTransactions.add(currentTransactionHash)) {
-                    TransactionViewModel currentTransaction = TransactionViewModel.fromHash(tangle, currentTransactionHash);
+            while (!transactionsToExamine.isEmpty()) {
+                List<Hash> acceptedTransactions = new ArrayList<>();
+                for (TransactionViewModel currentTransaction : loadTransactions(transactionsToExamine)) {
+                    Hash currentTransactionHash = currentTransaction.getHash();
                     if(
                         // do not "test" the starting transaction since it is not an "approver"
                             currentTransactionHash.equals(startingTransactionHash) || (
@@ -106,9 +145,18 @@ public class DAGHelper {
                             currentTransactionConsumer.accept(currentTransaction);
                         }
 
-                        transactionsToExamine.addAll(ApproveeViewModel.load(tangle, currentTransactionHash).getHashes());
+                        acceptedTransactions.add(currentTransactionHash);
+                    }
+                }
+
+                List<Hash> nextTransactionsToExamine = new ArrayList<>();
+                for (ApproveeViewModel approvers : loadApprovers(acceptedTransactions)) {
+                    for (Hash approver : approvers.getHashes()) {
+                        examineLater(approver, startingTransactionHash, processedTransactions,
+                                nextTransactionsToExamine);
                     }
                 }
+                transactionsToExamine = nextTransactionsToExamine;
             }
         } catch (Exception e) {
             throw new TraversalException("error while traversing the approvers of transaction " + startingTransactionHash, e);
@@ -145,8 +193,9 @@ public class DAGHelper {
      * name).
      *
      * It uses an non-recursive iterative algorithm that is able to handle huge chunks of the tangle without running out
-     * of memory. It creates a queue of transactions that are being examined and processes them one by one. As new
-     * approvees are found, they will be added to the queue and processed accordingly.
+     * of memory. It examines the tangle level by level: all transactions of a level are loaded with batched reads, and
+     * the trunks and branches of the accepted ones form the next level. Large levels are loaded in parallel by the
+     * {@link #forkJoinPool}, the lambdas are always called in the thread that traverses.
      *
      * Every found transaction is passed into the provided condition lambda, to determine if it still belongs to the
      * desired set of transactions and only then will be passed on to the currentTransactionConsumer lambda.
@@ -163,12 +212,12 @@ public class DAGHelper {
                                   Predicate<TransactionViewModel> condition,
                                   Consumer<TransactionViewModel> currentTransactionConsumer,
                                   Set<Hash> processedTransactions) throws TraversalException {
-        Queue<Hash> transactionsToExamine = new ArrayDeque<>(Collections.singleton(startingTransactionHash));
+        List<Hash> transactionsToExamine = Collections.singletonList(startingTransactionHash);
         try {
-            Hash currentTransactionHash;
-            while((currentTransactionHash = transactionsToExamine.poll()) != null) {
-                if(currentTransactionHash.equals(startingTransactionHash) || processedTransactions.add(currentTransactionHash)) {
-                    TransactionViewModel currentTransaction = TransactionViewModel.fromHash(tangle, currentTransactionHash);
+            while (!transactionsToExamine.isEmpty()) {
+                List<Hash> nextTransactionsToExamine = new ArrayList<>();
+                for (TransactionViewModel currentTransaction : loadTransactions(transactionsToExamine)) {
+                    Hash currentTransactionHash = currentTransaction.getHash();
                     if(
                             currentTransaction.getType() != TransactionViewModel.PREFILLED_SLOT &&(
                                     // do not "test" the starting transaction since it is not an "approvee"
@@ -181,10 +230,13 @@ public class DAGHelper {
                             currentTransactionConsumer.accept(currentTransaction);
                         }
 
-                        transactionsToExamine.add(currentTransaction.getBranchTransactionHash());
-                        transactionsToExamine.add(currentTransaction.getTrunkTransactionHash());
+                        examineLater(currentTransaction.getBranchTransactionHash(), startingTransactionHash,
+                                processedTransactions, nextTransactionsToExamine);
+                        examineLater(currentTransaction.getTrunkTransactionHash(), startingTransactionHash,
+                                processedTransactions, nextTransactionsToExamine);
                     }
                 }
+                transactionsToExamine = nextTransactionsToExamine;
             }
         } catch (Exception e) {
             throw new TraversalException("error while traversing the approvees of transaction " + startingTransactionHash, e);
@@ -210,4 +262,100 @@ public class DAGHelper {
     }
 
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
+
+    //region BATCHED LOADING ///////////////////////////////////////////////////////////////////////////////////////////
+
+    /**
+     * Adds a transaction to the next level of a traversal unless it was processed already. The starting transaction is
+     * examined again whenever it is found, just like it is examined at the start regardless of the processed set.
+     */
+    private static void examineLater(Hash transactionHash, Hash startingTransactionHash,
+                                     Set<Hash> processedTransactions, List<Hash> nextTransactionsToExamine) {
+        if (transactionHash.equals(startingTransactionHash) || processedTransactions.add(transactionHash)) {
+            nextTransactionsToExamine.add(transactionHash);
+        }
+    }
+
+    private List<TransactionViewModel> loadTransactions(List<Hash> hashes) throws Exception {
+        return loadInBatches(hashes, batch -> TransactionViewModel.fromHashes(tangle, batch));
+    }
+
+    private List<ApproveeViewModel> loadApprovers(List<Hash> hashes) throws Exception {
+        return loadInBatches(hashes, batch -> ApproveeViewModel.loadBatch(tangle, batch));
+    }
+
+    /**
+     * Splits a level into batches of at most {@link #BATCH_SIZE} hashes and loads them, in parallel if the level
+     * consists of several batches and a {@link #forkJoinPool} is set.
+     */
+    private <T> List<T> loadInBatches(List<Hash> hashes, BatchLoader<T> loader) throws Exception {
+        ForkJoinPool pool = forkJoinPool;
+        if (hashes.size() <= BATCH_SIZE || pool == null) {
+            List<T> result = new ArrayList<>(hashes.size());
+            for (int from = 0; from < hashes.size(); from += BATCH_SIZE) {
+                result.addAll(loader.load(hashes.subList(from, Math.min(from + BATCH_SIZE, hashes.size()))));
+            }
+            return result;
+        }
+        try {
+            return pool.invoke(new BatchLoadTask<>(hashes, loader));
+        } catch (BatchLoadException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Loads the view models of a batch of hashes in the order of the hashes.
+     */
+    @FunctionalInterface
+    private interface BatchLoader<T> {
+        List<T> load(List<Hash> hashes) throws Exception;
+    }
+
+    /**
+     * Splits the hashes in halves until they fit into a batch and joins the loaded view models in the original order.
+     */
+    private static class BatchLoadTask<T> extends RecursiveTask<List<T>> {
+        private final List<Hash> hashes;
+        private final BatchLoader<T> loader;
+
+        private BatchLoadTask(List<Hash> hashes, BatchLoader<T> loader) {
+            this.hashes = hashes;
+            this.loader = loader;
+        }
+
+        @Override
+        protected List<T> compute() {
+            if (hashes.size() <= BATCH_SIZE) {
+                try {
+                    return loader.load(hashes);
+                } catch (Exception e) {
+                    throw new BatchLoadException(e);
+                }
+            }
+            int middle = hashes.size() / 2;
+            BatchLoadTask<T> right = new BatchLoadTask<>(hashes.subList(middle, hashes.size()), loader);
+            right.fork();
+            List<T> result = new ArrayList<>(hashes.size());
+            result.addAll(new BatchLoadTask<>(hashes.subList(0, middle), loader).compute());
+            result.addAll(right.join());
+            return result;
+        }
+    }
+
+    /**
+     * Carries the exception of a batch that was loaded in the {@link #forkJoinPool} back to the traversing thread.
+     */
+    private static class BatchLoadException extends RuntimeException {
+        private BatchLoadException(Exception cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized Exception getCause() {
+            return (Exception) super.getCause();
+        }
+    }
+
+    //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
 }
@@ -103,6 +103,11 @@ public class BundleValidatorTest {
             return t;
         }).collect(Collectors.toList());
         Assert.assertTrue(BundleValidator.validate(tangle, snapshotProvider.getInitialSnapshot(), transactions.get(0).getHash()).get(0).size() == transactions.size());
+
+        List<TransactionViewModel> validated = BundleValidator.validate(tangle, snapshotProvider.getInitialSnapshot(),
+                transactions.get(0).getHash()).get(0);
+        Assert.assertEquals("Validating again should return the whole bundle", transactions.size(), validated.size());
+        Assert.assertEquals("Bundle should stay valid", 1, validated.get(0).getValidity());
     }
 
 }
@@ -7,10 +7,14 @@ import net.helix.pendulum.model.StateDiff;
 import net.helix.pendulum.model.persistables.Milestone;
 import net.helix.pendulum.model.persistables.Round;
 import net.helix.pendulum.model.persistables.Transaction;
+import net.helix.pendulum.storage.Indexable;
+import net.helix.pendulum.storage.Persistable;
 import net.helix.pendulum.storage.Tangle;
 import net.helix.pendulum.utils.Pair;
 import org.mockito.Mockito;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 
@@ -97,6 +101,7 @@ public class TangleMockUtils {
         try {
             Mockito.when(tangle.load(Transaction.class, hash)).thenReturn(transaction);
             Mockito.when(tangle.getLatest(Transaction.class, Hash.class)).thenReturn(new Pair<>(hash, transaction));
+            mockLoadBatch(tangle);
         } catch (Exception e) {
             // the exception can not be raised since we mock
         }
@@ -104,6 +109,29 @@ public class TangleMockUtils {
         return transaction;
     }
 
+    /**
+     * Mocks the batched reads of the tangle object by answering them with the mocked single reads, so that models
+     * mocked with {@link Tangle#load(Class, Indexable)} are also returned by {@link Tangle#loadBatch(Class, List)}.
+     *
+     * @param tangle mocked tangle object that shall answer batched reads
+     */
+    @SuppressWarnings("unchecked")
+    public static void mockLoadBatch(Tangle tangle) {
+        try {
+            Mockito.when(tangle.loadBatch(Mockito.any(), Mockito.anyList())).thenAnswer(invocation -> {
+                Class<?> model = invocation.getArgument(0);
+                List<Indexable> indexes = invocation.getArgument(1);
+                List<Persistable> models = new ArrayList<>(indexes.size());
+                for (Indexable index : indexes) {
+                    models.add(tangle.load(model, index));
+                }
+                return models;
+            });
+        } catch (Exception e) {
+            // the exception can not be raised since we mock
+        }
+    }
+
     public static StateDiff mockStateDiff(Tangle tangle, Hash hash, Map<Hash, Long> balanceDiff, int roundIndex) {
         StateDiff stateDiff = new StateDiff();
         stateDiff.state = balanceDiff;
@@ -4,6 +4,7 @@ import net.helix.pendulum.conf.MainnetConfig;
 import net.helix.pendulum.controllers.TipsViewModel;
 import net.helix.pendulum.controllers.TransactionViewModel;
 import net.helix.pendulum.crypto.SpongeFactory;
+import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.TransactionHash;
 import net.helix.pendulum.network.TransactionRequester;
 import net.helix.pendulum.service.snapshot.SnapshotProvider;
@@ -105,6 +106,25 @@ public class TransactionValidatorTest {
         assertFalse(txValidator.checkSolidity(tx.getHash(), true));
     }
 
+    @Test
+    public void verifyTxIsSolidWithinLimitTest() throws Exception {
+        TransactionViewModel parent = new TransactionViewModel(
+                getTransactionBytesWithTrunkAndBranch(Hash.NULL_HASH, Hash.NULL_HASH), getTransactionHash());
+        parent.store(tangle, snapshotProvider.getInitialSnapshot());
+        TransactionViewModel tx = new TransactionViewModel(
+                getTransactionBytesWithTrunkAndBranch(parent.getHash(), parent.getHash()), getTransactionHash());
+        tx.store(tangle, snapshotProvider.getInitialSnapshot());
+
+        assertFalse("Limit should stop the check before the approvees are analyzed",
+                txValidator.checkSolidity(tx.getHash(), false, 2));
+        assertFalse("Tx should not be marked solid by an interrupted check",
+                TransactionViewModel.fromHash(tangle, tx.getHash()).isSolid());
+        assertTrue("Solid entry points should not count towards the limit",
+                txValidator.checkSolidity(tx.getHash(), false, 3));
+        assertTrue("Tx should be marked solid", TransactionViewModel.fromHash(tangle, tx.getHash()).isSolid());
+        assertTrue("Known solid tx should not be traversed again", txValidator.checkSolidity(tx.getHash(), false, 1));
+    }
+
     @Test
     public void addSolidTransactionWithoutErrorsTest() {
         try {
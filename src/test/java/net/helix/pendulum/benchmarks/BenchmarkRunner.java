@@ -1,6 +1,12 @@
 package net.helix.pendulum.benchmarks;
 
+import net.helix.pendulum.benchmarks.api.ApiConcurrencyBenchmark;
+import net.helix.pendulum.benchmarks.controllers.TipsViewModelBenchmark;
+import net.helix.pendulum.benchmarks.dbbenchmark.HashesBenchmark;
 import net.helix.pendulum.benchmarks.dbbenchmark.RocksDbBenchmark;
+import net.helix.pendulum.benchmarks.dbbenchmark.TransactionCacheBenchmark;
+import net.helix.pendulum.benchmarks.snapshot.BalanceLedgerBenchmark;
+import net.helix.pendulum.benchmarks.snapshot.SnapshotFileBenchmark;
 import org.junit.Assert;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.runner.Runner;
@@ -32,6 +38,44 @@ public class BenchmarkRunner {
         }
     }
 
+    //@Test
+    public void launchTransactionCacheBenchmark() {
+        Options opts = new OptionsBuilder()
+                .include(TransactionCacheBenchmark.class.getName() + ".*")
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .warmupIterations(2)
+                .forks(1)
+                .measurementIterations(5)
+                .shouldFailOnError(true)
+                .shouldDoGC(false)
+                .build();
+        try {
+            new Runner(opts).run();
+        } catch (Throwable t) {
+            Assert.fail();
+        }
+    }
+
+    //@Test
+    public void launchHashesBenchmark() {
+        Options opts = new OptionsBuilder()
+                .include(HashesBenchmark.class.getName() + ".*")
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .forks(1)
+                .measurementIterations(5)
+                .shouldFailOnError(true)
+                .shouldDoGC(false)
+                .build();
+        try {
+            new Runner(opts).run();
+        } catch (Throwable t) {
+            Assert.fail();
+        }
+    }
+
     //@Test
     public void launchCryptoBenchmark() {
         Options opts = new OptionsBuilder()
@@ -50,4 +94,82 @@ public class BenchmarkRunner {
             Assert.fail();
         }
     }
+
+    //@Test
+    public void launchApiBenchmark() {
+        Options opts = new OptionsBuilder()
+                .include(ApiConcurrencyBenchmark.class.getName() + ".*")
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.SECONDS)
+                .warmupIterations(2)
+                .forks(1)
+                .measurementIterations(5)
+                .shouldFailOnError(true)
+                .shouldDoGC(false)
+                .build();
+        try {
+            new Runner(opts).run();
+        } catch (Throwable t) {
+            Assert.fail();
+        }
+    }
+
+    //@Test
+    public void launchTipsBenchmark() {
+        Options opts = new OptionsBuilder()
+                .include(TipsViewModelBenchmark.class.getName() + ".*")
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .warmupIterations(2)
+                .forks(1)
+                .measurementIterations(5)
+                .shouldFailOnError(true)
+                .shouldDoGC(false)
+                .build();
+        try {
+            new Runner(opts).run();
+        } catch (Throwable t) {
+            Assert.fail();
+        }
+    }
+
+    //@Test
+    public void launchBalanceLedgerBenchmark() {
+        Options opts = new OptionsBuilder()
+                .include(BalanceLedgerBenchmark.class.getName() + ".*")
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .forks(1)
+                .jvmArgsAppend("-Xmx8g")
+                .measurementIterations(5)
+                .shouldFailOnError(true)
+                .shouldDoGC(false)
+                .build();
+        try {
+            new Runner(opts).run();
+        } catch (Throwable t) {
+            Assert.fail();
+        }
+    }
+
+    //@Test
+    public void launchSnapshotFileBenchmark() {
+        Options opts = new OptionsBuilder()
+                .include(SnapshotFileBenchmark.class.getName() + ".*")
+                .mode(Mode.AverageTime)
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .warmupIterations(2)
+                .forks(1)
+                .jvmArgsAppend("-Xmx4g")
+                .measurementIterations(5)
+                .shouldFailOnError(true)
+                .shouldDoGC(false)
+                .build();
+        try {
+            new Runner(opts).run();
+        } catch (Throwable t) {
+            Assert.fail();
+        }
+    }
 }
@@ -0,0 +1,156 @@
+package net.helix.pendulum.benchmarks.api;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.conf.BasePendulumConfig;
+import net.helix.pendulum.conf.MainnetConfig;
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.service.API;
+import net.helix.pendulum.service.ApiArgs;
+import net.helix.pendulum.service.dto.AbstractResponse;
+import net.helix.pendulum.service.restserver.ApiProcessor;
+import net.helix.pendulum.service.restserver.RestConnector;
+import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.service.snapshot.impl.SnapshotProviderImpl;
+import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.storage.rocksdb.RocksDBPersistenceProvider;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures the throughput of concurrent API clients while a slow tip selection is running.
+ *
+ * With {@code serialized} set to true every request takes the API-wide monitor, which is how the read endpoints
+ * behaved before they were allowed to run concurrently.
+ */
+public class ApiConcurrencyBenchmark {
+
+    private static final int TIP_SELECTION_MILLIS = 5;
+
+    @State(Scope.Group)
+    public static class ApiState {
+        private final File dbFolder = new File("api-bench");
+        private final File logFolder = new File("api-log-bench");
+
+        @Param({"true", "false"})
+        private boolean serialized;
+
+        @Param({"1000"})
+        private int numTxsToTest;
+
+        private Tangle tangle;
+        private SnapshotProvider snapshotProvider;
+        private ApiProcessor processor;
+        private List<String> findTransactionsRequests;
+        private List<String> getTransactionStringsRequests;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            dbFolder.mkdirs();
+            logFolder.mkdirs();
+            MainnetConfig config = new MainnetConfig();
+            tangle = new Tangle();
+            tangle.addPersistenceProvider(new RocksDBPersistenceProvider(dbFolder.getAbsolutePath(),
+                    logFolder.getAbsolutePath(), BasePendulumConfig.Defaults.DB_CACHE_SIZE, Tangle.COLUMN_FAMILIES,
+                    Tangle.METADATA_COLUMN_FAMILY));
+            tangle.init();
+            snapshotProvider = new SnapshotProviderImpl().init(config);
+            // the API refuses to select tips before the first round was applied
+            snapshotProvider.getLatestSnapshot().setIndex(snapshotProvider.getInitialSnapshot().getIndex() + 1);
+
+            findTransactionsRequests = new ArrayList<>(numTxsToTest);
+            getTransactionStringsRequests = new ArrayList<>(numTxsToTest);
+            String hex = "";
+            for (int i = 0; i < numTxsToTest; i++) {
+                hex = TransactionTestUtils.nextWord(hex, i);
+                TransactionViewModel tvm = TransactionTestUtils.createTransactionWithHex(hex);
+                tvm.store(tangle, snapshotProvider.getInitialSnapshot());
+                findTransactionsRequests.add("{\"command\": \"findTransactions\", \"addresses\": [\""
+                        + tvm.getAddressHash() + "\"]}");
+                getTransactionStringsRequests.add("{\"command\": \"getTransactionStrings\", \"hashes\": [\""
+                        + tvm.getHash() + "\"]}");
+            }
+
+            ApiArgs args = new ApiArgs(config);
+            args.setTangle(tangle);
+            args.setSnapshotProvider(snapshotProvider);
+            args.setTipsSelector((depth, reference) -> {
+                Thread.sleep(TIP_SELECTION_MILLIS);
+                return Arrays.asList(Hash.NULL_HASH, Hash.NULL_HASH);
+            });
+            API api = new API(args);
+            api.init(new RestConnector() {
+                @Override
+                public void init(ApiProcessor processFunction) {
+                    processor = serialized
+                            ? (request, address) -> {
+                                synchronized (api) {
+                                    return processFunction.processFunction(request, address);
+                                }
+                            }
+                            : processFunction;
+                }
+
+                @Override
+                public void start() {
+                }
+
+                @Override
+                public void stop() {
+                }
+            });
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdown() throws Exception {
+            tangle.shutdown();
+            snapshotProvider.shutdown();
+            FileUtils.forceDelete(dbFolder);
+            FileUtils.forceDelete(logFolder);
+        }
+
+        private AbstractResponse process(String request) {
+            return processor.processFunction(request, InetAddress.getLoopbackAddress());
+        }
+
+        private String randomOf(List<String> requests) {
+            return requests.get(ThreadLocalRandom.current().nextInt(requests.size()));
+        }
+    }
+
+    @Benchmark
+    @Group("wallets")
+    @GroupThreads(1)
+    public AbstractResponse getTransactionsToApprove(ApiState state) {
+        return state.process("{\"command\": \"getTransactionsToApprove\", \"depth\": 3}");
+    }
+
+    @Benchmark
+    @Group("wallets")
+    @GroupThreads(4)
+    public AbstractResponse findTransactions(ApiState state) {
+        return state.process(state.randomOf(state.findTransactionsRequests));
+    }
+
+    @Benchmark
+    @Group("wallets")
+    @GroupThreads(3)
+    public AbstractResponse getTransactionStrings(ApiState state) {
+        return state.process(state.randomOf(state.getTransactionStringsRequests));
+    }
+}
@@ -0,0 +1,66 @@
+package net.helix.pendulum.benchmarks.controllers;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.controllers.TipsViewModel;
+import net.helix.pendulum.model.Hash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Set;
+
+/**
+ * Measures random tip sampling by tip selection and the tip requester while new tips arrive, become solid and get
+ * approved, and while API clients read all tips.
+ */
+public class TipsViewModelBenchmark {
+
+    @State(Scope.Group)
+    public static class TipsState {
+        private TipsViewModel tipsViewModel;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            tipsViewModel = new TipsViewModel();
+            for (int i = 0; i < TipsViewModel.MAX_TIPS * 2; i++) {
+                Hash hash = TransactionTestUtils.getTransactionHash();
+                tipsViewModel.addTipHash(hash);
+                if (i % 2 == 0) {
+                    tipsViewModel.setSolid(hash);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("tips")
+    @GroupThreads(6)
+    public Hash getRandomSolidTipHash(TipsState state) {
+        return state.tipsViewModel.getRandomSolidTipHash();
+    }
+
+    @Benchmark
+    @Group("tips")
+    @GroupThreads(1)
+    public Set<Hash> getTips(TipsState state) {
+        return state.tipsViewModel.getTips();
+    }
+
+    @Benchmark
+    @Group("tips")
+    @GroupThreads(1)
+    public void receiveTransaction(TipsState state) {
+        TipsViewModel tipsViewModel = state.tipsViewModel;
+        Hash approved = tipsViewModel.getRandomNonSolidTipHash();
+        Hash hash = TransactionTestUtils.getTransactionHash();
+        tipsViewModel.addTipHash(hash);
+        tipsViewModel.setSolid(hash);
+        if (approved != null) {
+            tipsViewModel.removeTipHash(approved);
+        }
+    }
+}
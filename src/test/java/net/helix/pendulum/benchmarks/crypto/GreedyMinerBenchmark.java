@@ -3,6 +3,11 @@ package net.helix.pendulum.benchmarks.crypto;
 import net.helix.pendulum.crypto.GreedyMiner;
 import org.bouncycastle.util.encoders.Hex;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
 
 public class GreedyMinerBenchmark {
 
@@ -18,4 +23,31 @@ public class GreedyMinerBenchmark {
             GreedyMiner greedyMiner = new GreedyMiner();
             greedyMiner.mine(Hex.decode(txHex), MIN_WEIGHT_MAGNITUDE, NUM_THREADS);
         }
+
+        /**
+         * Benchmark one miner that is reused for every attachment, like the API does.
+         */
+        @Benchmark
+        public boolean mineReused(MinerState state) {
+            return state.miner.mine(Hex.decode(txHex), MIN_WEIGHT_MAGNITUDE, NUM_THREADS);
+        }
+
+        /**
+         * Benchmark concurrent attachments that share one miner and its workers.
+         */
+        @Benchmark
+        @Threads(4)
+        public boolean mineConcurrently(MinerState state) {
+            return state.miner.mine(Hex.decode(txHex), MIN_WEIGHT_MAGNITUDE, NUM_THREADS);
+        }
+
+        @State(Scope.Benchmark)
+        public static class MinerState {
+            private final GreedyMiner miner = new GreedyMiner();
+
+            @TearDown(Level.Trial)
+            public void report() {
+                System.out.println("hashes per second: " + miner.getHashesPerSecond());
+            }
+        }
 }
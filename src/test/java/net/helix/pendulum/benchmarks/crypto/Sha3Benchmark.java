@@ -1,11 +1,15 @@
 package net.helix.pendulum.benchmarks.crypto;
 
 import net.helix.pendulum.crypto.Sha3;
+import net.helix.pendulum.crypto.Sponge;
 import net.helix.pendulum.crypto.SpongeFactory;
 import org.bouncycastle.util.encoders.Hex;
 import org.junit.Assert;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
 
+import java.nio.ByteBuffer;
 
 
 public class Sha3Benchmark {
@@ -29,4 +33,57 @@ public class Sha3Benchmark {
         Assert.assertEquals(txHash, Hex.toHexString(hash_bytes));
     }
 
+    /**
+     * Benchmark the hash of a 768 byte transaction with a new sponge for every hash.
+     */
+    @Benchmark
+    public byte[] transactionHashNewSponge(HashState state) {
+        Sponge sha3 = SpongeFactory.create(SpongeFactory.Mode.S256);
+        sha3.absorb(state.txBytes, 0, state.txBytes.length);
+        sha3.squeeze(state.hash, 0, Sha3.HASH_LENGTH);
+        return state.hash;
+    }
+
+    /**
+     * Benchmark the hash of a 768 byte transaction with the pooled sponge of the thread.
+     */
+    @Benchmark
+    public byte[] transactionHash(HashState state) {
+        Sponge sha3 = SpongeFactory.get(SpongeFactory.Mode.S256);
+        sha3.absorb(state.txBytes, 0, state.txBytes.length);
+        sha3.squeeze(state.hash, 0, Sha3.HASH_LENGTH);
+        return state.hash;
+    }
+
+    /**
+     * Benchmark the hash of a 768 byte transaction that is read from a direct buffer, like a received packet.
+     */
+    @Benchmark
+    public byte[] transactionHashDirectBuffer(HashState state) {
+        Sponge sha3 = SpongeFactory.get(SpongeFactory.Mode.S256);
+        state.txBuffer.clear();
+        sha3.absorb(state.txBuffer);
+        sha3.squeeze(state.hash, 0, Sha3.HASH_LENGTH);
+        return state.hash;
+    }
+
+    /**
+     * Benchmark the hash of a Merkle node from its two 32 byte children.
+     */
+    @Benchmark
+    public byte[] merkleNodeHash(HashState state) {
+        Sponge sha3 = SpongeFactory.get(SpongeFactory.Mode.S256);
+        sha3.absorb(state.txBytes, 0, Sha3.HASH_LENGTH);
+        sha3.absorb(state.hash, 0, Sha3.HASH_LENGTH);
+        sha3.squeeze(state.hash, 0, Sha3.HASH_LENGTH);
+        return state.hash;
+    }
+
+    @State(Scope.Thread)
+    public static class HashState {
+        private final byte[] txBytes = Hex.decode(txHex);
+        private final ByteBuffer txBuffer = ByteBuffer.allocateDirect(txBytes.length).put(txBytes);
+        private final byte[] hash = Hex.decode(txHash);
+    }
+
 }
@@ -0,0 +1,42 @@
+package net.helix.pendulum.benchmarks.dbbenchmark;
+
+import net.helix.pendulum.benchmarks.dbbenchmark.states.HashesState;
+import net.helix.pendulum.model.persistables.Address;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.infra.Blackhole;
+
+public class HashesBenchmark {
+
+    @Benchmark
+    public byte[] encode(HashesState state) {
+        return state.getHashes().bytes();
+    }
+
+    @Benchmark
+    public int decode(HashesState state) {
+        Address address = new Address();
+        address.read(state.getEncoded());
+        return address.set.size();
+    }
+
+    @Benchmark
+    public boolean readIsEmpty(HashesState state) {
+        Address address = new Address();
+        address.read(state.getEncoded());
+        return address.set.isEmpty();
+    }
+
+    @Benchmark
+    public void readStream(HashesState state, Blackhole blackhole) {
+        Address address = new Address();
+        address.read(state.getEncoded());
+        address.set.stream().forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public byte[] readAndEncode(HashesState state) {
+        Address address = new Address();
+        address.read(state.getEncoded());
+        return address.bytes();
+    }
+}
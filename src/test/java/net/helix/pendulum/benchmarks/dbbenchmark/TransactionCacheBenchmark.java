@@ -0,0 +1,145 @@
+package net.helix.pendulum.benchmarks.dbbenchmark;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.conf.BasePendulumConfig;
+import net.helix.pendulum.conf.MainnetConfig;
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.service.snapshot.impl.SnapshotProviderImpl;
+import net.helix.pendulum.storage.PersistenceProvider;
+import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.storage.TransactionCache;
+import net.helix.pendulum.storage.rocksdb.RocksDBPersistenceProvider;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Compares the read patterns of solidification and tip selection with and without the {@link TransactionCache}.
+ * The solidity walk loads the past cone of the latest transaction, the tip selection walk goes from the first
+ * transaction to a tip through random approvers.
+ */
+public class TransactionCacheBenchmark {
+
+    @Benchmark
+    public int solidityWalk(TangleState state) throws Exception {
+        Set<Hash> analyzedHashes = new HashSet<>();
+        Deque<Hash> nonAnalyzedTransactions = new ArrayDeque<>();
+        nonAnalyzedTransactions.offer(state.getLatest());
+        int solid = 0;
+        Hash hash;
+        while ((hash = nonAnalyzedTransactions.poll()) != null) {
+            if (hash.equals(Hash.NULL_HASH) || !analyzedHashes.add(hash)) {
+                continue;
+            }
+            TransactionViewModel transaction = TransactionViewModel.fromHash(state.getTangle(), hash);
+            if (transaction.isSolid()) {
+                solid++;
+            }
+            nonAnalyzedTransactions.offer(transaction.getTrunkTransactionHash());
+            nonAnalyzedTransactions.offer(transaction.getBranchTransactionHash());
+        }
+        return solid;
+    }
+
+    @Benchmark
+    public Hash tipSelectionWalk(TangleState state) throws Exception {
+        Random random = new Random(42);
+        Hash hash = state.getFirst();
+        while (true) {
+            List<Hash> approvers = new ArrayList<>(
+                    TransactionViewModel.fromHash(state.getTangle(), hash).getApprovers(state.getTangle()).getHashes());
+            if (approvers.isEmpty()) {
+                return hash;
+            }
+            hash = approvers.get(random.nextInt(approvers.size()));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class TangleState {
+        private final File dbFolder = new File("db-cache-bench");
+        private final File logFolder = new File("db-cache-log-bench");
+
+        private Tangle tangle;
+        private SnapshotProvider snapshotProvider;
+        private Hash first;
+        private Hash latest;
+
+        @Param({"0", "50000"})
+        private int cacheSize;
+
+        @Param({"1000", "10000"})
+        private int numTxsToTest;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            if (!dbFolder.mkdirs()) {
+                throw new IllegalStateException("db didn't start with a clean slate. Please delete "
+                        + dbFolder.getAbsolutePath());
+            }
+            logFolder.mkdirs();
+            PersistenceProvider dbProvider = new RocksDBPersistenceProvider(
+                    dbFolder.getAbsolutePath(), logFolder.getAbsolutePath(), BasePendulumConfig.Defaults.DB_CACHE_SIZE,
+                    Tangle.COLUMN_FAMILIES, Tangle.METADATA_COLUMN_FAMILY);
+            dbProvider.init();
+            tangle = new Tangle();
+            tangle.addPersistenceProvider(dbProvider);
+            if (cacheSize > 0) {
+                tangle.setTransactionCache(new TransactionCache(cacheSize));
+            }
+            snapshotProvider = new SnapshotProviderImpl().init(new MainnetConfig());
+
+            // every transaction approves two random earlier transactions
+            Random random = new Random(1);
+            List<Hash> hashes = new ArrayList<>(numTxsToTest);
+            for (int i = 0; i < numTxsToTest; i++) {
+                Hash trunk = i == 0 ? Hash.NULL_HASH : hashes.get(random.nextInt(i));
+                Hash branch = i == 0 ? Hash.NULL_HASH : hashes.get(random.nextInt(i));
+                TransactionViewModel transaction = new TransactionViewModel(
+                        TransactionTestUtils.getTransactionBytesWithTrunkAndBranch(trunk, branch),
+                        TransactionTestUtils.getTransactionHash());
+                transaction.updateSolid(true);
+                transaction.store(tangle, snapshotProvider.getInitialSnapshot());
+                hashes.add(transaction.getHash());
+            }
+            first = hashes.get(0);
+            latest = hashes.get(hashes.size() - 1);
+        }
+
+        @TearDown(Level.Trial)
+        public void shutdown() throws Exception {
+            tangle.shutdown();
+            snapshotProvider.shutdown();
+            FileUtils.forceDelete(dbFolder);
+            FileUtils.forceDelete(logFolder);
+        }
+
+        public Tangle getTangle() {
+            return tangle;
+        }
+
+        public Hash getFirst() {
+            return first;
+        }
+
+        public Hash getLatest() {
+            return latest;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.helix.pendulum.benchmarks.dbbenchmark.states;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.model.persistables.Address;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class HashesState {
+
+    @Param({"10", "1000", "100000"})
+    public int numHashes;
+
+    private Address hashes;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        hashes = new Address();
+        for (int i = 0; i < numHashes; i++) {
+            hashes.set.add(TransactionTestUtils.getTransactionHash());
+        }
+        encoded = hashes.bytes();
+    }
+
+    public Address getHashes() {
+        return hashes;
+    }
+
+    public byte[] getEncoded() {
+        return encoded;
+    }
+}
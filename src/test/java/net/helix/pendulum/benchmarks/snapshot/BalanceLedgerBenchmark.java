@@ -0,0 +1,108 @@
+package net.helix.pendulum.benchmarks.snapshot;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.service.snapshot.impl.BalanceLedger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the boxed map that used to hold the balances of a snapshot state with the {@link BalanceLedger}. Cloning
+ * a state and applying the diff of a milestone are measured, the memory use is printed when the state is set up.
+ */
+public class BalanceLedgerBenchmark {
+
+    private static final int DIFF_SIZE = 100;
+
+    @Benchmark
+    public Map<Hash, Long> cloneMap(LedgerState state) {
+        return new HashMap<>(state.map);
+    }
+
+    @Benchmark
+    public BalanceLedger cloneLedger(LedgerState state) {
+        return state.ledger.copy();
+    }
+
+    @Benchmark
+    public Map<Hash, Long> cloneAndApplyMap(LedgerState state) {
+        Map<Hash, Long> balances = new HashMap<>(state.map);
+        state.diff.forEach((address, delta) -> {
+            if (balances.merge(address, delta, Long::sum) == 0) {
+                balances.remove(address);
+            }
+        });
+        return balances;
+    }
+
+    @Benchmark
+    public BalanceLedger cloneAndApplyLedger(LedgerState state) {
+        BalanceLedger balances = state.ledger.copy();
+        state.diff.forEach((address, delta) -> {
+            if (balances.add(address, delta) == 0) {
+                balances.remove(address);
+            }
+        });
+        return balances;
+    }
+
+    @State(Scope.Benchmark)
+    public static class LedgerState {
+
+        @Param({"1000000", "10000000"})
+        private int addresses;
+
+        @Param({"false", "true"})
+        private boolean offHeap;
+
+        private Map<Hash, Long> map;
+        private BalanceLedger ledger;
+        private final Map<Hash, Long> diff = new HashMap<>();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            Random random = new Random(42);
+            byte[] address = new byte[Hash.SIZE_IN_BYTES];
+
+            long usedBefore = usedHeap();
+            map = new HashMap<>();
+            for (int i = 0; i < addresses; i++) {
+                random.nextBytes(address);
+                map.put(HashFactory.ADDRESS.create(address), 1L + random.nextInt(1_000_000));
+            }
+            long mapBytes = usedHeap() - usedBefore;
+
+            usedBefore = usedHeap();
+            ledger = BalanceLedger.of(map, offHeap);
+            long ledgerHeapBytes = usedHeap() - usedBefore;
+
+            // a balanced diff that moves one token between pairs of funded addresses
+            long delta = 1;
+            for (Hash hash : map.keySet()) {
+                diff.put(hash, delta);
+                delta = -delta;
+                if (diff.size() == DIFF_SIZE) {
+                    break;
+                }
+            }
+
+            System.out.println(addresses + " addresses: map uses " + mapBytes + " bytes of heap, ledger uses "
+                    + ledgerHeapBytes + " bytes of heap and allocated " + ledger.getAllocatedBytes() + " bytes "
+                    + (offHeap ? "off heap" : "on heap"));
+        }
+
+        private static long usedHeap() {
+            System.gc();
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package net.helix.pendulum.benchmarks.snapshot;
+
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.service.snapshot.SnapshotState;
+import net.helix.pendulum.service.snapshot.impl.SnapshotStateFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Compares loading a snapshot state from the text format with mapping it from the binary format of
+ * {@link SnapshotStateFile}. Loading and checking the supply of the binary state reads every entry of the mapped file.
+ * The sizes of both files are printed when the files are set up.
+ */
+public class SnapshotFileBenchmark {
+
+    @Benchmark
+    public SnapshotState loadText(FileState state) throws Exception {
+        return SnapshotStateFile.read(state.textFile, false);
+    }
+
+    @Benchmark
+    public SnapshotState loadBinary(FileState state) throws Exception {
+        return SnapshotStateFile.read(state.binaryFile, false);
+    }
+
+    @Benchmark
+    public boolean loadBinaryAndCheckSupply(FileState state) throws Exception {
+        return SnapshotStateFile.read(state.binaryFile, false).hasCorrectSupply();
+    }
+
+    @State(Scope.Benchmark)
+    public static class FileState {
+
+        @Param({"1000000"})
+        private int addresses;
+
+        private Path textFile;
+        private Path binaryFile;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            Random random = new Random(42);
+            byte[] address = new byte[Hash.SIZE_IN_BYTES];
+
+            textFile = Files.createTempFile("snapshot", ".state.txt");
+            try (BufferedWriter writer = Files.newBufferedWriter(textFile)) {
+                for (int i = 0; i < addresses; i++) {
+                    random.nextBytes(address);
+                    writer.write(HashFactory.ADDRESS.create(address) + ";" + (1L + random.nextInt(1_000_000)));
+                    writer.newLine();
+                }
+            }
+
+            binaryFile = Files.createTempFile("snapshot", ".state");
+            try (BufferedReader reader = Files.newBufferedReader(textFile)) {
+                SnapshotStateFile.writeBinary(SnapshotStateFile.readText(reader, false), binaryFile);
+            }
+
+            System.out.println(addresses + " addresses: text file has " + Files.size(textFile)
+                    + " bytes, binary file has " + Files.size(binaryFile) + " bytes");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            Files.deleteIfExists(textFile);
+            Files.deleteIfExists(binaryFile);
+        }
+    }
+}
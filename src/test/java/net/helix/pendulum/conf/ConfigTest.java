@@ -19,6 +19,7 @@ import java.io.Writer;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -116,6 +117,30 @@ public class ConfigTest {
         Assert.assertEquals("The api interface should be open to the public", "0.0.0.0", pendulumConfig.getApiHost());
     }
 
+    @Test
+    public void dbColumnFamilyOptionsTest() {
+        String[] args = {"--db-column-family-options",
+                "transaction.write_buffer_size=33554432 address.compression=lz4, round.block_size=8192"};
+        PendulumConfig pendulumConfig = ConfigFactory.createPendulumConfig(false);
+        pendulumConfig.parseConfigFromArgs(args);
+        Map<String, ColumnFamilyProfile> profiles = pendulumConfig.getDbColumnFamilyProfiles();
+
+        Assert.assertEquals("transaction.write_buffer_size", 33554432L,
+                profiles.get("transaction").getWriteBufferSize());
+        Assert.assertFalse("transaction should keep the rest of its profile",
+                profiles.get("transaction").hasMergeOperator());
+        Assert.assertEquals("address.compression", "lz4", profiles.get("address").getCompression());
+        Assert.assertEquals("round should start from the default profile",
+                ColumnFamilyProfile.DEFAULT.with(ColumnFamilyProfile.BLOCK_SIZE, "8192"), profiles.get("round"));
+        Assert.assertEquals("approvee should not be changed", ColumnFamilyProfile.MERGE_INDEX,
+                profiles.get("approvee"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidDbColumnFamilyOptionTest() {
+        ColumnFamilyProfile.DEFAULT.with(ColumnFamilyProfile.COMPRESSION, "gzip");
+    }
+
     @Test
     public void argsParsingTestnetTest() {
         String[] args = {
@@ -4,6 +4,7 @@ import net.helix.pendulum.conf.MainnetConfig;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.IntegerIndex;
 import net.helix.pendulum.model.persistables.Round;
+import net.helix.pendulum.model.persistables.RoundConfirmations;
 import net.helix.pendulum.service.snapshot.SnapshotProvider;
 import net.helix.pendulum.service.snapshot.impl.SnapshotProviderImpl;
 import net.helix.pendulum.storage.Tangle;
@@ -225,6 +226,32 @@ public class RoundViewModelTest {
         Assert.assertThat(result.getHashes(), contains(roundVMs[n / 2].getHashes().toArray()));
     }
     
+    @Test
+    public void confirmedTransactionsTest() throws Exception {
+        int index = 2;
+        Hash transaction = getTransactionHash();
+        RoundViewModel rvm = new RoundViewModel(index, new HashSet<>());
+        rvm.store(tangle);
+        Assert.assertFalse("Round without milestones should not confirm transactions",
+                rvm.isTransactionConfirmed(tangle, 1, transaction));
+
+        RoundConfirmations roundConfirmations = new RoundConfirmations();
+        roundConfirmations.index = new IntegerIndex(index);
+        roundConfirmations.set.add(transaction);
+        tangle.save(roundConfirmations, roundConfirmations.index);
+        RoundViewModel.clear(index);
+        Assert.assertTrue("Persisted confirmations should be used",
+                rvm.isTransactionConfirmed(tangle, 1, transaction));
+
+        rvm.deleteConfirmedTransactions(tangle);
+        Assert.assertFalse("Deleted confirmations should not be used",
+                rvm.isTransactionConfirmed(tangle, 1, transaction));
+
+        rvm.storeConfirmedTransactions(tangle, 1);
+        Assert.assertThat("Stored confirmations should be empty without milestones",
+                rvm.getConfirmedTransactions(tangle, 1), hasSize(0));
+    }
+
 
     private static Round[] getRounds(int count, int indexStep) {
         Round[] rounds = new Round[count];
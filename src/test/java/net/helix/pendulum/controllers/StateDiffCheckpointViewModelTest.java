@@ -0,0 +1,63 @@
+package net.helix.pendulum.controllers;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.model.StateDiffCheckpoint;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static net.helix.pendulum.controllers.StateDiffCheckpointViewModel.INTERVAL;
+import static org.junit.Assert.*;
+
+public class StateDiffCheckpointViewModelTest {
+
+    @Test
+    public void blockTest() {
+        assertEquals("First round should start the first block", 1,
+                StateDiffCheckpointViewModel.firstRoundOfBlock(1));
+        assertEquals("First round should be in the first block", INTERVAL,
+                StateDiffCheckpointViewModel.lastRoundOfBlock(1));
+        assertEquals("Last round of a block should end it", INTERVAL,
+                StateDiffCheckpointViewModel.lastRoundOfBlock(INTERVAL));
+        assertEquals("Round after a block should start the next one", INTERVAL + 1,
+                StateDiffCheckpointViewModel.firstRoundOfBlock(INTERVAL + 1));
+        assertEquals("Round after a block should be in the next one", 2 * INTERVAL,
+                StateDiffCheckpointViewModel.lastRoundOfBlock(INTERVAL + 1));
+    }
+
+    @Test
+    public void lastAppliedRoundTest() {
+        StateDiffCheckpointViewModel checkpoint = new StateDiffCheckpointViewModel(new HashMap<>(),
+                Arrays.asList(2 * INTERVAL, 2 * INTERVAL - 1), INTERVAL + 1, 2 * INTERVAL);
+        assertEquals("Skipped rounds should not be applied", 2 * INTERVAL - 2, checkpoint.getLastAppliedRoundIndex());
+
+        checkpoint = new StateDiffCheckpointViewModel(new HashMap<>(), Arrays.asList(3, 2), 2, 3);
+        assertEquals("No round should be applied if all were skipped", -1, checkpoint.getLastAppliedRoundIndex());
+    }
+
+    @Test
+    public void serializationTest() {
+        Map<Hash, Long> state = new HashMap<>();
+        state.put(HashFactory.ADDRESS.create(TransactionTestUtils.getTransactionHash().bytes()), -42L);
+        state.put(HashFactory.ADDRESS.create(TransactionTestUtils.getTransactionHash().bytes()), 42L);
+
+        StateDiffCheckpoint checkpoint = new StateDiffCheckpoint();
+        checkpoint.firstRoundIndex = INTERVAL + 1;
+        checkpoint.skippedRounds = new int[]{INTERVAL + 5, INTERVAL + 7};
+        checkpoint.state = state;
+
+        StateDiffCheckpoint read = new StateDiffCheckpoint();
+        read.read(checkpoint.bytes());
+        assertEquals("First round should be read", INTERVAL + 1, read.firstRoundIndex);
+        assertArrayEquals("Skipped rounds should be read", checkpoint.skippedRounds, read.skippedRounds);
+        assertEquals("Balance changes should be read", state, read.state);
+
+        read = new StateDiffCheckpoint();
+        read.read(null);
+        assertNull("Missing checkpoint should have no balance changes", read.state);
+    }
+}
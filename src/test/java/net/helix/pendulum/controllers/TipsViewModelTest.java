@@ -73,6 +73,59 @@ public class TipsViewModelTest {
 
     }
 
+    @Test
+    public void randomTipFromRightSetTest() {
+        TipsViewModel tipsVM = new TipsViewModel();
+        Assert.assertNull("Empty tips should have no random tip", tipsVM.getRandomSolidTipHash());
+
+        Hash nonSolid = getTransactionHash();
+        tipsVM.addTipHash(nonSolid);
+        Assert.assertEquals("Non solid tip should be returned if there are no solid tips", nonSolid,
+                tipsVM.getRandomSolidTipHash());
+
+        Hash solid = getTransactionHash();
+        tipsVM.addTipHash(solid);
+        tipsVM.setSolid(solid);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("Only the solid tip should be sampled", solid, tipsVM.getRandomSolidTipHash());
+            Assert.assertEquals("Only the non solid tip should be sampled", nonSolid,
+                    tipsVM.getRandomNonSolidTipHash());
+        }
+    }
+
+    @Test
+    public void getTipsReflectsChangesTest() {
+        TipsViewModel tipsVM = new TipsViewModel();
+        Hash first = getTransactionHash();
+        Hash second = getTransactionHash();
+        tipsVM.addTipHash(first);
+        tipsVM.addTipHash(second);
+        tipsVM.setSolid(second);
+        Assert.assertEquals("Both tips should be returned", 2, tipsVM.getTips().size());
+
+        tipsVM.removeTipHash(second);
+        Assert.assertFalse("Removed tip should not be returned", tipsVM.getTips().contains(second));
+        Assert.assertTrue("Remaining tip should be returned", tipsVM.getTips().contains(first));
+    }
+
+    @Test
+    public void oldestTipEvictedTest() {
+        TipsViewModel tipsVM = new TipsViewModel();
+        Hash oldest = getTransactionHash();
+        Hash removed = getTransactionHash();
+        tipsVM.addTipHash(oldest);
+        tipsVM.addTipHash(removed);
+        tipsVM.removeTipHash(removed);
+        for (int i = 0; i < TipsViewModel.MAX_TIPS - 1; i++) {
+            tipsVM.addTipHash(getTransactionHash());
+        }
+        Assert.assertTrue("Oldest tip should stay while there is room", tipsVM.getTips().contains(oldest));
+
+        tipsVM.addTipHash(getTransactionHash());
+        Assert.assertFalse("Oldest tip should be evicted first", tipsVM.getTips().contains(oldest));
+        Assert.assertEquals(TipsViewModel.MAX_TIPS, tipsVM.nonSolidSize());
+    }
+
     @Test
     public void nonsolidCapacityLimitedTest() throws ExecutionException, InterruptedException {
         TipsViewModel tipsVM = new TipsViewModel();
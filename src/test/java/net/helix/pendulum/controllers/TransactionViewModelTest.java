@@ -17,6 +17,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.Random;
 import java.util.Set;
@@ -129,6 +130,26 @@ public class TransactionViewModelTest {
         }
     }
 
+    @Test
+    public void updateSolidTransactionsTest() throws Exception {
+        TransactionViewModel parent = new TransactionViewModel(
+                getTransactionBytesWithTrunkAndBranch(Hash.NULL_HASH, Hash.NULL_HASH), getTransactionHash());
+        parent.store(tangle, snapshotProvider.getInitialSnapshot());
+        TransactionViewModel child = new TransactionViewModel(
+                getTransactionBytesWithTrunkAndBranch(parent.getHash(), parent.getHash()), getTransactionHash());
+        child.store(tangle, snapshotProvider.getInitialSnapshot());
+
+        Set<Hash> analyzedHashes = new LinkedHashSet<>(Arrays.asList(child.getHash(), parent.getHash()));
+        TransactionViewModel.updateSolidTransactions(tangle, snapshotProvider.getInitialSnapshot(), analyzedHashes);
+
+        parent = TransactionViewModel.fromHash(tangle, parent.getHash());
+        child = TransactionViewModel.fromHash(tangle, child.getHash());
+        Assert.assertTrue("Parent should be solid", parent.isSolid());
+        Assert.assertTrue("Child should be solid", child.isSolid());
+        Assert.assertEquals("Parent height should be stored", 1, parent.getHeight());
+        Assert.assertEquals("Child height should not be overwritten by the solid update", 2, child.getHeight());
+    }
+
     //@Test
     public void getHash() throws Exception {
         // TODO implementation needed
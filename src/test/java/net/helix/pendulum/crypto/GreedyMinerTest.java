@@ -94,7 +94,29 @@ public class GreedyMinerTest {
         }
         Assert.assertFalse(result[0]);
     }
-    
 
-    
+    @Test
+    public void concurrentMineTest() throws Exception {
+        int difficulty = 1;
+        GreedyMiner miner = new GreedyMiner();
+        byte[][] txBytes = new byte[4][TransactionViewModel.SIZE];
+        boolean[] results = new boolean[txBytes.length];
+        Thread[] attachers = new Thread[txBytes.length];
+        for (int i = 0; i < txBytes.length; i++) {
+            RND.nextBytes(txBytes[i]);
+            int index = i;
+            attachers[i] = new Thread(() -> results[index] = miner.mine(txBytes[index], difficulty, 2));
+            attachers[i].start();
+        }
+        for (int i = 0; i < txBytes.length; i++) {
+            attachers[i].join();
+            Assert.assertTrue("Every concurrent mine should find a nonce", results[i]);
+            byte[] hash = new byte[Sha3.HASH_LENGTH];
+            Sha3 sha3 = new Sha3();
+            sha3.absorb(txBytes[i], 0, txBytes[i].length);
+            sha3.squeeze(hash, 0, Sha3.HASH_LENGTH);
+            Assert.assertEquals("Hash of the mined bytes should start with a zero byte", 0, hash[0]);
+        }
+        Assert.assertTrue("Hashed nonces should be counted", miner.getHashCount() >= txBytes.length);
+    }
 }
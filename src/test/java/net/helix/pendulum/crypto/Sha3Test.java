@@ -7,6 +7,9 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 
 public class Sha3Test {
 
@@ -100,5 +103,47 @@ public class Sha3Test {
         sha3.squeeze(testBytesOut, 0, Sha3.HASH_LENGTH);
         Assert.assertArrayEquals(testBytesOut, new byte[testBytesOut.length]);
     }
-    
+
+    @Test
+    public void sha3ByteBufferTest() {
+        byte[] testBytes = Hex.decode(txHex);
+        byte[] hash = new byte[Sha3.HASH_LENGTH];
+        Sponge sha3 = SpongeFactory.create(SpongeFactory.Mode.S256);
+        sha3.absorb(testBytes, Sha3.HASH_LENGTH, testBytes.length - Sha3.HASH_LENGTH);
+        sha3.squeeze(hash, 0, Sha3.HASH_LENGTH);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(testBytes.length);
+        direct.put(testBytes).position(Sha3.HASH_LENGTH);
+        for (ByteBuffer buffer : Arrays.asList(ByteBuffer.wrap(testBytes, Sha3.HASH_LENGTH,
+                testBytes.length - Sha3.HASH_LENGTH), direct)) {
+            byte[] bufferHash = new byte[Sha3.HASH_LENGTH];
+            sha3.reset();
+            sha3.absorb(buffer);
+            sha3.squeeze(bufferHash, 0, Sha3.HASH_LENGTH);
+            Assert.assertArrayEquals("Buffer should hash like the array slice", hash, bufferHash);
+            Assert.assertFalse("Buffer should be consumed", buffer.hasRemaining());
+        }
+
+        byte[] zerosOut = new byte[Sha3.HASH_LENGTH * 2];
+        Arrays.fill(zerosOut, (byte) 1);
+        sha3.reset();
+        sha3.absorb(ByteBuffer.allocateDirect(Sha3.HASH_LENGTH * 3));
+        sha3.squeeze(zerosOut, 0, Sha3.HASH_LENGTH);
+        Assert.assertArrayEquals("All zeros should squeeze zeros", new byte[zerosOut.length], zerosOut);
+    }
+
+    @Test
+    public void pooledSpongeTest() {
+        byte[] testBytes = txHex.getBytes();
+        byte[] hash = Hex.decode(hashHex);
+        byte[] testBytesOut = new byte[Sha3.HASH_LENGTH];
+
+        Sponge sha3 = SpongeFactory.get(SpongeFactory.Mode.S256);
+        sha3.absorb(testBytes, 0, testBytes.length);
+        Assert.assertSame("Thread should reuse its sponge", sha3, SpongeFactory.get(SpongeFactory.Mode.S256));
+        sha3.absorb(testBytes, 0, testBytes.length);
+        sha3.squeeze(testBytesOut, 0, Sha3.HASH_LENGTH);
+        Assert.assertArrayEquals("Pooled sponge should be reset", hash, testBytesOut);
+    }
+
 }
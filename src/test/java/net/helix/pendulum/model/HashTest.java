@@ -6,7 +6,9 @@ import org.bouncycastle.util.encoders.Hex;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import static net.helix.pendulum.TransactionTestUtils.getTransactionBytes;
 
@@ -34,6 +36,20 @@ public class HashTest {
         Assert.assertNotEquals(null, hash.bytes());
     }
 
+    @Test
+    public void calculateBatchTest() throws Exception {
+        List<byte[]> transactions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            transactions.add(getTransactionBytes());
+        }
+        List<TransactionHash> hashes = TransactionHash.calculate(SpongeFactory.Mode.S256, transactions);
+        Assert.assertEquals("Every transaction should be hashed", transactions.size(), hashes.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            Assert.assertEquals("Batch hash should equal the single hash",
+                    TransactionHash.calculate(SpongeFactory.Mode.S256, transactions.get(i)), hashes.get(i));
+        }
+    }
+
     @Test
     public void calculateAllZerosTest() throws Exception {
         Hash hash = TransactionHash.calculate(SpongeFactory.Mode.S256, new byte[TransactionViewModel.SIZE]);
@@ -1,41 +1,82 @@
-package net.helix.pendulum.model.persistables;
-
-import net.helix.pendulum.TransactionTestUtils;
-import net.helix.pendulum.model.Hash;
-import org.junit.Assert;
-import org.junit.Test;
-
-import java.nio.ByteBuffer;
-
-import static org.hamcrest.Matchers.hasItem;
-
-
-public class HashesTest {
-
-    @Test
-    public void writeAndReadTest() {
-        int hashCount = 5;
-        Hash[] hashes = new Hash[hashCount];
-        byte[] dataIN = new byte[Hash.SIZE_IN_BYTES * hashCount + hashCount - 1];
-        ByteBuffer b = ByteBuffer.wrap(dataIN);
-        for (int i = 0; i < hashCount; i++) {
-            if (i > 0) {
-                b.put(Hashes.delimiter);
-            }
-            hashes[i] = TransactionTestUtils.getTransactionHash();
-            b.put(hashes[i].bytes());
-        }
-        
-        Hashes h = new Hashes();
-        h.read(dataIN);
-
-        Assert.assertEquals(hashCount, h.set.size());
-        for (int i = 0; i < hashCount; i++) {
-            Assert.assertThat(h.set, hasItem(hashes[i]));
-        }
-
-        byte[] dataOUT = h.bytes();
-        Assert.assertArrayEquals(dataIN, dataOUT);
-    }
-
-}
+package net.helix.pendulum.model.persistables;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.model.Hash;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.hasItem;
+
+
+public class HashesTest {
+
+    @Test
+    public void writeAndReadTest() {
+        int hashCount = 5;
+        Hash[] hashes = new Hash[hashCount];
+        byte[] dataIN = new byte[Hash.SIZE_IN_BYTES * hashCount + hashCount - 1];
+        ByteBuffer b = ByteBuffer.wrap(dataIN);
+        for (int i = 0; i < hashCount; i++) {
+            if (i > 0) {
+                b.put(Hashes.delimiter);
+            }
+            hashes[i] = TransactionTestUtils.getTransactionHash();
+            b.put(hashes[i].bytes());
+        }
+        
+        Hashes h = new Hashes();
+        h.read(dataIN);
+
+        Assert.assertEquals(hashCount, h.set.size());
+        for (int i = 0; i < hashCount; i++) {
+            Assert.assertThat(h.set, hasItem(hashes[i]));
+        }
+
+        byte[] dataOUT = h.bytes();
+        Assert.assertArrayEquals(dataIN, dataOUT);
+    }
+
+    @Test
+    public void readWithoutDecodingTest() {
+        Hash hash = TransactionTestUtils.getTransactionHash();
+        Hash other = TransactionTestUtils.getTransactionHash();
+        Hashes h = new Hashes();
+        h.set.add(hash);
+        h.set.add(other);
+        byte[] data = h.bytes();
+
+        // a merged value can contain the same hash twice
+        byte[] merged = new byte[2 * data.length + 1];
+        System.arraycopy(data, 0, merged, 0, data.length);
+        merged[data.length] = Hashes.delimiter;
+        System.arraycopy(data, 0, merged, data.length + 1, data.length);
+
+        Hashes read = new Hashes();
+        read.read(merged);
+        Assert.assertFalse(read.set.isEmpty());
+        Assert.assertEquals(2, read.set.stream().collect(Collectors.toList()).size());
+        Assert.assertArrayEquals(merged, read.bytes());
+
+        Assert.assertEquals(2, read.set.size());
+        Assert.assertArrayEquals(merged, read.bytes());
+
+        Assert.assertTrue(read.set.contains(other));
+        Assert.assertEquals(2, read.set.size());
+        Assert.assertArrayEquals(data, read.bytes());
+    }
+
+    @Test
+    public void readEmptyTest() {
+        Hashes h = new Hashes();
+        h.read(new byte[0]);
+
+        Assert.assertTrue(h.set.isEmpty());
+        Assert.assertEquals(0, h.set.stream().count());
+        Assert.assertArrayEquals(new byte[0], h.bytes());
+        Assert.assertTrue(h.set.add(TransactionTestUtils.getTransactionHash()));
+        Assert.assertEquals(Hash.SIZE_IN_BYTES, h.bytes().length);
+    }
+}
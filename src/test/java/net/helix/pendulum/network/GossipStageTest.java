@@ -0,0 +1,65 @@
+package net.helix.pendulum.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class GossipStageTest {
+
+    @Test
+    public void dropWhenFullTest() {
+        GossipStage<Integer> stage = new GossipStage<>("test", 2, GossipStage.OverflowPolicy.DROP, item -> { });
+
+        Assert.assertTrue("first item should be queued", stage.offer(1));
+        Assert.assertTrue("second item should be queued", stage.offer(2));
+        Assert.assertFalse("third item should be dropped", stage.offer(3));
+
+        GossipStage.Metrics metrics = stage.metrics();
+        Assert.assertEquals("queue size is not as expected", 2, metrics.getQueueSize());
+        Assert.assertEquals("dropped items are not as expected", 1, metrics.getDropped());
+    }
+
+    @Test
+    public void blockWhenFullTest() throws Exception {
+        int items = 1000;
+        Set<Integer> handled = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(items);
+        GossipStage<Integer> stage = new GossipStage<>("test", 4, GossipStage.OverflowPolicy.BLOCK, item -> {
+            handled.add(item);
+            done.countDown();
+        });
+        stage.start(3);
+        try {
+            for (int i = 0; i < items; i++) {
+                Assert.assertTrue("item should be queued", stage.offer(i));
+            }
+            Assert.assertTrue("not all items were processed", done.await(10, TimeUnit.SECONDS));
+        } finally {
+            stage.shutdown();
+        }
+
+        Assert.assertEquals("handled items are not as expected", items, handled.size());
+        Assert.assertEquals("no item should be dropped", 0, stage.metrics().getDropped());
+    }
+
+    @Test
+    public void handlerExceptionTest() throws Exception {
+        CountDownLatch done = new CountDownLatch(2);
+        GossipStage<Integer> stage = new GossipStage<>("test", 4, GossipStage.OverflowPolicy.DROP, item -> {
+            done.countDown();
+            throw new IllegalStateException("test exception");
+        });
+        stage.start(1);
+        try {
+            stage.offer(1);
+            stage.offer(2);
+            Assert.assertTrue("worker should survive handler exceptions", done.await(10, TimeUnit.SECONDS));
+        } finally {
+            stage.shutdown();
+        }
+    }
+}
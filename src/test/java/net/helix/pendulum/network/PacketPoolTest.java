@@ -0,0 +1,39 @@
+package net.helix.pendulum.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PacketPoolTest {
+
+    @Test
+    public void reuseReleasedPacketTest() {
+        PacketPool pool = new PacketPool(16, 2);
+        byte[] packet = pool.acquire();
+        Assert.assertEquals("packet size is not as expected", 16, packet.length);
+
+        pool.release(packet);
+        Assert.assertSame("released packet should be reused", packet, pool.acquire());
+        Assert.assertNotSame("empty pool should allocate", packet, pool.acquire());
+    }
+
+    @Test
+    public void boundedCapacityTest() {
+        PacketPool pool = new PacketPool(16, 1);
+        byte[] first = new byte[16];
+        byte[] second = new byte[16];
+        pool.release(first);
+        pool.release(second);
+
+        Assert.assertSame("first packet should be pooled", first, pool.acquire());
+        Assert.assertNotSame("second packet should not be pooled", second, pool.acquire());
+    }
+
+    @Test
+    public void ignoreForeignSizeTest() {
+        PacketPool pool = new PacketPool(16, 2);
+        byte[] packet = new byte[8];
+        pool.release(packet);
+
+        Assert.assertEquals("only packets of the pool size should be pooled", 16, pool.acquire().length);
+    }
+}
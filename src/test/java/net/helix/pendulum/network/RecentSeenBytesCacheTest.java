@@ -0,0 +1,89 @@
+package net.helix.pendulum.network;
+
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+
+public class RecentSeenBytesCacheTest {
+
+    private static final Random random = new Random();
+
+    @Test
+    public void putAndGetTest() {
+        RecentSeenBytesCache cache = new RecentSeenBytesCache(1000, 0);
+        byte[] packet = randomPacket();
+        Hash hash = getTransactionHash();
+
+        RecentSeenBytesCache.Fingerprint fingerprint = cache.fingerprint(packet, TransactionViewModel.SIZE);
+        Assert.assertNull("packet should not be cached yet", cache.get(fingerprint));
+        cache.put(fingerprint, hash);
+
+        Assert.assertEquals("cached hash is not as expected", hash,
+                cache.get(cache.fingerprint(Arrays.copyOf(packet, packet.length), TransactionViewModel.SIZE)));
+        Assert.assertEquals("hits are not as expected", 1, cache.getHits());
+        Assert.assertEquals("misses are not as expected", 1, cache.getMisses());
+    }
+
+    @Test
+    public void fingerprintMatchesSipHashTestVectorsTest() {
+        RecentSeenBytesCache cache = new RecentSeenBytesCache(1000, 0, 0x0706050403020100L, 0x0f0e0d0c0b0a0908L);
+        byte[] message = new byte[63];
+        for (int i = 0; i < message.length; i++) {
+            message[i] = (byte) i;
+        }
+
+        Assert.assertEquals("fingerprint of the empty message is not as expected",
+                new RecentSeenBytesCache.Fingerprint(0xe6a825ba047f81a3L, 0x930255c71472f66dL),
+                cache.fingerprint(message, 0));
+        Assert.assertEquals("fingerprint of the 63 byte message is not as expected",
+                new RecentSeenBytesCache.Fingerprint(0x4a83502f77d15051L, 0x7cbd3f979a063e50L),
+                cache.fingerprint(message, 63));
+    }
+
+    @Test
+    public void fingerprintIgnoresRequestTest() {
+        RecentSeenBytesCache cache = new RecentSeenBytesCache(1000, 0);
+        byte[] packet = randomPacket();
+        byte[] otherRequest = Arrays.copyOf(packet, packet.length);
+        otherRequest[packet.length - 1]++;
+
+        Assert.assertEquals("only the transaction bytes should be fingerprinted",
+                cache.fingerprint(packet, TransactionViewModel.SIZE),
+                cache.fingerprint(otherRequest, TransactionViewModel.SIZE));
+    }
+
+    @Test
+    public void fingerprintDiffersForDifferentPayloadsTest() {
+        RecentSeenBytesCache cache = new RecentSeenBytesCache(1000, 0);
+        byte[] packet = randomPacket();
+        for (int i = 0; i < TransactionViewModel.SIZE; i += 97) {
+            byte[] modified = Arrays.copyOf(packet, packet.length);
+            modified[i] ^= 1;
+            Assert.assertNotEquals("fingerprint should change with byte " + i,
+                    cache.fingerprint(packet, TransactionViewModel.SIZE),
+                    cache.fingerprint(modified, TransactionViewModel.SIZE));
+        }
+    }
+
+    @Test
+    public void dropOnHitTest() {
+        RecentSeenBytesCache cache = new RecentSeenBytesCache(1000, 1);
+        RecentSeenBytesCache.Fingerprint fingerprint = cache.fingerprint(randomPacket(), TransactionViewModel.SIZE);
+        cache.put(fingerprint, getTransactionHash());
+
+        Assert.assertNull("entry should be dropped", cache.get(fingerprint));
+        Assert.assertNull("entry should be removed", cache.get(fingerprint));
+    }
+
+    private static byte[] randomPacket() {
+        byte[] packet = new byte[TransactionViewModel.SIZE + Hash.SIZE_IN_BYTES];
+        random.nextBytes(packet);
+        return packet;
+    }
+}
@@ -0,0 +1,252 @@
+package net.helix.pendulum.network.replicator;
+
+import net.helix.pendulum.network.GossipStage;
+import net.helix.pendulum.network.Neighbor;
+import net.helix.pendulum.network.Node;
+import net.helix.pendulum.network.PacketPool;
+import net.helix.pendulum.network.TCPNeighbor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ReplicatorTest {
+
+    private static final int PACKET_SIZE = 800;
+    private static final int TIMEOUT_MS = 5000;
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private Node node;
+
+    private ReplicatorEventLoop eventLoop;
+    private Thread eventLoopThread;
+    private GossipStage<Runnable> receiveStage;
+    private ReplicatorSinkPool sinkPool;
+    private ReplicatorSourcePool sourcePool;
+
+    private int replicatorPort;
+    // plays the tcp listener of the neighbor, the sink of the replicator connects to it
+    private ServerSocket neighborServer;
+    private TCPNeighbor neighbor;
+    private SocketChannel client;
+    private Socket sinkConnection;
+
+    @Before
+    public void setUp() throws IOException {
+        neighborServer = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+        neighborServer.setSoTimeout(TIMEOUT_MS);
+        neighbor = new TCPNeighbor(new InetSocketAddress("127.0.0.1", neighborServer.getLocalPort()), true);
+        List<Neighbor> neighbors = new CopyOnWriteArrayList<>();
+        neighbors.add(neighbor);
+        when(node.getNeighbors()).thenReturn(neighbors);
+        when(node.getPacketPool()).thenReturn(new PacketPool(PACKET_SIZE, 16));
+
+        try (ServerSocket socket = new ServerSocket(0)) {
+            replicatorPort = socket.getLocalPort();
+        }
+        eventLoop = new ReplicatorEventLoop();
+        receiveStage = new GossipStage<>("tcp-receive", 16, GossipStage.OverflowPolicy.DROP, Runnable::run);
+        sinkPool = new ReplicatorSinkPool(node, eventLoop, replicatorPort, PACKET_SIZE);
+        sourcePool = new ReplicatorSourcePool(sinkPool, eventLoop, receiveStage, node, 1, false);
+
+        receiveStage.start(1);
+        eventLoopThread = new Thread(eventLoop, "Replicator Event Loop");
+        eventLoopThread.start();
+        sourcePool.init(replicatorPort);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        sourcePool.shutdown();
+        sinkPool.shutdown = true;
+        eventLoop.shutdown();
+        eventLoopThread.join(TIMEOUT_MS);
+        receiveStage.shutdown();
+        if (client != null) {
+            client.close();
+        }
+        if (sinkConnection != null) {
+            sinkConnection.close();
+        }
+        neighborServer.close();
+    }
+
+    @Test
+    public void receivedPacketsArePassedToNodeTest() throws Exception {
+        byte[] first = packet(1);
+        byte[] second = packet(2);
+        CRC32 crc32 = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate(ReplicatorProtocol.BUFFER_SIZE);
+        ReplicatorProtocol.putHandshake(buffer, neighborServer.getLocalPort());
+        ReplicatorProtocol.putFrame(buffer, first, crc32);
+        // corrupted checksum
+        buffer.putShort((short) PACKET_SIZE);
+        buffer.put(packet(3));
+        buffer.putInt(ReplicatorProtocol.crc(packet(3), crc32) + 1);
+        ReplicatorProtocol.putFrame(buffer, second, crc32);
+        connectClient();
+        write(buffer);
+
+        verify(node, timeout(TIMEOUT_MS)).preProcessReceivedData(eq(first), any(SocketAddress.class), eq("tcp"));
+        verify(node, timeout(TIMEOUT_MS)).preProcessReceivedData(eq(second), any(SocketAddress.class), eq("tcp"));
+        verify(node, times(2)).preProcessReceivedData(any(byte[].class), any(SocketAddress.class), any());
+        assertEquals("tcp port should be taken from the handshake", neighborServer.getLocalPort(),
+                neighbor.getPort());
+    }
+
+    @Test
+    public void sinkSendsHandshakeAndFramesTest() throws Exception {
+        connectClientWithHandshake();
+        DataInputStream in = acceptSink();
+        waitFor("source should be connected", () -> neighbor.getSource() != null);
+
+        byte[] packet = packet(4);
+        neighbor.send(new DatagramPacket(packet, packet.length));
+        assertArrayEquals("sink should write the queued packet", packet, readFrame(in));
+    }
+
+    @Test
+    public void packetsStayQueuedUntilSourceIsConnectedTest() throws Exception {
+        sinkPool.createSink(neighbor);
+        DataInputStream in = acceptSink();
+
+        byte[] packet = packet(5);
+        neighbor.send(new DatagramPacket(packet, packet.length));
+        connectClientWithHandshake();
+
+        assertArrayEquals("packet queued before the source connected should be written", packet, readFrame(in));
+        assertFalse("queue should be drained", neighbor.hasQueuedMessages());
+    }
+
+    @Test
+    public void closingSourceClosesSinkTest() throws Exception {
+        connectClientWithHandshake();
+        DataInputStream in = acceptSink();
+        waitFor("source should be connected", () -> neighbor.getSource() != null);
+
+        client.close();
+
+        int read;
+        try {
+            read = in.read();
+        } catch (SocketTimeoutException e) {
+            throw e;
+        } catch (IOException e) {
+            // the sink closes with SO_LINGER 0, i.e. it resets the connection
+            read = -1;
+        }
+        assertEquals("sink should be closed", -1, read);
+        waitFor("source and sink should be removed", () -> neighbor.getSource() == null && neighbor.getSink() == null);
+    }
+
+    @Test
+    public void unsupportedVersionClosesConnectionTest() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(ReplicatorProtocol.HANDSHAKE_BYTES);
+        buffer.putShort((short) (ReplicatorProtocol.VERSION + 1));
+        buffer.putShort((short) neighborServer.getLocalPort());
+        connectClient();
+        write(buffer);
+
+        client.socket().setSoTimeout(TIMEOUT_MS);
+        int read;
+        try {
+            read = client.socket().getInputStream().read();
+        } catch (SocketTimeoutException e) {
+            throw e;
+        } catch (IOException e) {
+            // the source closes with SO_LINGER 0, i.e. it resets the connection
+            read = -1;
+        }
+        assertEquals("source should be closed", -1, read);
+        assertNull("source should be removed", neighbor.getSource());
+        assertNull("no sink should be opened", neighbor.getSink());
+        verify(node, never()).preProcessReceivedData(any(byte[].class), any(SocketAddress.class), any());
+    }
+
+    private void connectClient() throws Exception {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (true) {
+            try {
+                client = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), replicatorPort));
+                return;
+            } catch (IOException e) {
+                // server socket is opened by the event loop
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private void connectClientWithHandshake() throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(ReplicatorProtocol.HANDSHAKE_BYTES);
+        ReplicatorProtocol.putHandshake(buffer, neighborServer.getLocalPort());
+        connectClient();
+        write(buffer);
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+    }
+
+    private DataInputStream acceptSink() throws IOException {
+        sinkConnection = neighborServer.accept();
+        sinkConnection.setSoTimeout(TIMEOUT_MS);
+        DataInputStream in = new DataInputStream(sinkConnection.getInputStream());
+        assertEquals("wrong protocol version", ReplicatorProtocol.VERSION, in.readUnsignedShort());
+        assertEquals("wrong tcp port", replicatorPort, in.readUnsignedShort());
+        return in;
+    }
+
+    private static byte[] readFrame(DataInputStream in) throws IOException {
+        byte[] packet = new byte[in.readUnsignedShort()];
+        in.readFully(packet);
+        assertEquals("wrong checksum", ReplicatorProtocol.crc(packet, new CRC32()), in.readInt());
+        return packet;
+    }
+
+    private static byte[] packet(int seed) {
+        byte[] packet = new byte[PACKET_SIZE];
+        for (int i = 0; i < packet.length; i++) {
+            packet[i] = (byte) (seed + i);
+        }
+        return packet;
+    }
+
+    private static void waitFor(String message, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(message, System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+}
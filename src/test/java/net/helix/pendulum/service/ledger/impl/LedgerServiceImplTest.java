@@ -0,0 +1,265 @@
+package net.helix.pendulum.service.ledger.impl;
+
+import net.helix.pendulum.BundleValidator;
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.service.milestone.MilestoneService;
+import net.helix.pendulum.service.snapshot.Snapshot;
+import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.storage.rocksdb.RocksDBPersistenceProvider;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class LedgerServiceImplTest {
+
+    private static final int MILESTONE_INDEX = 10;
+
+    private static final Tangle tangle = new Tangle();
+    private static TemporaryFolder dbFolder = new TemporaryFolder();
+    private static TemporaryFolder logFolder = new TemporaryFolder();
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private SnapshotProvider snapshotProvider;
+
+    @Mock
+    private Snapshot initialSnapshot;
+
+    @Mock
+    private MilestoneService milestoneService;
+
+    private final Map<Hash, Integer> solidEntryPoints = new HashMap<>();
+    private final Set<Hash> confirmedTransactions = new HashSet<>();
+    private Hash entryPoint;
+    private LedgerServiceImpl ledgerService;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        dbFolder.create();
+        logFolder.create();
+        tangle.addPersistenceProvider(
+                new RocksDBPersistenceProvider(dbFolder.getRoot().getAbsolutePath(),
+                        logFolder.getRoot().getAbsolutePath(), 1000, Tangle.COLUMN_FAMILIES,
+                        Tangle.METADATA_COLUMN_FAMILY));
+        tangle.init();
+    }
+
+    @AfterClass
+    public static void shutdown() throws Exception {
+        tangle.shutdown();
+        dbFolder.delete();
+        logFolder.delete();
+    }
+
+    @Before
+    public void setUpLedgerService() {
+        entryPoint = TransactionTestUtils.getTransactionHash();
+        solidEntryPoints.put(entryPoint, 0);
+        when(snapshotProvider.getInitialSnapshot()).thenReturn(initialSnapshot);
+        when(initialSnapshot.getSolidEntryPoints()).thenReturn(solidEntryPoints);
+        when(initialSnapshot.hasSolidEntryPoint(any())).thenAnswer(
+                invocation -> solidEntryPoints.containsKey(invocation.<Hash>getArgument(0)));
+        when(milestoneService.isTransactionConfirmed(any(), anyInt())).thenAnswer(
+                invocation -> confirmedTransactions.contains(invocation.<TransactionViewModel>getArgument(0).getHash()));
+
+        ledgerService = new LedgerServiceImpl().init(tangle, snapshotProvider, null, milestoneService, null);
+    }
+
+    @Test
+    public void generateBalanceDiffMatchesSequentialTest() throws Exception {
+        Hash funds = address(1);
+        Hash change = address(2);
+        List<TransactionViewModel> funding = storeBundle(entryPoint, entryPoint, 1, funds, -100, change, 100);
+        List<TransactionViewModel> confirmed = storeBundle(entryPoint, entryPoint, 1, address(3), -7, address(4), 7);
+        confirmed.forEach(transaction -> confirmedTransactions.add(transaction.getHash()));
+
+        // enough tips to visit the first level in parallel
+        Set<Hash> tips = new HashSet<>();
+        for (int i = 0; i < 80; i++) {
+            tips.add(tail(storeBundle(tail(funding), entryPoint, 1, change, -1, address(100 + i), 1)));
+        }
+        tips.add(tail(storeBundle(tail(confirmed), tail(funding), 1, change, -3, address(5), 3)));
+
+        Set<Hash> visited = new HashSet<>();
+        Map<Hash, Long> diff = ledgerService.generateBalanceDiff(visited, tips, MILESTONE_INDEX);
+        Set<Hash> sequentiallyVisited = new HashSet<>();
+        Map<Hash, Long> sequentialDiff = generateBalanceDiffSequentially(sequentiallyVisited, tips, MILESTONE_INDEX);
+
+        assertEquals("diff should match the sequential diff", sequentialDiff, diff);
+        sequentiallyVisited.removeAll(solidEntryPoints.keySet());
+        assertEquals("visited transactions should match the sequential traversal", sequentiallyVisited, visited);
+        assertEquals("funds should be spent", Long.valueOf(-100), diff.get(funds));
+        assertEquals("change should be spent by the tips", Long.valueOf(100 - 80 - 3), diff.get(change));
+        assertEquals("tip output should be counted", Long.valueOf(1), diff.get(address(100)));
+        assertFalse("confirmed bundle should not be counted", diff.containsKey(address(3)));
+    }
+
+    @Test
+    public void solidEntryPointsAreNotCountedTest() throws Exception {
+        List<TransactionViewModel> bundle = storeBundle(entryPoint, entryPoint, 1, address(6), -5, address(7), 5);
+        Hash head = bundle.get(1).getHash();
+        solidEntryPoints.put(head, 0);
+        Set<Hash> tips = Collections.singleton(
+                tail(storeBundle(tail(bundle), tail(bundle), 1, address(7), -2, address(8), 2)));
+
+        Set<Hash> visited = new HashSet<>();
+        Map<Hash, Long> diff = ledgerService.generateBalanceDiff(visited, tips, MILESTONE_INDEX);
+
+        assertEquals("diff should match the sequential diff",
+                generateBalanceDiffSequentially(new HashSet<>(), tips, MILESTONE_INDEX), diff);
+        assertEquals("solid entry point should not be counted", Long.valueOf(-2), diff.get(address(7)));
+        assertEquals("tail should be counted", Long.valueOf(-5), diff.get(address(6)));
+        assertFalse("solid entry point should not be visited", visited.contains(head));
+    }
+
+    @Test
+    public void invalidBundleTest() throws Exception {
+        List<TransactionViewModel> invalid = storeBundle(entryPoint, entryPoint, -1, address(9), -5, address(10), 5);
+        Set<Hash> tips = Collections.singleton(
+                tail(storeBundle(tail(invalid), entryPoint, 1, address(10), -1, address(11), 1)));
+
+        assertNull("cone with an invalid bundle should be inconsistent",
+                ledgerService.generateBalanceDiff(new HashSet<>(), tips, MILESTONE_INDEX));
+        assertNull("sequential diff should be inconsistent too",
+                generateBalanceDiffSequentially(new HashSet<>(), tips, MILESTONE_INDEX));
+    }
+
+    @Test
+    public void inconsistentBundleTest() throws Exception {
+        // the values of the bundle don't sum up to 0
+        List<TransactionViewModel> inconsistent = storeBundle(entryPoint, entryPoint, 0, address(12), -5,
+                address(13), 6);
+        Set<Hash> tips = Collections.singleton(
+                tail(storeBundle(entryPoint, tail(inconsistent), 1, address(14), -1, address(15), 1)));
+
+        assertNull("cone with an inconsistent bundle should be inconsistent",
+                ledgerService.generateBalanceDiff(new HashSet<>(), tips, MILESTONE_INDEX));
+        assertNull("sequential diff should be inconsistent too",
+                generateBalanceDiffSequentially(new HashSet<>(), tips, MILESTONE_INDEX));
+        assertEquals("bundle should be invalidated", -1,
+                TransactionViewModel.fromHash(tangle, tail(inconsistent)).getValidity());
+    }
+
+    /**
+     * Stores a bundle of two transactions that moves a value from the input to the output. Both transactions approve
+     * the branch, the head approves the trunk. A validity of 1 marks the bundle as validated, so its signature is not
+     * checked.
+     *
+     * @return the tail and the head of the bundle
+     */
+    private List<TransactionViewModel> storeBundle(Hash trunk, Hash branch, int validity, Hash input, long inputValue,
+                                                   Hash output, long outputValue) throws Exception {
+        byte[] bundleHash = TransactionTestUtils.getTransactionHash().bytes();
+        TransactionViewModel head = storeTransaction(trunk, branch, bundleHash, 1, output, outputValue);
+        TransactionViewModel tail = storeTransaction(head.getHash(), branch, bundleHash, 0, input, inputValue);
+        tail.setValidity(tangle, initialSnapshot, validity);
+
+        return Arrays.asList(tail, head);
+    }
+
+    private TransactionViewModel storeTransaction(Hash trunk, Hash branch, byte[] bundleHash, int index, Hash address,
+                                                  long value) throws Exception {
+        byte[] bytes = TransactionTestUtils.getTransactionBytesWithTrunkAndBranch(trunk, branch);
+        System.arraycopy(address.bytes(), 0, bytes, TransactionViewModel.ADDRESS_OFFSET,
+                TransactionViewModel.ADDRESS_SIZE);
+        ByteBuffer.wrap(bytes).putLong(TransactionViewModel.VALUE_OFFSET, value);
+        TransactionTestUtils.setCurrentIndex(bytes, index);
+        TransactionTestUtils.setLastIndex(bytes, 1);
+        System.arraycopy(bundleHash, 0, bytes, TransactionViewModel.BUNDLE_OFFSET, TransactionViewModel.BUNDLE_SIZE);
+        TransactionViewModel transaction = new TransactionViewModel(bytes, TransactionTestUtils.getTransactionHash());
+        transaction.store(tangle, initialSnapshot);
+
+        return transaction;
+    }
+
+    private static Hash tail(List<TransactionViewModel> bundle) {
+        return bundle.get(0).getHash();
+    }
+
+    private static Hash address(int index) {
+        byte[] bytes = new byte[TransactionViewModel.ADDRESS_SIZE];
+        ByteBuffer.wrap(bytes).putInt(index);
+        return HashFactory.ADDRESS.create(bytes);
+    }
+
+    /**
+     * The original sequential implementation of {@link LedgerServiceImpl#generateBalanceDiff(Set, Set, int)}, which
+     * adds the solid entry points to the visited transactions.
+     */
+    private Map<Hash, Long> generateBalanceDiffSequentially(Set<Hash> visitedTransactions,
+                                                            Set<Hash> startTransactions, int milestoneIndex)
+            throws Exception {
+
+        Map<Hash, Long> state = new HashMap<>();
+        Set<Hash> countedTx = new HashSet<>();
+
+        initialSnapshot.getSolidEntryPoints().keySet().forEach(solidEntryPointHash -> {
+            visitedTransactions.add(solidEntryPointHash);
+            countedTx.add(solidEntryPointHash);
+        });
+
+        final Queue<Hash> nonAnalyzedTransactions = new LinkedList<>(startTransactions);
+        Hash transactionPointer;
+        while ((transactionPointer = nonAnalyzedTransactions.poll()) != null) {
+            if (visitedTransactions.add(transactionPointer)) {
+                final TransactionViewModel transactionViewModel = TransactionViewModel.fromHash(tangle,
+                        transactionPointer);
+                if (!milestoneService.isTransactionConfirmed(transactionViewModel, milestoneIndex)) {
+                    if (transactionViewModel.getType() == TransactionViewModel.PREFILLED_SLOT) {
+                        return null;
+                    }
+                    if (transactionViewModel.getCurrentIndex() == 0) {
+                        boolean validBundle = false;
+                        for (final List<TransactionViewModel> bundleTransactionViewModels : BundleValidator.validate(
+                                tangle, initialSnapshot, transactionViewModel.getHash())) {
+
+                            if (BundleValidator.isInconsistent(bundleTransactionViewModels)) {
+                                break;
+                            }
+                            if (bundleTransactionViewModels.get(0).getHash().equals(transactionViewModel.getHash())) {
+                                validBundle = true;
+                                for (final TransactionViewModel bundleTransactionViewModel : bundleTransactionViewModels) {
+                                    if (bundleTransactionViewModel.value() != 0
+                                            && countedTx.add(bundleTransactionViewModel.getHash())) {
+                                        state.merge(bundleTransactionViewModel.getAddressHash(),
+                                                bundleTransactionViewModel.value(), Math::addExact);
+                                    }
+                                }
+                                break;
+                            }
+                        }
+                        if (!validBundle) {
+                            return null;
+                        }
+                    }
+                    if (!visitedTransactions.contains(transactionViewModel.getTrunkTransactionHash())) {
+                        nonAnalyzedTransactions.offer(transactionViewModel.getTrunkTransactionHash());
+                    }
+                    if (!visitedTransactions.contains(transactionViewModel.getBranchTransactionHash())) {
+                        nonAnalyzedTransactions.offer(transactionViewModel.getBranchTransactionHash());
+                    }
+                }
+            }
+        }
+
+        return state;
+    }
+}
@@ -0,0 +1,220 @@
+package net.helix.pendulum.service.milestone.impl;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.conf.PendulumConfig;
+import net.helix.pendulum.controllers.RoundViewModel;
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.service.snapshot.Snapshot;
+import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.service.snapshot.SnapshotService;
+import net.helix.pendulum.service.snapshot.impl.SnapshotServiceImpl;
+import net.helix.pendulum.storage.Tangle;
+import net.helix.pendulum.storage.rocksdb.RocksDBPersistenceProvider;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class MilestoneServiceImplTest {
+
+    private static final int INITIAL_INDEX = 10;
+    private static final int TARGET_INDEX = 12;
+    private static final int LOCAL_SNAPSHOTS_DEPTH = 2;
+    private static final long TIMESTAMP = 1_600_000_000L;
+
+    private static final Tangle tangle = new Tangle();
+    private static TemporaryFolder dbFolder = new TemporaryFolder();
+    private static TemporaryFolder logFolder = new TemporaryFolder();
+
+    @Rule
+    public MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private SnapshotProvider snapshotProvider;
+
+    @Mock
+    private Snapshot initialSnapshot;
+
+    @Mock
+    private Snapshot latestSnapshot;
+
+    @Mock
+    private PendulumConfig config;
+
+    private final Map<Hash, Integer> solidEntryPoints = new HashMap<>();
+
+    // old solid entry points: referenced by a later round, approved by a pending transaction and without approvers
+    private Hash referencedEntryPoint;
+    private Hash pendingEntryPoint;
+    private Hash orphanedEntryPoint;
+
+    // transactions confirmed by the rounds 11 - 14, the tips are approved by the milestones of their round
+    private Hash a11;
+    private Hash t11;
+    private Hash a12;
+    private Hash b12;
+    private Hash t12;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        dbFolder.create();
+        logFolder.create();
+        tangle.addPersistenceProvider(
+                new RocksDBPersistenceProvider(dbFolder.getRoot().getAbsolutePath(),
+                        logFolder.getRoot().getAbsolutePath(), 1000, Tangle.COLUMN_FAMILIES,
+                        Tangle.METADATA_COLUMN_FAMILY));
+        tangle.init();
+    }
+
+    @AfterClass
+    public static void shutdown() throws Exception {
+        tangle.shutdown();
+        dbFolder.delete();
+        logFolder.delete();
+        RoundViewModel.clear();
+    }
+
+    @Before
+    public void setUpTangle() throws Exception {
+        RoundViewModel.clear();
+        when(config.getLocalSnapshotsEnabled()).thenReturn(true);
+        when(config.getLocalSnapshotsDepth()).thenReturn(LOCAL_SNAPSHOTS_DEPTH);
+        when(snapshotProvider.getInitialSnapshot()).thenReturn(initialSnapshot);
+        when(snapshotProvider.getLatestSnapshot()).thenReturn(latestSnapshot);
+        when(initialSnapshot.getIndex()).thenReturn(INITIAL_INDEX);
+        when(latestSnapshot.getIndex()).thenReturn(INITIAL_INDEX);
+        when(initialSnapshot.getSolidEntryPoints()).thenReturn(solidEntryPoints);
+        when(initialSnapshot.hasSolidEntryPoint(any())).thenAnswer(
+                invocation -> solidEntryPoints.containsKey(invocation.<Hash>getArgument(0)));
+
+        long confirmedArrivalTime = (TIMESTAMP - 60) * 1000L;
+        referencedEntryPoint = storeConfirmedTransaction(INITIAL_INDEX);
+        pendingEntryPoint = storeConfirmedTransaction(INITIAL_INDEX);
+        orphanedEntryPoint = storeConfirmedTransaction(INITIAL_INDEX);
+        solidEntryPoints.put(Hash.NULL_HASH, INITIAL_INDEX);
+        solidEntryPoints.put(referencedEntryPoint, INITIAL_INDEX);
+        solidEntryPoints.put(pendingEntryPoint, INITIAL_INDEX);
+        solidEntryPoints.put(orphanedEntryPoint, INITIAL_INDEX);
+
+        a11 = storeTransaction(referencedEntryPoint, referencedEntryPoint, confirmedArrivalTime);
+        t11 = storeTransaction(a11, a11, confirmedArrivalTime);
+        storeRound(11, t11);
+        a12 = storeTransaction(a11, referencedEntryPoint, confirmedArrivalTime);
+        b12 = storeTransaction(referencedEntryPoint, referencedEntryPoint, confirmedArrivalTime);
+        t12 = storeTransaction(a12, b12, confirmedArrivalTime);
+        storeRound(12, t12);
+        Hash t13 = storeTransaction(t12, a11, confirmedArrivalTime);
+        storeRound(13, t13);
+        Hash t14 = storeTransaction(t13, referencedEntryPoint, confirmedArrivalTime);
+        storeRound(14, t14);
+
+        // pending transactions that arrived after the confirmed tip of the target round, i.e. they are not orphaned
+        storeTransaction(b12, b12, (TIMESTAMP + 60) * 1000L);
+        storeTransaction(pendingEntryPoint, pendingEntryPoint, (TIMESTAMP + 60) * 1000L);
+        // orphaned pending transaction
+        storeTransaction(a12, a12, confirmedArrivalTime);
+    }
+
+    @Test
+    public void registerAppliedRoundTest() throws Exception {
+        SnapshotService snapshotService = mock(SnapshotService.class);
+        MilestoneServiceImpl milestoneService = new MilestoneServiceImpl().init(tangle, snapshotProvider,
+                snapshotService, null, config);
+
+        milestoneService.updateRoundIndexOfMilestoneTransactions(11);
+        milestoneService.updateRoundIndexOfMilestoneTransactions(12);
+
+        verify(snapshotService).registerAppliedRound(11, set(t11), set(t11, a11), set(referencedEntryPoint));
+        verify(snapshotService).registerAppliedRound(12, set(t12), set(t12, a12, b12), set(a11, referencedEntryPoint));
+        assertEquals("Transactions should be confirmed by the applied round", 12,
+                TransactionViewModel.fromHash(tangle, b12).snapshotIndex());
+
+        milestoneService.resetCorruptedRound(12);
+
+        verify(snapshotService).unregisterAppliedRounds(12);
+        assertEquals("Transactions of the reset round should not be confirmed", 0,
+                TransactionViewModel.fromHash(tangle, b12).snapshotIndex());
+    }
+
+    @Test
+    public void solidEntryPointsOfAppliedRoundsTest() throws Exception {
+        SnapshotServiceImpl snapshotService = new SnapshotServiceImpl().init(tangle, snapshotProvider, null, null,
+                config);
+        MilestoneServiceImpl milestoneService = new MilestoneServiceImpl().init(tangle, snapshotProvider,
+                snapshotService, null, config);
+        for (int index = 11; index <= 14; index++) {
+            milestoneService.updateRoundIndexOfMilestoneTransactions(index);
+        }
+
+        Map<Hash, Integer> expected = new HashMap<>();
+        expected.put(Hash.NULL_HASH, TARGET_INDEX);
+        expected.put(referencedEntryPoint, INITIAL_INDEX);
+        expected.put(pendingEntryPoint, INITIAL_INDEX);
+        expected.put(t11, TARGET_INDEX);
+        expected.put(a11, TARGET_INDEX);
+        expected.put(b12, TARGET_INDEX);
+        expected.put(t12, TARGET_INDEX);
+
+        RoundViewModel targetRound = RoundViewModel.get(tangle, TARGET_INDEX);
+        assertEquals("Solid entry points derived from the applied rounds are wrong", expected,
+                snapshotService.generateSolidEntryPoints(targetRound));
+
+        // a restarted node has no registered rounds and analyzes the tangle
+        SnapshotServiceImpl restartedSnapshotService = new SnapshotServiceImpl().init(tangle, snapshotProvider, null,
+                null, config);
+        assertEquals("Solid entry points of the full analysis should match the derived ones", expected,
+                restartedSnapshotService.generateSolidEntryPoints(targetRound));
+    }
+
+    private Hash storeConfirmedTransaction(int index) throws Exception {
+        Hash hash = storeTransaction(TransactionTestUtils.getTransactionHash(),
+                TransactionTestUtils.getTransactionHash(), 0);
+        TransactionViewModel.fromHash(tangle, hash).setSnapshot(tangle, initialSnapshot, index);
+
+        return hash;
+    }
+
+    private Hash storeTransaction(Hash trunk, Hash branch, long arrivalTime) throws Exception {
+        byte[] bytes = TransactionTestUtils.getTransactionBytesWithTrunkAndBranch(trunk, branch);
+        ByteBuffer.wrap(bytes).putLong(TransactionViewModel.TIMESTAMP_OFFSET, TIMESTAMP);
+        TransactionViewModel transaction = new TransactionViewModel(bytes, TransactionTestUtils.getTransactionHash());
+        transaction.setArrivalTime(arrivalTime);
+        transaction.store(tangle, initialSnapshot);
+
+        return transaction.getHash();
+    }
+
+    /**
+     * Stores a round with a single milestone whose signature holds the confirmed tips. With a security of 0 the tips
+     * are read from every milestone transaction with a current index above 0.
+     */
+    private void storeRound(int index, Hash... confirmedTips) throws Exception {
+        byte[] bytes = TransactionTestUtils.getTransactionBytesWithTrunkAndBranch(Hash.NULL_HASH, Hash.NULL_HASH);
+        Arrays.fill(bytes, TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_OFFSET,
+                TransactionViewModel.SIGNATURE_MESSAGE_FRAGMENT_SIZE, (byte) 0);
+        for (int i = 0; i < confirmedTips.length; i++) {
+            System.arraycopy(confirmedTips[i].bytes(), 0, bytes, i * Hash.SIZE_IN_BYTES, Hash.SIZE_IN_BYTES);
+        }
+        TransactionTestUtils.setCurrentIndex(bytes, 1);
+        TransactionTestUtils.setLastIndex(bytes, 1);
+        TransactionViewModel milestone = new TransactionViewModel(bytes, TransactionTestUtils.getTransactionHash());
+        milestone.store(tangle, initialSnapshot);
+        new RoundViewModel(index, new HashSet<>(Collections.singleton(milestone.getHash()))).store(tangle);
+    }
+
+    private static Set<Hash> set(Hash... hashes) {
+        return new HashSet<>(Arrays.asList(hashes));
+    }
+}
@@ -0,0 +1,91 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BalanceLedgerTest {
+
+    @Test
+    public void behavesLikeMapTest() {
+        for (boolean offHeap : new boolean[]{false, true}) {
+            BalanceLedger ledger = new BalanceLedger(0, offHeap);
+            Map<Hash, Long> expected = new HashMap<>();
+            List<Hash> addresses = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                addresses.add(TransactionTestUtils.getTransactionHash());
+            }
+
+            Random random = new Random(7);
+            for (int i = 0; i < 20000; i++) {
+                Hash address = addresses.get(random.nextInt(addresses.size()));
+                long delta = random.nextInt(100) - 50;
+                switch (random.nextInt(3)) {
+                    case 0:
+                        ledger.put(address, delta);
+                        expected.put(address, delta);
+                        break;
+                    case 1:
+                        assertEquals("Added balance should be returned", expected.merge(address, delta, Long::sum),
+                                (Long) ledger.add(address, delta));
+                        break;
+                    default:
+                        assertEquals("Removal should find the same addresses",
+                                expected.remove(address) != null, ledger.remove(address));
+                }
+            }
+
+            assertEquals("Ledger should hold the same addresses", expected.size(), ledger.size());
+            assertEquals("Ledger should hold the same balances", expected, ledger.toMap());
+            for (Hash address : addresses) {
+                assertEquals("Balance should be found after removals", expected.get(address), ledger.get(address));
+            }
+        }
+    }
+
+    @Test
+    public void copyOnWriteTest() {
+        BalanceLedger ledger = new BalanceLedger(0, true);
+        Hash a = TransactionTestUtils.getTransactionHash();
+        Hash b = TransactionTestUtils.getTransactionHash();
+        ledger.put(a, 10);
+
+        BalanceLedger copy = ledger.copy();
+        copy.add(a, 5);
+        copy.put(b, 7);
+        ledger.add(a, -3);
+
+        assertEquals("Original should not see changes of the copy", Long.valueOf(7), ledger.get(a));
+        assertNull("Original should not see addresses of the copy", ledger.get(b));
+        assertEquals("Copy should not see changes of the original", Long.valueOf(15), copy.get(a));
+        assertEquals("Copy should see its own addresses", Long.valueOf(7), copy.get(b));
+        assertTrue("Copy should stay off heap", copy.isOffHeap());
+
+        BalanceLedger copyOfCopy = copy.copy();
+        copyOfCopy.add(a, 1);
+        assertEquals("Copy of a copy should keep the balances of the copy", Long.valueOf(16), copyOfCopy.get(a));
+        assertEquals("Copy of a copy should keep the addresses of the copy", Long.valueOf(7), copyOfCopy.get(b));
+        assertEquals("Copy should not see changes of its copy", Long.valueOf(15), copy.get(a));
+    }
+
+    @Test
+    public void hashTypeTest() {
+        BalanceLedger ledger = new BalanceLedger(0, false);
+        Hash transaction = TransactionTestUtils.getTransactionHash();
+        Hash address = HashFactory.ADDRESS.create(transaction.bytes());
+        ledger.put(address, 10);
+
+        assertNull("Hashes of other types should not match", ledger.get(transaction));
+        assertEquals("Addresses should be returned with their type", address,
+                ledger.toMap().keySet().iterator().next());
+    }
+}
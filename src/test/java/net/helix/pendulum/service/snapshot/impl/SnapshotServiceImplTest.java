@@ -3,29 +3,38 @@ package net.helix.pendulum.service.snapshot.impl;
 import net.helix.pendulum.TangleMockUtils;
 import net.helix.pendulum.conf.PendulumConfig;
 import net.helix.pendulum.controllers.RoundViewModel;
+import net.helix.pendulum.controllers.StateDiffCheckpointViewModel;
 import net.helix.pendulum.controllers.TransactionViewModel;
 import net.helix.pendulum.model.Hash;
 import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.model.IntegerIndex;
+import net.helix.pendulum.model.StateDiff;
+import net.helix.pendulum.model.StateDiffCheckpoint;
 import net.helix.pendulum.model.persistables.Transaction;
 import net.helix.pendulum.service.snapshot.Snapshot;
 import net.helix.pendulum.service.snapshot.SnapshotException;
 import net.helix.pendulum.service.snapshot.SnapshotProvider;
+import net.helix.pendulum.storage.Persistable;
 import net.helix.pendulum.storage.Tangle;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.FixMethodOrder;
 import org.junit.Rule;
+import org.junit.Test;
 import org.junit.runners.MethodSorters;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 import static net.helix.pendulum.TransactionTestUtils.getTransaction;
 import static net.helix.pendulum.TransactionTestUtils.getTransactionHash;
+import static org.mockito.Mockito.*;
 
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
@@ -65,6 +74,10 @@ public class SnapshotServiceImplTest {
     private static final Hash ADDRESS_2 = getTransaction().address;
     private static final Hash ADDRESS_3 = getTransaction().address;
 
+    private static final long GENESIS_TIME = 1522146728000L;
+
+    private static final int ROUND_DURATION = 5000;
+
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     //region [BOILERPLATE] /////////////////////////////////////////////////////////////////////////////////////////////
@@ -85,6 +98,9 @@ public class SnapshotServiceImplTest {
     @Before
     public void setUp() {
         SnapshotMockUtils.mockSnapshotProvider(snapshotProvider);
+        TangleMockUtils.mockLoadBatch(tangle);
+        when(config.getGenesisTime()).thenReturn(GENESIS_TIME);
+        when(config.getRoundDuration()).thenReturn(ROUND_DURATION);
 
         RoundViewModel.clear();
     }
@@ -93,7 +109,7 @@ public class SnapshotServiceImplTest {
 
     //region [TEST: replayMilestones] //////////////////////////////////////////////////////////////////////////////////
 
-    //@Test
+    @Test
     public void replayMilestonesSingleTest() throws Exception {
         Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
 
@@ -111,8 +127,8 @@ public class SnapshotServiceImplTest {
         Assert.assertEquals("the snapshot should have the transaction hash of the last applied milestone",
                 MockedMilestone.A.transactionHash, latestSnapshot.getHash());
 
-        Assert.assertEquals("the snapshot should have the timestamp of the last applied milestone",
-                MockedMilestone.A.timestamp, latestSnapshot.getTimestamp());
+        Assert.assertEquals("the snapshot should have the start time of the last applied round",
+                roundStartTime(MockedMilestone.A.milestoneIndex), latestSnapshot.getTimestamp());
 
         Assert.assertEquals("the balance of the addresses should reflect the accumulated changes of the milestones",
                 TransactionViewModel.SUPPLY - 1337L - 1000L, (long) latestSnapshot.getBalance(Hash.NULL_HASH));
@@ -124,7 +140,7 @@ public class SnapshotServiceImplTest {
                 1000L, (long) latestSnapshot.getBalance(ADDRESS_2));
     }
 
-    //@Test
+    @Test
     public void replayMilestonesMultipleTest() throws Exception {
         Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
 
@@ -147,8 +163,8 @@ public class SnapshotServiceImplTest {
         Assert.assertEquals("the snapshot should have the transaction hash of the last applied milestone",
                 MockedMilestone.B.transactionHash, latestSnapshot.getHash());
 
-        Assert.assertEquals("the snapshot should have the timestamp of the last applied milestone",
-                MockedMilestone.B.timestamp, latestSnapshot.getTimestamp());
+        Assert.assertEquals("the snapshot should have the start time of the last applied round",
+                roundStartTime(MockedMilestone.B.milestoneIndex), latestSnapshot.getTimestamp());
 
         Assert.assertEquals("the balance of the addresses should reflect the accumulated changes of the milestones",
                 TransactionViewModel.SUPPLY - 1337L - 2000L - 234L, (long) latestSnapshot.getBalance(Hash.NULL_HASH));
@@ -163,7 +179,7 @@ public class SnapshotServiceImplTest {
                 234L, (long) latestSnapshot.getBalance(ADDRESS_3));
     }
 
-   // @Test
+    @Test
     public void replayMilestonesInconsistentTest() {
         Snapshot initialSnapshot = snapshotProvider.getInitialSnapshot();
         Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
@@ -190,6 +206,146 @@ public class SnapshotServiceImplTest {
         }
     }
 
+    @Test
+    public void replayMilestonesSkippedRoundsTest() throws Exception {
+        Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
+
+        MockedMilestone.A.mock(tangle, createBalanceMap(
+                Hash.NULL_HASH, -1337L,
+                ADDRESS_1,       1337L
+        ));
+
+        // the rounds after A don't exist
+        snapshotService.replayMilestones(latestSnapshot, MockedMilestone.B.milestoneIndex);
+
+        Assert.assertEquals("the snapshot should have the index of the last round that was not skipped",
+                MockedMilestone.A.milestoneIndex, latestSnapshot.getIndex());
+
+        Assert.assertEquals("the snapshot should have the transaction hash of the last applied milestone",
+                MockedMilestone.A.transactionHash, latestSnapshot.getHash());
+
+        Assert.assertEquals("the balance of the addresses should reflect the changes of the applied milestone",
+                1337L, (long) latestSnapshot.getBalance(ADDRESS_1));
+
+        for (int roundIndex = MockedMilestone.A.milestoneIndex + 1; roundIndex <= MockedMilestone.B.milestoneIndex;
+             roundIndex++) {
+            Assert.assertTrue("the missing rounds should be skipped", latestSnapshot.removeSkippedMilestone(roundIndex));
+        }
+    }
+
+    @Test
+    public void replayMilestonesStoredCheckpointTest() throws Exception {
+        Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
+        int lastRoundOfBlock = StateDiffCheckpointViewModel.lastRoundOfBlock(MockedMilestone.A.milestoneIndex);
+
+        // the whole block is replayed from its checkpoint, its last round doesn't exist
+        StateDiffCheckpoint checkpoint = new StateDiffCheckpoint();
+        checkpoint.firstRoundIndex = StateDiffCheckpointViewModel.firstRoundOfBlock(lastRoundOfBlock);
+        checkpoint.skippedRounds = new int[]{lastRoundOfBlock};
+        checkpoint.state = createBalanceMap(
+                Hash.NULL_HASH, -500L,
+                ADDRESS_1,       500L
+        );
+        when(tangle.load(StateDiffCheckpoint.class, new IntegerIndex(lastRoundOfBlock))).thenReturn(checkpoint);
+        Hash lastAppliedRoundHash = getTransactionHash();
+        TangleMockUtils.mockRound(tangle, lastRoundOfBlock - 1, lastAppliedRoundHash);
+
+        snapshotService.replayMilestones(latestSnapshot, lastRoundOfBlock);
+
+        verify(tangle, never()).loadBatch(eq(StateDiff.class), anyList());
+        verify(tangle, never()).save(any(StateDiffCheckpoint.class), any());
+
+        Assert.assertEquals("the snapshot should have the index of the last applied round of the checkpoint",
+                lastRoundOfBlock - 1, latestSnapshot.getIndex());
+
+        Assert.assertEquals("the snapshot should have the hash of the last applied round of the checkpoint",
+                lastAppliedRoundHash, latestSnapshot.getHash());
+
+        Assert.assertEquals("the balance of the addresses should reflect the changes of the checkpoint",
+                500L, (long) latestSnapshot.getBalance(ADDRESS_1));
+
+        Assert.assertTrue("the skipped rounds of the checkpoint should be skipped",
+                latestSnapshot.removeSkippedMilestone(lastRoundOfBlock));
+    }
+
+    @Test
+    public void replayMilestonesPartialBlocksTest() throws Exception {
+        Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
+        int lastRoundOfBlock = StateDiffCheckpointViewModel.lastRoundOfBlock(MockedMilestone.A.milestoneIndex);
+        Hash roundHash = getTransactionHash();
+        int roundIndex = lastRoundOfBlock + 5;
+
+        MockedMilestone.A.mock(tangle, createBalanceMap(
+                Hash.NULL_HASH, -100L,
+                ADDRESS_1,       100L
+        ));
+        MockedMilestone.B.mock(tangle, createBalanceMap(
+                Hash.NULL_HASH, -200L,
+                ADDRESS_2,       200L
+        ));
+        TangleMockUtils.mockRound(tangle, roundIndex, roundHash);
+        TangleMockUtils.mockStateDiff(tangle, roundHash, createBalanceMap(
+                Hash.NULL_HASH, -300L,
+                ADDRESS_3,       300L
+        ), roundIndex);
+
+        // the end of the first replay and the start of the second one are in the middle of the block
+        snapshotService.replayMilestones(latestSnapshot, MockedMilestone.A.milestoneIndex);
+        verify(tangle, never()).save(any(StateDiffCheckpoint.class), any());
+
+        // the second replay completes the block, its checkpoint contains the rounds of both replays
+        snapshotService.replayMilestones(latestSnapshot, roundIndex);
+
+        ArgumentCaptor<Persistable> storedCheckpoint = ArgumentCaptor.forClass(Persistable.class);
+        verify(tangle).save(storedCheckpoint.capture(), eq(new IntegerIndex(lastRoundOfBlock)));
+        verify(tangle, times(1)).save(any(StateDiffCheckpoint.class), any());
+        Assert.assertEquals("the checkpoint should start with the first round of the block",
+                StateDiffCheckpointViewModel.firstRoundOfBlock(lastRoundOfBlock),
+                ((StateDiffCheckpoint) storedCheckpoint.getValue()).firstRoundIndex);
+        Assert.assertEquals("the checkpoint should contain the changes of all rounds of the block",
+                createBalanceMap(
+                        Hash.NULL_HASH, -300L,
+                        ADDRESS_1,       100L,
+                        ADDRESS_2,       200L
+                ), ((StateDiffCheckpoint) storedCheckpoint.getValue()).state);
+
+        Assert.assertEquals("the snapshot should have the milestone index of the last applied round",
+                roundIndex, latestSnapshot.getIndex());
+
+        Assert.assertEquals("the snapshot should have the transaction hash of the last applied round",
+                roundHash, latestSnapshot.getHash());
+
+        Assert.assertEquals("the balance of the addresses should reflect the accumulated changes of the rounds",
+                TransactionViewModel.SUPPLY - 600L, (long) latestSnapshot.getBalance(Hash.NULL_HASH));
+
+        Assert.assertEquals("the balance of the addresses should reflect the accumulated changes of the rounds",
+                300L, (long) latestSnapshot.getBalance(ADDRESS_3));
+    }
+
+    @Test
+    public void replayMilestonesBlockBelowInitialIndexTest() throws Exception {
+        // the block of the replayed rounds reaches down to the initial snapshot, its checkpoint can't be stored
+        SnapshotMockUtils.mockSnapshotProvider(snapshotProvider, MockedMilestone.A.milestoneIndex);
+        Snapshot latestSnapshot = snapshotProvider.getLatestSnapshot();
+        int lastRoundOfBlock = StateDiffCheckpointViewModel.lastRoundOfBlock(MockedMilestone.B.milestoneIndex);
+
+        MockedMilestone.B.mock(tangle, createBalanceMap(
+                Hash.NULL_HASH, -234L,
+                ADDRESS_3,       234L
+        ));
+
+        snapshotService.replayMilestones(latestSnapshot, lastRoundOfBlock);
+
+        verify(tangle, times(1)).loadBatch(eq(StateDiff.class), anyList());
+        verify(tangle, never()).save(any(StateDiffCheckpoint.class), any());
+
+        Assert.assertEquals("the snapshot should have the milestone index of the last applied milestone",
+                MockedMilestone.B.milestoneIndex, latestSnapshot.getIndex());
+
+        Assert.assertEquals("the balance of the addresses should reflect the changes of the milestone",
+                234L, (long) latestSnapshot.getBalance(ADDRESS_3));
+    }
+
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
 
     //region [TEST: rollbackMilestones] ////////////////////////////////////////////////////////////////////////////////
@@ -263,8 +419,57 @@ public class SnapshotServiceImplTest {
 
     //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
 
+    //region [TEST: generateSolidEntryPoints] //////////////////////////////////////////////////////////////////////////
+
+    @Test
+    public void generateSolidEntryPointsFromAppliedRoundsTest() throws Exception {
+        when(config.getLocalSnapshotsEnabled()).thenReturn(true);
+        when(config.getLocalSnapshotsDepth()).thenReturn(1);
+        Hash confirmedTip = getTransactionHash();
+        RoundViewModel targetRound = mockTargetRound(70001);
+
+        snapshotService.registerAppliedRound(70001, Collections.singleton(confirmedTip),
+                Collections.singleton(confirmedTip), Collections.emptySet());
+        snapshotService.registerAppliedRound(70002, Collections.emptySet(), Collections.emptySet(),
+                Collections.emptySet());
+        Map<Hash, Integer> solidEntryPoints = snapshotService.generateSolidEntryPoints(targetRound);
+
+        Assert.assertEquals("the confirmed tip of the target round should be a solid entry point", 70001,
+                (int) solidEntryPoints.get(confirmedTip));
+        verify(targetRound, never()).getConfirmedTips(any(), anyInt());
+    }
+
+    @Test
+    public void generateSolidEntryPointsWithoutLocalSnapshotsTest() throws Exception {
+        when(config.getLocalSnapshotsEnabled()).thenReturn(false);
+        Hash confirmedTip = getTransactionHash();
+        RoundViewModel targetRound = mockTargetRound(70001);
+
+        snapshotService.registerAppliedRound(70001, Collections.singleton(confirmedTip),
+                Collections.singleton(confirmedTip), Collections.emptySet());
+        Map<Hash, Integer> solidEntryPoints = snapshotService.generateSolidEntryPoints(targetRound);
+
+        Assert.assertFalse("rounds should not be registered if local snapshots are disabled",
+                solidEntryPoints.containsKey(confirmedTip));
+        verify(targetRound).getConfirmedTips(any(), anyInt());
+    }
+
+    //endregion ////////////////////////////////////////////////////////////////////////////////////////////////////////
+
     //region [UTILITY METHODS] /////////////////////////////////////////////////////////////////////////////////////////
 
+    private static long roundStartTime(int roundIndex) {
+        return GENESIS_TIME + roundIndex * ROUND_DURATION;
+    }
+
+    private static RoundViewModel mockTargetRound(int index) throws Exception {
+        RoundViewModel round = mock(RoundViewModel.class);
+        when(round.index()).thenReturn(index);
+        when(round.getConfirmedTips(any(), anyInt())).thenReturn(Collections.emptySet());
+
+        return round;
+    }
+
     private static <KEY, VALUE> Map<KEY, VALUE> createBalanceMap(Object... mapEntries) {
         Map<KEY, VALUE> result = new HashMap<>();
 
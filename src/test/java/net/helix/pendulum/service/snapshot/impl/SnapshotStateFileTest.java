@@ -0,0 +1,107 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.controllers.TransactionViewModel;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.HashFactory;
+import net.helix.pendulum.service.snapshot.SnapshotException;
+import net.helix.pendulum.service.snapshot.SnapshotState;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SnapshotStateFileTest {
+
+    private static final Hash A = address();
+    private static final Hash B = address();
+    private static final Hash C = address();
+
+    private static final Map<Hash, Long> map = new HashMap<>();
+    static {
+        map.put(A, TransactionViewModel.SUPPLY - 10);
+        map.put(B, 10L);
+    }
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void binaryRoundTripTest() throws Exception {
+        Path path = folder.newFile().toPath();
+        SnapshotStateFile.writeBinary(new SnapshotStateImpl(map), path);
+
+        assertTrue("File should be in the binary format", SnapshotStateFile.isBinary(path));
+        SnapshotState state = SnapshotStateFile.read(path, false);
+        assertEquals("State should have the balances that were written", map, state.getBalances());
+        assertEquals("State should equal the written state", new SnapshotStateImpl(map), state);
+        assertEquals("Balance should be read from the file", 10L, (long) state.getBalance(B));
+        assertNull("Unknown address should return null", state.getBalance(C));
+        assertNull("Hash of another type should return null",
+                state.getBalance(HashFactory.TRANSACTION.create(B.bytes())));
+        assertTrue("State should have the correct supply", state.hasCorrectSupply());
+        assertTrue("State should be consistent", state.isConsistent());
+    }
+
+    @Test
+    public void readBinaryWithoutMappingTest() throws Exception {
+        Path path = folder.newFile().toPath();
+        SnapshotStateFile.writeBinary(new SnapshotStateImpl(map), path);
+
+        SnapshotState state = new SnapshotStateImpl(SnapshotStateFile.readBinary(path, false), false);
+        Files.move(path, folder.getRoot().toPath().resolve("moved"));
+
+        assertEquals("State should have the balances that were written", map, state.getBalances());
+        assertEquals("Balance should be read from the copy", 10L, (long) state.getBalance(B));
+    }
+
+    @Test
+    public void textRoundTripTest() throws Exception {
+        Path path = folder.newFile().toPath();
+        SnapshotStateFile.writeText(new SnapshotStateImpl(map), path);
+
+        assertFalse("File should be in the text format", SnapshotStateFile.isBinary(path));
+        assertEquals("State should have the balances that were written", map,
+                SnapshotStateFile.read(path, false).getBalances());
+    }
+
+    @Test
+    public void applyStateDiffTest() throws Exception {
+        Path path = folder.newFile().toPath();
+        SnapshotStateFile.writeBinary(new SnapshotStateImpl(map), path);
+        SnapshotState state = SnapshotStateFile.read(path, false);
+        SnapshotState clone = new SnapshotStateImpl(state);
+
+        Map<Hash, Long> diff = new HashMap<>();
+        diff.put(A, -5L);
+        diff.put(C, 5L);
+        state.applyStateDiff(new SnapshotStateDiffImpl(diff));
+
+        assertEquals("Changed balance should be applied", TransactionViewModel.SUPPLY - 15, (long) state.getBalance(A));
+        assertEquals("New balance should be applied", 5L, (long) state.getBalance(C));
+        assertEquals("Clone should keep the balances of the file", map, clone.getBalances());
+        assertEquals("File should not be changed", map, SnapshotStateFile.read(path, false).getBalances());
+    }
+
+    @Test(expected = SnapshotException.class)
+    public void corruptedFileTest() throws Exception {
+        Path path = folder.newFile().toPath();
+        SnapshotStateFile.writeBinary(new SnapshotStateImpl(map), path);
+
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 9] ^= 1;
+        Files.write(path, bytes);
+
+        SnapshotStateFile.read(path, false);
+    }
+
+    private static Hash address() {
+        return HashFactory.ADDRESS.create(TransactionTestUtils.getTransactionHash().bytes());
+    }
+}
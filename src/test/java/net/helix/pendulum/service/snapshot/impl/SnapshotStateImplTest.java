@@ -134,4 +134,24 @@ public class SnapshotStateImplTest {
         assertEquals("5 should have been removed from A", 5, balance);
     }
 
+    @Test
+    public void isConsistentWithTest() {
+        Map<Hash, Long> changes = new HashMap<>();
+        changes.put(Hash.NULL_HASH, 10L);
+        changes.put(A, -10L);
+        SnapshotStateDiff diff = new SnapshotStateDiffImpl(changes);
+        assertTrue("Spending the whole balance should be consistent", balanceState.isConsistentWith(diff));
+        assertEquals("Check should agree with the patched state", balanceState.patchedState(diff).isConsistent(),
+                balanceState.isConsistentWith(diff));
+        assertFalse("Spending from an empty state should not be consistent", state.isConsistentWith(diff));
+
+        changes.put(A, -11L);
+        changes.put(B, 1L);
+        diff = new SnapshotStateDiffImpl(changes);
+        assertFalse("Overspending should not be consistent", balanceState.isConsistentWith(diff));
+        assertEquals("Check should agree with the patched state", balanceState.patchedState(diff).isConsistent(),
+                balanceState.isConsistentWith(diff));
+        assertEquals("Check should not modify the state", map, balanceState.getBalances());
+    }
+
 }
@@ -0,0 +1,100 @@
+package net.helix.pendulum.service.snapshot.impl;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.model.Hash;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import static org.junit.Assert.*;
+
+public class SolidEntryPointCandidatesTest {
+
+    private static final int SHELL = 10;
+    private static final int LIFETIME = 100;
+
+    private static final Hash OLD = TransactionTestUtils.getTransactionHash();
+    private static final Hash EXPIRED = TransactionTestUtils.getTransactionHash();
+    private static final Hash NEW = TransactionTestUtils.getTransactionHash();
+    private static final Hash UNREFERENCED = TransactionTestUtils.getTransactionHash();
+    private static final Hash TIP = TransactionTestUtils.getTransactionHash();
+    private static final Hash PENDING = TransactionTestUtils.getTransactionHash();
+    private static final Hash PENDING_NEW = TransactionTestUtils.getTransactionHash();
+    private static final Hash ORPHANED = TransactionTestUtils.getTransactionHash();
+
+    private SolidEntryPointCandidates candidates;
+
+    @Before
+    public void setUp() {
+        candidates = new SolidEntryPointCandidates();
+    }
+
+    @Test
+    public void coverageTest() {
+        assertFalse("Candidates without rounds should not cover anything", candidates.covers(Integer.MAX_VALUE - 1));
+
+        candidates.addRound(5, set(), set(), set());
+        candidates.addRound(6, set(), set(), set());
+        assertTrue("First registered round should be covered", candidates.covers(5));
+        assertFalse("Rounds before the first registered round should not be covered", candidates.covers(4));
+
+        candidates.removeRoundsUntil(5);
+        assertFalse("Removed round should not be covered", candidates.covers(5));
+        assertTrue("Round after the removed rounds should be covered", candidates.covers(6));
+
+        candidates.removeRoundsFrom(7);
+        assertTrue("Reset of a later round should keep the coverage", candidates.covers(6));
+
+        candidates.removeRoundsFrom(6);
+        assertFalse("Reset of the first round should remove the coverage", candidates.covers(6));
+    }
+
+    @Test
+    public void getSolidEntryPointsTest() {
+        Map<Hash, Integer> oldSolidEntryPoints = new HashMap<>();
+        oldSolidEntryPoints.put(Hash.NULL_HASH, 100);
+        oldSolidEntryPoints.put(OLD, 90);
+        oldSolidEntryPoints.put(EXPIRED, 5);
+        oldSolidEntryPoints.put(UNREFERENCED, 95);
+        oldSolidEntryPoints.put(PENDING, 95);
+
+        candidates.addRound(110, set(TIP), set(TIP, NEW, PENDING_NEW, ORPHANED), set());
+        candidates.addRound(120, set(), set(), set(OLD, EXPIRED, NEW));
+        candidates.addRound(130, set(), set(), set());
+
+        Set<Hash> checkedTransactions = new HashSet<>();
+        Predicate<Hash> hasPendingApprovers = transactionHash -> checkedTransactions.add(transactionHash)
+                && (PENDING.equals(transactionHash) || PENDING_NEW.equals(transactionHash));
+
+        Map<Hash, Integer> solidEntryPoints = candidates.getSolidEntryPoints(115, 100, oldSolidEntryPoints, SHELL,
+                LIFETIME, hasPendingApprovers);
+
+        Map<Hash, Integer> expected = new HashMap<>();
+        expected.put(Hash.NULL_HASH, 115);
+        expected.put(OLD, 90);
+        expected.put(PENDING, 95);
+        expected.put(TIP, 115);
+        expected.put(NEW, 115);
+        expected.put(PENDING_NEW, 115);
+        assertEquals("Referenced candidates, candidates with pending approvers and tips of the shell should be solid "
+                + "entry points", expected, solidEntryPoints);
+        assertEquals("Only candidates that are not referenced by a later round should be checked",
+                set(UNREFERENCED, PENDING, PENDING_NEW, ORPHANED), checkedTransactions);
+
+        solidEntryPoints = candidates.getSolidEntryPoints(108, 100, oldSolidEntryPoints, SHELL, LIFETIME,
+                hasPendingApprovers);
+        assertEquals("Referenced old entry point should keep its index", 90, (int) solidEntryPoints.get(OLD));
+        assertFalse("Transactions confirmed after the snapshot should not be solid entry points",
+                solidEntryPoints.containsKey(NEW) || solidEntryPoints.containsKey(TIP));
+    }
+
+    private static Set<Hash> set(Hash... transactions) {
+        return new HashSet<>(Arrays.asList(transactions));
+    }
+}
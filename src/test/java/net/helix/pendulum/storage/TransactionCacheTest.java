@@ -0,0 +1,60 @@
+package net.helix.pendulum.storage;
+
+import net.helix.pendulum.TransactionTestUtils;
+import net.helix.pendulum.model.Hash;
+import net.helix.pendulum.model.persistables.Transaction;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TransactionCacheTest {
+
+    @Test
+    public void getReturnsCopyTest() {
+        TransactionCache cache = new TransactionCache(64);
+        Hash hash = TransactionTestUtils.getTransactionHash();
+        Transaction transaction = transaction();
+        cache.putIfUnchanged(hash, transaction, cache.stamp(hash));
+        transaction.solid = true;
+
+        Transaction cached = cache.get(hash);
+        Assert.assertNotNull("Transaction should be cached", cached);
+        Assert.assertFalse("Cache should not see changes of the stored model", cached.solid);
+        cached.solid = true;
+        Assert.assertFalse("Cache should not see changes of a returned model", cache.get(hash).solid);
+        Assert.assertEquals("Both lookups should be hits", 2, cache.getHits());
+    }
+
+    @Test
+    public void invalidateRejectsStaleLoadTest() {
+        TransactionCache cache = new TransactionCache(64);
+        Hash hash = TransactionTestUtils.getTransactionHash();
+        long stamp = cache.stamp(hash);
+        cache.invalidate(hash);
+        cache.putIfUnchanged(hash, transaction(), stamp);
+
+        Assert.assertNull("Transaction loaded before a write should not be cached", cache.get(hash));
+        Assert.assertEquals("Lookup should be a miss", 1, cache.getMisses());
+
+        cache.putIfUnchanged(hash, transaction(), cache.stamp(hash));
+        Assert.assertNotNull("Transaction loaded after the write should be cached", cache.get(hash));
+    }
+
+    @Test
+    public void evictionTest() {
+        TransactionCache cache = new TransactionCache(16);
+        for (int i = 0; i < 1000; i++) {
+            Hash hash = TransactionTestUtils.getTransactionHash();
+            cache.putIfUnchanged(hash, transaction(), cache.stamp(hash));
+        }
+        Assert.assertTrue("Cache should not grow beyond its capacity", cache.size() <= 16);
+        Assert.assertEquals("Every transaction beyond the capacity should be evicted", 1000 - cache.size(),
+                cache.getEvictions());
+    }
+
+    private static Transaction transaction() {
+        Transaction transaction = new Transaction();
+        transaction.read(TransactionTestUtils.getTransactionBytes());
+        transaction.parsed = true;
+        return transaction;
+    }
+}
@@ -9,8 +9,13 @@ import net.helix.pendulum.utils.Pair;
 import org.junit.*;
 import org.junit.rules.TemporaryFolder;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -77,4 +82,43 @@ public class RocksDBPersistenceProviderTest {
         }
     }
 
+    @Test
+    public void concurrentStoreTransactionTest() throws Exception {
+        int threads = 8;
+        int storesPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * storesPerThread;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + storesPerThread; i++) {
+                        rocksDBPersistenceProvider.storeTransaction(Collections.singletonList(
+                                new Pair<>(new IntegerIndex(i), transactionFilledWith((byte) i))));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int i = 0; i < threads * storesPerThread; i++) {
+            Persistable stored = rocksDBPersistenceProvider.get(Transaction.class, new IntegerIndex(i));
+            Assert.assertArrayEquals("stored bytes are not as expected in index " + i,
+                    transactionFilledWith((byte) i).bytes(), stored.bytes());
+        }
+    }
+
+    private static Transaction transactionFilledWith(byte value) {
+        Transaction tx = new Transaction();
+        byte[] bytes = new byte[Transaction.SIZE];
+        Arrays.fill(bytes, value);
+        tx.read(bytes);
+        tx.readMetadata(bytes);
+        return tx;
+    }
 }
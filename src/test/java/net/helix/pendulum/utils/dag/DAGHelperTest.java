@@ -104,5 +104,24 @@ public class DAGHelperTest {
         assertEquals("Last transaction should have TX1 its timestamp", tx.getAttachmentTimestamp(), TX1.attachmentTimestamp);
         assertArrayEquals("Last transaction should have TX1 its bytes", tx.getBytes(), TX1.bytes());
     }
-    
+
+    @Test
+    public void traverseApproveesOnceTest() throws Exception {
+        TangleMockUtils.mockTransaction(tangle, Hash.NULL_HASH, TX1);
+        TangleMockUtils.mockTransaction(tangle, A, TX2);
+        TangleMockUtils.mockTransaction(tangle, B, TransactionTestUtils
+                .createTransactionWithTrunkAndBranch(Hash.NULL_HASH, Hash.NULL_HASH));
+        TangleMockUtils.mockTransaction(tangle, C, TX3);
+
+        List<TransactionViewModel> processed = new LinkedList<>();
+        Set<Hash> set = new HashSet<>();
+
+        helper.traverseApprovees(C, transaction -> true, processed::add, set);
+
+        assertEquals("A, B and the genesis should have been traversed once", 3, processed.size());
+        assertEquals("B should have been traversed first since it is the branch", B, processed.get(0).getHash());
+        assertEquals("A should have been traversed second since it is the trunk", A, processed.get(1).getHash());
+        assertEquals("The genesis should have been traversed last", Hash.NULL_HASH, processed.get(2).getHash());
+        assertEquals("All traversed transactions should have been marked as processed", 3, set.size());
+    }
 }